@@ -28,11 +28,24 @@ dependencies {
    api("org.fusesource.jansi:jansi:2.4.0")
 }
 
+logTools {
+   injectCallSites = true // so the tests run against rewritten calls, as projects that opt in do
+}
+
 ihmc.sourceSetProject("test").dependencies {
    api("us.ihmc:ihmc-commons-testing:0.32.0")
 }
 
+ihmc.sourceSetProject("benchmarks").dependencies {
+   api("org.openjdk.jmh:jmh-core:1.35")
+   annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.35")
+}
+
+app.entrypoint(project, "LogToolsDecoder", "us.ihmc.log.LogToolsDecoder")
+app.entrypoint(project, "MappedFileRecovery", "us.ihmc.log.MappedFileRecovery")
 app.entrypoint(ihmc.sourceSetProject("test"), "LogToolsDemo", "us.ihmc.log.LogToolsDemo")
+app.entrypoint(ihmc.sourceSetProject("benchmarks"), "LogToolsBenchmarks", "org.openjdk.jmh.Main")
+app.entrypoint(ihmc.sourceSetProject("benchmarks"), "LogToolsBenchmark", "us.ihmc.log.LogToolsBenchmark")
 
 val hostname: String by project
 val username: String by project
@@ -15,7 +15,7 @@ repositories {
 }
 
 dependencies {
-
+   implementation("org.ow2.asm:asm:9.4")
 }
 
 val pluginDisplayName = "Log Tools Plugin"
@@ -0,0 +1,117 @@
+package us.ihmc.log
+
+import org.objectweb.asm.*
+import java.io.File
+
+/**
+ * Rewrites compiled classes so each call to a static LogTools method passes its own call site,
+ * and LogTools never has to walk the stack to find it.
+ *
+ * A call like `LogTools.info("x: {}", x)` on line 42 becomes a call to
+ * `LogToolsInjected.info("x: {}", x, <call site>)`, where the call site is a dynamic constant
+ * bootstrapped with the line number. The JVM resolves it once, on the first call.
+ *
+ * Dynamic constants need Java 11 class files, so older class files are left as they are.
+ * Calls with an additionalStackTraceHeight, and calls from classes compiled without line
+ * numbers, are not rewritten either. They all use the stack walking path, as before.
+ */
+object CallSiteInjector
+{
+   private const val LOG_TOOLS = "us/ihmc/log/LogTools"
+   private const val LOG_TOOLS_INJECTED = "us/ihmc/log/LogToolsInjected"
+   private const val JAVA_11_CLASS_FILE_VERSION = 55
+
+   private val INJECTABLE_METHOD_NAMES = setOf("log", "fatal", "error", "warn", "info", "debug", "trace",
+                                               "logLimited", "fatalLimited", "errorLimited", "warnLimited", "infoLimited", "debugLimited", "traceLimited",
+                                               "getLevel", "isEnabled", "isFatalEnabled", "isErrorEnabled", "isWarnEnabled", "isInfoEnabled",
+                                               "isDebugEnabled", "isTraceEnabled")
+
+   private val CALL_SITE_BOOTSTRAP = Handle(Opcodes.H_INVOKESTATIC,
+                                            LOG_TOOLS_INJECTED,
+                                            "callSite",
+                                            "(Ljava/lang/invoke/MethodHandles\$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;",
+                                            false)
+
+   /**
+    * Rewrites every class file under a directory in place.
+    *
+    * @return the number of calls rewritten
+    */
+   fun injectDirectory(classesDirectory: File): Int
+   {
+      var injectedCalls = 0
+      classesDirectory.walk().filter { it.isFile && it.name.endsWith(".class") }.forEach { classFile ->
+         val result = inject(classFile.readBytes())
+         if (result != null)
+         {
+            classFile.writeBytes(result.bytes)
+            injectedCalls += result.injectedCalls
+         }
+      }
+      return injectedCalls
+   }
+
+   class Result(val bytes: ByteArray, val injectedCalls: Int)
+
+   /**
+    * @return the rewritten class, or null if there was nothing to rewrite
+    */
+   fun inject(classBytes: ByteArray): Result?
+   {
+      val reader = ClassReader(classBytes)
+      val majorVersion = reader.readUnsignedShort(6)
+      if (majorVersion < JAVA_11_CLASS_FILE_VERSION || reader.className == LOG_TOOLS || reader.className == LOG_TOOLS_INJECTED)
+         return null
+
+      val writer = ClassWriter(reader, 0) // frames are unchanged, the call site is pushed right before the call that pops it
+      var injectedCalls = 0
+      reader.accept(object : ClassVisitor(Opcodes.ASM9, writer)
+      {
+         override fun visitMethod(access: Int, name: String?, descriptor: String?, signature: String?, exceptions: Array<out String>?): MethodVisitor
+         {
+            return object : MethodVisitor(Opcodes.ASM9, super.visitMethod(access, name, descriptor, signature, exceptions))
+            {
+               private var lineNumber = -1
+               private var injectedInMethod = false
+
+               override fun visitLineNumber(line: Int, start: Label?)
+               {
+                  lineNumber = line
+                  super.visitLineNumber(line, start)
+               }
+
+               override fun visitMethodInsn(opcode: Int, owner: String, name: String, descriptor: String, isInterface: Boolean)
+               {
+                  if (opcode == Opcodes.INVOKESTATIC && owner == LOG_TOOLS && lineNumber >= 0 && isInjectable(name, descriptor))
+                  {
+                     super.visitLdcInsn(ConstantDynamic("callSite", "Ljava/lang/Object;", CALL_SITE_BOOTSTRAP, lineNumber))
+                     super.visitMethodInsn(opcode, LOG_TOOLS_INJECTED, name, descriptor.replace(")", "Ljava/lang/Object;)"), false)
+                     injectedInMethod = true
+                     injectedCalls++
+                  }
+                  else
+                  {
+                     super.visitMethodInsn(opcode, owner, name, descriptor, isInterface)
+                  }
+               }
+
+               override fun visitMaxs(maxStack: Int, maxLocals: Int)
+               {
+                  super.visitMaxs(if (injectedInMethod) maxStack + 1 else maxStack, maxLocals)
+               }
+            }
+         }
+      }, 0)
+
+      return if (injectedCalls == 0) null else Result(writer.toByteArray(), injectedCalls)
+   }
+
+   private fun isInjectable(name: String, descriptor: String): Boolean
+   {
+      return name in INJECTABLE_METHOD_NAMES
+             && !(name == "getLevel" && !descriptor.startsWith("()")) // getLevel(loggerName) doesn't depend on the caller
+             && !descriptor.startsWith("(I") // additionalStackTraceHeight
+             && !descriptor.startsWith("(Lorg/apache/logging/log4j/Level;I")
+             && !descriptor.substringBefore(')').contains("Lus/ihmc/log/") // package private helpers take LogTools' own types
+   }
+}
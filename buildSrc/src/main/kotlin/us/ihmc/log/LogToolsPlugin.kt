@@ -4,12 +4,21 @@ import org.gradle.api.Plugin
 import org.gradle.api.Project
 import org.gradle.api.tasks.JavaExec
 import org.gradle.api.tasks.application.CreateStartScripts
+import org.gradle.api.tasks.compile.JavaCompile
 import org.gradle.api.tasks.testing.Test
 
 class LogToolsPlugin : Plugin<Project>
 {
+   companion object
+   {
+      private const val INJECT_CALL_SITES_PROPERTY = "log.injectCallSites"
+   }
+
    val javaProperties = hashMapOf<String, String>()
    open class LogLevelExtension(val javaProperties: Map<String, String>)
+   {
+      var injectCallSites = false // rewrite LogTools calls after compiling, so they don't walk the stack at runtime
+   }
 
    override fun apply(project: Project)
    {
@@ -17,7 +26,7 @@ class LogToolsPlugin : Plugin<Project>
       {
          if (prop.key is String && prop.value is String)
          {
-            if (prop.key.startsWith("log.level") || prop.key.startsWith("log.granular"))
+            if (prop.key.startsWith("log.") && prop.key != INJECT_CALL_SITES_PROPERTY) // every LogTools option, but not the plugin's own
             {
                project.logger.info("[log-tools] Passing to all JVMs: -D${prop.key}=${prop.value}")
                javaProperties.put(prop.key, prop.value as String)
@@ -25,10 +34,22 @@ class LogToolsPlugin : Plugin<Project>
          }
       }
 
-      project.extensions.create("logTools", LogLevelExtension::class.java, javaProperties)
+      val extension = project.extensions.create("logTools", LogLevelExtension::class.java, javaProperties)
+      // opt in with logTools { injectCallSites = true } or -Plog.injectCallSites=true
+      extension.injectCallSites = project.properties[INJECT_CALL_SITES_PROPERTY]?.toString()?.trim()?.toLowerCase() == "true"
 
       for (allproject in project.allprojects)
       {
+         allproject.tasks.withType(JavaCompile::class.java).configureEach { // rewrite the classes each compile task outputs
+            val javaCompile = this
+            doLast {
+               if (extension.injectCallSites) // read when the task runs, after the build script has set it
+               {
+                  val injectedCalls = CallSiteInjector.injectDirectory(javaCompile.destinationDirectory.get().asFile)
+                  allproject.logger.info("[log-tools] Injected $injectedCalls call sites in $javaCompile")
+               }
+            }
+         }
          allproject.tasks.withType(JavaExec::class.java).forEach { javaExec -> // setup properties for all JavaExec tasks
             javaExec.systemProperties.putAll(javaProperties)
             allproject.logger.info("[log-tools] Passing JVM args ${javaExec.systemProperties} to $javaExec")
@@ -0,0 +1,92 @@
+package us.ihmc.log;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latency a logging thread sees for an enabled message, synchronous versus
+ * asynchronous mode. Output goes through the usual pattern layout to /dev/null.
+ * The position calls log a mutable object, which asynchronous mode only defers
+ * because it has a {@link LogSnapshot} method.
+ *
+ * Every call is followed by some work, like a control loop would do, so the writer
+ * thread keeps up. Subtract {@link #workOnly()} to get the cost of the log call.
+ * The writer needs a core of its own for the asynchronous numbers to mean anything.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2Benchmark.yml")
+public class AsyncLogBenchmark
+{
+   private static final long WORK_TOKENS = 5000;
+
+   private int tick = 0;
+   private double error = 0.1;
+   private final Position position = new Position();
+
+   @Benchmark
+   public void workOnly()
+   {
+      Blackhole.consumeCPU(WORK_TOKENS);
+   }
+
+   @Benchmark
+   public void synchronous()
+   {
+      LogTools.info("Tick {} error {}", tick++, error);
+      Blackhole.consumeCPU(WORK_TOKENS);
+   }
+
+   @Benchmark
+   @Fork(value = 1, jvmArgsAppend = {"-Dlog4j2.configurationFile=log4j2Benchmark.yml", "-Dlog.async=true", "-Dlog.async.overflow=block"})
+   public void asynchronous()
+   {
+      LogTools.info("Tick {} error {}", tick++, error);
+      Blackhole.consumeCPU(WORK_TOKENS);
+   }
+
+   @Benchmark
+   public void synchronousPosition()
+   {
+      position.x += 0.001;
+      LogTools.info("Position {}", position);
+      Blackhole.consumeCPU(WORK_TOKENS);
+   }
+
+   @Benchmark
+   @Fork(value = 1, jvmArgsAppend = {"-Dlog4j2.configurationFile=log4j2Benchmark.yml", "-Dlog.async=true", "-Dlog.async.overflow=block"})
+   public void asynchronousPosition()
+   {
+      position.x += 0.001;
+      LogTools.info("Position {}", position);
+      Blackhole.consumeCPU(WORK_TOKENS);
+   }
+
+   public static class Position
+   {
+      double x = 1.0;
+      double y = 2.0;
+      double z = 3.0;
+
+      @LogSnapshot
+      public Position copy()
+      {
+         Position copy = new Position();
+         copy.x = x;
+         copy.y = y;
+         copy.z = z;
+         return copy;
+      }
+
+      @Override
+      public String toString()
+      {
+         return "(" + x + ", " + y + ", " + z + ")";
+      }
+   }
+}
@@ -0,0 +1,36 @@
+package us.ihmc.log;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of writing a log file as text, like log4j2TeeToFile.yml, versus in the binary
+ * format of log4j2TeeToBinaryFile.yml. Both write to /dev/null through an 8 KB buffer, so
+ * this measures the encoding rather than the write calls. Run with -prof gc to compare the
+ * allocations too.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BinaryLogBenchmark
+{
+   private int tick = 0;
+   private double error = 0.1;
+
+   @Benchmark
+   @Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2BenchmarkTextFile.yml")
+   public void textFile()
+   {
+      LogTools.info("Tick {} error {} converged {}", tick++, error, true);
+   }
+
+   @Benchmark
+   @Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2BenchmarkBinaryFile.yml")
+   public void binaryFile()
+   {
+      LogTools.info("Tick {} error {} converged {}", tick++, error, true);
+   }
+}
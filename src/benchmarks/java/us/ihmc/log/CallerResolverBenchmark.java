@@ -0,0 +1,63 @@
+package us.ihmc.log;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of finding the caller of a log statement with Thread.getStackTrace()
+ * against {@link CallerResolver} at increasing stack depths.
+ *
+ * The recursion needed to build the stack is included in every benchmark, so subtract
+ * {@link #recursionOnly()} to get the cost of the lookup alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallerResolverBenchmark
+{
+   @Param({"20", "100", "500"})
+   public int stackDepth;
+
+   @Benchmark
+   public Object recursionOnly()
+   {
+      return recurse(stackDepth, Lookup.NONE);
+   }
+
+   @Benchmark
+   public Object threadGetStackTrace()
+   {
+      return recurse(stackDepth, Lookup.THREAD_GET_STACK_TRACE);
+   }
+
+   @Benchmark
+   public Object stackWalker()
+   {
+      return recurse(stackDepth, Lookup.STACK_WALKER);
+   }
+
+   private enum Lookup
+   {
+      NONE, THREAD_GET_STACK_TRACE, STACK_WALKER
+   }
+
+   private static Object recurse(int depth, Lookup lookup)
+   {
+      if (depth > 0)
+         return recurse(depth - 1, lookup);
+
+      switch (lookup)
+      {
+         case THREAD_GET_STACK_TRACE:
+            return Thread.currentThread().getStackTrace()[4];
+         case STACK_WALKER:
+            return CallerResolver.resolve(4);
+         default:
+            return null;
+      }
+   }
+}
@@ -0,0 +1,74 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.ConsoleAppender;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The patched ConsoleAppender with the default IHMC layout, writing to a System.out that
+ * throws everything away, so the numbers are the appender's and not the terminal's. The
+ * {@code layout} parameter compares the stock PatternLayout with the fused {@link IHMCLayout}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsoleAppenderBenchmark
+{
+   @Param({"PatternLayout", "IHMCLayout"})
+   public String layout;
+
+   private PrintStream systemOut;
+   private ConsoleAppender appender;
+   private LogEvent infoEvent;
+   private LogEvent warnEvent;
+
+   @Setup
+   public void setup()
+   {
+      systemOut = System.out;
+      System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+      Layout<?> appenderLayout;
+      if (layout.equals("IHMCLayout"))
+         appenderLayout = IHMCLayout.newBuilder().setConfiguration(new DefaultConfiguration()).build();
+      else
+         appenderLayout = PatternLayout.newBuilder()
+                                       .withConfiguration(new DefaultConfiguration())
+                                       .withPattern("%highlight{" + HighlightConverterBenchmark.IHMC_PATTERN + "}{" + HighlightConverterBenchmark.IHMC_STYLES + "}")
+                                       .build();
+      appender = ConsoleAppender.newBuilder().setName("IHMCAppender").setFollow(true).setLayout(appenderLayout).build(); // follow, to write to the System.out set above
+      appender.start();
+      infoEvent = HighlightConverterBenchmark.event(Level.INFO);
+      warnEvent = HighlightConverterBenchmark.event(Level.WARN);
+   }
+
+   @TearDown
+   public void tearDown()
+   {
+      appender.stop();
+      System.setOut(systemOut);
+   }
+
+   @Benchmark
+   public void appendInfo()
+   {
+      appender.append(infoEvent);
+   }
+
+   @Benchmark
+   public void appendWarn()
+   {
+      appender.append(warnEvent);
+   }
+}
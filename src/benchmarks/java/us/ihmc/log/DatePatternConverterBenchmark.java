@@ -0,0 +1,46 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.core.impl.MutableLogEvent;
+import org.apache.logging.log4j.core.pattern.DatePatternConverter;
+import org.apache.logging.log4j.core.pattern.LogEventPatternConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * log4j's %date against %ihmcDate for the IHMC pattern. Each call moves the event on a
+ * millisecond, so a new second comes around every thousand calls, like a busy logger.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatePatternConverterBenchmark
+{
+   @Param({"date", "ihmcDate"})
+   public String converter;
+
+   private final StringBuilder output = new StringBuilder(64);
+   private final MutableLogEvent event = new MutableLogEvent();
+   private LogEventPatternConverter patternConverter;
+   private long time;
+
+   @Setup
+   public void setup()
+   {
+      String[] options = {IHMCDatePatternConverter.PATTERN};
+      patternConverter = converter.equals("ihmcDate") ? IHMCDatePatternConverter.newInstance(options) : DatePatternConverter.newInstance(options);
+      time = System.currentTimeMillis();
+   }
+
+   @Benchmark
+   public StringBuilder format()
+   {
+      event.setTimeMillis(time++);
+      output.setLength(0);
+      patternConverter.format(event, output);
+      return output;
+   }
+}
@@ -0,0 +1,73 @@
+package us.ihmc.log;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static us.ihmc.log.PrimitiveParameters.*;
+
+/**
+ * What the logging thread does for an enabled message, without the I/O and without a writer
+ * thread competing for the core: formatting it, as in synchronous mode, against taking its
+ * snapshot and copying it into a ring buffer slot, as in asynchronous mode. For a mutable
+ * parameter, the snapshot includes calling its {@link LogSnapshot} method.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeferredFormattingBenchmark
+{
+   private static final CallSite ORIGIN = new CallSite("us.ihmc.log.DeferredFormattingBenchmark", 42);
+
+   private final StringBuilder buffer = new StringBuilder(256);
+   private final LogToolsMessage slot = new LogToolsMessage();
+   private final AsyncLogBenchmark.Position position = new AsyncLogBenchmark.Position();
+   private final Object name = "left_knee";
+   private int tick = 0;
+   private double error = 0.1;
+
+   @Benchmark
+   public StringBuilder formatPrimitives()
+   {
+      LogToolsMessage message = LogToolsMessage.of(ORIGIN, "Tick {} error {}", types(INT, DOUBLE), bits(tick++), bits(error), 0L);
+      buffer.setLength(0);
+      message.formatTo(buffer);
+      message.release();
+      return buffer;
+   }
+
+   @Benchmark
+   public LogToolsMessage deferPrimitives()
+   {
+      LogToolsMessage message = LogToolsMessage.of(ORIGIN, "Tick {} error {}", types(INT, DOUBLE), bits(tick++), bits(error), 0L);
+      message.snapshot();
+      slot.copyFrom(message);
+      message.release();
+      return slot;
+   }
+
+   @Benchmark
+   public StringBuilder formatObjects()
+   {
+      position.x += 0.001;
+      LogToolsMessage message = LogToolsMessage.of(ORIGIN, "Joint {} at {}", 2, name, position, null);
+      buffer.setLength(0);
+      message.formatTo(buffer);
+      message.release();
+      return buffer;
+   }
+
+   @Benchmark
+   public LogToolsMessage deferObjects()
+   {
+      position.x += 0.001;
+      LogToolsMessage message = LogToolsMessage.of(ORIGIN, "Joint {} at {}", 2, name, position, null);
+      message.snapshot();
+      slot.copyFrom(message);
+      message.release();
+      return slot;
+   }
+}
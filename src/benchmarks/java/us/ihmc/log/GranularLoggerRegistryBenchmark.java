@@ -0,0 +1,127 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of granular logger lookups as the number of logging threads grows.
+ *
+ * The synchronized HashMap is what the old plain HashMap would have to become to be
+ * correct, and is the baseline for the registry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GranularLoggerRegistryBenchmark
+{
+   private static final int NUMBER_OF_CLASSES = 256;
+
+   private final String[] loggerNames = new String[NUMBER_OF_CLASSES];
+   private final GranularLoggerRegistry registry = new GranularLoggerRegistry();
+   private final Map<String, Logger> synchronizedHashMap = Collections.synchronizedMap(new HashMap<>());
+
+   @State(Scope.Thread)
+   public static class ThreadIndex
+   {
+      int index = 0;
+
+      int next()
+      {
+         index = (index + 1) % NUMBER_OF_CLASSES;
+         return index;
+      }
+   }
+
+   @Setup
+   public void setup()
+   {
+      for (int i = 0; i < NUMBER_OF_CLASSES; i++)
+      {
+         loggerNames[i] = "us.ihmc.benchmark.Class" + i;
+         registry.getLogger(loggerNames[i]);
+         synchronizedHashMap.put(loggerNames[i], LogManager.getLogger(loggerNames[i]));
+      }
+   }
+
+   private Logger registryLookup(ThreadIndex threadIndex)
+   {
+      return registry.getLogger(loggerNames[threadIndex.next()]);
+   }
+
+   private Logger synchronizedHashMapLookup(ThreadIndex threadIndex)
+   {
+      String loggerName = loggerNames[threadIndex.next()];
+      Logger logger = synchronizedHashMap.get(loggerName);
+      if (logger == null)
+      {
+         logger = LogManager.getLogger(loggerName);
+         synchronizedHashMap.put(loggerName, logger);
+      }
+      return logger;
+   }
+
+   @Benchmark
+   @Threads(1)
+   public Logger registry01Threads(ThreadIndex threadIndex)
+   {
+      return registryLookup(threadIndex);
+   }
+
+   @Benchmark
+   @Threads(4)
+   public Logger registry04Threads(ThreadIndex threadIndex)
+   {
+      return registryLookup(threadIndex);
+   }
+
+   @Benchmark
+   @Threads(16)
+   public Logger registry16Threads(ThreadIndex threadIndex)
+   {
+      return registryLookup(threadIndex);
+   }
+
+   @Benchmark
+   @Threads(64)
+   public Logger registry64Threads(ThreadIndex threadIndex)
+   {
+      return registryLookup(threadIndex);
+   }
+
+   @Benchmark
+   @Threads(1)
+   public Logger synchronizedHashMap01Threads(ThreadIndex threadIndex)
+   {
+      return synchronizedHashMapLookup(threadIndex);
+   }
+
+   @Benchmark
+   @Threads(4)
+   public Logger synchronizedHashMap04Threads(ThreadIndex threadIndex)
+   {
+      return synchronizedHashMapLookup(threadIndex);
+   }
+
+   @Benchmark
+   @Threads(16)
+   public Logger synchronizedHashMap16Threads(ThreadIndex threadIndex)
+   {
+      return synchronizedHashMapLookup(threadIndex);
+   }
+
+   @Benchmark
+   @Threads(64)
+   public Logger synchronizedHashMap64Threads(ThreadIndex threadIndex)
+   {
+      return synchronizedHashMapLookup(threadIndex);
+   }
+}
@@ -0,0 +1,70 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.pattern.HighlightConverter;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The patched HighlightConverter on its own, with the default IHMC pattern, for an INFO line,
+ * which isn't colored, and a WARN line, which is. The "%msg" pattern leaves out the date and
+ * level, so most of what's left is the styling.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HighlightConverterBenchmark
+{
+   static final String IHMC_PATTERN = "%date{yyMMdd H:mm:ss:SSS} [%level] %msg%n";
+   static final String IHMC_STYLES = "INFO=normal, TRACE=green";
+
+   @Param({IHMC_PATTERN, "%msg"})
+   public String pattern;
+
+   private final StringBuilder output = new StringBuilder(256);
+   private HighlightConverter converter;
+   private LogEvent infoEvent;
+   private LogEvent warnEvent;
+
+   @Setup
+   public void setup()
+   {
+      converter = HighlightConverter.newInstance(new DefaultConfiguration(), new String[] {pattern, IHMC_STYLES});
+      infoEvent = event(Level.INFO);
+      warnEvent = event(Level.WARN);
+   }
+
+   static LogEvent event(Level level)
+   {
+      return Log4jLogEvent.newBuilder()
+                          .setLoggerName("us.ihmc")
+                          .setLevel(level)
+                          .setTimeMillis(System.currentTimeMillis())
+                          .setMessage(new SimpleMessage("(HighlightConverterBenchmark.java:42): x: 1.5 y: two"))
+                          .build();
+   }
+
+   @Benchmark
+   public StringBuilder formatInfo()
+   {
+      output.setLength(0);
+      converter.format(infoEvent, output);
+      return output;
+   }
+
+   @Benchmark
+   public StringBuilder formatWarn()
+   {
+      output.setLength(0);
+      converter.format(warnEvent, output);
+      return output;
+   }
+}
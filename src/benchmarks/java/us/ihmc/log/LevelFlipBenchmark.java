@@ -0,0 +1,73 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of a disabled trace() call, with the level check folded to a constant,
+ * versus asking log4j, and what it costs to keep flipping the level at runtime.
+ *
+ * With flip = never, {@link #disabledTrace()} should cost about as much as {@link #baseline()}.
+ * With flip = everyIteration, the level is set to DEBUG and back to INFO before each
+ * iteration, so the JIT has to recompile the callers every time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2Benchmark.yml")
+public class LevelFlipBenchmark
+{
+   private static final Logger IHMC_ROOT_LOGGER = LogManager.getLogger("us.ihmc");
+
+   @Param({"never", "everyIteration"})
+   public String flip;
+
+   private int tick = 0;
+
+   @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+   public void flipLevel()
+   {
+      if (flip.equals("everyIteration"))
+      {
+         LogTools.setLevel("us.ihmc", Level.DEBUG);
+         LogTools.setLevel("us.ihmc", Level.INFO);
+      }
+   }
+
+   @Benchmark
+   public int baseline()
+   {
+      return tick++;
+   }
+
+   @Benchmark
+   public int disabledTrace()
+   {
+      LogTools.trace("Tick {}", tick);
+      return tick++;
+   }
+
+   @Benchmark
+   public int log4jLevelCheck()
+   {
+      if (IHMC_ROOT_LOGGER.isEnabled(Level.TRACE))
+         IHMC_ROOT_LOGGER.trace("Tick {}", tick);
+      return tick++;
+   }
+}
@@ -0,0 +1,154 @@
+package us.ihmc.log;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Every kind of LogTools call, disabled and enabled, in default mode. {@link #main(String[])}
+ * runs it with the gc profiler, to see the allocation rate next to the throughput, like:
+ * <pre>
+ * LogToolsBenchmarks "LogTools(Granular|FlightRecorder)?Benchmark\." -prof gc
+ * </pre>
+ *
+ * Enabled calls go through the usual pattern layout to /dev/null, so they include formatting
+ * and writing. Parameters are created up front, so boxing is not part of the numbers.
+ * {@link LogToolsGranularBenchmark} runs the same calls in granular mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2Benchmark.yml")
+public class LogToolsBenchmark
+{
+   private final Object objectMessage = new StringBuilder("Object message");
+   private final String stringMessage = "String message";
+   private final Supplier<?> supplier = () -> "Supplied message";
+   private final Object p0 = 1.5;
+   private final Object p1 = "two";
+   private final Object p2 = Boolean.TRUE;
+   private double primitive = 0.1;
+
+   @Benchmark
+   public void disabledObject()
+   {
+      LogTools.trace(objectMessage);
+   }
+
+   @Benchmark
+   public void disabledString()
+   {
+      LogTools.trace(stringMessage);
+   }
+
+   @Benchmark
+   public void disabledSupplier()
+   {
+      LogTools.trace(supplier);
+   }
+
+   @Benchmark
+   public void disabledOneParameter()
+   {
+      LogTools.debug("x: {}", p0);
+   }
+
+   @Benchmark
+   public void disabledTwoParameters()
+   {
+      LogTools.debug("x: {} y: {}", p0, p1);
+   }
+
+   @Benchmark
+   public void disabledThreeParameters()
+   {
+      LogTools.debug("x: {} y: {} z: {}", p0, p1, p2);
+   }
+
+   @Benchmark
+   public void disabledPrimitive()
+   {
+      LogTools.debug("x: {}", primitive);
+   }
+
+   @Benchmark
+   public void disabledKeyValues()
+   {
+      LogTools.debug().kv("joint", 3).kv("torque", primitive).log(stringMessage);
+   }
+
+   @Benchmark
+   public void disabledAdditionalStackTraceHeight()
+   {
+      LogTools.trace(0, stringMessage);
+   }
+
+   @Benchmark
+   public void enabledObject()
+   {
+      LogTools.info(objectMessage);
+   }
+
+   @Benchmark
+   public void enabledString()
+   {
+      LogTools.info(stringMessage);
+   }
+
+   @Benchmark
+   public void enabledSupplier()
+   {
+      LogTools.info(supplier);
+   }
+
+   @Benchmark
+   public void enabledOneParameter()
+   {
+      LogTools.info("x: {}", p0);
+   }
+
+   @Benchmark
+   public void enabledTwoParameters()
+   {
+      LogTools.info("x: {} y: {}", p0, p1);
+   }
+
+   @Benchmark
+   public void enabledThreeParameters()
+   {
+      LogTools.info("x: {} y: {} z: {}", p0, p1, p2);
+   }
+
+   @Benchmark
+   public void enabledPrimitive()
+   {
+      LogTools.info("x: {}", primitive);
+   }
+
+   @Benchmark
+   public void enabledKeyValues()
+   {
+      LogTools.info().kv("joint", 3).kv("torque", primitive).log(stringMessage);
+   }
+
+   @Benchmark
+   public void enabledAdditionalStackTraceHeight()
+   {
+      LogTools.info(0, stringMessage);
+   }
+
+   /**
+    * Runs this, {@link LogToolsGranularBenchmark} and {@link LogToolsFlightRecorderBenchmark} with the gc profiler.
+    */
+   public static void main(String[] args) throws RunnerException
+   {
+      new Runner(new OptionsBuilder().include("LogTools(Granular|FlightRecorder)?Benchmark\\.").addProfiler(GCProfiler.class).build()).run();
+   }
+}
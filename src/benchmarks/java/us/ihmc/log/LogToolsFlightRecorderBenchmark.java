@@ -0,0 +1,12 @@
+package us.ihmc.log;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * {@link LogToolsBenchmark} with the flight recorder on, where every disabled call is
+ * recorded. Compare its disabled calls with LogToolsBenchmark's for the capture overhead.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Dlog4j2.configurationFile=log4j2Benchmark.yml", "-Dlog.recorder=true"})
+public class LogToolsFlightRecorderBenchmark extends LogToolsBenchmark
+{
+}
@@ -0,0 +1,11 @@
+package us.ihmc.log;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * {@link LogToolsBenchmark} in granular mode, where every call looks up its class' logger.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Dlog4j2.configurationFile=log4j2Benchmark.yml", "-Dlog.granular=true"})
+public class LogToolsGranularBenchmark extends LogToolsBenchmark
+{
+}
@@ -0,0 +1,49 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.core.config.yaml.YamlConfigurationFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to the first log line in a new JVM, which includes starting log4j, with log4j2.yml
+ * built in code by {@link IHMCConfigurationFactory} and parsed from YAML as before. Each
+ * fork is a new JVM that logs once, so this is a single shot with no warmup.
+ * <pre>
+ * LogToolsBenchmarks StartupBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark
+{
+   @Param({"builtIn", "yaml"})
+   public String configuration;
+
+   @Setup
+   public void selectConfiguration()
+   {
+      if (configuration.equals("yaml")) // log4j's YAML factory finds log4j2.yml on the classpath, as it did before
+         System.setProperty("log4j.configurationFactory", YamlConfigurationFactory.class.getName());
+   }
+
+   @Benchmark
+   public void firstLogLine()
+   {
+      LogTools.info("First line");
+   }
+}
@@ -24,13 +24,24 @@ import java.io.PrintStream;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.core.Appender;
 import org.apache.logging.log4j.core.Core;
 import org.apache.logging.log4j.core.Filter;
 import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.core.config.plugins.Plugin;
 import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
 import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
@@ -41,6 +52,7 @@ import org.apache.logging.log4j.core.util.CloseShieldOutputStream;
 import org.apache.logging.log4j.core.util.Throwables;
 import org.apache.logging.log4j.util.Chars;
 import org.apache.logging.log4j.util.LoaderUtil;
+import org.apache.logging.log4j.spi.StandardLevel;
 import org.apache.logging.log4j.util.PropertiesUtil;
 
 /**
@@ -52,6 +64,17 @@ import org.apache.logging.log4j.util.PropertiesUtil;
  * a String and then call getBytes which may use a configured encoding or the system default. OTOH, a Writer cannot
  * print byte streams.
  * </p>
+ * <p>
+ * With <code>coalesce</code>, events are gathered into one buffer and written to a {@link FileChannel} on the
+ * target's file descriptor, when the buffer fills, every <code>flushIntervalMillis</code>, and right away for
+ * <code>ERROR</code> and <code>FATAL</code>, instead of one locked <code>System.out</code> write per event.
+ * </p>
+ * <p>
+ * With <code>nonBlocking</code>, which implies <code>coalesce</code>, a caller never waits for a slow console. Lines
+ * are dropped instead, <code>TRACE</code> and <code>DEBUG</code> first, then <code>INFO</code>, then <code>WARN</code>,
+ * and never <code>ERROR</code> or <code>FATAL</code>. A summary line says how many were dropped, and
+ * {@link #getDroppedCount(Level)} counts them.
+ * </p>
  */
 @Plugin(name = ConsoleAppender.PLUGIN_NAME, category = Core.CATEGORY_NAME, elementType = Appender.ELEMENT_TYPE, printObject = true)
 public final class ConsoleAppender extends AbstractOutputStreamAppender<OutputStreamManager> {
@@ -61,8 +84,11 @@ public final class ConsoleAppender extends AbstractOutputStreamAppender<OutputSt
     private static ConsoleManagerFactory factory = new ConsoleManagerFactory();
     private static final Target DEFAULT_TARGET = Target.SYSTEM_OUT;
     private static final AtomicInteger COUNT = new AtomicInteger();
+    private static final int DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
 
     private final Target target;
+    private final boolean coalesce;
+    private final boolean nonBlocking;
 
     /**
      * Enumeration of console destinations.
@@ -97,8 +123,52 @@ public final class ConsoleAppender extends AbstractOutputStreamAppender<OutputSt
 
     private ConsoleAppender(final String name, final Layout<? extends Serializable> layout, final Filter filter,
             final OutputStreamManager manager, final boolean ignoreExceptions, final Target target) {
-        super(name, layout, filter, ignoreExceptions, true, manager);
+        super(name, layout, filter, ignoreExceptions, !(manager instanceof CoalescingManager), manager);   // <---- coalescing flushes on its own
         this.target = target;
+        this.coalesce = manager instanceof CoalescingManager;
+        this.nonBlocking = coalesce && ((CoalescingManager) manager).nonBlocking;
+    }
+
+    @Override
+    public void append(final LogEvent event) {
+        if (nonBlocking) {   // <---- drop by level instead of waiting for the console
+            final CoalescingManager manager = (CoalescingManager) getManager();
+            final int tier = CoalescingManager.dropTier(event.getLevel());
+            synchronized (manager) {
+                if (!manager.startEvent(tier)) {
+                    return;
+                }
+                try {
+                    super.append(event);
+                } finally {
+                    manager.endEvent();
+                }
+            }
+            if (tier == CoalescingManager.NEVER_DROPPED) {
+                manager.flush();
+            }
+            return;
+        }
+        super.append(event);
+        if (coalesce && event.getLevel().isMoreSpecificThan(Level.ERROR)) {   // <---- errors are out before the caller carries on
+            ((CoalescingManager) getManager()).flushAndWait();
+        }
+    }
+
+    /**
+     * @return how many events of this level's kind were dropped in non-blocking mode by any appender on this target:
+     *         TRACE and DEBUG are counted together, and ERROR and FATAL are never dropped
+     */
+    public long getDroppedCount(final Level level) {
+        final int tier = CoalescingManager.dropTier(level);
+        return nonBlocking && tier != CoalescingManager.NEVER_DROPPED ? ((CoalescingManager) getManager()).getDropped(tier) : 0;
+    }
+
+    /**
+     * @return how many events were dropped in non-blocking mode by any appender on this target
+     */
+    public long getDroppedCount() {
+        return getDroppedCount(Level.DEBUG) + getDroppedCount(Level.INFO) + getDroppedCount(Level.WARN);
     }
 
     /**
@@ -131,7 +201,7 @@ public final class ConsoleAppender extends AbstractOutputStreamAppender<OutputSt
         final boolean isFollow = Boolean.parseBoolean(follow);
         final boolean ignoreExceptions = Booleans.parseBoolean(ignore, true);
         final Target target = targetStr == null ? DEFAULT_TARGET : Target.valueOf(targetStr);
-        return new ConsoleAppender(name, layout, filter, getManager(target, isFollow, false, layout), ignoreExceptions, target);
+        return new ConsoleAppender(name, layout, filter, getManager(target, isFollow, false, false, false, 0, 0, layout, null), ignoreExceptions, target);
     }
 
     /**
@@ -172,7 +242,7 @@ public final class ConsoleAppender extends AbstractOutputStreamAppender<OutputSt
             LOGGER.error("Cannot use both follow and direct on ConsoleAppender");
             return null;
         }
-        return new ConsoleAppender(name, layout, filter, getManager(target, follow, direct, layout), ignoreExceptions, target);
+        return new ConsoleAppender(name, layout, filter, getManager(target, follow, direct, false, false, 0, 0, layout, null), ignoreExceptions, target);
     }
 
     public static ConsoleAppender createDefaultAppenderForLayout(final Layout<? extends Serializable> layout) {
@@ -203,6 +273,15 @@ public final class ConsoleAppender extends AbstractOutputStreamAppender<OutputSt
         @PluginBuilderAttribute
         private boolean direct;
 
+        @PluginBuilderAttribute
+        private boolean coalesce;
+
+        @PluginBuilderAttribute
+        private boolean nonBlocking;
+
+        @PluginBuilderAttribute
+        private int flushIntervalMillis = DEFAULT_FLUSH_INTERVAL_MILLIS;
+
         public B setTarget(final Target aTarget) {
             this.target = aTarget;
             return asBuilder();
@@ -218,13 +297,37 @@ public final class ConsoleAppender extends AbstractOutputStreamAppender<OutputSt
             return asBuilder();
         }
 
+        public B setCoalesce(final boolean shouldCoalesce) {
+            this.coalesce = shouldCoalesce;
+            return asBuilder();
+        }
+
+        public B setNonBlocking(final boolean shouldNotBlock) {
+            this.nonBlocking = shouldNotBlock;
+            return asBuilder();
+        }
+
+        public B setFlushIntervalMillis(final int flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+            return asBuilder();
+        }
+
         @Override
         public ConsoleAppender build() {
             if (follow && direct) {
                 throw new IllegalArgumentException("Cannot use both follow and direct on ConsoleAppender '" + getName() + "'");
             }
+            if (follow && (coalesce || nonBlocking)) {
+                throw new IllegalArgumentException("Cannot use both follow and coalesce on ConsoleAppender '" + getName() + "'");
+            }
+            if ((coalesce || nonBlocking) && flushIntervalMillis <= 0) {
+                throw new IllegalArgumentException("flushIntervalMillis must be positive on ConsoleAppender '" + getName() + "'");
+            }
             final Layout<? extends Serializable> layout = getOrCreateLayout(target.getDefaultCharset());
-            return new ConsoleAppender(getName(), layout, getFilter(), getManager(target, follow, direct, layout),
+            final LoggerContext loggerContext = getConfiguration() == null ? null : getConfiguration().getLoggerContext();
+            return new ConsoleAppender(getName(), layout, getFilter(),
+                    getManager(target, follow, direct, coalesce || nonBlocking, nonBlocking, flushIntervalMillis, getBufferSize(), layout,
+                            loggerContext),
                     isIgnoreExceptions(), target);
         }
     }
@@ -239,7 +342,13 @@ public final class ConsoleAppender extends AbstractOutputStreamAppender<OutputSt
     }
 
     private static OutputStreamManager getManager(final Target target, final boolean follow, final boolean direct,
-            final Layout<? extends Serializable> layout) {
+            final boolean coalesce, final boolean nonBlocking, final int flushIntervalMillis, final int bufferSize,
+            final Layout<? extends Serializable> layout, final LoggerContext loggerContext) {
+        if (coalesce) {   // <---- the appenders on a target share one buffer, so their lines stay in order
+            final String managerName = target.name() + (nonBlocking ? ".nonBlocking" : ".coalesce");
+            return OutputStreamManager.getManager(managerName,
+                    new FactoryData(target, nonBlocking, flushIntervalMillis, bufferSize, managerName, layout, loggerContext), factory);
+        }
         final OutputStream os = getOutputStream(follow, direct, target);
         final String managerName = target.name() + '.' + follow + '.' + direct;
         return OutputStreamManager.getManager(managerName, new FactoryData(os, managerName, layout), factory);
@@ -356,6 +465,11 @@ public final class ConsoleAppender extends AbstractOutputStreamAppender<OutputSt
         private final OutputStream os;
         private final String name;
         private final Layout<? extends Serializable> layout;
+        private final Target coalesceTarget;
+        private final boolean nonBlocking;
+        private final int flushIntervalMillis;
+        private final int bufferSize;
+        private final LoggerContext loggerContext;
 
         /**
          * Constructor.
@@ -368,6 +482,34 @@ public final class ConsoleAppender extends AbstractOutputStreamAppender<OutputSt
             this.os = os;
             this.name = type;
             this.layout = layout;
+            this.coalesceTarget = null;
+            this.nonBlocking = false;
+            this.flushIntervalMillis = 0;
+            this.bufferSize = 0;
+            this.loggerContext = null;
+        }
+
+        /**
+         * Constructor for a {@link CoalescingManager}.
+         *
+         * @param target The target, whose file descriptor is written.
+         * @param nonBlocking If true, drops events instead of waiting for the console.
+         * @param flushIntervalMillis The longest an event waits in the buffer.
+         * @param bufferSize The size of each of the two buffers.
+         * @param type The name of the target.
+         * @param layout A Serializable layout
+         * @param loggerContext The LoggerContext of the configuration, if any.
+         */
+        public FactoryData(final Target target, final boolean nonBlocking, final int flushIntervalMillis, final int bufferSize, final String type,
+                final Layout<? extends Serializable> layout, final LoggerContext loggerContext) {
+            this.os = null;
+            this.name = type;
+            this.layout = layout;
+            this.coalesceTarget = target;
+            this.nonBlocking = nonBlocking;
+            this.flushIntervalMillis = flushIntervalMillis;
+            this.bufferSize = bufferSize;
+            this.loggerContext = loggerContext;
         }
     }
 
@@ -385,10 +527,300 @@ public final class ConsoleAppender extends AbstractOutputStreamAppender<OutputSt
          */
         @Override
         public OutputStreamManager createManager(final String name, final FactoryData data) {
+            if (data.coalesceTarget != null) {
+                final FileOutputStream fileOutputStream = new FileOutputStream(
+                        data.coalesceTarget == Target.SYSTEM_OUT ? FileDescriptor.out : FileDescriptor.err);
+                return new CoalescingManager(data.loggerContext, fileOutputStream, data.name, data.layout, data.bufferSize,
+                        data.flushIntervalMillis, data.nonBlocking);
+            }
             return new OutputStreamManager(data.os, data.name, data.layout, true);
         }
     }
 
+    /**
+     * Gathers encoded events in one buffer and hands it to a writer thread when it fills, on a timer, or on
+     * {@link #flushAndWait()}. There are two buffers, which are swapped, so loggers only wait for the writer when it is
+     * a whole buffer behind. Only the writer thread writes to the channel, since interrupting a thread in a channel
+     * write closes the channel, and with it the console.
+     * <p>
+     * When non-blocking, events are dropped instead of waiting for the writer. While it is busy, TRACE and DEBUG are
+     * dropped once the buffer is half full, INFO once it is three quarters full, and WARN when it doesn't fit. ERROR and
+     * FATAL are never dropped, and wait if they don't fit. A summary of what was dropped goes out with the next batch.
+     * </p>
+     */
+    private static class CoalescingManager extends OutputStreamManager {
+        private static final ScheduledExecutorService FLUSH_TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "LogToolsConsoleFlush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        static final int NEVER_DROPPED = -1;
+        static final int DEBUG_TIER = 0;
+        static final int INFO_TIER = 1;
+        static final int WARN_TIER = 2;
+        private static final byte[] SUMMARY_START = "[WARN] Console output fell behind, dropped ".getBytes(StandardCharsets.US_ASCII);
+        private static final byte[][] SUMMARY_TIERS = {" TRACE/DEBUG, ".getBytes(StandardCharsets.US_ASCII),
+                " INFO and ".getBytes(StandardCharsets.US_ASCII), (" WARN lines" + System.lineSeparator()).getBytes(StandardCharsets.US_ASCII)};
+        private static final int SUMMARY_MAX_LENGTH = 128;
+
+        private final FileChannel channel;
+        private final boolean nonBlocking;
+        private final Object handoff = new Object();
+        private final ScheduledFuture<?> flushTask;
+        private final ByteBuffer discard = ByteBuffer.allocateDirect(256);
+        private final AtomicLongArray dropped = new AtomicLongArray(3);
+        private final long[] unreported = new long[3];
+        private ByteBuffer spare;
+        private volatile ByteBuffer writing;
+        private boolean running = true;
+        private int eventTier = NEVER_DROPPED;
+        private int eventStart;
+        private boolean eventDiscarded;
+
+        CoalescingManager(final LoggerContext loggerContext, final FileOutputStream fileOutputStream, final String name,
+                final Layout<? extends Serializable> layout, final int bufferSize, final int flushIntervalMillis, final boolean nonBlocking) {
+            super(loggerContext, new CloseShieldOutputStream(fileOutputStream), name, false, layout, true, ByteBuffer.allocateDirect(bufferSize));
+            this.channel = fileOutputStream.getChannel();
+            this.nonBlocking = nonBlocking;
+            this.spare = ByteBuffer.allocateDirect(bufferSize);
+
+            final Thread writer = new Thread(this::writeBatches, "LogToolsConsoleWriter");
+            writer.setDaemon(true);
+            writer.start();
+            flushTask = FLUSH_TIMER.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        static int dropTier(final Level level) {
+            final int intLevel = level.intLevel();
+            if (intLevel <= StandardLevel.ERROR.intLevel()) {
+                return NEVER_DROPPED;
+            }
+            if (intLevel <= StandardLevel.WARN.intLevel()) {
+                return WARN_TIER;
+            }
+            return intLevel <= StandardLevel.INFO.intLevel() ? INFO_TIER : DEBUG_TIER;
+        }
+
+        /**
+         * Holding this manager's lock, counts the event as dropped if the writer is busy and the buffer is too full for
+         * its tier, or else marks the start of an event that may be dropped while it is encoded.
+         *
+         * @return false if the event was dropped
+         */
+        boolean startEvent(final int tier) {
+            final int position = byteBuffer.position();
+            final int capacity = byteBuffer.capacity();
+            if (writing != null && ((tier == DEBUG_TIER && position >= capacity / 2) || (tier == INFO_TIER && position >= capacity / 4 * 3))) {
+                countDrop(tier);
+                return false;
+            }
+            eventTier = tier;
+            eventStart = position;
+            eventDiscarded = false;
+            return true;
+        }
+
+        /**
+         * Holding this manager's lock, cuts the event off the buffer if it didn't fit.
+         */
+        void endEvent() {
+            if (eventDiscarded) {
+                byteBuffer.position(eventStart);
+                countDrop(eventTier);
+            }
+            eventTier = NEVER_DROPPED;
+        }
+
+        long getDropped(final int tier) {
+            return dropped.get(tier);
+        }
+
+        private void countDrop(final int tier) {
+            dropped.incrementAndGet(tier);
+            unreported[tier]++;
+        }
+
+        /**
+         * Hands the buffer to the writer and returns once the writer has written it.
+         */
+        public void flushAndWait() {
+            synchronized (this) {
+                handOff(true);
+            }
+            synchronized (handoff) {
+                awaitWritten();
+            }
+        }
+
+        @Override
+        protected synchronized void flushBuffer(final ByteBuffer buf) {
+            handOff(!nonBlocking);
+        }
+
+        @Override
+        public synchronized ByteBuffer drain(final ByteBuffer buf) {
+            if (buf == discard || (eventTier != NEVER_DROPPED && writing != null)) {
+                eventDiscarded = true;
+                discard.clear();
+                return discard;
+            }
+            if (eventTier != NEVER_DROPPED && eventStart == 0) {
+                eventTier = NEVER_DROPPED; // longer than the whole buffer, part of it is going out
+            }
+            handOff(true);
+            return byteBuffer;
+        }
+
+        @Override
+        protected synchronized void write(final byte[] bytes, final int offset, final int length, final boolean immediateFlush) {
+            ByteBuffer buf = byteBuffer;
+            for (int written = 0; written < length;) {
+                if (!buf.hasRemaining()) {
+                    buf = drain(buf);
+                }
+                final int chunk = Math.min(length - written, buf.remaining());
+                buf.put(bytes, offset + written, chunk);
+                written += chunk;
+            }
+            if (immediateFlush) {
+                flush();
+            }
+        }
+
+        @Override
+        public boolean releaseSub(final long timeout, final TimeUnit timeUnit) {
+            flushTask.cancel(false);
+            flushAndWait();
+            final boolean closed = super.releaseSub(timeout, timeUnit);
+            flushAndWait();
+            synchronized (handoff) {
+                running = false;
+                handoff.notifyAll();
+            }
+            return closed;
+        }
+
+        /**
+         * Holding this manager's lock, swaps the buffer for the spare and gives it to the writer. An event being encoded
+         * that may still be dropped moves to the start of the new buffer, so every batch ends with a whole line.
+         *
+         * @param wait whether to wait for the writer if it is busy, or else keep the buffer
+         */
+        private void handOff(final boolean wait) {
+            final ByteBuffer buf = byteBuffer;
+            final int end = eventTier == NEVER_DROPPED ? buf.position() : eventStart;
+            if (end == 0 && !hasUnreportedDrops()) {
+                return;
+            }
+            synchronized (handoff) {
+                if (writing != null) {
+                    if (!wait) {
+                        return;
+                    }
+                    awaitWritten();
+                }
+                final ByteBuffer next = spare;
+                spare = null;
+                next.clear();
+                final int eventLength = buf.position() - end;
+                if (hasUnreportedDrops()) {
+                    if (eventLength == 0 && buf.remaining() >= SUMMARY_MAX_LENGTH) {
+                        putSummary(buf);
+                    } else if (next.remaining() - eventLength >= SUMMARY_MAX_LENGTH) {
+                        putSummary(next);
+                    }
+                }
+                final int batchEnd = eventLength == 0 ? buf.position() : end;
+                eventStart = next.position();
+                buf.limit(buf.position());
+                buf.position(batchEnd);
+                next.put(buf); // the event being encoded, if any
+                buf.position(0);
+                buf.limit(batchEnd);
+                byteBuffer = next;
+                if (buf.hasRemaining()) {
+                    writing = buf;
+                    handoff.notifyAll();
+                } else {
+                    buf.clear();
+                    spare = buf;
+                }
+            }
+        }
+
+        private boolean hasUnreportedDrops() {
+            return unreported[DEBUG_TIER] + unreported[INFO_TIER] + unreported[WARN_TIER] > 0;
+        }
+
+        private void putSummary(final ByteBuffer buf) {
+            buf.put(SUMMARY_START);
+            for (int tier = DEBUG_TIER; tier <= WARN_TIER; tier++) {
+                putDecimal(buf, unreported[tier]);
+                buf.put(SUMMARY_TIERS[tier]);
+                unreported[tier] = 0;
+            }
+        }
+
+        private static void putDecimal(final ByteBuffer buf, final long value) {
+            long divisor = 1;
+            while (value / divisor >= 10) {
+                divisor *= 10;
+            }
+            for (; divisor > 0; divisor /= 10) {
+                buf.put((byte) ('0' + value / divisor % 10));
+            }
+        }
+
+        /**
+         * Waits, holding the handoff lock, until the writer has nothing left to write.
+         */
+        private void awaitWritten() {
+            boolean interrupted = false;
+            while (writing != null) {
+                try {
+                    handoff.wait();
+                } catch (final InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void writeBatches() {
+            while (true) {
+                final ByteBuffer batch;
+                synchronized (handoff) {
+                    while (writing == null && running) {
+                        try {
+                            handoff.wait();
+                        } catch (final InterruptedException ex) {
+                            // keep writing until released
+                        }
+                    }
+                    if (writing == null) {
+                        return;
+                    }
+                    batch = writing;
+                }
+                try {
+                    while (batch.hasRemaining()) {
+                        channel.write(batch);
+                    }
+                } catch (final IOException ex) {
+                    LOGGER.error("Unable to write to console " + getName(), ex);
+                }
+                synchronized (handoff) {
+                    batch.clear();
+                    spare = batch;
+                    writing = null;
+                    handoff.notifyAll();
+                }
+            }
+        }
+    }
+
     public Target getTarget() {
         return target;
     }
@@ -24,6 +24,7 @@ import org.apache.logging.log4j.core.layout.PatternLayout;
 import org.apache.logging.log4j.util.PerformanceSensitive;
 import org.apache.logging.log4j.util.Strings;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -195,14 +196,31 @@ public final class HighlightConverter extends LogEventPatternConverter implement
         return new HighlightConverter(formatters, createLevelStyleMap(options), hideAnsi);
     }
 
+    /**
+     * One slot per standard level, indexed by {@code intLevel() / 100}, from OFF to TRACE.
+     */
+    private static final int STANDARD_LEVEL_SLOTS = Level.TRACE.intLevel() / 100 + 1;
+
     private final Map<Level, String> levelStyles;
 
+    /**
+     * The prefix for each standard level, or null for none. INFO has none.       <----------------  Array instead of a map lookup per event
+     */
+    private final String[] standardLevelPrefixes = new String[STANDARD_LEVEL_SLOTS];
+
+    /**
+     * The same prefixes as ASCII, for layouts that write bytes themselves.
+     */
+    private final byte[][] standardLevelPrefixBytes = new byte[STANDARD_LEVEL_SLOTS][];
+
     private final List<PatternFormatter> patternFormatters;
 
     private final boolean noAnsi;
 
     private final String defaultStyle;
 
+    private final byte[] defaultStyleBytes;
+
     /**
      * Construct the converter.
      *
@@ -216,7 +234,60 @@ public final class HighlightConverter extends LogEventPatternConverter implement
         this.patternFormatters = patternFormatters;
         this.levelStyles = levelStyles;
         this.defaultStyle = AnsiEscape.getDefaultStyle();
+        this.defaultStyleBytes = defaultStyle.getBytes(StandardCharsets.US_ASCII);
         this.noAnsi = noAnsi;
+        for (final Level level : Level.values()) {
+            final int slot = standardLevelSlot(level);
+            if (slot >= 0 && !noAnsi && level != Level.INFO) {
+                standardLevelPrefixes[slot] = String.valueOf(levelStyles.get(level)); // String.valueOf, as StringBuilder.append(Object) did
+                standardLevelPrefixBytes[slot] = standardLevelPrefixes[slot].getBytes(StandardCharsets.US_ASCII);
+            }
+        }
+    }
+
+    /**
+     * @return the array slot of a standard level, or -1 for ALL and custom levels
+     */
+    private static int standardLevelSlot(final Level level) {
+        final int intLevel = level.intLevel();
+        return intLevel % 100 == 0 && intLevel >= 0 && intLevel < STANDARD_LEVEL_SLOTS * 100 ? intLevel / 100 : -1;
+    }
+
+    /**
+     * @return the escape sequence written before an event at the level, or null for none
+     */
+    String getLevelPrefix(final Level level) {
+        if (noAnsi || level == Level.INFO) {
+            return null;
+        }
+        final int slot = standardLevelSlot(level);
+        return slot >= 0 ? standardLevelPrefixes[slot] : String.valueOf(levelStyles.get(level));
+    }
+
+    /**
+     * @return {@link #getLevelPrefix(Level)} as ASCII bytes, for layouts that encode events themselves
+     */
+    public byte[] getLevelPrefixBytes(final Level level) {
+        final int slot = standardLevelSlot(level);
+        if (slot >= 0) {
+            return standardLevelPrefixBytes[slot];
+        }
+        final String prefix = getLevelPrefix(level);
+        return prefix == null ? null : prefix.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return the escape sequence written after every event, as ASCII bytes, or null without ANSI
+     */
+    public byte[] getSuffixBytes() {
+        return noAnsi ? null : defaultStyleBytes;
+    }
+
+    /**
+     * @return the formatters of the pattern inside %highlight{...}
+     */
+    public List<PatternFormatter> getPatternFormatters() {
+        return patternFormatters;
     }
 
     /**
@@ -224,12 +295,11 @@ public final class HighlightConverter extends LogEventPatternConverter implement
      */
     @Override
     public void format(final LogEvent event, final StringBuilder toAppendTo) {
-        int start = 0;
-        int end = 0;
-        if (!noAnsi && event.getLevel() != Level.INFO) { // use ANSI: set prefix    <----------------  Don't color INFO
-            start = toAppendTo.length();
-            toAppendTo.append(levelStyles.get(event.getLevel()));
-            end = toAppendTo.length();
+        final Level level = event.getLevel();
+        final int slot = standardLevelSlot(level);
+        final String prefix = slot >= 0 ? standardLevelPrefixes[slot] : getLevelPrefix(level); // null for INFO <----------------  Don't color INFO
+        if (prefix != null) { // use ANSI: set prefix
+            toAppendTo.append(prefix);
         }
 
         //noinspection ForLoopReplaceableByForEach
@@ -237,8 +307,6 @@ public final class HighlightConverter extends LogEventPatternConverter implement
             patternFormatters.get(i).format(event, toAppendTo);
         }
 
-        // if we use ANSI we need to add the postfix or erase the unnecessary prefix
-        final boolean empty = toAppendTo.length() == end;
         if (!noAnsi) {
             toAppendTo.append(defaultStyle); // add postfix                           <-----------------   Always add postfix
         }
@@ -0,0 +1,317 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.util.Clock;
+import org.apache.logging.log4j.core.util.ClockFactory;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ReusableMessage;
+import org.apache.logging.log4j.message.TimestampMessage;
+import org.apache.logging.log4j.status.StatusLogger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous mode, enabled with -Dlog.async=true, moves formatting and I/O off
+ * the threads that log.
+ *
+ * An enabled log call copies its level, logger, call site, template, parameters and
+ * timestamp into a preallocated slot of a {@link LogRingBuffer}, and returns. A single
+ * writer thread formats the messages and hands them to log4j in order.
+ *
+ * The logging thread only copies references and raw values, so a message is only formatted
+ * later if it will print the same then. Strings, primitives, boxed primitives, enums and
+ * throwables are trusted to. Any other object is replaced by the result of its {@link LogSnapshot}
+ * method, if its class has one. A message with any other object, whose toString() might
+ * change before the writer gets to it, is formatted on the logging thread, which allocates,
+ * and the text is queued, so each thread's messages are still written in order.
+ *
+ * Options:
+ * -Dlog.async.capacity=4096: The number of slots, rounded up to a power of two.
+ * -Dlog.async.overflow=drop: What to do when all slots are full.
+ *    drop: The message is dropped and counted, so logging never waits. The writer logs how
+ *          many messages were dropped once it catches up. Default.
+ *    block: The logging thread waits for a free slot. Not realtime safe.
+ */
+final class AsyncLogWriter
+{
+   static final int DEFAULT_CAPACITY = 4096;
+
+   enum OverflowPolicy
+   {
+      DROP, BLOCK
+   }
+
+   /** How long the writer sleeps when there is nothing to write. */
+   private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+   private static final long SHUTDOWN_TIMEOUT_MILLIS = 1000;
+
+   private final LogRingBuffer<Slot> ringBuffer;
+   private final OverflowPolicy overflowPolicy;
+   private final Clock clock = ClockFactory.getClock();
+   private final LongAdder droppedCount = new LongAdder();
+   private final Thread writerThread;
+   private volatile boolean running = true;
+
+   /** Only used by the writer thread. */
+   private long reportedDroppedCount = 0;
+
+   /**
+    * @return the writer configured by system properties, started, or null if asynchronous mode is disabled
+    */
+   static AsyncLogWriter fromSystemProperties()
+   {
+      String async = System.getProperty("log.async");
+      if (async == null || !async.trim().toLowerCase().contains("true"))
+         return null;
+
+      int capacity = DEFAULT_CAPACITY;
+      String capacityProperty = System.getProperty("log.async.capacity");
+      if (capacityProperty != null)
+         capacity = Integer.parseInt(capacityProperty.trim());
+
+      OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+      String overflowProperty = System.getProperty("log.async.overflow");
+      if (overflowProperty != null && overflowProperty.trim().toLowerCase().startsWith("block"))
+         overflowPolicy = OverflowPolicy.BLOCK;
+
+      AsyncLogWriter writer = new AsyncLogWriter(capacity, overflowPolicy);
+      writer.start();
+      return writer;
+   }
+
+   AsyncLogWriter(int capacity, OverflowPolicy overflowPolicy)
+   {
+      ringBuffer = new LogRingBuffer<>(capacity, Slot::new);
+      this.overflowPolicy = overflowPolicy;
+
+      writerThread = new Thread(this::run, "LogToolsAsyncWriter");
+      writerThread.setDaemon(true);
+   }
+
+   void start()
+   {
+      writerThread.start();
+      if (!LogToolsShutdownCallbackRegistry.runBeforeLog4jStops(this::stop)) // so the appenders are still there to write to
+         Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "LogToolsAsyncWriterShutdown"));
+   }
+
+   /**
+    * Copies a message to be logged by the writer thread.
+    *
+    * @return false if the message must be logged synchronously instead
+    */
+   boolean offer(Logger logger, Level level, LogToolsMessage message)
+   {
+      if (!running || Thread.currentThread() == writerThread)
+         return false;
+      if (!message.snapshot())
+         message.formatNow(); // before claiming a slot, in case a toString() logs
+
+      long position = ringBuffer.claim();
+      while (position < 0)
+      {
+         if (overflowPolicy == OverflowPolicy.DROP)
+         {
+            droppedCount.increment();
+            return true;
+         }
+
+         Thread.yield();
+         position = ringBuffer.claim();
+      }
+
+      Slot slot = ringBuffer.get(position);
+      slot.logger = logger;
+      slot.level = level;
+      slot.timestamp = clock.currentTimeMillis();
+      slot.message.copyFrom(message);
+      ringBuffer.publish(position);
+
+      if (!running) // stop() was called since the check above, so the writer might have exited without this message
+         writeAfterStop();
+      return true;
+   }
+
+   private void run()
+   {
+      while (true)
+      {
+         Slot slot = ringBuffer.peek();
+         if (slot != null)
+         {
+            write(slot);
+         }
+         else if (running)
+         {
+            reportDroppedMessages();
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+         }
+         else // stopped and drained
+         {
+            reportDroppedMessages();
+            return;
+         }
+      }
+   }
+
+   private void write(Slot slot)
+   {
+      try
+      {
+         MessageInFlight.log(slot.logger, slot.level, slot, slot.message);
+      }
+      catch (RuntimeException e) // keep the writer alive, or the buffer fills up and every message is dropped
+      {
+         StatusLogger.getLogger().error("Failed to write an asynchronous log message", e);
+      }
+      finally
+      {
+         slot.logger = null;
+         slot.message.clear();
+         ringBuffer.release();
+      }
+   }
+
+   private void reportDroppedMessages()
+   {
+      long dropped = droppedCount.sum();
+      if (dropped > reportedDroppedCount)
+      {
+         LogTools.warn("Asynchronous log buffer was full, dropped {} messages", dropped - reportedDroppedCount); // logged synchronously on this thread
+         reportedDroppedCount = dropped;
+      }
+   }
+
+   /**
+    * Waits until every message offered before this call has been written.
+    */
+   void flush()
+   {
+      long claimed = ringBuffer.getClaimedCount();
+      while (ringBuffer.getConsumedCount() < claimed && writerThread.isAlive())
+      {
+         LockSupport.parkNanos(IDLE_PARK_NANOS);
+      }
+   }
+
+   /**
+    * Writes what is left in the buffer and stops the writer. Later messages are logged synchronously.
+    */
+   void stop()
+   {
+      running = false;
+      writeAfterStop();
+   }
+
+   /**
+    * Waits for the writer to exit, then writes the messages published after it last looked, on
+    * this thread. Only one thread at a time takes the writer's place.
+    */
+   private synchronized void writeAfterStop()
+   {
+      try
+      {
+         writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+
+      if (writerThread.isAlive() || writerThread.getState() == Thread.State.NEW) // still writing, or never started
+         return;
+      for (Slot slot = ringBuffer.peek(); slot != null; slot = ringBuffer.peek())
+      {
+         write(slot);
+      }
+   }
+
+   /**
+    * @return how many messages were dropped because the buffer was full
+    */
+   long getDroppedCount()
+   {
+      return droppedCount.sum();
+   }
+
+   int getCapacity()
+   {
+      return ringBuffer.getCapacity();
+   }
+
+   /**
+    * A preallocated message in the ring buffer. It gives log4j the time the message was
+    * logged at instead of the time the writer got to it.
+    */
+   private static final class Slot implements ReusableMessage, TimestampMessage
+   {
+      private static final long serialVersionUID = 1L;
+
+      private final LogToolsMessage message = new LogToolsMessage();
+      private Logger logger;
+      private Level level;
+      private long timestamp;
+
+      @Override
+      public long getTimestamp()
+      {
+         return timestamp;
+      }
+
+      @Override
+      public void formatTo(StringBuilder buffer)
+      {
+         message.formatTo(buffer);
+      }
+
+      @Override
+      public String getFormattedMessage()
+      {
+         return message.getFormattedMessage();
+      }
+
+      @Override
+      public String getFormat()
+      {
+         return message.getFormat();
+      }
+
+      @Override
+      public Object[] getParameters()
+      {
+         return message.getParameters();
+      }
+
+      @Override
+      public Throwable getThrowable()
+      {
+         return message.getThrowable();
+      }
+
+      @Override
+      public Object[] swapParameters(Object[] emptyReplacement)
+      {
+         return message.swapParameters(emptyReplacement);
+      }
+
+      @Override
+      public short getParameterCount()
+      {
+         return message.getParameterCount();
+      }
+
+      @Override
+      public Message memento()
+      {
+         return message.memento();
+      }
+
+      private Object writeReplace()
+      {
+         return memento();
+      }
+   }
+}
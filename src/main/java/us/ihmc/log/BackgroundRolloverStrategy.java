@@ -0,0 +1,135 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.core.Core;
+import org.apache.logging.log4j.core.appender.rolling.DefaultRolloverStrategy;
+import org.apache.logging.log4j.core.appender.rolling.RollingFileManager;
+import org.apache.logging.log4j.core.appender.rolling.RolloverDescription;
+import org.apache.logging.log4j.core.appender.rolling.RolloverDescriptionImpl;
+import org.apache.logging.log4j.core.appender.rolling.RolloverStrategy;
+import org.apache.logging.log4j.core.appender.rolling.action.AbstractAction;
+import org.apache.logging.log4j.core.appender.rolling.action.Action;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * log4j's DefaultRolloverStrategy, except the compression and other actions after a rollover
+ * run on a low priority thread of LogTools' own.
+ *
+ * log4j runs them on a thread per file, but the next rollover waits for them to finish, on
+ * whichever thread is logging at the time. Here the next rollover never waits, and compressing
+ * a large file doesn't compete with the rest of the program for the CPU. The actions of all
+ * files run one at a time, in the order of the rollovers.
+ *
+ * It takes the same attributes and actions as DefaultRolloverStrategy:
+ * <pre>
+ * BackgroundRolloverStrategy:
+ *   fileIndex: nomax
+ *   compressionLevel: 1
+ *   Delete: ...
+ * </pre>
+ *
+ * The YAML configuration has to list the "us.ihmc.log" package under "packages" for log4j to find it.
+ */
+@Plugin(name = "BackgroundRolloverStrategy", category = Core.CATEGORY_NAME, printObject = true)
+public final class BackgroundRolloverStrategy implements RolloverStrategy
+{
+   /** Daemon, like log4j's, so it doesn't keep the JVM alive. A file left uncompressed at exit is still counted by a Delete action on "*.txt*". */
+   private static final ExecutorService EXECUTOR = createExecutor();
+
+   private final DefaultRolloverStrategy strategy;
+
+   private BackgroundRolloverStrategy(DefaultRolloverStrategy strategy)
+   {
+      this.strategy = strategy;
+   }
+
+   @PluginFactory
+   public static BackgroundRolloverStrategy createStrategy(@PluginAttribute("max") String max,
+                                                           @PluginAttribute("min") String min,
+                                                           @PluginAttribute("fileIndex") String fileIndex,
+                                                           @PluginAttribute("compressionLevel") String compressionLevel,
+                                                           @PluginElement("Actions") Action[] customActions,
+                                                           @PluginAttribute(value = "stopCustomActionsOnError", defaultBoolean = true) boolean stopCustomActionsOnError,
+                                                           @PluginConfiguration Configuration configuration)
+   {
+      return new BackgroundRolloverStrategy(DefaultRolloverStrategy.newBuilder()
+                                                                   .withMax(max)
+                                                                   .withMin(min)
+                                                                   .withFileIndex(fileIndex)
+                                                                   .withCompressionLevelStr(compressionLevel)
+                                                                   .withCustomActions(customActions)
+                                                                   .withStopCustomActionsOnError(stopCustomActionsOnError)
+                                                                   .withConfig(configuration)
+                                                                   .build());
+   }
+
+   private static ExecutorService createExecutor()
+   {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable ->
+      {
+         Thread thread = new Thread(runnable, "LogToolsRollover");
+         thread.setDaemon(true);
+         thread.setPriority(Thread.MIN_PRIORITY);
+         return thread;
+      });
+      executor.allowCoreThreadTimeOut(true); // rollovers are far apart
+      return executor;
+   }
+
+   /**
+    * Renames the file on the calling thread, as log4j does, and queues the rest.
+    */
+   @Override
+   public RolloverDescription rollover(RollingFileManager manager)
+   {
+      RolloverDescription description = strategy.rollover(manager);
+      if (description == null || description.getAsynchronous() == null)
+         return description;
+
+      return new RolloverDescriptionImpl(description.getActiveFileName(),
+                                         description.getAppend(),
+                                         description.getSynchronous(),
+                                         new BackgroundAction(description.getAsynchronous()));
+   }
+
+   @Override
+   public String toString()
+   {
+      return "BackgroundRolloverStrategy(" + strategy + ")";
+   }
+
+   /**
+    * Queues the actions and returns, so log4j considers the rollover done.
+    */
+   private static final class BackgroundAction extends AbstractAction
+   {
+      private final Action action;
+
+      BackgroundAction(Action action)
+      {
+         this.action = action;
+      }
+
+      @Override
+      public boolean execute()
+      {
+         EXECUTOR.execute(action); // Action.run() reports its own failures
+         return true;
+      }
+
+      @Override
+      public String toString()
+      {
+         return "BackgroundAction(" + action + ")";
+      }
+   }
+}
@@ -0,0 +1,178 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Core;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.appender.AppenderLoggingException;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.config.plugins.validation.constraints.Required;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes log events to a file in the compact {@link BinaryLogFormat}. LogTools calls are written
+ * as their call site, template and raw parameters, so nothing is formatted for the file. Other
+ * events are written as their formatted message. {@link LogToolsDecoder} prints a file as the
+ * console would have.
+ *
+ * <pre>
+ * BinaryLog:
+ *   name: IHMCBinaryAppender
+ *   fileName: "${sys:user.home}/.ihmc/logs/LogTools.ihmclog"
+ *   immediateFlush: true # write each event to the file right away, as the File appender does
+ *   bufferSize: 8192     # otherwise, write whenever this many bytes are encoded, and on errors
+ * </pre>
+ *
+ * The YAML configuration has to list the "us.ihmc.log" package under "packages" for log4j to find it.
+ */
+@Plugin(name = "BinaryLog", category = Core.CATEGORY_NAME, elementType = Appender.ELEMENT_TYPE, printObject = true)
+public final class BinaryLogAppender extends AbstractAppender
+{
+   private final String fileName;
+   private final OutputStream outputStream;
+   private final BinaryLogEncoder encoder;
+   private final boolean immediateFlush;
+   private final int bufferSize;
+
+   private BinaryLogAppender(Builder builder, OutputStream outputStream)
+   {
+      super(builder.getName(), builder.getFilter(), null, builder.isIgnoreExceptions(), builder.getPropertyArray());
+      this.outputStream = outputStream;
+      fileName = builder.fileName;
+      immediateFlush = builder.immediateFlush;
+      bufferSize = builder.bufferSize;
+      encoder = new BinaryLogEncoder(bufferSize);
+      encoder.encodeSession(System.currentTimeMillis());
+   }
+
+   @Override
+   public void append(LogEvent event)
+   {
+      LogToolsMessage message = MessageInFlight.get(); // its raw parameters are written instead of the formatted text
+      synchronized (encoder)
+      {
+         if (message != null && message.getKeyValues() == null) // the format has no place for key/value fields, so those are written as text
+            encoder.encode(event, message);
+         else
+            encoder.encodeText(event);
+
+         if (immediateFlush || event.isEndOfBatch() || encoder.size() >= bufferSize || event.getLevel().isMoreSpecificThan(Level.ERROR))
+         {
+            try
+            {
+               encoder.writeTo(outputStream);
+            }
+            catch (IOException e)
+            {
+               throw new AppenderLoggingException("Error writing to " + fileName, e);
+            }
+         }
+      }
+   }
+
+   @Override
+   public void start()
+   {
+      super.start();
+      MessageInFlight.addReader();
+   }
+
+   @Override
+   public boolean stop(long timeout, TimeUnit timeUnit)
+   {
+      setStopping();
+      MessageInFlight.removeReader();
+      synchronized (encoder)
+      {
+         try
+         {
+            encoder.writeTo(outputStream);
+            outputStream.close();
+         }
+         catch (IOException e)
+         {
+            error("Error closing " + fileName, e);
+         }
+      }
+      setStopped();
+      return true;
+   }
+
+   String getFileName()
+   {
+      return fileName;
+   }
+
+   @PluginBuilderFactory
+   public static Builder newBuilder()
+   {
+      return new Builder();
+   }
+
+   public static final class Builder extends AbstractAppender.Builder<Builder> implements org.apache.logging.log4j.core.util.Builder<BinaryLogAppender>
+   {
+      @PluginBuilderAttribute
+      @Required
+      private String fileName;
+
+      @PluginBuilderAttribute
+      private boolean append = true;
+
+      @PluginBuilderAttribute
+      private boolean immediateFlush = true;
+
+      @PluginBuilderAttribute
+      private int bufferSize = 8192;
+
+      public Builder setFileName(String fileName)
+      {
+         this.fileName = fileName;
+         return this;
+      }
+
+      public Builder setAppend(boolean append)
+      {
+         this.append = append;
+         return this;
+      }
+
+      public Builder setImmediateFlush(boolean immediateFlush)
+      {
+         this.immediateFlush = immediateFlush;
+         return this;
+      }
+
+      public Builder setBufferSize(int bufferSize)
+      {
+         this.bufferSize = bufferSize;
+         return this;
+      }
+
+      @Override
+      public BinaryLogAppender build()
+      {
+         try
+         {
+            Path path = Paths.get(fileName);
+            if (path.getParent() != null)
+               Files.createDirectories(path.getParent());
+            return new BinaryLogAppender(this, new FileOutputStream(path.toFile(), append));
+         }
+         catch (IOException e)
+         {
+            LOGGER.error("Could not open " + fileName + " for " + getName(), e);
+            return null;
+         }
+      }
+   }
+}
@@ -0,0 +1,388 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static us.ihmc.log.BinaryLogFormat.*;
+
+/**
+ * Encodes log events into the {@link BinaryLogFormat} in a growable buffer, and remembers
+ * which call sites, templates and loggers the output has defined so far.
+ *
+ * Once every call site and template has been seen, encoding a LogTools call doesn't allocate.
+ * Templates built at runtime, i.e. by string concatenation, are only remembered up to
+ * {@link #MAX_TEMPLATES}, after that they are written inline every time.
+ *
+ * Not thread safe.
+ */
+final class BinaryLogEncoder
+{
+   static final int MAX_TEMPLATES = 4096;
+
+   private final Map<CallSite, Integer> callSiteIds = new HashMap<>(); // by class and line, as the call site cache may not keep one
+   private final Map<String, Integer> templateIds = new HashMap<>();
+   private final Map<String, Integer> loggerIds = new HashMap<>();
+   private final StringBuilder text = new StringBuilder();
+
+   private byte[] bytes;
+   private int size = 0;
+   private long lastTimeMillis;
+
+   BinaryLogEncoder(int initialCapacity)
+   {
+      bytes = new byte[Math.max(initialCapacity, 64)];
+   }
+
+   /**
+    * Starts a session, after which all call sites, templates and loggers are defined again.
+    */
+   void encodeSession(long timeMillis)
+   {
+      callSiteIds.clear();
+      templateIds.clear();
+      loggerIds.clear();
+      lastTimeMillis = timeMillis;
+
+      writeByte(SESSION);
+      for (byte magicByte : MAGIC)
+      {
+         writeByte(magicByte);
+      }
+      writeByte(VERSION);
+      for (int shift = 56; shift >= 0; shift -= 8)
+      {
+         writeByte((int) (timeMillis >>> shift));
+      }
+   }
+
+   /**
+    * Encodes a LogTools call from its raw parameters, without formatting them.
+    */
+   void encode(LogEvent event, LogToolsMessage message)
+   {
+      int callSiteId = callSiteId(message.getOrigin());
+      Object messageObject = message.getMessage();
+      int messageId = messageObject instanceof String ? templateId((String) messageObject) : messageObject == null ? NULL_REFERENCE : INLINE_REFERENCE;
+
+      writeByte(EVENT);
+      writeLevelAndTime(event);
+      writeVarint(callSiteId);
+      if (!message.isParameterized())
+      {
+         writeByte(MESSAGE_PLAIN);
+         writeMessageReference(messageId, messageObject);
+      }
+      else if (message.getPrimitiveTypes() != 0)
+      {
+         writeByte(MESSAGE_PRIMITIVES);
+         writeMessageReference(messageId, messageObject);
+         int types = message.getPrimitiveTypes();
+         writeVarint(types);
+         for (int i = 0; i < PrimitiveParameters.count(types); i++)
+         {
+            writePrimitive(PrimitiveParameters.type(types, i), message.getPrimitiveParameter(i));
+         }
+      }
+      else
+      {
+         writeByte(MESSAGE_OBJECTS);
+         writeMessageReference(messageId, messageObject);
+         writeByte(message.getObjectParameterCount());
+         for (int i = 0; i < message.getObjectParameterCount(); i++)
+         {
+            writeObject(message.getObjectParameter(i));
+         }
+      }
+      writeThrowable(event);
+   }
+
+   /**
+    * Encodes any other event, already formatted.
+    */
+   void encodeText(LogEvent event)
+   {
+      Integer loggerId = loggerIds.get(event.getLoggerName());
+      if (loggerId == null)
+      {
+         loggerId = loggerIds.size();
+         loggerIds.put(event.getLoggerName(), loggerId);
+         writeByte(LOGGER);
+         writeVarint(loggerId);
+         writeString(event.getLoggerName());
+      }
+
+      writeByte(TEXT);
+      writeLevelAndTime(event);
+      writeVarint(loggerId);
+      text.setLength(0);
+      Message message = event.getMessage();
+      if (message instanceof StringBuilderFormattable) // i.e. log4j's reusable events, which are already formatted
+         ((StringBuilderFormattable) message).formatTo(text);
+      else
+         text.append(message.getFormattedMessage());
+      writeString(text);
+      writeThrowable(event);
+   }
+
+   int size()
+   {
+      return size;
+   }
+
+   /**
+    * Writes everything encoded so far and empties the buffer.
+    */
+   void writeTo(OutputStream outputStream) throws IOException
+   {
+      outputStream.write(bytes, 0, size);
+      size = 0;
+   }
+
+   private int callSiteId(CallSite callSite)
+   {
+      Integer callSiteId = callSiteIds.get(callSite);
+      if (callSiteId == null)
+      {
+         callSiteId = callSiteIds.size();
+         callSiteIds.put(callSite, callSiteId);
+         writeByte(CALL_SITE);
+         writeVarint(callSiteId);
+         writeString(callSite.getClassName());
+         writeVarint(callSite.getLineNumber());
+      }
+      return callSiteId;
+   }
+
+   private int templateId(String template)
+   {
+      Integer templateId = templateIds.get(template);
+      if (templateId == null)
+      {
+         if (templateIds.size() >= MAX_TEMPLATES)
+            return INLINE_REFERENCE;
+
+         templateId = FIRST_TEMPLATE_ID + templateIds.size();
+         templateIds.put(template, templateId);
+         writeByte(TEMPLATE);
+         writeVarint(templateId);
+         writeString(template);
+      }
+      return templateId;
+   }
+
+   private void writeMessageReference(int messageId, Object message)
+   {
+      writeVarint(messageId);
+      if (messageId == INLINE_REFERENCE)
+      {
+         if (message instanceof CharSequence)
+         {
+            writeString((CharSequence) message);
+         }
+         else
+         {
+            text.setLength(0);
+            text.append(message); // the same as LogToolsMessage prints it
+            writeString(text);
+         }
+      }
+   }
+
+   private void writeLevelAndTime(LogEvent event)
+   {
+      writeVarint(event.getLevel().intLevel());
+      long timeMillis = event.getTimeMillis();
+      writeZigzag(timeMillis - lastTimeMillis);
+      lastTimeMillis = timeMillis;
+   }
+
+   private void writePrimitive(int type, long bits)
+   {
+      switch (type)
+      {
+         case PrimitiveParameters.FLOAT:
+            writeFixed(bits, 4);
+            break;
+         case PrimitiveParameters.DOUBLE:
+            writeFixed(bits, 8);
+            break;
+         default: // int, long and boolean are small more often than not
+            writeZigzag(bits);
+            break;
+      }
+   }
+
+   private void writeObject(Object object)
+   {
+      if (object == null)
+      {
+         writeByte(TAG_NULL);
+      }
+      else if (object instanceof String)
+      {
+         writeByte(TAG_STRING);
+         writeString((String) object);
+      }
+      else if (object instanceof Integer)
+      {
+         writeByte(TAG_INT);
+         writeZigzag((Integer) object);
+      }
+      else if (object instanceof Long)
+      {
+         writeByte(TAG_LONG);
+         writeZigzag((Long) object);
+      }
+      else if (object instanceof Float)
+      {
+         writeByte(TAG_FLOAT);
+         writeFixed(Float.floatToRawIntBits((Float) object), 4);
+      }
+      else if (object instanceof Double)
+      {
+         writeByte(TAG_DOUBLE);
+         writeFixed(Double.doubleToRawLongBits((Double) object), 8);
+      }
+      else if (object instanceof Boolean)
+      {
+         writeByte(TAG_BOOLEAN);
+         writeByte((Boolean) object ? 1 : 0);
+      }
+      else if (object instanceof Character)
+      {
+         writeByte(TAG_CHAR);
+         writeVarint((Character) object);
+      }
+      else if (object instanceof Short)
+      {
+         writeByte(TAG_SHORT);
+         writeZigzag((Short) object);
+      }
+      else if (object instanceof Byte)
+      {
+         writeByte(TAG_BYTE);
+         writeZigzag((Byte) object);
+      }
+      else // printed now, the object may change before the file is decoded
+      {
+         text.setLength(0);
+         LogToolsMessage.appendObjectParameter(text, object);
+         writeByte(TAG_STRING);
+         writeString(text);
+      }
+   }
+
+   private void writeThrowable(LogEvent event)
+   {
+      if (event.getThrown() == null)
+      {
+         writeByte(0);
+      }
+      else
+      {
+         writeByte(1);
+         writeString(event.getThrownProxy().getExtendedStackTraceAsString());
+      }
+   }
+
+   private void writeString(CharSequence string)
+   {
+      int length = string.length();
+      int utf8Length = 0;
+      for (int i = 0; i < length; i++)
+      {
+         char character = string.charAt(i);
+         if (character < 0x80)
+            utf8Length += 1;
+         else if (character < 0x800)
+            utf8Length += 2;
+         else if (Character.isHighSurrogate(character) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1)))
+         {
+            utf8Length += 4;
+            i++;
+         }
+         else if (Character.isSurrogate(character))
+            utf8Length += 1; // a lone surrogate is written as '?', as String.getBytes() does
+         else
+            utf8Length += 3;
+      }
+
+      writeVarint(utf8Length);
+      ensureCapacity(utf8Length);
+      for (int i = 0; i < length; i++)
+      {
+         char character = string.charAt(i);
+         if (character < 0x80)
+         {
+            bytes[size++] = (byte) character;
+         }
+         else if (character < 0x800)
+         {
+            bytes[size++] = (byte) (0xC0 | (character >> 6));
+            bytes[size++] = (byte) (0x80 | (character & 0x3F));
+         }
+         else if (Character.isHighSurrogate(character) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1)))
+         {
+            int codePoint = Character.toCodePoint(character, string.charAt(++i));
+            bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+            bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+         }
+         else if (Character.isSurrogate(character))
+         {
+            bytes[size++] = '?';
+         }
+         else
+         {
+            bytes[size++] = (byte) (0xE0 | (character >> 12));
+            bytes[size++] = (byte) (0x80 | ((character >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (character & 0x3F));
+         }
+      }
+   }
+
+   private void writeZigzag(long value)
+   {
+      writeVarint((value << 1) ^ (value >> 63));
+   }
+
+   private void writeVarint(long value)
+   {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0)
+      {
+         bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      bytes[size++] = (byte) value;
+   }
+
+   private void writeFixed(long bits, int byteCount)
+   {
+      ensureCapacity(byteCount);
+      for (int shift = (byteCount - 1) * 8; shift >= 0; shift -= 8)
+      {
+         bytes[size++] = (byte) (bits >>> shift);
+      }
+   }
+
+   private void writeByte(int value)
+   {
+      ensureCapacity(1);
+      bytes[size++] = (byte) value;
+   }
+
+   private void ensureCapacity(int additionalBytes)
+   {
+      if (size + additionalBytes > bytes.length)
+         bytes = Arrays.copyOf(bytes, Math.max(2 * bytes.length, size + additionalBytes));
+   }
+}
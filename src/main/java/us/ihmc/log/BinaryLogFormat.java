@@ -0,0 +1,71 @@
+package us.ihmc.log;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The layout of the files {@link BinaryLogAppender} writes and {@link LogToolsDecoder} reads.
+ *
+ * A file is a sequence of records, each starting with a record type byte. Numbers are
+ * unsigned LEB128 varints, or zigzag varints where they can be negative. Strings are a
+ * varint byte count followed by UTF-8. Call sites, templates and logger names are written
+ * once, in a definition record, and referred to by id afterwards.
+ *
+ * <pre>
+ * SESSION     magic, version byte, start time millis (8 bytes). Starts a file, or a session appended
+ *             to one. Ids from earlier sessions are forgotten.
+ * CALL_SITE   id, class name, line number
+ * TEMPLATE    id, string
+ * LOGGER      id, logger name
+ * EVENT       level, time, call site id, message kind, message reference, parameters, throwable
+ * TEXT        level, time, logger id, formatted message, throwable
+ * </pre>
+ *
+ * EVENT is a LogTools call. Its level is the log4j intLevel, its time is the zigzag difference to
+ * the previous event in millis. A message reference is a template id, {@link #NULL_REFERENCE} or
+ * {@link #INLINE_REFERENCE} followed by a string. After it come the parameters of the message kind:
+ * <ul>
+ *    <li>{@link #MESSAGE_PLAIN}: none, the message is printed as is.</li>
+ *    <li>{@link #MESSAGE_OBJECTS}: a count byte and that many tagged values.</li>
+ *    <li>{@link #MESSAGE_PRIMITIVES}: the packed {@link PrimitiveParameters} types and the raw values.</li>
+ * </ul>
+ * Objects other than strings and boxed primitives are written as the text they print as.
+ *
+ * TEXT is any other log4j event, i.e. from an SLF4J logger, already formatted.
+ *
+ * The throwable is a flag byte, followed by the printed stack trace if the flag is 1.
+ */
+final class BinaryLogFormat
+{
+   static final byte[] MAGIC = "IHMCLOG".getBytes(StandardCharsets.US_ASCII);
+   static final int VERSION = 1;
+
+   static final int SESSION = 0;
+   static final int CALL_SITE = 1;
+   static final int TEMPLATE = 2;
+   static final int LOGGER = 3;
+   static final int EVENT = 4;
+   static final int TEXT = 5;
+
+   static final int MESSAGE_PLAIN = 0;
+   static final int MESSAGE_OBJECTS = 1;
+   static final int MESSAGE_PRIMITIVES = 2;
+
+   static final int NULL_REFERENCE = 0;
+   static final int INLINE_REFERENCE = 1;
+   static final int FIRST_TEMPLATE_ID = 2;
+
+   static final int TAG_NULL = 0;
+   static final int TAG_STRING = 1;
+   static final int TAG_INT = 2;
+   static final int TAG_LONG = 3;
+   static final int TAG_FLOAT = 4;
+   static final int TAG_DOUBLE = 5;
+   static final int TAG_BOOLEAN = 6;
+   static final int TAG_CHAR = 7;
+   static final int TAG_SHORT = 8;
+   static final int TAG_BYTE = 9;
+
+   private BinaryLogFormat()
+   {
+   }
+}
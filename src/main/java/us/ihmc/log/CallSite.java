@@ -0,0 +1,115 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The class and line a log statement was made from, along with the strings
+ * LogTools derives from them. These are computed once per call site and then
+ * reused for every message logged from it.
+ */
+final class CallSite
+{
+   private final String className;
+   private final int lineNumber;
+   private final String loggerName;
+   private final String simpleName;
+   private final String clickableCoordinatePrefix;
+
+   /** Set on first use in granular mode. Loggers are unique per name, so racing writers agree. */
+   private volatile Logger logger;
+
+   /** Looked up on first use by a rate limited call. */
+   private volatile RateLimiter rateLimiter;
+
+   CallSite(String className, int lineNumber)
+   {
+      this.className = className;
+      this.lineNumber = lineNumber;
+
+      loggerName = className.replace('$', '.');
+      String[] classNameSplit = className.split("\\.");
+      simpleName = classNameSplit[classNameSplit.length - 1].split("\\$")[0];
+      clickableCoordinatePrefix = "(" + simpleName + ".java:" + lineNumber + "): ";
+   }
+
+   /**
+    * @return the binary class name, i.e. us.ihmc.Outer$Inner
+    */
+   String getClassName()
+   {
+      return className;
+   }
+
+   int getLineNumber()
+   {
+      return lineNumber;
+   }
+
+   /**
+    * @return the class name with nested classes separated by dots, i.e. us.ihmc.Outer.Inner
+    */
+   String getLoggerName()
+   {
+      return loggerName;
+   }
+
+   /**
+    * @return the simple name of the outermost class, which is the name of the source file
+    */
+   String getSimpleName()
+   {
+      return simpleName;
+   }
+
+   /**
+    * @return the prefix that IDEs make clickable, i.e. "(Outer.java:42): "
+    */
+   String getClickableCoordinatePrefix()
+   {
+      return clickableCoordinatePrefix;
+   }
+
+   Logger getLogger()
+   {
+      return logger;
+   }
+
+   void setLogger(Logger logger)
+   {
+      this.logger = logger;
+   }
+
+   /**
+    * @return the rate limiter shared by all limited calls from this class and line, even from call sites the cache didn't keep
+    */
+   RateLimiter getRateLimiter()
+   {
+      RateLimiter rateLimiter = this.rateLimiter;
+      if (rateLimiter == null) // racing callers get the same one
+      {
+         rateLimiter = RateLimiter.forCallSite(this);
+         this.rateLimiter = rateLimiter;
+      }
+      return rateLimiter;
+   }
+
+   /**
+    * @return true for a call site with the same class and line
+    */
+   @Override
+   public boolean equals(Object other)
+   {
+      if (this == other)
+         return true;
+      if (!(other instanceof CallSite))
+         return false;
+      CallSite otherCallSite = (CallSite) other;
+      return lineNumber == otherCallSite.lineNumber && className.equals(otherCallSite.className);
+   }
+
+   @Override
+   public int hashCode()
+   {
+      return 31 * className.hashCode() + lineNumber;
+   }
+}
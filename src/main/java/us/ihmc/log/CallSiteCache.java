@@ -0,0 +1,158 @@
+package us.ihmc.log;
+
+import java.lang.StackWalker.StackFrame;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a {@link CallSite} for every class and line LogTools has been called from,
+ * so the clickable prefix and logger name are only built the first time.
+ *
+ * Lookups are lock-free. Call sites are grouped by class with a ClassValue and then
+ * found by line number in a small copy-on-write table, so a hit does no hashing of
+ * strings and no allocation.
+ *
+ * The total number of cached call sites is bounded by -Dlog.callSiteCacheSize (default 4096).
+ * Once full, new call sites are still resolved, just not kept.
+ */
+public final class CallSiteCache
+{
+   private static final int MAXIMUM_SIZE = Integer.getInteger("log.callSiteCacheSize", 4096);
+
+   private static final ClassValue<LineTable> LINE_TABLES = new ClassValue<LineTable>()
+   {
+      @Override
+      protected LineTable computeValue(Class<?> type)
+      {
+         return new LineTable(type.getName());
+      }
+   };
+
+   private static final AtomicInteger size = new AtomicInteger();
+   private static final LongAdder hits = new LongAdder();
+   private static final LongAdder misses = new LongAdder();
+
+   private CallSiteCache()
+   {
+   }
+
+   static CallSite get(StackFrame frame)
+   {
+      return get(frame.getDeclaringClass(), frame.getLineNumber());
+   }
+
+   static CallSite get(Class<?> declaringClass, int lineNumber)
+   {
+      LineTable lineTable = LINE_TABLES.get(declaringClass);
+
+      CallSite callSite = lineTable.get(lineNumber);
+      if (callSite != null)
+      {
+         hits.increment();
+         return callSite;
+      }
+
+      misses.increment();
+      if (size.incrementAndGet() > MAXIMUM_SIZE)
+      {
+         size.decrementAndGet();
+         return new CallSite(lineTable.className, lineNumber);
+      }
+      return lineTable.add(lineNumber);
+   }
+
+   /**
+    * @return the number of log calls that found their call site in the cache
+    */
+   public static long getHitCount()
+   {
+      return hits.sum();
+   }
+
+   /**
+    * @return the number of log calls that had to build their call site
+    */
+   public static long getMissCount()
+   {
+      return misses.sum();
+   }
+
+   /**
+    * @return the number of call sites currently cached
+    */
+   public static int getSize()
+   {
+      return size.get();
+   }
+
+   /**
+    * Open addressed table of the call sites in one class, keyed on line number.
+    * Writers copy the table, so readers never lock and always see a complete one.
+    */
+   private static class LineTable
+   {
+      private final String className;
+      private volatile CallSite[] callSites = new CallSite[8];
+      private int count = 0;
+
+      LineTable(String className)
+      {
+         this.className = className;
+      }
+
+      CallSite get(int lineNumber)
+      {
+         return get(callSites, lineNumber);
+      }
+
+      synchronized CallSite add(int lineNumber)
+      {
+         CallSite existing = get(lineNumber);
+         if (existing != null) // another thread added it first
+         {
+            size.decrementAndGet();
+            return existing;
+         }
+
+         CallSite[] oldCallSites = callSites;
+         int capacity = oldCallSites.length;
+         if (2 * (count + 1) > capacity) // keep the load under 0.5 so probes stay short
+            capacity *= 2;
+
+         CallSite[] newCallSites = new CallSite[capacity];
+         for (CallSite callSite : oldCallSites)
+         {
+            if (callSite != null)
+               insert(newCallSites, callSite);
+         }
+         CallSite callSite = new CallSite(className, lineNumber);
+         insert(newCallSites, callSite);
+
+         count++;
+         callSites = newCallSites;
+         return callSite;
+      }
+
+      private static CallSite get(CallSite[] callSites, int lineNumber)
+      {
+         int mask = callSites.length - 1;
+         for (int i = lineNumber & mask; ; i = (i + 1) & mask)
+         {
+            CallSite callSite = callSites[i];
+            if (callSite == null || callSite.getLineNumber() == lineNumber)
+               return callSite;
+         }
+      }
+
+      private static void insert(CallSite[] callSites, CallSite callSite)
+      {
+         int mask = callSites.length - 1;
+         int i = callSite.getLineNumber() & mask;
+         while (callSites[i] != null)
+         {
+            i = (i + 1) & mask;
+         }
+         callSites[i] = callSite;
+      }
+   }
+}
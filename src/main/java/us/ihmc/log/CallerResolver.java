@@ -0,0 +1,74 @@
+package us.ihmc.log;
+
+import java.lang.StackWalker.StackFrame;
+import java.util.EnumSet;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Finds the stack frame of the code that called LogTools.
+ *
+ * Thread.getStackTrace() materializes the whole stack as a StackTraceElement[]
+ * on every call, which gets expensive on deep control thread stacks. The
+ * StackWalker here only visits the frames up to the one requested and stops.
+ *
+ * Frames are counted the same way as Thread.getStackTrace() counts them, with
+ * frame 0 being {@link #resolve(int)} itself, so reflection frames are included.
+ */
+final class CallerResolver
+{
+   private static final StackWalker STACK_WALKER = StackWalker.getInstance(EnumSet.of(StackWalker.Option.SHOW_REFLECT_FRAMES,
+                                                                                             StackWalker.Option.RETAIN_CLASS_REFERENCE));
+
+   /**
+    * Walk functions for the common frame counts are created once, so resolving
+    * the caller doesn't also allocate a capturing lambda.
+    */
+   private static final int NUMBER_OF_PRECREATED_WALK_FUNCTIONS = 16;
+   private static final WalkFunction[] WALK_FUNCTIONS = new WalkFunction[NUMBER_OF_PRECREATED_WALK_FUNCTIONS];
+
+   static
+   {
+      for (int i = 0; i < NUMBER_OF_PRECREATED_WALK_FUNCTIONS; i++)
+      {
+         WALK_FUNCTIONS[i] = new WalkFunction(i);
+      }
+   }
+
+   private CallerResolver()
+   {
+   }
+
+   /**
+    * @param framesToSkip the number of frames to skip, where 0 returns the frame of this method,
+    *                     1 returns its caller, and so on
+    * @return the stack frame framesToSkip frames down the stack
+    */
+   static StackFrame resolve(int framesToSkip)
+   {
+      if (framesToSkip < 0)
+         throw new IndexOutOfBoundsException("Cannot resolve a negative stack frame index: " + framesToSkip);
+
+      WalkFunction walkFunction = framesToSkip < NUMBER_OF_PRECREATED_WALK_FUNCTIONS ? WALK_FUNCTIONS[framesToSkip] : new WalkFunction(framesToSkip);
+      StackFrame frame = STACK_WALKER.walk(walkFunction);
+      if (frame == null)
+         throw new IndexOutOfBoundsException("Stack is not deep enough to resolve frame " + framesToSkip);
+      return frame;
+   }
+
+   private static class WalkFunction implements Function<Stream<StackFrame>, StackFrame>
+   {
+      private final int framesToSkip;
+
+      WalkFunction(int framesToSkip)
+      {
+         this.framesToSkip = framesToSkip;
+      }
+
+      @Override
+      public StackFrame apply(Stream<StackFrame> frames)
+      {
+         return frames.skip(framesToSkip).findFirst().orElse(null);
+      }
+   }
+}
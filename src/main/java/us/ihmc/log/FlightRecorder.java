@@ -0,0 +1,427 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.util.Clock;
+import org.apache.logging.log4j.core.util.ClockFactory;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.status.StatusLogger;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flight recorder mode, enabled with -Dlog.recorder=true, keeps the disabled messages of
+ * the last few seconds, so the debug and trace context of an error can be printed with it.
+ *
+ * A disabled LogTools call writes its timestamp and raw primitive parameters into a fixed
+ * size, off-heap ring of records owned by the calling thread, and its level, call site,
+ * template and object parameters into a matching array of references. Nothing is formatted
+ * or allocated, and there are no locks or shared counters. The call site is only known for
+ * calls rewritten by the Gradle plugin and in granular mode, because the stack isn't walked
+ * for a disabled call.
+ *
+ * When an ERROR or FATAL message is logged, or {@link LogTools#dumpFlightRecorder()} is called,
+ * the records of all threads from the last few seconds that weren't printed by an earlier dump
+ * are formatted and logged in time order, with their own levels and timestamps. That happens on
+ * a background thread, after the asynchronous writer has written what was logged before, so the
+ * thread that logged the error doesn't format them and they come out after the error.
+ *
+ * Only parameters that print the same later are kept, i.e. Strings, boxed primitives, enums and
+ * throwables. Any other parameter is printed as its class name, i.e. "&lt;Vector3D&gt;". Suppliers
+ * are not called.
+ *
+ * Options:
+ * -Dlog.recorder.capacity=1024: Records per thread, rounded up to a power of two. Each takes
+ *    40 bytes off-heap and six references. A dump gets up to one less than this per thread.
+ * -Dlog.recorder.seconds=5: How far back a dump goes.
+ */
+final class FlightRecorder
+{
+   /**
+    * A constant, so the JIT removes recording from disabled calls when it's false, which is the default.
+    */
+   static final boolean ENABLED = System.getProperty("log.recorder", "false").trim().toLowerCase().contains("true");
+   static final int DEFAULT_CAPACITY = 1024;
+   static final int DEFAULT_SECONDS = 5;
+   private static final long SHUTDOWN_TIMEOUT_MILLIS = 1000;
+   /** Dumps one at a time, in the order they were asked for. Its thread starts with the first dump. */
+   private static final ExecutorService DUMPER = Executors.newSingleThreadExecutor(runnable ->
+   {
+      Thread thread = new Thread(runnable, "LogToolsFlightRecorder");
+      thread.setDaemon(true);
+      return thread;
+   });
+
+   static final FlightRecorder INSTANCE = ENABLED ? fromSystemProperties() : null;
+
+   /** Off-heap layout of a record. */
+   private static final int TIME = 0;
+   private static final int OBJECT_PARAMETER_COUNT = 8;
+   private static final int TYPES = 12;
+   private static final int P0 = 16;
+   private static final int P1 = 24;
+   private static final int P2 = 32;
+   private static final int RECORD_BYTES = 40;
+
+   /** Layout of the references of a record. */
+   private static final int LEVEL = 0;
+   private static final int ORIGIN = 1;
+   private static final int MESSAGE = 2;
+   private static final int O0 = 3;
+   private static final int REFERENCES = 6;
+
+   /** The object parameter count of a message that isn't a template. */
+   private static final int NOT_PARAMETERIZED = -1;
+
+   private static final ClassValue<NotRecorded> NOT_RECORDED = new ClassValue<NotRecorded>()
+   {
+      @Override
+      protected NotRecorded computeValue(Class<?> type)
+      {
+         return new NotRecorded(type);
+      }
+   };
+
+   private final int capacity;
+   private final long windowMillis;
+   private final Clock clock = ClockFactory.getClock();
+   private final ThreadLocal<Ring> rings = ThreadLocal.withInitial(this::newRing);
+   /** Guarded by itself. */
+   private final List<Ring> allRings = new ArrayList<>();
+
+   private static FlightRecorder fromSystemProperties()
+   {
+      int capacity = DEFAULT_CAPACITY;
+      String capacityProperty = System.getProperty("log.recorder.capacity");
+      if (capacityProperty != null)
+         capacity = Integer.parseInt(capacityProperty.trim());
+
+      int seconds = DEFAULT_SECONDS;
+      String secondsProperty = System.getProperty("log.recorder.seconds");
+      if (secondsProperty != null)
+         seconds = Integer.parseInt(secondsProperty.trim());
+
+      if (!LogToolsShutdownCallbackRegistry.runBeforeLog4jStops(FlightRecorder::finishDumps)) // so the appenders are still there to write to
+         Runtime.getRuntime().addShutdownHook(new Thread(FlightRecorder::finishDumps, "LogToolsFlightRecorderShutdown"));
+      return new FlightRecorder(capacity, TimeUnit.SECONDS.toMillis(seconds));
+   }
+
+   private static void finishDumps()
+   {
+      DUMPER.shutdown();
+      try
+      {
+         DUMPER.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   /**
+    * @param capacity records per thread, rounded up to a power of two
+    * @param windowMillis how far back a dump goes
+    */
+   FlightRecorder(int capacity, long windowMillis)
+   {
+      if (capacity < 1 || capacity > 1 << 24)
+         throw new IllegalArgumentException("Capacity must be between 1 and 2^24: " + capacity);
+
+      int roundedCapacity = Integer.highestOneBit(capacity);
+      if (roundedCapacity < capacity)
+         roundedCapacity <<= 1;
+      this.capacity = roundedCapacity;
+      this.windowMillis = windowMillis;
+   }
+
+   /**
+    * Records a message that is printed as is.
+    */
+   void record(Level level, CallSite origin, Object message)
+   {
+      rings.get().add(clock.currentTimeMillis(), level, origin, kept(message), NOT_PARAMETERIZED, null, null, null, 0, 0L, 0L, 0L);
+   }
+
+   /**
+    * Records a template with object parameters. With none, like a rate limited call without
+    * parameters, the message is printed as is.
+    */
+   void record(Level level, CallSite origin, Object template, int objectParameterCount, Object o0, Object o1, Object o2)
+   {
+      if (objectParameterCount == 0)
+         objectParameterCount = NOT_PARAMETERIZED;
+      rings.get().add(clock.currentTimeMillis(), level, origin, kept(template), objectParameterCount, kept(o0), kept(o1), kept(o2), 0, 0L, 0L, 0L);
+   }
+
+   /**
+    * Records a template with primitive parameters.
+    */
+   void record(Level level, CallSite origin, String template, int types, long p0, long p1, long p2)
+   {
+      rings.get().add(clock.currentTimeMillis(), level, origin, template, 0, null, null, null, types, p0, p1, p2);
+   }
+
+   private static Object kept(Object object)
+   {
+      return LogToolsMessage.isImmutable(object) ? object : NOT_RECORDED.get(object.getClass());
+   }
+
+   private Ring newRing()
+   {
+      Ring ring = new Ring(Thread.currentThread(), capacity);
+      synchronized (allRings)
+      {
+         long oldestTime = clock.currentTimeMillis() - windowMillis;
+         allRings.removeIf(oldRing -> oldRing.isStale(oldestTime));
+         allRings.add(ring);
+      }
+      return ring;
+   }
+
+   /**
+    * Logs the records of the last few seconds that no earlier dump has logged, between two
+    * lines at the dump's level, on the background thread, and returns without waiting.
+    *
+    * @param logger the logger whose appenders the records go to
+    * @param level the level of the lines around the records
+    * @param asyncWriter the writer to wait for first, so the records come after what was logged before, or null
+    */
+   void dumpLater(Logger logger, Level level, AsyncLogWriter asyncWriter)
+   {
+      String threadName = Thread.currentThread().getName();
+      try
+      {
+         DUMPER.execute(() -> write(logger, level, threadName, asyncWriter));
+      }
+      catch (RejectedExecutionException e) // shutting down
+      {
+         write(logger, level, threadName, asyncWriter);
+      }
+   }
+
+   /**
+    * Like {@link #dumpLater(Logger, Level, AsyncLogWriter)}, but waits until the records are logged.
+    */
+   void dump(Logger logger, Level level, AsyncLogWriter asyncWriter)
+   {
+      String threadName = Thread.currentThread().getName();
+      try
+      {
+         DUMPER.submit(() -> write(logger, level, threadName, asyncWriter)).get();
+      }
+      catch (RejectedExecutionException e)
+      {
+         write(logger, level, threadName, asyncWriter);
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+      catch (ExecutionException e)
+      {
+         StatusLogger.getLogger().error("Failed to dump the flight recorder", e.getCause());
+      }
+   }
+
+   private void write(Logger logger, Level level, String threadName, AsyncLogWriter asyncWriter)
+   {
+      if (asyncWriter != null)
+         asyncWriter.flush();
+
+      List<LogEvent> events = drain(logger.getName());
+      if (events.isEmpty())
+         return;
+
+      LoggerConfig loggerConfig = loggerConfig(logger);
+      loggerConfig.log(event(logger.getName(), level, clock.currentTimeMillis(), threadName,
+                             "Flight recorder: " + events.size() + " disabled messages from the last " + windowMillis + " ms"));
+      for (LogEvent event : events)
+         loggerConfig.log(event); // bypasses the logger's level
+      loggerConfig.log(event(logger.getName(), level, clock.currentTimeMillis(), threadName, "End of flight recorder"));
+   }
+
+   private static LoggerConfig loggerConfig(Logger logger)
+   {
+      if (logger instanceof org.apache.logging.log4j.core.Logger)
+         return ((org.apache.logging.log4j.core.Logger) logger).get();
+      return ((LoggerContext) LogManager.getContext(false)).getConfiguration().getLoggerConfig(logger.getName());
+   }
+
+   /**
+    * Takes the records of the last few seconds from every thread that no earlier call took,
+    * and formats them.
+    *
+    * @return the formatted records, oldest first
+    */
+   List<LogEvent> drain(String loggerName)
+   {
+      List<LogEvent> events = new ArrayList<>();
+      synchronized (allRings)
+      {
+         long oldestTime = clock.currentTimeMillis() - windowMillis;
+         for (Ring ring : allRings)
+            ring.drain(oldestTime, loggerName, events);
+         allRings.removeIf(ring -> ring.isStale(oldestTime));
+      }
+      events.sort(Comparator.comparingLong(LogEvent::getTimeMillis)); // stable, so each thread's records stay in order
+      return events;
+   }
+
+   private static LogEvent event(String loggerName, Level level, long timeMillis, String threadName, String message)
+   {
+      return Log4jLogEvent.newBuilder()
+                          .setLoggerName(loggerName)
+                          .setLoggerFqcn(LogTools.class.getName())
+                          .setLevel(level)
+                          .setTimeMillis(timeMillis)
+                          .setThreadName(threadName)
+                          .setMessage(new SimpleMessage(message))
+                          .build();
+   }
+
+   /**
+    * One thread's records. Only the owning thread adds them. Dumps read them from any thread,
+    * and throw away those the owner may have overwritten while they were being read.
+    */
+   private static final class Ring
+   {
+      private final Thread thread;
+      private final ByteBuffer records;
+      private final Object[] references;
+      private final int mask;
+      /** The number of records added. Only written by the owning thread. */
+      private final AtomicLong written = new AtomicLong();
+      /** The number of records a dump has looked at. Guarded by the recorder's ring list. */
+      private long drained = 0;
+
+      Ring(Thread thread, int capacity)
+      {
+         this.thread = thread;
+         records = ByteBuffer.allocateDirect(capacity * RECORD_BYTES).order(ByteOrder.nativeOrder());
+         references = new Object[capacity * REFERENCES];
+         mask = capacity - 1;
+      }
+
+      void add(long time, Level level, CallSite origin, Object message, int objectParameterCount, Object o0, Object o1, Object o2, int types, long p0,
+               long p1, long p2)
+      {
+         long sequence = written.get();
+         int index = (int) sequence & mask;
+
+         int offset = index * RECORD_BYTES;
+         records.putLong(offset + TIME, time);
+         records.putInt(offset + OBJECT_PARAMETER_COUNT, objectParameterCount);
+         records.putInt(offset + TYPES, types);
+         records.putLong(offset + P0, p0);
+         records.putLong(offset + P1, p1);
+         records.putLong(offset + P2, p2);
+
+         int reference = index * REFERENCES;
+         references[reference + LEVEL] = level;
+         references[reference + ORIGIN] = origin;
+         references[reference + MESSAGE] = message;
+         references[reference + O0] = o0;
+         references[reference + O0 + 1] = o1;
+         references[reference + O0 + 2] = o2;
+
+         written.lazySet(sequence + 1);
+      }
+
+      void drain(long oldestTime, String loggerName, List<LogEvent> events)
+      {
+         long end = written.get();
+         long start = Math.max(drained, end - mask); // the owner may already be overwriting the oldest slot
+         for (long sequence = start; sequence < end; sequence++)
+         {
+            int index = (int) sequence & mask;
+            int offset = index * RECORD_BYTES;
+            int reference = index * REFERENCES;
+            long time = records.getLong(offset + TIME);
+            Object level = references[reference + LEVEL];
+            Object origin = references[reference + ORIGIN];
+            Object message = references[reference + MESSAGE];
+            int objectParameterCount = records.getInt(offset + OBJECT_PARAMETER_COUNT);
+            Object o0 = references[reference + O0];
+            Object o1 = references[reference + O0 + 1];
+            Object o2 = references[reference + O0 + 2];
+            int types = records.getInt(offset + TYPES);
+            long p0 = records.getLong(offset + P0);
+            long p1 = records.getLong(offset + P1);
+            long p2 = records.getLong(offset + P2);
+
+            VarHandle.acquireFence(); // so the reads above aren't moved after the check
+            if (sequence < written.get() - mask) // the owner has started to overwrite this record while it was read
+               continue;
+            if (time < oldestTime)
+               continue;
+            if (!(level instanceof Level) || (types != 0 && !(message instanceof String))) // torn anyway, if the check missed it
+               continue;
+
+            CallSite callSite = origin instanceof CallSite ? (CallSite) origin : null;
+            LogToolsMessage formatted;
+            if (objectParameterCount == NOT_PARAMETERIZED)
+               formatted = LogToolsMessage.of(callSite, message);
+            else if (types != 0)
+               formatted = LogToolsMessage.of(callSite, (String) message, types, p0, p1, p2);
+            else
+               formatted = LogToolsMessage.of(callSite, message, objectParameterCount, o0, o1, o2);
+            try
+            {
+               events.add(event(loggerName, (Level) level, time, thread.getName(), formatted.getFormattedMessage()));
+            }
+            finally
+            {
+               formatted.release();
+            }
+         }
+         drained = end;
+      }
+
+      /**
+       * @return if the thread is gone and none of its records would be dumped anymore
+       */
+      boolean isStale(long oldestTime)
+      {
+         if (thread.isAlive())
+            return false;
+         long end = written.get();
+         return drained == end || records.getLong(((int) (end - 1) & mask) * RECORD_BYTES + TIME) < oldestTime;
+      }
+   }
+
+   /**
+    * Prints a parameter that wasn't kept as its class name.
+    */
+   private static final class NotRecorded
+   {
+      private final String text;
+
+      NotRecorded(Class<?> type)
+      {
+         text = "<" + type.getSimpleName() + ">";
+      }
+
+      @Override
+      public String toString()
+      {
+         return text;
+      }
+   }
+}
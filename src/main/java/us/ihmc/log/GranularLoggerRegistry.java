@@ -0,0 +1,50 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the log4j Logger for every class that logs in granular mode.
+ *
+ * Any thread may log, so this is backed by a ConcurrentHashMap, whose reads never lock.
+ * Each {@link CallSite} also remembers its logger after the first lookup, so after warm-up
+ * finding the logger for a log statement is a single field read.
+ */
+final class GranularLoggerRegistry
+{
+   private final ConcurrentHashMap<String, Logger> loggers = new ConcurrentHashMap<>();
+
+   /**
+    * Gets or retrieves a logger instance by name.
+    */
+   Logger getLogger(String loggerName)
+   {
+      Logger logger = loggers.get(loggerName);
+      if (logger == null) // only the first lookup of a name takes a lock
+      {
+         logger = loggers.computeIfAbsent(loggerName, LogManager::getLogger);
+      }
+      return logger;
+   }
+
+   /**
+    * Gets the logger for the class of a call site.
+    */
+   Logger getLogger(CallSite callSite)
+   {
+      Logger logger = callSite.getLogger();
+      if (logger == null)
+      {
+         logger = getLogger(callSite.getLoggerName());
+         callSite.setLogger(logger);
+      }
+      return logger;
+   }
+
+   int size()
+   {
+      return loggers.size();
+   }
+}
@@ -0,0 +1,127 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.ConsoleAppender;
+import org.apache.logging.log4j.core.appender.FileAppender;
+import org.apache.logging.log4j.core.config.AbstractConfiguration;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.status.StatusConfiguration;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * One of the bundled YAML configurations, built in code, so log4j starts without loading
+ * Jackson or parsing YAML. {@link IHMCConfigurationFactory} picks it. The appenders, layouts
+ * and loggers have the same names and settings as in the YAML file, which is kept for
+ * reference and for copying into configurations of your own.
+ */
+final class IHMCConfiguration extends AbstractConfiguration
+{
+   enum Bundled
+   {
+      DEFAULT("log4j2.yml", true, false),
+      NO_COLOR("log4j2NoColor.yml", false, false),
+      TEE_TO_FILE("log4j2TeeToFile.yml", true, true);
+
+      private final String fileName;
+      private final boolean highlight;
+      private final boolean teeToFile;
+
+      Bundled(String fileName, boolean highlight, boolean teeToFile)
+      {
+         this.fileName = fileName;
+         this.highlight = highlight;
+         this.teeToFile = teeToFile;
+      }
+
+      String getFileName()
+      {
+         return fileName;
+      }
+   }
+
+   static final String IHMC_LOGGER_NAME = "us.ihmc";
+   static final String EXTERNAL_PATTERN = "%ihmcDate{yyMMdd H:mm:ss:SSS} [%level] (%logger{36}): %msg%n";
+
+   private final Bundled bundled;
+
+   IHMCConfiguration(LoggerContext loggerContext, ConfigurationSource source, Bundled bundled)
+   {
+      super(loggerContext, source);
+      this.bundled = bundled;
+      setName(bundled.getFileName());
+   }
+
+   @Override
+   protected void doConfigure()
+   {
+      new StatusConfiguration().withStatus(Level.WARN).initialize();
+      getPluginPackages().add("us.ihmc.log"); // for %ihmcDate
+
+      boolean coalesce = Boolean.parseBoolean(System.getProperty("log.console.coalesce", "false"));
+      boolean nonBlocking = Boolean.parseBoolean(System.getProperty("log.console.nonBlocking", "false"));
+      Appender ihmcAppender = console("IHMCAppender", IHMCLayout.newBuilder().setConfiguration(this).setHighlight(bundled.highlight).build(), coalesce, nonBlocking);
+      Appender externalAppender = console("ExternalAppender", pattern(externalPattern(bundled.highlight)), coalesce, nonBlocking);
+
+      LoggerConfig ihmcLoggerConfig = new LoggerConfig(IHMC_LOGGER_NAME, Level.INFO, false);
+      ihmcLoggerConfig.addAppender(ihmcAppender, null, null);
+      LoggerConfig rootLoggerConfig = getRootLogger();
+      rootLoggerConfig.setLevel(Level.ERROR);
+      rootLoggerConfig.addAppender(externalAppender, null, null);
+
+      if (bundled.teeToFile)
+      {
+         // both go to the same file, like ${sys:dateForLogFileName} in the YAML
+         String fileName = System.getProperty("user.home") + File.separator + ".ihmc" + File.separator + "logs" + File.separator
+                           + new SimpleDateFormat("yyyyMMdd_HHmmssSSS").format(new Date()) + "_LogTools.txt";
+         ihmcLoggerConfig.addAppender(file("IHMCFileAppender", fileName, IHMCLayout.newBuilder().setConfiguration(this).setHighlight(false).build()), null, null);
+         rootLoggerConfig.addAppender(file("ExternalFileAppender", fileName, pattern(EXTERNAL_PATTERN)), null, null);
+      }
+
+      ihmcLoggerConfig.setParent(rootLoggerConfig);
+      addLogger(LogManager.ROOT_LOGGER_NAME, rootLoggerConfig); // like "Loggers" in a file
+      addLogger(IHMC_LOGGER_NAME, ihmcLoggerConfig);
+   }
+
+   /**
+    * @return the pattern of the other loggers on the console, which needs "us.ihmc.log" in the plugin packages
+    */
+   static String externalPattern(boolean highlight)
+   {
+      return highlight ? "%highlight{" + EXTERNAL_PATTERN + "}" : EXTERNAL_PATTERN;
+   }
+
+   private Layout<String> pattern(String pattern)
+   {
+      return PatternLayout.newBuilder().withConfiguration(this).withPattern(pattern).build();
+   }
+
+   private Appender console(String name, Layout<String> layout, boolean coalesce, boolean nonBlocking)
+   {
+      Appender appender = ConsoleAppender.newBuilder()
+                                         .setName(name)
+                                         .setTarget(ConsoleAppender.Target.SYSTEM_OUT)
+                                         .setCoalesce(coalesce)
+                                         .setNonBlocking(nonBlocking)
+                                         .setLayout(layout)
+                                         .setConfiguration(this)
+                                         .build();
+      addAppender(appender);
+      return appender;
+   }
+
+   private Appender file(String name, String fileName, Layout<String> layout)
+   {
+      Appender appender = FileAppender.newBuilder().withFileName(fileName).setName(name).setLayout(layout).setConfiguration(this).build();
+      addAppender(appender);
+      return appender;
+   }
+}
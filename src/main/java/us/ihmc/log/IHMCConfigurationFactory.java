@@ -0,0 +1,111 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.ConfigurationFactory;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.apache.logging.log4j.util.LoaderUtil;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Enumeration;
+
+/**
+ * Builds the bundled log4j2.yml, log4j2NoColor.yml and log4j2TeeToFile.yml configurations in
+ * code ({@link IHMCConfiguration}), instead of log4j loading Jackson to parse them. Loading and
+ * parsing the YAML is most of the time log4j takes to start, which every JVM pays before its
+ * first log line.
+ *
+ * It is set as the "log4j.configurationFactory" in log4j2.component.properties. With no
+ * -Dlog4j2.configurationFile, it builds log4j2.yml, unless there is another log4j2 or
+ * log4j2-test configuration on the classpath, which log4j then finds as usual. A
+ * -Dlog4j2.configurationFile naming one of the three bundled files is built in code too.
+ * Anything else goes to log4j's own factories, so custom YAML, XML, JSON and properties
+ * configurations work as before.
+ */
+public class IHMCConfigurationFactory extends ConfigurationFactory
+{
+   private static final String[] SUPPORTED_TYPES = {"*"}; // asked first, with or without a configuration file
+   private static final String[] PREFIXES = {TEST_PREFIX, DEFAULT_PREFIX};
+   private static final String[] SUFFIXES = {".properties", ".yaml", ".yml", ".json", ".jsn", ".xml"};
+
+   @Override
+   protected String[] getSupportedTypes()
+   {
+      return SUPPORTED_TYPES;
+   }
+
+   @Override
+   public Configuration getConfiguration(LoggerContext loggerContext, String name, URI configLocation)
+   {
+      if (configLocation != null)
+         return super.getConfiguration(loggerContext, name, configLocation);
+      if (hasOtherConfigurationFile())
+         return null;
+      return new IHMCConfiguration(loggerContext, ConfigurationSource.NULL_SOURCE, IHMCConfiguration.Bundled.DEFAULT);
+   }
+
+   @Override
+   public Configuration getConfiguration(LoggerContext loggerContext, ConfigurationSource source)
+   {
+      for (IHMCConfiguration.Bundled bundled : IHMCConfiguration.Bundled.values())
+      {
+         if (isBundled(source, bundled.getFileName()))
+            return new IHMCConfiguration(loggerContext, source, bundled);
+      }
+      return null; // for the next factory
+   }
+
+   private static boolean isBundled(ConfigurationSource source, String fileName)
+   {
+      URL bundledURL = IHMCConfigurationFactory.class.getClassLoader().getResource(fileName);
+      if (bundledURL == null || source.getURI() == null)
+         return false;
+
+      try
+      {
+         return source.getURI().equals(bundledURL.toURI()); // file sources have no URL
+      }
+      catch (URISyntaxException e)
+      {
+         return false;
+      }
+   }
+
+   /**
+    * Looks for the files log4j searches the classpath for, i.e. a log4j2-test.xml in a
+    * project's test resources, or a log4j2.yml that comes before this one.
+    */
+   private static boolean hasOtherConfigurationFile()
+   {
+      ClassLoader classLoader = LoaderUtil.getThreadContextClassLoader();
+      for (String prefix : PREFIXES)
+      {
+         for (String suffix : SUFFIXES)
+         {
+            String fileName = prefix + suffix;
+            int bundledCount = fileName.equals(IHMCConfiguration.Bundled.DEFAULT.getFileName()) ? 1 : 0;
+            if (countResources(classLoader, fileName) > bundledCount)
+               return true;
+         }
+      }
+      return false;
+   }
+
+   private static int countResources(ClassLoader classLoader, String fileName)
+   {
+      try
+      {
+         int count = 0;
+         for (Enumeration<URL> resources = classLoader.getResources(fileName); resources.hasMoreElements(); resources.nextElement())
+            count++;
+         return count;
+      }
+      catch (IOException e)
+      {
+         return 0;
+      }
+   }
+}
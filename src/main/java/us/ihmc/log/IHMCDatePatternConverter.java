@@ -0,0 +1,42 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.pattern.ConverterKeys;
+import org.apache.logging.log4j.core.pattern.DatePatternConverter;
+import org.apache.logging.log4j.core.pattern.LogEventPatternConverter;
+import org.apache.logging.log4j.core.pattern.PatternConverter;
+
+/**
+ * %ihmcDate{yyMMdd H:mm:ss:SSS}, the same text as %date{yyMMdd H:mm:ss:SSS}, from this
+ * thread's {@link TimestampFormatter}, so it is garbage free and takes no locks. With no
+ * options it prints the same pattern. Any other pattern or a time zone gets log4j's
+ * DatePatternConverter.
+ */
+@Plugin(name = "IHMCDatePatternConverter", category = PatternConverter.CATEGORY)
+@ConverterKeys({"ihmcDate"})
+public final class IHMCDatePatternConverter extends LogEventPatternConverter
+{
+   public static final String PATTERN = "yyMMdd H:mm:ss:SSS";
+
+   private IHMCDatePatternConverter()
+   {
+      super("IHMCDate", "date");
+   }
+
+   /**
+    * @param options the date pattern and time zone, as for %date
+    */
+   public static LogEventPatternConverter newInstance(String[] options)
+   {
+      if (options == null || options.length == 0 || (options.length == 1 && (options[0] == null || options[0].equals(PATTERN))))
+         return new IHMCDatePatternConverter();
+      return DatePatternConverter.newInstance(options);
+   }
+
+   @Override
+   public void format(LogEvent event, StringBuilder output)
+   {
+      TimestampFormatter.get().format(event.getTimeMillis(), output);
+   }
+}
@@ -0,0 +1,229 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
+import org.apache.logging.log4j.core.layout.AbstractStringLayout;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.core.pattern.HighlightConverter;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.Strings;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The IHMC console and file pattern, written straight into the appender's buffer in one pass.
+ * The output is byte for byte the same as a PatternLayout with
+ * <pre>
+ * %highlight{%date{yyMMdd H:mm:ss:SSS} [%level] %msg%n}{INFO=normal, TRACE=green}
+ * </pre>
+ * or, with highlight set to false, the same pattern without %highlight.
+ *
+ * The PatternLayout goes through a chain of converters into a StringBuilder, and then
+ * encodes that. Here the colors, level tags and line separator are bytes made up front,
+ * the timestamp comes from {@link TimestampFormatter}, and the message, which already has
+ * the caller prefix, is copied a char at a time while it's ASCII. Events with a throwable,
+ * and charsets that aren't a superset of ASCII, go through a PatternLayout instead.
+ *
+ * <pre>
+ * IHMCLayout:
+ *   highlight: true # the default
+ *   styles: "INFO=normal, TRACE=green" # the default, as for %highlight
+ * </pre>
+ *
+ * The YAML configuration has to list the "us.ihmc.log" package under "packages" for log4j to find it.
+ */
+@Plugin(name = "IHMCLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
+public final class IHMCLayout extends AbstractStringLayout
+{
+   static final String PATTERN = "%date{yyMMdd H:mm:ss:SSS} [%level] %msg%n";
+   static final String DEFAULT_STYLES = "INFO=normal, TRACE=green";
+
+   private static final int STANDARD_LEVEL_SLOTS = Level.TRACE.intLevel() / 100 + 1;
+   private static final ThreadLocal<Scratch> THREAD_LOCAL_SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+   private final PatternLayout patternLayout;
+   private final HighlightConverter highlightConverter;
+   private final boolean fastPath;
+   private final byte[][] levelTags = new byte[STANDARD_LEVEL_SLOTS][];
+   private final byte[][] levelPrefixes = new byte[STANDARD_LEVEL_SLOTS][];
+   private final byte[] lineSeparator;
+   private final byte[] suffix;
+
+   private IHMCLayout(Configuration configuration, Charset charset, boolean highlight, String styles)
+   {
+      super(configuration, charset, null, null);
+
+      String pattern = highlight ? "%highlight{" + PATTERN + "}{" + styles + "}" : PATTERN;
+      patternLayout = PatternLayout.newBuilder().withConfiguration(configuration).withCharset(charset).withPattern(pattern).build();
+      highlightConverter = highlight ? HighlightConverter.newInstance(configuration, new String[] {"%msg", styles}) : null;
+      fastPath = charset.equals(StandardCharsets.US_ASCII) || charset.equals(StandardCharsets.ISO_8859_1) || charset.equals(StandardCharsets.UTF_8);
+
+      for (Level level : Level.values())
+      {
+         int slot = standardLevelSlot(level);
+         if (slot >= 0)
+         {
+            levelTags[slot] = levelTag(level);
+            levelPrefixes[slot] = highlightConverter == null ? null : highlightConverter.getLevelPrefixBytes(level);
+         }
+      }
+      lineSeparator = Strings.LINE_SEPARATOR.getBytes(StandardCharsets.US_ASCII);
+      suffix = highlightConverter == null ? null : highlightConverter.getSuffixBytes();
+   }
+
+   private static int standardLevelSlot(Level level)
+   {
+      int intLevel = level.intLevel();
+      return intLevel % 100 == 0 && intLevel >= 0 && intLevel < STANDARD_LEVEL_SLOTS * 100 ? intLevel / 100 : -1;
+   }
+
+   private static byte[] levelTag(Level level)
+   {
+      return (" [" + level.name() + "] ").getBytes(StandardCharsets.US_ASCII);
+   }
+
+   @Override
+   public String toSerializable(LogEvent event)
+   {
+      return patternLayout.toSerializable(event);
+   }
+
+   @Override
+   public void encode(LogEvent event, ByteBufferDestination destination)
+   {
+      if (!fastPath || event.getThrown() != null)
+      {
+         patternLayout.encode(event, destination);
+         return;
+      }
+
+      Scratch scratch = THREAD_LOCAL_SCRATCH.get();
+      StringBuilder text = scratch.text;
+      text.setLength(0);
+      if (event.getMessage() instanceof StringBuilderFormattable) // log4j's reusable events, which already hold the formatted text
+         ((StringBuilderFormattable) event.getMessage()).formatTo(text);
+      else
+         text.append(event.getMessage().getFormattedMessage());
+      int timestampLength = TimestampFormatter.get().format(event.getTimeMillis(), scratch.timestamp);
+
+      Level level = event.getLevel();
+      int slot = standardLevelSlot(level);
+      byte[] levelPrefix = slot >= 0 ? levelPrefixes[slot] : highlightConverter == null ? null : highlightConverter.getLevelPrefixBytes(level);
+      byte[] levelTag = slot >= 0 ? levelTags[slot] : levelTag(level);
+
+      synchronized (destination) // the same lock log4j's own encoders take
+      {
+         ByteBuffer buffer = destination.getByteBuffer();
+         if (levelPrefix != null)
+            buffer = put(destination, buffer, levelPrefix, levelPrefix.length);
+         buffer = put(destination, buffer, scratch.timestamp, timestampLength);
+         buffer = put(destination, buffer, levelTag, levelTag.length);
+         buffer = putText(destination, buffer, text);
+         buffer = put(destination, buffer, lineSeparator, lineSeparator.length);
+         if (suffix != null)
+            put(destination, buffer, suffix, suffix.length);
+      }
+   }
+
+   private static ByteBuffer put(ByteBufferDestination destination, ByteBuffer buffer, byte[] bytes, int length)
+   {
+      int offset = 0;
+      while (offset < length)
+      {
+         if (!buffer.hasRemaining())
+            buffer = destination.drain(buffer);
+         int chunk = Math.min(length - offset, buffer.remaining());
+         buffer.put(bytes, offset, chunk);
+         offset += chunk;
+      }
+      return buffer;
+   }
+
+   private ByteBuffer putText(ByteBufferDestination destination, ByteBuffer buffer, StringBuilder text)
+   {
+      int length = text.length();
+      for (int i = 0; i < length; i++)
+      {
+         char c = text.charAt(i);
+         if (c >= 0x80) // the rest goes through the charset, which allocates
+         {
+            byte[] rest = text.substring(i).getBytes(getCharset());
+            return put(destination, buffer, rest, rest.length);
+         }
+         if (!buffer.hasRemaining())
+            buffer = destination.drain(buffer);
+         buffer.put((byte) c);
+      }
+      return buffer;
+   }
+
+   private static final class Scratch
+   {
+      final StringBuilder text = new StringBuilder(256);
+      final byte[] timestamp = new byte[TimestampFormatter.MAX_LENGTH];
+   }
+
+   @PluginBuilderFactory
+   public static Builder newBuilder()
+   {
+      return new Builder();
+   }
+
+   public static final class Builder implements org.apache.logging.log4j.core.util.Builder<IHMCLayout>
+   {
+      @PluginConfiguration
+      private Configuration configuration;
+
+      @PluginBuilderAttribute
+      private Charset charset = Charset.defaultCharset(); // the same as PatternLayout
+
+      @PluginBuilderAttribute
+      private boolean highlight = true;
+
+      @PluginBuilderAttribute
+      private String styles = DEFAULT_STYLES;
+
+      public Builder setConfiguration(Configuration configuration)
+      {
+         this.configuration = configuration;
+         return this;
+      }
+
+      public Builder setCharset(Charset charset)
+      {
+         this.charset = charset;
+         return this;
+      }
+
+      public Builder setHighlight(boolean highlight)
+      {
+         this.highlight = highlight;
+         return this;
+      }
+
+      /**
+       * @param styles i.e. "INFO=normal, TRACE=green", as for %highlight
+       */
+      public Builder setStyles(String styles)
+      {
+         this.styles = styles;
+         return this;
+      }
+
+      @Override
+      public IHMCLayout build()
+      {
+         return new IHMCLayout(configuration, charset == null ? Charset.defaultCharset() : charset, highlight, styles);
+      }
+   }
+}
@@ -0,0 +1,367 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.Node;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.config.plugins.PluginConfiguration;
+import org.apache.logging.log4j.core.layout.AbstractStringLayout;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+import org.apache.logging.log4j.spi.LoggerContextShutdownAware;
+import org.apache.logging.log4j.util.StringBuilderFormattable;
+import org.apache.logging.log4j.util.Strings;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes each event as one line of JSON, for log analysis tools, i.e.
+ * <pre>
+ * {"timeMillis":1700000000123,"level":"WARN","thread":"main","logger":"us.ihmc","class":"us.ihmc.robot.Arm","line":42,"message":"Saturated","fields":{"joint":3,"torque":3.2}}
+ * </pre>
+ *
+ * For LogTools calls, the class and line are those of the call, the message has no caller
+ * prefix, and the key/value fields of a structured message ({@link LogToolsEvent}) are under
+ * "fields", as numbers, booleans or strings. Other events have the message log4j formatted,
+ * and no class, line or fields. An event with a throwable has its stack trace under "thrown".
+ *
+ * The JSON is written by hand into log4j's reusable StringBuilder, so apart from throwables,
+ * nothing is allocated per event. With -Dlog.async=true, the thread is the one that logged,
+ * not the writer's.
+ *
+ * LogTools only hands its messages over to layouts while one is started. log4j doesn't start or
+ * stop layouts, so a layout starts when it is built, and stops when the configuration it was
+ * built for is replaced or its LoggerContext stops, or when {@link #stop()} is called.
+ *
+ * <pre>
+ * JsonLinesLayout: {}
+ * </pre>
+ *
+ * The YAML configuration has to list the "us.ihmc.log" package under "packages" for log4j to find it.
+ */
+@Plugin(name = "JsonLinesLayout", category = Node.CATEGORY, elementType = Layout.ELEMENT_TYPE, printObject = true)
+public final class JsonLinesLayout extends AbstractStringLayout
+{
+   private static final String CONTENT_TYPE = "application/x-ndjson";
+   private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+   private static final ThreadLocal<StringBuilder> THREAD_LOCAL_TEXT = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+   private final ConfigurationStopListener configurationStopListener = new ConfigurationStopListener();
+   /** Guarded by this. */
+   private boolean started = false;
+
+   private JsonLinesLayout(Configuration configuration, Charset charset)
+   {
+      super(configuration, charset, null, null);
+   }
+
+   /**
+    * Makes LogTools hand its messages over, until {@link #stop()}.
+    */
+   public synchronized void start()
+   {
+      if (started)
+         return;
+      started = true;
+      MessageInFlight.addReader();
+
+      LoggerContext loggerContext = configuration == null ? null : configuration.getLoggerContext();
+      if (loggerContext != null)
+      {
+         loggerContext.addPropertyChangeListener(configurationStopListener);
+         loggerContext.addShutdownListener(configurationStopListener);
+      }
+   }
+
+   public synchronized void stop()
+   {
+      if (!started)
+         return;
+      started = false;
+      MessageInFlight.removeReader();
+
+      LoggerContext loggerContext = configuration == null ? null : configuration.getLoggerContext();
+      if (loggerContext != null)
+      {
+         loggerContext.removePropertyChangeListener(configurationStopListener);
+         loggerContext.getListeners().remove(configurationStopListener);
+      }
+   }
+
+   public synchronized boolean isStarted()
+   {
+      return started;
+   }
+
+   @Override
+   public String getContentType()
+   {
+      return CONTENT_TYPE + "; charset=" + getCharset();
+   }
+
+   @Override
+   public String toSerializable(LogEvent event)
+   {
+      StringBuilder json = getStringBuilder();
+      toJson(event, MessageInFlight.get(), json);
+      return json.toString();
+   }
+
+   @Override
+   public void encode(LogEvent event, ByteBufferDestination destination)
+   {
+      StringBuilder json = getStringBuilder();
+      toJson(event, MessageInFlight.get(), json);
+      getStringBuilderEncoder().encode(json, destination);
+      trimToMaxSize(json);
+   }
+
+   /**
+    * @param message the LogTools message the event was made from, or null
+    */
+   void toJson(LogEvent event, LogToolsMessage message, StringBuilder json)
+   {
+      StringBuilder text = THREAD_LOCAL_TEXT.get();
+
+      json.append("{\"timeMillis\":").append(event.getTimeMillis());
+      json.append(",\"level\":\"").append(event.getLevel().name()).append('"');
+      json.append(",\"thread\":");
+      String threadName = message == null ? null : message.getThreadName();
+      appendString(json, threadName == null ? event.getThreadName() : threadName);
+      json.append(",\"logger\":");
+      appendString(json, event.getLoggerName());
+
+      text.setLength(0);
+      if (message != null)
+      {
+         CallSite origin = message.getOrigin();
+         if (origin != null)
+         {
+            json.append(",\"class\":");
+            appendString(json, origin.getClassName());
+            json.append(",\"line\":").append(origin.getLineNumber());
+         }
+         message.formatMessageTo(text);
+      }
+      else if (event.getMessage() instanceof StringBuilderFormattable) // log4j's reusable events, which already hold the formatted text
+      {
+         ((StringBuilderFormattable) event.getMessage()).formatTo(text);
+      }
+      else
+      {
+         text.append(event.getMessage().getFormattedMessage());
+      }
+      json.append(",\"message\":");
+      appendString(json, text);
+
+      KeyValues keyValues = message == null ? null : message.getKeyValues();
+      if (keyValues != null && keyValues.size() > 0)
+      {
+         json.append(",\"fields\":{");
+         for (int i = 0; i < keyValues.size(); i++)
+         {
+            if (i > 0)
+               json.append(',');
+            appendString(json, keyValues.getKey(i));
+            json.append(':');
+            appendValue(json, text, keyValues, i);
+         }
+         json.append('}');
+      }
+
+      if (event.getThrown() != null)
+      {
+         StringWriter stackTrace = new StringWriter();
+         event.getThrown().printStackTrace(new PrintWriter(stackTrace));
+         json.append(",\"thrown\":");
+         appendString(json, stackTrace.toString());
+      }
+
+      json.append('}').append(Strings.LINE_SEPARATOR);
+   }
+
+   private static void appendValue(StringBuilder json, StringBuilder text, KeyValues keyValues, int index)
+   {
+      long bits = keyValues.getBits(index);
+      switch (keyValues.getType(index))
+      {
+         case PrimitiveParameters.INT:
+            json.append((int) bits);
+            break;
+         case PrimitiveParameters.LONG:
+            json.append(bits);
+            break;
+         case PrimitiveParameters.FLOAT:
+            appendNumber(json, Float.intBitsToFloat((int) bits));
+            break;
+         case PrimitiveParameters.DOUBLE:
+            appendNumber(json, Double.longBitsToDouble(bits));
+            break;
+         case PrimitiveParameters.BOOLEAN:
+            json.append(bits != 0L);
+            break;
+         case PrimitiveParameters.CHAR:
+            text.setLength(0);
+            appendString(json, text.append((char) bits));
+            break;
+         default:
+            appendObject(json, text, keyValues.getObject(index));
+      }
+   }
+
+   private static void appendObject(StringBuilder json, StringBuilder text, Object value)
+   {
+      if (value == null)
+      {
+         json.append("null");
+      }
+      else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+      {
+         json.append(((Number) value).longValue());
+      }
+      else if (value instanceof Float)
+      {
+         appendNumber(json, ((Float) value).floatValue());
+      }
+      else if (value instanceof Double)
+      {
+         appendNumber(json, ((Double) value).doubleValue());
+      }
+      else if (value instanceof Boolean)
+      {
+         json.append(((Boolean) value).booleanValue());
+      }
+      else
+      {
+         text.setLength(0);
+         LogToolsMessage.appendObjectParameter(text, value);
+         appendString(json, text);
+      }
+   }
+
+   /**
+    * Appended as a float, so 3.2f is written as 3.2 and not as the double it widens to.
+    */
+   private static void appendNumber(StringBuilder json, float value)
+   {
+      if (Float.isNaN(value) || Float.isInfinite(value))
+         json.append('"').append(value).append('"');
+      else
+         json.append(value);
+   }
+
+   /**
+    * JSON has no NaN or infinities, so those are written as strings.
+    */
+   private static void appendNumber(StringBuilder json, double value)
+   {
+      if (Double.isNaN(value) || Double.isInfinite(value))
+         json.append('"').append(value).append('"');
+      else
+         json.append(value);
+   }
+
+   private static void appendString(StringBuilder json, CharSequence string)
+   {
+      if (string == null)
+      {
+         json.append("null");
+         return;
+      }
+
+      json.append('"');
+      for (int i = 0; i < string.length(); i++)
+      {
+         char c = string.charAt(i);
+         switch (c)
+         {
+            case '"':
+               json.append("\\\"");
+               break;
+            case '\\':
+               json.append("\\\\");
+               break;
+            case '\n':
+               json.append("\\n");
+               break;
+            case '\r':
+               json.append("\\r");
+               break;
+            case '\t':
+               json.append("\\t");
+               break;
+            default:
+               if (c < 0x20)
+                  json.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+               else
+                  json.append(c);
+         }
+      }
+      json.append('"');
+   }
+
+   @PluginBuilderFactory
+   public static Builder newBuilder()
+   {
+      return new Builder();
+   }
+
+   public static final class Builder implements org.apache.logging.log4j.core.util.Builder<JsonLinesLayout>
+   {
+      @PluginConfiguration
+      private Configuration configuration;
+
+      @PluginBuilderAttribute
+      private Charset charset = StandardCharsets.UTF_8; // what JSON is read as
+
+      public Builder setConfiguration(Configuration configuration)
+      {
+         this.configuration = configuration;
+         return this;
+      }
+
+      public Builder setCharset(Charset charset)
+      {
+         this.charset = charset;
+         return this;
+      }
+
+      /**
+       * @return a started layout
+       */
+      @Override
+      public JsonLinesLayout build()
+      {
+         JsonLinesLayout layout = new JsonLinesLayout(configuration, charset == null ? StandardCharsets.UTF_8 : charset);
+         layout.start();
+         return layout;
+      }
+   }
+
+   /**
+    * Stops the layout when its configuration is replaced, i.e. when the file is reloaded, or its LoggerContext stops.
+    */
+   private final class ConfigurationStopListener implements PropertyChangeListener, LoggerContextShutdownAware
+   {
+      @Override
+      public void propertyChange(PropertyChangeEvent event)
+      {
+         if (LoggerContext.PROPERTY_CONFIG.equals(event.getPropertyName()) && event.getOldValue() == configuration)
+            stop();
+      }
+
+      @Override
+      public void contextShutdown(org.apache.logging.log4j.spi.LoggerContext loggerContext)
+      {
+         stop();
+      }
+   }
+}
@@ -0,0 +1,154 @@
+package us.ihmc.log;
+
+import java.util.Arrays;
+
+/**
+ * The key/value fields of a structured LogTools message, i.e. from
+ * {@code LogTools.info().kv("joint", id).kv("torque", 3.2).log("saturated")}.
+ *
+ * Primitive values are kept as their raw bits with a {@link PrimitiveParameters} type, like
+ * primitive parameters, and anything else as a reference. The arrays grow when a message has
+ * more fields than any before it, and are reused after that.
+ */
+final class KeyValues
+{
+   /** The type of a value kept as a reference. */
+   static final int OBJECT = 0;
+
+   private static final int INITIAL_CAPACITY = 8;
+
+   private String[] keys = new String[INITIAL_CAPACITY];
+   private int[] types = new int[INITIAL_CAPACITY];
+   private long[] bits = new long[INITIAL_CAPACITY];
+   private Object[] objects = new Object[INITIAL_CAPACITY];
+   private int size = 0;
+
+   void add(String key, int type, long bits, Object object)
+   {
+      if (size == keys.length)
+         ensureCapacity(2 * size);
+
+      keys[size] = key;
+      types[size] = type;
+      this.bits[size] = bits;
+      objects[size] = object;
+      size++;
+   }
+
+   int size()
+   {
+      return size;
+   }
+
+   String getKey(int index)
+   {
+      return keys[index];
+   }
+
+   /**
+    * @return a {@link PrimitiveParameters} type, or {@link #OBJECT}
+    */
+   int getType(int index)
+   {
+      return types[index];
+   }
+
+   long getBits(int index)
+   {
+      return bits[index];
+   }
+
+   Object getObject(int index)
+   {
+      return objects[index];
+   }
+
+   /**
+    * Drops the fields, and the references to the caller's keys and objects.
+    */
+   void clear()
+   {
+      Arrays.fill(keys, 0, size, null);
+      Arrays.fill(objects, 0, size, null);
+      size = 0;
+   }
+
+   void copyFrom(KeyValues other)
+   {
+      clear();
+      ensureCapacity(other.size);
+      System.arraycopy(other.keys, 0, keys, 0, other.size);
+      System.arraycopy(other.types, 0, types, 0, other.size);
+      System.arraycopy(other.bits, 0, bits, 0, other.size);
+      System.arraycopy(other.objects, 0, objects, 0, other.size);
+      size = other.size;
+   }
+
+   /**
+    * Replaces each object value that could change before the message is formatted with its
+    * {@link LogSnapshot}, like {@link LogToolsMessage#snapshot()} does for parameters.
+    *
+    * @return false if a value could change and has no snapshot method
+    */
+   boolean snapshot()
+   {
+      for (int i = 0; i < size; i++)
+      {
+         if (types[i] != OBJECT)
+            continue;
+
+         Object snapshot = LogToolsMessage.snapshot(objects[i]);
+         if (snapshot == LogToolsMessage.NO_SNAPSHOT)
+            return false;
+         objects[i] = snapshot;
+      }
+      return true;
+   }
+
+   /**
+    * Appends the fields for people to read, i.e. " joint=3 torque=3.2".
+    */
+   /**
+    * Replaces each object value that has no {@link LogSnapshot} with its text. Allocates.
+    */
+   void formatNow()
+   {
+      for (int i = 0; i < size; i++)
+      {
+         if (types[i] != OBJECT || LogToolsMessage.isImmutable(objects[i]))
+            continue;
+
+         Object snapshot = LogToolsMessage.snapshot(objects[i]);
+         if (snapshot == LogToolsMessage.NO_SNAPSHOT)
+         {
+            StringBuilder text = new StringBuilder();
+            LogToolsMessage.appendObjectParameter(text, objects[i]);
+            snapshot = text.toString();
+         }
+         objects[i] = snapshot;
+      }
+   }
+
+   void appendText(StringBuilder buffer)
+   {
+      for (int i = 0; i < size; i++)
+      {
+         buffer.append(' ').append(keys[i]).append('=');
+         if (types[i] == OBJECT)
+            LogToolsMessage.appendObjectParameter(buffer, objects[i]);
+         else
+            PrimitiveParameters.append(buffer, types[i], bits[i]);
+      }
+   }
+
+   private void ensureCapacity(int capacity)
+   {
+      if (capacity <= keys.length)
+         return;
+
+      keys = Arrays.copyOf(keys, capacity);
+      types = Arrays.copyOf(types, capacity);
+      bits = Arrays.copyOf(bits, capacity);
+      objects = Arrays.copyOf(objects, capacity);
+   }
+}
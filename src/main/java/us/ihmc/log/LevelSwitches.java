@@ -0,0 +1,110 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.spi.LoggerContext;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+
+/**
+ * Whether each standard level is enabled on the IHMC root logger, as constants the JIT can fold.
+ *
+ * Each level has a MutableCallSite whose target returns a constant boolean. Invoking it through
+ * a static final MethodHandle inlines to that constant, so a disabled trace() or debug() compiles
+ * down to nothing. When a level changes, the targets are replaced, which deoptimizes the code
+ * that folded the old values, and the JIT compiles it again with the new ones.
+ *
+ * The switches are updated whenever log4j's configuration changes, which includes
+ * Configurator.setLevel() and the LogTools level setters.
+ */
+final class LevelSwitches
+{
+   private static final Logger IHMC_ROOT_LOGGER = LogManager.getLogger("us.ihmc");
+
+   private static final MutableCallSite FATAL_SWITCH = newSwitch();
+   private static final MutableCallSite ERROR_SWITCH = newSwitch();
+   private static final MutableCallSite WARN_SWITCH = newSwitch();
+   private static final MutableCallSite INFO_SWITCH = newSwitch();
+   private static final MutableCallSite DEBUG_SWITCH = newSwitch();
+   private static final MutableCallSite TRACE_SWITCH = newSwitch();
+   private static final MutableCallSite[] SWITCHES = {FATAL_SWITCH, ERROR_SWITCH, WARN_SWITCH, INFO_SWITCH, DEBUG_SWITCH, TRACE_SWITCH};
+   private static final Level[] LEVELS = {Level.FATAL, Level.ERROR, Level.WARN, Level.INFO, Level.DEBUG, Level.TRACE};
+
+   private static final MethodHandle FATAL_ENABLED = FATAL_SWITCH.dynamicInvoker();
+   private static final MethodHandle ERROR_ENABLED = ERROR_SWITCH.dynamicInvoker();
+   private static final MethodHandle WARN_ENABLED = WARN_SWITCH.dynamicInvoker();
+   private static final MethodHandle INFO_ENABLED = INFO_SWITCH.dynamicInvoker();
+   private static final MethodHandle DEBUG_ENABLED = DEBUG_SWITCH.dynamicInvoker();
+   private static final MethodHandle TRACE_ENABLED = TRACE_SWITCH.dynamicInvoker();
+
+   static
+   {
+      LoggerContext context = LogManager.getContext(false);
+      if (context instanceof org.apache.logging.log4j.core.LoggerContext) // log4j core, as opposed to another log4j API implementation
+      {
+         ((org.apache.logging.log4j.core.LoggerContext) context).addPropertyChangeListener(event -> update());
+      }
+      update();
+   }
+
+   private LevelSwitches()
+   {
+   }
+
+   private static MutableCallSite newSwitch()
+   {
+      return new MutableCallSite(MethodHandles.constant(boolean.class, true));
+   }
+
+   /**
+    * Reads the levels from the IHMC root logger again.
+    */
+   static synchronized void update()
+   {
+      for (int i = 0; i < SWITCHES.length; i++)
+      {
+         boolean enabled = IHMC_ROOT_LOGGER.isEnabled(LEVELS[i]);
+         if (invoke(SWITCHES[i].getTarget()) != enabled) // only deoptimize what changed
+         {
+            SWITCHES[i].setTarget(MethodHandles.constant(boolean.class, enabled));
+         }
+      }
+      MutableCallSite.syncAll(SWITCHES); // other threads see the new targets from here on
+   }
+
+   /**
+    * @return if the level is enabled on the IHMC root logger
+    */
+   static boolean isEnabled(Level level)
+   {
+      if (level == Level.TRACE) // level is usually a constant here, so all but one branch fold away
+         return invoke(TRACE_ENABLED);
+      else if (level == Level.DEBUG)
+         return invoke(DEBUG_ENABLED);
+      else if (level == Level.INFO)
+         return invoke(INFO_ENABLED);
+      else if (level == Level.WARN)
+         return invoke(WARN_ENABLED);
+      else if (level == Level.ERROR)
+         return invoke(ERROR_ENABLED);
+      else if (level == Level.FATAL)
+         return invoke(FATAL_ENABLED);
+      else // OFF, ALL and custom levels
+         return IHMC_ROOT_LOGGER.isEnabled(level);
+   }
+
+   private static boolean invoke(MethodHandle enabled)
+   {
+      try
+      {
+         return (boolean) enabled.invokeExact();
+      }
+      catch (Throwable e) // a constant can't throw
+      {
+         throw new IllegalStateException(e);
+      }
+   }
+}
@@ -0,0 +1,142 @@
+package us.ihmc.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * A bounded, lock-free ring buffer of preallocated slots, for many producer threads
+ * and a single consumer thread.
+ *
+ * Producers {@link #claim()} a slot, fill it in place, and {@link #publish(long)} it.
+ * The consumer {@link #peek()}s at the next published slot, reads it, and
+ * {@link #release()}s it back to the producers. Nothing is allocated after construction.
+ *
+ * Each slot has a sequence number telling who may touch it next, as in Dmitry Vyukov's
+ * bounded queue. A slot at position p is free for the producer claiming p when its
+ * sequence is p, and ready for the consumer when its sequence is p + 1. Producers only
+ * contend on the compare and set of the claim counter.
+ */
+final class LogRingBuffer<T>
+{
+   private final T[] slots;
+   private final AtomicLongArray sequences;
+   private final int mask;
+
+   private final AtomicLong claimed = new AtomicLong();
+   /** Only written by the consumer thread. */
+   private final AtomicLong consumed = new AtomicLong();
+
+   /**
+    * @param capacity the number of slots, rounded up to a power of two
+    * @param slotFactory creates each slot once, up front
+    */
+   @SuppressWarnings("unchecked")
+   LogRingBuffer(int capacity, Supplier<T> slotFactory)
+   {
+      if (capacity < 1 || capacity > 1 << 30)
+         throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+
+      int roundedCapacity = Integer.highestOneBit(capacity);
+      if (roundedCapacity < capacity)
+         roundedCapacity <<= 1;
+
+      slots = (T[]) new Object[roundedCapacity];
+      sequences = new AtomicLongArray(roundedCapacity);
+      for (int i = 0; i < roundedCapacity; i++)
+      {
+         slots[i] = slotFactory.get();
+         sequences.set(i, i);
+      }
+      mask = roundedCapacity - 1;
+   }
+
+   /**
+    * Claims the next free slot. Safe to call from any thread.
+    *
+    * @return the position of the claimed slot, or -1 if the buffer is full
+    */
+   long claim()
+   {
+      while (true)
+      {
+         long position = claimed.get();
+         long difference = sequences.get(index(position)) - position;
+         if (difference == 0)
+         {
+            if (claimed.compareAndSet(position, position + 1))
+               return position;
+         }
+         else if (difference < 0) // the consumer hasn't released this slot from the last lap yet
+         {
+            return -1;
+         }
+         // else another producer claimed this position first, try the next one
+      }
+   }
+
+   /**
+    * @return the slot at a claimed position, for the producer to fill
+    */
+   T get(long position)
+   {
+      return slots[index(position)];
+   }
+
+   /**
+    * Hands a filled slot to the consumer.
+    */
+   void publish(long position)
+   {
+      sequences.lazySet(index(position), position + 1);
+   }
+
+   /**
+    * Only call from the consumer thread.
+    *
+    * @return the next published slot, or null if the producer of the next position hasn't published yet
+    */
+   T peek()
+   {
+      long position = consumed.get();
+      if (sequences.get(index(position)) != position + 1)
+         return null;
+      return slots[index(position)];
+   }
+
+   /**
+    * Only call from the consumer thread, after reading the slot returned by {@link #peek()}.
+    */
+   void release()
+   {
+      long position = consumed.get();
+      sequences.lazySet(index(position), position + slots.length);
+      consumed.lazySet(position + 1);
+   }
+
+   /**
+    * @return how many slots have been claimed, published or not
+    */
+   long getClaimedCount()
+   {
+      return claimed.get();
+   }
+
+   /**
+    * @return how many slots the consumer has released
+    */
+   long getConsumedCount()
+   {
+      return consumed.get();
+   }
+
+   int getCapacity()
+   {
+      return slots.length;
+   }
+
+   private int index(long position)
+   {
+      return (int) position & mask;
+   }
+}
@@ -0,0 +1,32 @@
+package us.ihmc.log;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the method that takes a snapshot of an object for logging, so that in asynchronous
+ * mode (-Dlog.async=true) messages with the object as a parameter are still formatted on the
+ * writer thread, instead of on the logging thread.
+ *
+ * The method must take no arguments, and return something that prints the same as the object
+ * does now and won't change after it returns, i.e. a copy nothing else references, or the
+ * object itself if it is immutable. It is called on the logging thread, so it should be cheap.
+ * If it throws, the message is formatted right away instead.
+ *
+ * <pre>
+ * &#64;LogSnapshot
+ * public Point3D copyForLogging()
+ * {
+ *    return new Point3D(this);
+ * }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface LogSnapshot
+{
+}
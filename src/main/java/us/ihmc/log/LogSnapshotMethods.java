@@ -0,0 +1,68 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.status.StatusLogger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Finds the {@link LogSnapshot} method of each class once, as a method handle taking and
+ * returning an Object, so calling it later doesn't box or look anything up.
+ */
+final class LogSnapshotMethods
+{
+   private static final MethodType SNAPSHOT_TYPE = MethodType.methodType(Object.class, Object.class);
+
+   private static final ClassValue<MethodHandle> SNAPSHOT_METHODS = new ClassValue<MethodHandle>()
+   {
+      @Override
+      protected MethodHandle computeValue(Class<?> type)
+      {
+         return find(type);
+      }
+   };
+
+   private LogSnapshotMethods()
+   {
+   }
+
+   /**
+    * @return the snapshot method of a class, or null if it has none
+    */
+   static MethodHandle get(Class<?> type)
+   {
+      return SNAPSHOT_METHODS.get(type);
+   }
+
+   private static MethodHandle find(Class<?> type)
+   {
+      for (Class<?> declaringClass = type; declaringClass != null; declaringClass = declaringClass.getSuperclass())
+      {
+         for (Method method : declaringClass.getDeclaredMethods())
+         {
+            if (!method.isAnnotationPresent(LogSnapshot.class))
+               continue;
+
+            if (method.getParameterCount() != 0 || method.getReturnType() == void.class || Modifier.isStatic(method.getModifiers()))
+            {
+               StatusLogger.getLogger().warn("@LogSnapshot method {} must be an instance method with no arguments that returns the snapshot", method);
+               return null;
+            }
+            try
+            {
+               method.setAccessible(true);
+               return MethodHandles.lookup().unreflect(method).asType(SNAPSHOT_TYPE);
+            }
+            catch (IllegalAccessException | RuntimeException e) // i.e. a module that isn't open to us
+            {
+               StatusLogger.getLogger().warn("Could not access @LogSnapshot method " + method, e);
+               return null;
+            }
+         }
+      }
+      return null;
+   }
+}
@@ -5,10 +5,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.core.config.Configurator;
 
-import java.util.HashMap;
 import java.util.TreeSet;
 import java.util.function.Supplier;
 
+import static us.ihmc.log.PrimitiveParameters.*;
+
 public class LogTools
 {
    /**
@@ -24,7 +25,7 @@ public class LogTools
     * Granular mode is enabled with -Dlog.granular=true and allows the user to set
     * levels based on package and class name.
     *
-    * This mode is disabled by default to remove the need to allocate Throwables
+    * This mode is disabled by default to remove the need to walk the stack
     * to find out which logger to check is enabled. This both provides realtime
     * safety and removes cost of having many low level log statements (i.e. DEBUG,
     * TRACE).
@@ -63,64 +64,136 @@ public class LogTools
                String afterLogLevel = stringKey.substring(9);
                if (afterLogLevel.isEmpty() || afterLogLevel.equals(".")) // setting log4j root level
                {
-                  setLevel(stringKey, LogManager.ROOT_LOGGER_NAME);
-                  setLevel(stringKey, IHMC_ROOT_LOGGER_NAME); // also set the ihmc level, there are two loggers present, root and ihmc
+                  setLevelFromProperty(stringKey, LogManager.ROOT_LOGGER_NAME);
+                  setLevelFromProperty(stringKey, IHMC_ROOT_LOGGER_NAME); // also set the ihmc level, there are two loggers present, root and ihmc
                }
                else if (afterLogLevel.equals("." + IHMC_ROOT_LOGGER_NAME)) // setting ihmc root level
                {
-                  setLevel(stringKey, IHMC_ROOT_LOGGER_NAME); // don't auto switch to granular
+                  setLevelFromProperty(stringKey, IHMC_ROOT_LOGGER_NAME); // don't auto switch to granular
                }
                else if (afterLogLevel.startsWith(".")) // granular level set
                {
                   if (!GRANULAR_MODE_SET_EXPLICITLY) // if the user hasn't explicitly set granular mode
                      GRANULAR_MODE = true;           // auto switch to that mode, otherwise this property would not make sense
-                  setLevel(stringKey, afterLogLevel.substring(1));
+                  setLevelFromProperty(stringKey, afterLogLevel.substring(1));
                }
             }
          }
       }
    }
 
-   private static void setLevel(String propertyName, String group)
+   private static void setLevelFromProperty(String propertyName, String group)
    {
       if (System.getProperties().containsKey(propertyName))
       {
-         String level = System.getProperty(propertyName).trim().toLowerCase();
-         if (level.startsWith("fat") || level.startsWith("err"))
-         {
-            Configurator.setLevel(group, Level.ERROR);
-         }
-         else if (level.startsWith("war"))
-         {
-            Configurator.setLevel(group, Level.WARN);
-         }
-         else if (level.startsWith("inf"))
-         {
-            Configurator.setLevel(group, Level.INFO);
-         }
-         else if (level.startsWith("deb"))
-         {
-            Configurator.setLevel(group, Level.DEBUG);
-         }
-         else if (level.startsWith("tra"))
-         {
-            Configurator.setLevel(group, Level.TRACE);
-         }
-         else if (level.startsWith("all"))
-         {
-            Configurator.setLevel(group, Level.ALL);
-         }
-         else if (level.startsWith("off"))
+         Level level = parseLevel(System.getProperty(propertyName));
+         if (level != null)
          {
-            Configurator.setLevel(group, Level.OFF);
+            Configurator.setLevel(group, level);
          }
       }
    }
 
    /**
-    * Keep a list of loggers, so we don't recreate a bunch of formatters.
+    * Parses a level the same way the log.level properties are parsed.
+    *
+    * @return the level, or null if it isn't one
+    */
+   static Level parseLevel(String levelString)
+   {
+      String level = levelString.trim().toLowerCase();
+      if (level.startsWith("fat") || level.startsWith("err"))
+      {
+         return Level.ERROR;
+      }
+      else if (level.startsWith("war"))
+      {
+         return Level.WARN;
+      }
+      else if (level.startsWith("inf"))
+      {
+         return Level.INFO;
+      }
+      else if (level.startsWith("deb"))
+      {
+         return Level.DEBUG;
+      }
+      else if (level.startsWith("tra"))
+      {
+         return Level.TRACE;
+      }
+      else if (level.startsWith("all"))
+      {
+         return Level.ALL;
+      }
+      else if (level.startsWith("off"))
+      {
+         return Level.OFF;
+      }
+      return null;
+   }
+
+   /**
+    * Sets the level of everything on a live JVM, like -Dlog.level does at startup.
+    */
+   public static void setLevel(Level level)
+   {
+      Configurator.setLevel(LogManager.ROOT_LOGGER_NAME, level);
+      setLevel(IHMC_ROOT_LOGGER_NAME, level);
+   }
+
+   /**
+    * Sets the level of a logger on a live JVM, like -Dlog.level.&lt;loggerName&gt; does at startup.
+    * Use "us.ihmc" for all IHMC software. Levels of packages and classes only apply in granular mode,
+    * which is decided at startup.
+    */
+   public static void setLevel(String loggerName, Level level)
+   {
+      Configurator.setLevel(loggerName, level);
+      LevelSwitches.update(); // log4j notifies the switches as well, this makes sure it happened before returning
+   }
+
+   /**
+    * @return the level configured for a logger, i.e. "us.ihmc" or a package or class name in granular mode
+    */
+   public static Level getLevel(String loggerName)
+   {
+      return LogManager.getLogger(loggerName).getLevel();
+   }
+
+   /**
+    * @return true if levels can be set by package and class, which is decided at startup
     */
-   private static final HashMap<String, Logger> loggers = GRANULAR_MODE ? new HashMap<>() : null;
+   public static boolean isGranularMode()
+   {
+      return GRANULAR_MODE;
+   }
+
+   /**
+    * @return messages per level, characters formatted and call latencies since startup, and the call sites logging the most lately,
+    *         if -Dlog.metrics=true is set. See {@link LogToolsMetrics}.
+    */
+   public static LogToolsMetricsSnapshot metricsSnapshot()
+   {
+      return LogToolsMetrics.ENABLED ? LogToolsMetrics.INSTANCE.snapshot() : LogToolsMetricsSnapshot.DISABLED;
+   }
+
+   /**
+    * Logs the disabled messages of the last few seconds that weren't logged yet, if
+    * -Dlog.recorder=true is set. This happens by itself after an ERROR or FATAL message.
+    * See {@link FlightRecorder}.
+    */
+   public static void dumpFlightRecorder()
+   {
+      if (FlightRecorder.ENABLED)
+         FlightRecorder.INSTANCE.dump(IHMC_ROOT_LOGGER, Level.INFO, ASYNC_WRITER);
+   }
+
+   /**
+    * Keep a registry of loggers, so we don't recreate a bunch of formatters.
+    * Many threads log at once, so this must be safe to use concurrently.
+    */
+   private static final GranularLoggerRegistry loggers = GRANULAR_MODE ? new GranularLoggerRegistry() : null;
 
    /**
     * Gets or retrieves a logger instance by name.
@@ -130,19 +203,32 @@ public class LogTools
       if (!GRANULAR_MODE)
          throw new RuntimeException("getLogger() should never be called when GRANULAR_MODE = false");
 
-      Logger maybeLogger = loggers.get(loggerName);
-      if (maybeLogger != null)
-      {
-         return maybeLogger;
-      }
-      else
-      {
-         Logger logger = LogManager.getLogger(loggerName);
-         loggers.put(loggerName, logger);
-         return logger;
-      }
+      return loggers.getLogger(loggerName);
+   }
+
+   /**
+    * Gets or retrieves the logger for the class of a call site.
+    */
+   private static Logger getLogger(CallSite origin)
+   {
+      if (!GRANULAR_MODE)
+         throw new RuntimeException("getLogger() should never be called when GRANULAR_MODE = false");
+
+      return loggers.getLogger(origin);
    }
 
+   /**
+    * Asynchronous mode is enabled with -Dlog.async=true and hands enabled messages to a
+    * writer thread, which does the formatting and I/O. See {@link AsyncLogWriter}.
+    */
+   private static final AsyncLogWriter ASYNC_WRITER = AsyncLogWriter.fromSystemProperties();
+
+   /**
+    * Rate limiting every call site is enabled with -Dlog.limit=true. Otherwise, only the
+    * xxxLimited methods are rate limited. See {@link RateLimiter} for the limits.
+    */
+   private static final boolean LIMIT_EVERY_CALL_SITE = System.getProperty("log.limit", "false").trim().toLowerCase().contains("true");
+
    /**
     * The IHMC root logger instance.
     */
@@ -154,37 +240,40 @@ public class LogTools
       {
          info("Granular logging mode enabled. Not realtime safe.");
       }
+      LogToolsMXBeanImpl.register();
    }
 
-   private static StackTraceElement origin(int additionalStackTraceHeight)
-   {
-      return Thread.currentThread().getStackTrace()[4 + additionalStackTraceHeight];
-   }
-
-   private static StackTraceElement origin()
-   {
-      return Thread.currentThread().getStackTrace()[4];
-   }
-
-   private static String format(StackTraceElement origin, Object message)
+   /**
+    * Creates a logger for a class, for code that logs often enough that granular mode's
+    * stack walk on every level check matters. Levels set for the class, or any of its
+    * packages, apply to it the same way they apply to calls to the static methods.
+    *
+    * <pre>
+    * private static final LogToolsWriteOnly LOG = LogTools.forClass(MyClass.class);
+    * </pre>
+    */
+   public static LogToolsWriteOnly forClass(Class<?> clazz)
    {
-      return clickableCoordinatePrefix(origin) + (message == null ? null : message.toString());
+      return forName(clazz.getName().replace('$', '.'));
    }
 
-   private static String clickableCoordinatePrefix(StackTraceElement origin)
+   /**
+    * Creates a logger for a name, i.e. "us.ihmc.robot.controller". In granular mode,
+    * levels are looked up by this name instead of by the class of the caller.
+    */
+   public static LogToolsWriteOnly forName(String loggerName)
    {
-      return "(" + classSimpleName(origin) + ".java:" + origin.getLineNumber() + "): ";
+      return new LogToolsLogger(GRANULAR_MODE ? getLogger(loggerName) : IHMC_ROOT_LOGGER);
    }
 
-   private static String classSimpleName(StackTraceElement origin)
+   private static CallSite origin(int additionalStackTraceHeight)
    {
-      String[] classNameSplit = origin.getClassName().split("\\.");
-      return classNameSplit[classNameSplit.length - 1].split("\\$")[0];
+      return CallSiteCache.get(CallerResolver.resolve(4 + additionalStackTraceHeight));
    }
 
-   private static String classFromOrigin(StackTraceElement origin)
+   private static CallSite origin()
    {
-      return origin.getClassName().replaceAll("\\$", ".");
+      return CallSiteCache.get(CallerResolver.resolve(4));
    }
 
    // BEGIN BOILERPLATE API
@@ -193,19 +282,27 @@ public class LogTools
    {
       if (!GRANULAR_MODE) // default, realtime safe mode
       {
-         if (IHMC_ROOT_LOGGER.isEnabled(level)) // simple O(1) boolean check
+         if (LevelSwitches.isEnabled(level)) // a constant, once compiled
+         {
+            CallSite origin = origin(); // here it is OK to start allocating, this log message is enabled
+            logMessage(IHMC_ROOT_LOGGER, level, LogToolsMessage.of(origin, message));
+         }
+         else if (FlightRecorder.ENABLED)
          {
-            StackTraceElement origin = origin(); // here it is OK to start allocating, this log message is enabled
-            IHMC_ROOT_LOGGER.log(level, format(origin, message));
+            FlightRecorder.INSTANCE.record(level, null, message);
          }
       }
       else // granular = true
       {
-         StackTraceElement origin = origin(); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
+         CallSite origin = origin(); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
          if (logger.isEnabled(level))
          {
-            logger.log(level, format(origin, message));
+            logMessage(logger, level, LogToolsMessage.of(origin, message));
+         }
+         else if (FlightRecorder.ENABLED)
+         {
+            FlightRecorder.INSTANCE.record(level, origin, message);
          }
       }
    }
@@ -214,19 +311,27 @@ public class LogTools
    {
       if (!GRANULAR_MODE) // default, realtime safe mode
       {
-         if (IHMC_ROOT_LOGGER.isEnabled(level)) // simple O(1) boolean check
+         if (LevelSwitches.isEnabled(level)) // a constant, once compiled
+         {
+            CallSite origin = origin(additionalStackTraceHeight); // here it is OK to start allocating, this log message is enabled
+            logMessage(IHMC_ROOT_LOGGER, level, LogToolsMessage.of(origin, message));
+         }
+         else if (FlightRecorder.ENABLED)
          {
-            StackTraceElement origin = origin(additionalStackTraceHeight); // here it is OK to start allocating, this log message is enabled
-            IHMC_ROOT_LOGGER.log(level, format(origin, message));
+            FlightRecorder.INSTANCE.record(level, null, message);
          }
       }
       else // granular = true
       {
-         StackTraceElement origin = origin(additionalStackTraceHeight); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
+         CallSite origin = origin(additionalStackTraceHeight); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
          if (logger.isEnabled(level))
          {
-            logger.log(level, format(origin, message));
+            logMessage(logger, level, LogToolsMessage.of(origin, message));
+         }
+         else if (FlightRecorder.ENABLED)
+         {
+            FlightRecorder.INSTANCE.record(level, origin, message);
          }
       }
    }
@@ -235,19 +340,19 @@ public class LogTools
    {
       if (!GRANULAR_MODE) // default, realtime safe mode
       {
-         if (IHMC_ROOT_LOGGER.isEnabled(level)) // simple O(1) boolean check
+         if (LevelSwitches.isEnabled(level)) // a constant, once compiled
          {
-            StackTraceElement origin = origin(); // here it is OK to start allocating, this log message is enabled
-            IHMC_ROOT_LOGGER.log(level, format(origin, msgSupplier.get()));
+            CallSite origin = origin(); // here it is OK to start allocating, this log message is enabled
+            logMessage(IHMC_ROOT_LOGGER, level, LogToolsMessage.of(origin, msgSupplier.get()));
          }
       }
       else // granular = true
       {
-         StackTraceElement origin = origin(); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
+         CallSite origin = origin(); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
          if (logger.isEnabled(level))
          {
-            logger.log(level, format(origin, msgSupplier.get()));
+            logMessage(logger, level, LogToolsMessage.of(origin, msgSupplier.get()));
          }
       }
    }
@@ -256,19 +361,19 @@ public class LogTools
    {
       if (!GRANULAR_MODE) // default, realtime safe mode
       {
-         if (IHMC_ROOT_LOGGER.isEnabled(level)) // simple O(1) boolean check
+         if (LevelSwitches.isEnabled(level)) // a constant, once compiled
          {
-            StackTraceElement origin = origin(); // here it is OK to start allocating, this log message is enabled
-            IHMC_ROOT_LOGGER.log(level, format(origin, message), msgSupplier.get());
+            CallSite origin = origin(); // here it is OK to start allocating, this log message is enabled
+            logMessage(IHMC_ROOT_LOGGER, level, LogToolsMessage.of(origin, message, 1, msgSupplier.get(), null, null));
          }
       }
       else // granular = true
       {
-         StackTraceElement origin = origin(); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
+         CallSite origin = origin(); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
          if (logger.isEnabled(level))
          {
-            logger.log(level, format(origin, message), msgSupplier.get());
+            logMessage(logger, level, LogToolsMessage.of(origin, message, 1, msgSupplier.get(), null, null));
          }
       }
    }
@@ -277,19 +382,27 @@ public class LogTools
    {
       if (!GRANULAR_MODE) // default, realtime safe mode
       {
-         if (IHMC_ROOT_LOGGER.isEnabled(level)) // simple O(1) boolean check
+         if (LevelSwitches.isEnabled(level)) // a constant, once compiled
+         {
+            CallSite origin = origin(); // here it is OK to start allocating, this log message is enabled
+            logMessage(IHMC_ROOT_LOGGER, level, LogToolsMessage.of(origin, message, 1, p0, null, null));
+         }
+         else if (FlightRecorder.ENABLED)
          {
-            StackTraceElement origin = origin(); // here it is OK to start allocating, this log message is enabled
-            IHMC_ROOT_LOGGER.log(level, format(origin, message), p0);
+            FlightRecorder.INSTANCE.record(level, null, message, 1, p0, null, null);
          }
       }
       else // granular = true
       {
-         StackTraceElement origin = origin(); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
+         CallSite origin = origin(); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
          if (logger.isEnabled(level))
          {
-            logger.log(level, format(origin, message), p0);
+            logMessage(logger, level, LogToolsMessage.of(origin, message, 1, p0, null, null));
+         }
+         else if (FlightRecorder.ENABLED)
+         {
+            FlightRecorder.INSTANCE.record(level, origin, message, 1, p0, null, null);
          }
       }
    }
@@ -298,19 +411,27 @@ public class LogTools
    {
       if (!GRANULAR_MODE) // default, realtime safe mode
       {
-         if (IHMC_ROOT_LOGGER.isEnabled(level)) // simple O(1) boolean check
+         if (LevelSwitches.isEnabled(level)) // a constant, once compiled
+         {
+            CallSite origin = origin(); // here it is OK to start allocating, this log message is enabled
+            logMessage(IHMC_ROOT_LOGGER, level, LogToolsMessage.of(origin, message, 2, p0, p1, null));
+         }
+         else if (FlightRecorder.ENABLED)
          {
-            StackTraceElement origin = origin(); // here it is OK to start allocating, this log message is enabled
-            IHMC_ROOT_LOGGER.log(level, format(origin, message), p0, p1);
+            FlightRecorder.INSTANCE.record(level, null, message, 2, p0, p1, null);
          }
       }
       else // granular = true
       {
-         StackTraceElement origin = origin(); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
+         CallSite origin = origin(); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
          if (logger.isEnabled(level))
          {
-            logger.log(level, format(origin, message), p0, p1);
+            logMessage(logger, level, LogToolsMessage.of(origin, message, 2, p0, p1, null));
+         }
+         else if (FlightRecorder.ENABLED)
+         {
+            FlightRecorder.INSTANCE.record(level, origin, message, 2, p0, p1, null);
          }
       }
    }
@@ -319,264 +440,651 @@ public class LogTools
    {
       if (!GRANULAR_MODE) // default, realtime safe mode
       {
-         if (IHMC_ROOT_LOGGER.isEnabled(level)) // simple O(1) boolean check
+         if (LevelSwitches.isEnabled(level)) // a constant, once compiled
+         {
+            CallSite origin = origin(); // here it is OK to start allocating, this log message is enabled
+            logMessage(IHMC_ROOT_LOGGER, level, LogToolsMessage.of(origin, message, 3, p0, p1, p2));
+         }
+         else if (FlightRecorder.ENABLED)
          {
-            StackTraceElement origin = origin(); // here it is OK to start allocating, this log message is enabled
-            IHMC_ROOT_LOGGER.log(level, format(origin, message), p0, p1, p2);
+            FlightRecorder.INSTANCE.record(level, null, message, 3, p0, p1, p2);
          }
       }
       else // granular = true
       {
-         StackTraceElement origin = origin(); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
+         CallSite origin = origin(); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
          if (logger.isEnabled(level))
          {
-            logger.log(level, format(origin, message), p0, p1, p2);
+            logMessage(logger, level, LogToolsMessage.of(origin, message, 3, p0, p1, p2));
+         }
+         else if (FlightRecorder.ENABLED)
+         {
+            FlightRecorder.INSTANCE.record(level, origin, message, 3, p0, p1, p2);
          }
       }
    }
 
-   public static Level getLevel()
+   private static void logIfEnabled(Level level, String message, int types, long p0, long p1, long p2)
    {
       if (!GRANULAR_MODE) // default, realtime safe mode
       {
-         return IHMC_ROOT_LOGGER.getLevel(); // simple O(1) boolean check
+         if (LevelSwitches.isEnabled(level)) // a constant, once compiled
+         {
+            CallSite origin = origin(); // here it is OK to start allocating, this log message is enabled
+            logMessage(IHMC_ROOT_LOGGER, level, LogToolsMessage.of(origin, message, types, p0, p1, p2));
+         }
+         else if (FlightRecorder.ENABLED)
+         {
+            FlightRecorder.INSTANCE.record(level, null, message, types, p0, p1, p2);
+         }
       }
       else // granular = true
       {
-         StackTraceElement origin = origin(-1); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.getLevel();
+         CallSite origin = origin(); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         if (logger.isEnabled(level))
+         {
+            logMessage(logger, level, LogToolsMessage.of(origin, message, types, p0, p1, p2));
+         }
+         else if (FlightRecorder.ENABLED)
+         {
+            FlightRecorder.INSTANCE.record(level, origin, message, types, p0, p1, p2);
+         }
       }
    }
 
-   public static boolean isEnabled(Level level)
+   /**
+    * Hands a message to log4j, which formats it straight into its reusable event,
+    * and then returns the message to be reused by the next call on this thread.
+    * In asynchronous mode, the message is copied to the writer thread instead.
+    */
+   static void logMessage(Logger logger, Level level, LogToolsMessage message)
    {
-      if (!GRANULAR_MODE) // default, realtime safe mode
-      {
-         return IHMC_ROOT_LOGGER.isEnabled(level); // simple O(1) boolean check
-      }
-      else // granular = true
-      {
-         StackTraceElement origin = origin(-1); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(level);
-      }
+      if (LIMIT_EVERY_CALL_SITE)
+         writeLimited(logger, level, message);
+      else
+         write(logger, level, message);
    }
 
-   public static boolean isEnabled(Level level, int additionalStackTraceHeight)
+   /**
+    * Logs the message only if its call site hasn't used up its rate limit, and
+    * periodically logs how many messages from the call site were suppressed.
+    */
+   private static void writeLimited(Logger logger, Level level, LogToolsMessage message)
    {
-      if (!GRANULAR_MODE) // default, realtime safe mode
+      CallSite origin = message.getOrigin();
+      RateLimiter rateLimiter = origin.getRateLimiter();
+      long now = System.nanoTime();
+      if (rateLimiter.tryAcquire(now))
       {
-         return IHMC_ROOT_LOGGER.isEnabled(level); // simple O(1) boolean check
+         write(logger, level, message);
       }
-      else // granular = true
+      else
       {
-         StackTraceElement origin = origin(-1 + additionalStackTraceHeight); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(level);
+         rateLimiter.setReportTarget(logger, level);
+         message.release();
       }
+
+      writeSuppressedCount(logger, level, origin, rateLimiter.pollSuppressedCount(now));
    }
 
-   public static boolean isFatalEnabled()
+   static void writeSuppressedCount(Logger logger, Level level, CallSite origin, long suppressedCount)
    {
-      if (!GRANULAR_MODE) // default, realtime safe mode
+      if (suppressedCount > 0)
+         write(logger, level, LogToolsMessage.of(origin, "Suppressed {} repeats", types(LONG), bits(suppressedCount), 0L, 0L));
+   }
+
+   private static void write(Logger logger, Level level, LogToolsMessage message)
+   {
+      long startNanos = LogToolsMetrics.ENABLED ? System.nanoTime() : 0L;
+      try
       {
-         return IHMC_ROOT_LOGGER.isEnabled(Level.FATAL); // simple O(1) boolean check
+         if (ASYNC_WRITER == null || !ASYNC_WRITER.offer(logger, level, message))
+            MessageInFlight.log(logger, level, message, message);
       }
-      else // granular = true
+      finally
       {
-         StackTraceElement origin = origin(-1); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(Level.FATAL);
+         if (LogToolsMetrics.ENABLED)
+            LogToolsMetrics.INSTANCE.recordMessage(level, message.getOrigin(), System.nanoTime() - startNanos);
+         message.release();
       }
+
+      if (FlightRecorder.ENABLED && level.isMoreSpecificThan(Level.ERROR)) // print what led up to it
+         FlightRecorder.INSTANCE.dumpLater(logger, level, ASYNC_WRITER);
    }
 
-   public static boolean isFatalEnabled(int additionalStackTraceHeight)
+   private static void logLimitedIfEnabled(Level level, Object message, int objectParameterCount, Object p0, Object p1, Object p2)
    {
       if (!GRANULAR_MODE) // default, realtime safe mode
       {
-         return IHMC_ROOT_LOGGER.isEnabled(Level.FATAL); // simple O(1) boolean check
+         if (LevelSwitches.isEnabled(level)) // a constant, once compiled
+         {
+            CallSite origin = origin(); // here it is OK to start allocating, this log message is enabled
+            writeLimited(IHMC_ROOT_LOGGER, level, limitedMessage(origin, message, objectParameterCount, p0, p1, p2));
+         }
+         else if (FlightRecorder.ENABLED)
+         {
+            FlightRecorder.INSTANCE.record(level, null, message, objectParameterCount, p0, p1, p2);
+         }
       }
       else // granular = true
       {
-         StackTraceElement origin = origin(-1 + additionalStackTraceHeight); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(Level.FATAL);
+         CallSite origin = origin(); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         if (logger.isEnabled(level))
+         {
+            writeLimited(logger, level, limitedMessage(origin, message, objectParameterCount, p0, p1, p2));
+         }
+         else if (FlightRecorder.ENABLED)
+         {
+            FlightRecorder.INSTANCE.record(level, origin, message, objectParameterCount, p0, p1, p2);
+         }
       }
    }
 
-   public static boolean isErrorEnabled()
+   private static void logLimitedIfEnabled(Level level, String message, int types, long p0, long p1, long p2)
    {
       if (!GRANULAR_MODE) // default, realtime safe mode
       {
-         return IHMC_ROOT_LOGGER.isEnabled(Level.ERROR); // simple O(1) boolean check
+         if (LevelSwitches.isEnabled(level)) // a constant, once compiled
+         {
+            CallSite origin = origin(); // here it is OK to start allocating, this log message is enabled
+            writeLimited(IHMC_ROOT_LOGGER, level, LogToolsMessage.of(origin, message, types, p0, p1, p2));
+         }
+         else if (FlightRecorder.ENABLED)
+         {
+            FlightRecorder.INSTANCE.record(level, null, message, types, p0, p1, p2);
+         }
       }
       else // granular = true
       {
-         StackTraceElement origin = origin(-1); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(Level.ERROR);
+         CallSite origin = origin(); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         if (logger.isEnabled(level))
+         {
+            writeLimited(logger, level, LogToolsMessage.of(origin, message, types, p0, p1, p2));
+         }
+         else if (FlightRecorder.ENABLED)
+         {
+            FlightRecorder.INSTANCE.record(level, origin, message, types, p0, p1, p2);
+         }
       }
    }
 
-   public static boolean isErrorEnabled(int additionalStackTraceHeight)
+   private static LogToolsEvent event(Level level)
    {
       if (!GRANULAR_MODE) // default, realtime safe mode
       {
-         return IHMC_ROOT_LOGGER.isEnabled(Level.ERROR); // simple O(1) boolean check
+         if (LevelSwitches.isEnabled(level)) // a constant, once compiled
+         {
+            CallSite origin = origin(); // here it is OK to start allocating, this log message is enabled
+            return LogToolsEvent.acquire(IHMC_ROOT_LOGGER, level, origin);
+         }
       }
       else // granular = true
       {
-         StackTraceElement origin = origin(-1 + additionalStackTraceHeight); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(Level.ERROR);
+         CallSite origin = origin(); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         if (logger.isEnabled(level))
+         {
+            return LogToolsEvent.acquire(logger, level, origin);
+         }
       }
+      return LogToolsEvent.DISABLED;
    }
 
-   public static boolean isWarnEnabled()
+   private static LogToolsMessage limitedMessage(CallSite origin, Object message, int objectParameterCount, Object p0, Object p1, Object p2)
    {
-      if (!GRANULAR_MODE) // default, realtime safe mode
+      if (objectParameterCount == 0)
+         return LogToolsMessage.of(origin, message);
+      else
+         return LogToolsMessage.of(origin, message, objectParameterCount, p0, p1, p2);
+   }
+
+   // BEGIN INJECTED CALL SITE INTERNALS
+
+   /*
+    * These take the call site from LogToolsInjected, whose methods the Gradle plugin calls
+    * in place of the public ones at build time, so the stack is never walked, even in
+    * granular mode.
+    */
+
+   static void logIfEnabled(CallSite origin, Level level, Object message)
+   {
+      Logger logger = GRANULAR_MODE ? getLogger(origin) : IHMC_ROOT_LOGGER; // the call site remembers its logger
+      if (isEnabled(logger, level))
       {
-         return IHMC_ROOT_LOGGER.isEnabled(Level.WARN); // simple O(1) boolean check
+         logMessage(logger, level, LogToolsMessage.of(origin, message));
       }
-      else // granular = true
+      else if (FlightRecorder.ENABLED)
       {
-         StackTraceElement origin = origin(-1); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(Level.WARN);
+         FlightRecorder.INSTANCE.record(level, origin, message);
       }
    }
 
-   public static boolean isWarnEnabled(int additionalStackTraceHeight)
+   static void logIfEnabled(CallSite origin, Level level, Supplier<?> msgSupplier)
    {
-      if (!GRANULAR_MODE) // default, realtime safe mode
+      Logger logger = GRANULAR_MODE ? getLogger(origin) : IHMC_ROOT_LOGGER; // the call site remembers its logger
+      if (isEnabled(logger, level))
       {
-         return IHMC_ROOT_LOGGER.isEnabled(Level.WARN); // simple O(1) boolean check
+         logMessage(logger, level, LogToolsMessage.of(origin, msgSupplier.get()));
       }
-      else // granular = true
+   }
+
+   static void logIfEnabled(CallSite origin, Level level, Object message, Supplier<?> msgSupplier)
+   {
+      Logger logger = GRANULAR_MODE ? getLogger(origin) : IHMC_ROOT_LOGGER; // the call site remembers its logger
+      if (isEnabled(logger, level))
       {
-         StackTraceElement origin = origin(-1 + additionalStackTraceHeight); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(Level.WARN);
+         logMessage(logger, level, LogToolsMessage.of(origin, message, 1, msgSupplier.get(), null, null));
       }
    }
 
-   public static boolean isInfoEnabled()
+   static void logIfEnabled(CallSite origin, Level level, Object message, Object p0)
    {
-      if (!GRANULAR_MODE) // default, realtime safe mode
+      Logger logger = GRANULAR_MODE ? getLogger(origin) : IHMC_ROOT_LOGGER; // the call site remembers its logger
+      if (isEnabled(logger, level))
       {
-         return IHMC_ROOT_LOGGER.isEnabled(Level.INFO); // simple O(1) boolean check
+         logMessage(logger, level, LogToolsMessage.of(origin, message, 1, p0, null, null));
       }
-      else // granular = true
+      else if (FlightRecorder.ENABLED)
       {
-         StackTraceElement origin = origin(-1); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(Level.INFO);
+         FlightRecorder.INSTANCE.record(level, origin, message, 1, p0, null, null);
       }
    }
 
-   public static boolean isInfoEnabled(int additionalStackTraceHeight)
+   static void logIfEnabled(CallSite origin, Level level, Object message, Object p0, Object p1)
    {
-      if (!GRANULAR_MODE) // default, realtime safe mode
+      Logger logger = GRANULAR_MODE ? getLogger(origin) : IHMC_ROOT_LOGGER; // the call site remembers its logger
+      if (isEnabled(logger, level))
       {
-         return IHMC_ROOT_LOGGER.isEnabled(Level.INFO); // simple O(1) boolean check
+         logMessage(logger, level, LogToolsMessage.of(origin, message, 2, p0, p1, null));
       }
-      else // granular = true
+      else if (FlightRecorder.ENABLED)
       {
-         StackTraceElement origin = origin(-1 + additionalStackTraceHeight); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(Level.INFO);
+         FlightRecorder.INSTANCE.record(level, origin, message, 2, p0, p1, null);
       }
    }
 
-   public static boolean isDebugEnabled()
+   static void logIfEnabled(CallSite origin, Level level, Object message, Object p0, Object p1, Object p2)
    {
-      if (!GRANULAR_MODE) // default, realtime safe mode
+      Logger logger = GRANULAR_MODE ? getLogger(origin) : IHMC_ROOT_LOGGER; // the call site remembers its logger
+      if (isEnabled(logger, level))
       {
-         return IHMC_ROOT_LOGGER.isEnabled(Level.DEBUG); // simple O(1) boolean check
+         logMessage(logger, level, LogToolsMessage.of(origin, message, 3, p0, p1, p2));
       }
-      else // granular = true
+      else if (FlightRecorder.ENABLED)
       {
-         StackTraceElement origin = origin(-1); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(Level.DEBUG);
+         FlightRecorder.INSTANCE.record(level, origin, message, 3, p0, p1, p2);
       }
    }
 
-   public static boolean isDebugEnabled(int additionalStackTraceHeight)
+   static void logIfEnabled(CallSite origin, Level level, String message, int types, long p0, long p1, long p2)
    {
-      if (!GRANULAR_MODE) // default, realtime safe mode
+      Logger logger = GRANULAR_MODE ? getLogger(origin) : IHMC_ROOT_LOGGER; // the call site remembers its logger
+      if (isEnabled(logger, level))
       {
-         return IHMC_ROOT_LOGGER.isEnabled(Level.DEBUG); // simple O(1) boolean check
+         logMessage(logger, level, LogToolsMessage.of(origin, message, types, p0, p1, p2));
       }
-      else // granular = true
+      else if (FlightRecorder.ENABLED)
       {
-         StackTraceElement origin = origin(-1 + additionalStackTraceHeight); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(Level.DEBUG);
+         FlightRecorder.INSTANCE.record(level, origin, message, types, p0, p1, p2);
       }
    }
 
-   public static boolean isTraceEnabled()
+   static void logLimitedIfEnabled(CallSite origin, Level level, Object message, int objectParameterCount, Object p0, Object p1, Object p2)
    {
-      if (!GRANULAR_MODE) // default, realtime safe mode
+      Logger logger = GRANULAR_MODE ? getLogger(origin) : IHMC_ROOT_LOGGER; // the call site remembers its logger
+      if (isEnabled(logger, level))
       {
-         return IHMC_ROOT_LOGGER.isEnabled(Level.TRACE); // simple O(1) boolean check
+         writeLimited(logger, level, limitedMessage(origin, message, objectParameterCount, p0, p1, p2));
       }
-      else // granular = true
+      else if (FlightRecorder.ENABLED)
       {
-         StackTraceElement origin = origin(-1); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(Level.TRACE);
+         FlightRecorder.INSTANCE.record(level, origin, message, objectParameterCount, p0, p1, p2);
       }
    }
 
-   public static boolean isTraceEnabled(int additionalStackTraceHeight)
+   static void logLimitedIfEnabled(CallSite origin, Level level, String message, int types, long p0, long p1, long p2)
    {
-      if (!GRANULAR_MODE) // default, realtime safe mode
+      Logger logger = GRANULAR_MODE ? getLogger(origin) : IHMC_ROOT_LOGGER; // the call site remembers its logger
+      if (isEnabled(logger, level))
       {
-         return IHMC_ROOT_LOGGER.isEnabled(Level.TRACE); // simple O(1) boolean check
+         writeLimited(logger, level, LogToolsMessage.of(origin, message, types, p0, p1, p2));
       }
-      else // granular = true
+      else if (FlightRecorder.ENABLED)
       {
-         StackTraceElement origin = origin(-1 + additionalStackTraceHeight); // allocate throwable even if level is disabled
-         Logger logger = getLogger(classFromOrigin(origin)); // get logger based on class name
-         return logger.isEnabled(Level.TRACE);
+         FlightRecorder.INSTANCE.record(level, origin, message, types, p0, p1, p2);
       }
    }
 
-   public static void log(Level level, Object message)
+   static LogToolsEvent event(CallSite origin, Level level)
    {
-      logIfEnabled(level, message);
+      Logger logger = GRANULAR_MODE ? getLogger(origin) : IHMC_ROOT_LOGGER; // the call site remembers its logger
+      if (isEnabled(logger, level))
+      {
+         return LogToolsEvent.acquire(logger, level, origin);
+      }
+      return LogToolsEvent.DISABLED;
    }
 
-   public static void log(Level level, int additionalStackTraceHeight, Object message)
+   static Level getLevel(CallSite origin)
    {
-      logIfEnabled(level, additionalStackTraceHeight, message);
+      return (GRANULAR_MODE ? getLogger(origin) : IHMC_ROOT_LOGGER).getLevel();
    }
 
-   public static void log(Level level, Supplier<?> msgSupplier)
+   static boolean isEnabled(CallSite origin, Level level)
    {
-      logIfEnabled(level, msgSupplier);
+      return isEnabled(GRANULAR_MODE ? getLogger(origin) : IHMC_ROOT_LOGGER, level);
    }
 
-   public static void log(Level level, Object message, Supplier<?> msgSupplier)
+   private static boolean isEnabled(Logger logger, Level level)
    {
-      logIfEnabled(level, message, msgSupplier);
+      return GRANULAR_MODE ? logger.isEnabled(level) : LevelSwitches.isEnabled(level); // a constant, once compiled
    }
 
-   public static void log(Level level, Object message, Object p0)
+   public static Level getLevel()
    {
-      logIfEnabled(level, message, p0);
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return IHMC_ROOT_LOGGER.getLevel(); // simple O(1) boolean check
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.getLevel();
+      }
    }
 
-   public static void log(Level level, Object message, Object p0, Object p1)
+   public static boolean isEnabled(Level level)
    {
-      logIfEnabled(level, message, p0, p1);
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(level); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(level);
+      }
    }
 
-   public static void log(Level level, Object message, Object p0, Object p1, Object p2)
+   public static boolean isEnabled(Level level, int additionalStackTraceHeight)
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(level); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1 + additionalStackTraceHeight); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(level);
+      }
+   }
+
+   public static boolean isFatalEnabled()
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(Level.FATAL); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(Level.FATAL);
+      }
+   }
+
+   public static boolean isFatalEnabled(int additionalStackTraceHeight)
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(Level.FATAL); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1 + additionalStackTraceHeight); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(Level.FATAL);
+      }
+   }
+
+   public static boolean isErrorEnabled()
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(Level.ERROR); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(Level.ERROR);
+      }
+   }
+
+   public static boolean isErrorEnabled(int additionalStackTraceHeight)
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(Level.ERROR); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1 + additionalStackTraceHeight); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(Level.ERROR);
+      }
+   }
+
+   public static boolean isWarnEnabled()
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(Level.WARN); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(Level.WARN);
+      }
+   }
+
+   public static boolean isWarnEnabled(int additionalStackTraceHeight)
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(Level.WARN); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1 + additionalStackTraceHeight); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(Level.WARN);
+      }
+   }
+
+   public static boolean isInfoEnabled()
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(Level.INFO); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(Level.INFO);
+      }
+   }
+
+   public static boolean isInfoEnabled(int additionalStackTraceHeight)
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(Level.INFO); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1 + additionalStackTraceHeight); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(Level.INFO);
+      }
+   }
+
+   public static boolean isDebugEnabled()
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(Level.DEBUG); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(Level.DEBUG);
+      }
+   }
+
+   public static boolean isDebugEnabled(int additionalStackTraceHeight)
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(Level.DEBUG); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1 + additionalStackTraceHeight); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(Level.DEBUG);
+      }
+   }
+
+   public static boolean isTraceEnabled()
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(Level.TRACE); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(Level.TRACE);
+      }
+   }
+
+   public static boolean isTraceEnabled(int additionalStackTraceHeight)
+   {
+      if (!GRANULAR_MODE) // default, realtime safe mode
+      {
+         return LevelSwitches.isEnabled(Level.TRACE); // a constant, once compiled
+      }
+      else // granular = true
+      {
+         CallSite origin = origin(-1 + additionalStackTraceHeight); // walk the stack even if level is disabled
+         Logger logger = getLogger(origin); // get logger based on class name
+         return logger.isEnabled(Level.TRACE);
+      }
+   }
+
+   /**
+    * Starts a structured message with key/value fields, logged at the given level:
+    * <pre>
+    * LogTools.log(Level.INFO).kv("joint", jointIndex).kv("torque", torque).log("Saturated");
+    * </pre>
+    * See {@link LogToolsEvent}.
+    */
+   public static LogToolsEvent log(Level level)
+   {
+      return event(level);
+   }
+
+   /**
+    * Starts a structured FATAL message with key/value fields. See {@link #log(Level)}.
+    */
+   public static LogToolsEvent fatal()
+   {
+      return event(Level.FATAL);
+   }
+
+   /**
+    * Starts a structured ERROR message with key/value fields. See {@link #log(Level)}.
+    */
+   public static LogToolsEvent error()
+   {
+      return event(Level.ERROR);
+   }
+
+   /**
+    * Starts a structured WARN message with key/value fields. See {@link #log(Level)}.
+    */
+   public static LogToolsEvent warn()
+   {
+      return event(Level.WARN);
+   }
+
+   /**
+    * Starts a structured INFO message with key/value fields. See {@link #log(Level)}.
+    */
+   public static LogToolsEvent info()
+   {
+      return event(Level.INFO);
+   }
+
+   /**
+    * Starts a structured DEBUG message with key/value fields. See {@link #log(Level)}.
+    */
+   public static LogToolsEvent debug()
+   {
+      return event(Level.DEBUG);
+   }
+
+   /**
+    * Starts a structured TRACE message with key/value fields. See {@link #log(Level)}.
+    */
+   public static LogToolsEvent trace()
+   {
+      return event(Level.TRACE);
+   }
+
+   public static void log(Level level, Object message)
+   {
+      logIfEnabled(level, message);
+   }
+
+   public static void log(Level level, int additionalStackTraceHeight, Object message)
+   {
+      logIfEnabled(level, additionalStackTraceHeight, message);
+   }
+
+   public static void log(Level level, Supplier<?> msgSupplier)
+   {
+      logIfEnabled(level, msgSupplier);
+   }
+
+   public static void log(Level level, Object message, Supplier<?> msgSupplier)
+   {
+      logIfEnabled(level, message, msgSupplier);
+   }
+
+   public static void log(Level level, Object message, Object p0)
+   {
+      logIfEnabled(level, message, p0);
+   }
+
+   public static void log(Level level, Object message, Object p0, Object p1)
+   {
+      logIfEnabled(level, message, p0, p1);
+   }
+
+   public static void log(Level level, Object message, Object p0, Object p1, Object p2)
    {
       logIfEnabled(level, message, p0, p1, p2);
    }
@@ -965,4 +1473,568 @@ public class LogTools
    {
       logIfEnabled(Level.TRACE, message, p0, p1, p2);
    }
+
+   // BEGIN RATE LIMITED BOILERPLATE API
+
+   public static void logLimited(Level level, Object message)
+   {
+      logLimitedIfEnabled(level, message, 0, null, null, null);
+   }
+
+   public static void logLimited(Level level, Object message, Object p0)
+   {
+      logLimitedIfEnabled(level, message, 1, p0, null, null);
+   }
+
+   public static void logLimited(Level level, Object message, Object p0, Object p1)
+   {
+      logLimitedIfEnabled(level, message, 2, p0, p1, null);
+   }
+
+   public static void logLimited(Level level, Object message, Object p0, Object p1, Object p2)
+   {
+      logLimitedIfEnabled(level, message, 3, p0, p1, p2);
+   }
+
+   public static void fatalLimited(Object message)
+   {
+      logLimitedIfEnabled(Level.FATAL, message, 0, null, null, null);
+   }
+
+   public static void fatalLimited(Object message, Object p0)
+   {
+      logLimitedIfEnabled(Level.FATAL, message, 1, p0, null, null);
+   }
+
+   public static void fatalLimited(Object message, Object p0, Object p1)
+   {
+      logLimitedIfEnabled(Level.FATAL, message, 2, p0, p1, null);
+   }
+
+   public static void fatalLimited(Object message, Object p0, Object p1, Object p2)
+   {
+      logLimitedIfEnabled(Level.FATAL, message, 3, p0, p1, p2);
+   }
+
+   public static void errorLimited(Object message)
+   {
+      logLimitedIfEnabled(Level.ERROR, message, 0, null, null, null);
+   }
+
+   public static void errorLimited(Object message, Object p0)
+   {
+      logLimitedIfEnabled(Level.ERROR, message, 1, p0, null, null);
+   }
+
+   public static void errorLimited(Object message, Object p0, Object p1)
+   {
+      logLimitedIfEnabled(Level.ERROR, message, 2, p0, p1, null);
+   }
+
+   public static void errorLimited(Object message, Object p0, Object p1, Object p2)
+   {
+      logLimitedIfEnabled(Level.ERROR, message, 3, p0, p1, p2);
+   }
+
+   public static void warnLimited(Object message)
+   {
+      logLimitedIfEnabled(Level.WARN, message, 0, null, null, null);
+   }
+
+   public static void warnLimited(Object message, Object p0)
+   {
+      logLimitedIfEnabled(Level.WARN, message, 1, p0, null, null);
+   }
+
+   public static void warnLimited(Object message, Object p0, Object p1)
+   {
+      logLimitedIfEnabled(Level.WARN, message, 2, p0, p1, null);
+   }
+
+   public static void warnLimited(Object message, Object p0, Object p1, Object p2)
+   {
+      logLimitedIfEnabled(Level.WARN, message, 3, p0, p1, p2);
+   }
+
+   public static void infoLimited(Object message)
+   {
+      logLimitedIfEnabled(Level.INFO, message, 0, null, null, null);
+   }
+
+   public static void infoLimited(Object message, Object p0)
+   {
+      logLimitedIfEnabled(Level.INFO, message, 1, p0, null, null);
+   }
+
+   public static void infoLimited(Object message, Object p0, Object p1)
+   {
+      logLimitedIfEnabled(Level.INFO, message, 2, p0, p1, null);
+   }
+
+   public static void infoLimited(Object message, Object p0, Object p1, Object p2)
+   {
+      logLimitedIfEnabled(Level.INFO, message, 3, p0, p1, p2);
+   }
+
+   public static void debugLimited(Object message)
+   {
+      logLimitedIfEnabled(Level.DEBUG, message, 0, null, null, null);
+   }
+
+   public static void debugLimited(Object message, Object p0)
+   {
+      logLimitedIfEnabled(Level.DEBUG, message, 1, p0, null, null);
+   }
+
+   public static void debugLimited(Object message, Object p0, Object p1)
+   {
+      logLimitedIfEnabled(Level.DEBUG, message, 2, p0, p1, null);
+   }
+
+   public static void debugLimited(Object message, Object p0, Object p1, Object p2)
+   {
+      logLimitedIfEnabled(Level.DEBUG, message, 3, p0, p1, p2);
+   }
+
+   public static void traceLimited(Object message)
+   {
+      logLimitedIfEnabled(Level.TRACE, message, 0, null, null, null);
+   }
+
+   public static void traceLimited(Object message, Object p0)
+   {
+      logLimitedIfEnabled(Level.TRACE, message, 1, p0, null, null);
+   }
+
+   public static void traceLimited(Object message, Object p0, Object p1)
+   {
+      logLimitedIfEnabled(Level.TRACE, message, 2, p0, p1, null);
+   }
+
+   public static void traceLimited(Object message, Object p0, Object p1, Object p2)
+   {
+      logLimitedIfEnabled(Level.TRACE, message, 3, p0, p1, p2);
+   }
+
+   // BEGIN PRIMITIVE PARAMETER BOILERPLATE API
+
+   public static void log(Level level, String message, int p0)
+   {
+      logIfEnabled(level, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void log(Level level, String message, long p0)
+   {
+      logIfEnabled(level, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void log(Level level, String message, float p0)
+   {
+      logIfEnabled(level, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void log(Level level, String message, double p0)
+   {
+      logIfEnabled(level, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void log(Level level, String message, boolean p0)
+   {
+      logIfEnabled(level, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void log(Level level, String message, char p0)
+   {
+      logIfEnabled(level, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void fatal(String message, int p0)
+   {
+      logIfEnabled(Level.FATAL, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void fatal(String message, long p0)
+   {
+      logIfEnabled(Level.FATAL, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void fatal(String message, float p0)
+   {
+      logIfEnabled(Level.FATAL, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void fatal(String message, double p0)
+   {
+      logIfEnabled(Level.FATAL, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void fatal(String message, boolean p0)
+   {
+      logIfEnabled(Level.FATAL, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void fatal(String message, char p0)
+   {
+      logIfEnabled(Level.FATAL, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void error(String message, int p0)
+   {
+      logIfEnabled(Level.ERROR, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void error(String message, long p0)
+   {
+      logIfEnabled(Level.ERROR, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void error(String message, float p0)
+   {
+      logIfEnabled(Level.ERROR, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void error(String message, double p0)
+   {
+      logIfEnabled(Level.ERROR, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void error(String message, boolean p0)
+   {
+      logIfEnabled(Level.ERROR, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void error(String message, char p0)
+   {
+      logIfEnabled(Level.ERROR, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void warn(String message, int p0)
+   {
+      logIfEnabled(Level.WARN, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void warn(String message, long p0)
+   {
+      logIfEnabled(Level.WARN, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void warn(String message, float p0)
+   {
+      logIfEnabled(Level.WARN, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void warn(String message, double p0)
+   {
+      logIfEnabled(Level.WARN, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void warn(String message, boolean p0)
+   {
+      logIfEnabled(Level.WARN, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void warn(String message, char p0)
+   {
+      logIfEnabled(Level.WARN, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void info(String message, int p0)
+   {
+      logIfEnabled(Level.INFO, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void info(String message, long p0)
+   {
+      logIfEnabled(Level.INFO, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void info(String message, float p0)
+   {
+      logIfEnabled(Level.INFO, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void info(String message, double p0)
+   {
+      logIfEnabled(Level.INFO, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void info(String message, boolean p0)
+   {
+      logIfEnabled(Level.INFO, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void info(String message, char p0)
+   {
+      logIfEnabled(Level.INFO, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void debug(String message, int p0)
+   {
+      logIfEnabled(Level.DEBUG, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void debug(String message, long p0)
+   {
+      logIfEnabled(Level.DEBUG, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void debug(String message, float p0)
+   {
+      logIfEnabled(Level.DEBUG, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void debug(String message, double p0)
+   {
+      logIfEnabled(Level.DEBUG, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void debug(String message, boolean p0)
+   {
+      logIfEnabled(Level.DEBUG, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void debug(String message, char p0)
+   {
+      logIfEnabled(Level.DEBUG, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void trace(String message, int p0)
+   {
+      logIfEnabled(Level.TRACE, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void trace(String message, long p0)
+   {
+      logIfEnabled(Level.TRACE, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void trace(String message, float p0)
+   {
+      logIfEnabled(Level.TRACE, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void trace(String message, double p0)
+   {
+      logIfEnabled(Level.TRACE, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void trace(String message, boolean p0)
+   {
+      logIfEnabled(Level.TRACE, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void trace(String message, char p0)
+   {
+      logIfEnabled(Level.TRACE, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void logLimited(Level level, String message, int p0)
+   {
+      logLimitedIfEnabled(level, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void logLimited(Level level, String message, long p0)
+   {
+      logLimitedIfEnabled(level, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void logLimited(Level level, String message, float p0)
+   {
+      logLimitedIfEnabled(level, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void logLimited(Level level, String message, double p0)
+   {
+      logLimitedIfEnabled(level, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void logLimited(Level level, String message, boolean p0)
+   {
+      logLimitedIfEnabled(level, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void logLimited(Level level, String message, char p0)
+   {
+      logLimitedIfEnabled(level, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void fatalLimited(String message, int p0)
+   {
+      logLimitedIfEnabled(Level.FATAL, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void fatalLimited(String message, long p0)
+   {
+      logLimitedIfEnabled(Level.FATAL, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void fatalLimited(String message, float p0)
+   {
+      logLimitedIfEnabled(Level.FATAL, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void fatalLimited(String message, double p0)
+   {
+      logLimitedIfEnabled(Level.FATAL, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void fatalLimited(String message, boolean p0)
+   {
+      logLimitedIfEnabled(Level.FATAL, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void fatalLimited(String message, char p0)
+   {
+      logLimitedIfEnabled(Level.FATAL, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void errorLimited(String message, int p0)
+   {
+      logLimitedIfEnabled(Level.ERROR, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void errorLimited(String message, long p0)
+   {
+      logLimitedIfEnabled(Level.ERROR, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void errorLimited(String message, float p0)
+   {
+      logLimitedIfEnabled(Level.ERROR, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void errorLimited(String message, double p0)
+   {
+      logLimitedIfEnabled(Level.ERROR, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void errorLimited(String message, boolean p0)
+   {
+      logLimitedIfEnabled(Level.ERROR, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void errorLimited(String message, char p0)
+   {
+      logLimitedIfEnabled(Level.ERROR, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void warnLimited(String message, int p0)
+   {
+      logLimitedIfEnabled(Level.WARN, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void warnLimited(String message, long p0)
+   {
+      logLimitedIfEnabled(Level.WARN, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void warnLimited(String message, float p0)
+   {
+      logLimitedIfEnabled(Level.WARN, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void warnLimited(String message, double p0)
+   {
+      logLimitedIfEnabled(Level.WARN, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void warnLimited(String message, boolean p0)
+   {
+      logLimitedIfEnabled(Level.WARN, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void warnLimited(String message, char p0)
+   {
+      logLimitedIfEnabled(Level.WARN, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void infoLimited(String message, int p0)
+   {
+      logLimitedIfEnabled(Level.INFO, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void infoLimited(String message, long p0)
+   {
+      logLimitedIfEnabled(Level.INFO, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void infoLimited(String message, float p0)
+   {
+      logLimitedIfEnabled(Level.INFO, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void infoLimited(String message, double p0)
+   {
+      logLimitedIfEnabled(Level.INFO, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void infoLimited(String message, boolean p0)
+   {
+      logLimitedIfEnabled(Level.INFO, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void infoLimited(String message, char p0)
+   {
+      logLimitedIfEnabled(Level.INFO, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void debugLimited(String message, int p0)
+   {
+      logLimitedIfEnabled(Level.DEBUG, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void debugLimited(String message, long p0)
+   {
+      logLimitedIfEnabled(Level.DEBUG, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void debugLimited(String message, float p0)
+   {
+      logLimitedIfEnabled(Level.DEBUG, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void debugLimited(String message, double p0)
+   {
+      logLimitedIfEnabled(Level.DEBUG, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void debugLimited(String message, boolean p0)
+   {
+      logLimitedIfEnabled(Level.DEBUG, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void debugLimited(String message, char p0)
+   {
+      logLimitedIfEnabled(Level.DEBUG, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void traceLimited(String message, int p0)
+   {
+      logLimitedIfEnabled(Level.TRACE, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void traceLimited(String message, long p0)
+   {
+      logLimitedIfEnabled(Level.TRACE, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void traceLimited(String message, float p0)
+   {
+      logLimitedIfEnabled(Level.TRACE, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void traceLimited(String message, double p0)
+   {
+      logLimitedIfEnabled(Level.TRACE, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void traceLimited(String message, boolean p0)
+   {
+      logLimitedIfEnabled(Level.TRACE, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void traceLimited(String message, char p0)
+   {
+      logLimitedIfEnabled(Level.TRACE, message, types(CHAR), bits(p0), 0L, 0L);
+   }
 }
@@ -0,0 +1,313 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.NullConfiguration;
+import org.apache.logging.log4j.core.impl.MutableLogEvent;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.message.ReusableSimpleMessage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static us.ihmc.log.BinaryLogFormat.*;
+
+/**
+ * Prints files written by {@link BinaryLogAppender} as the console would have shown them,
+ * using the same layouts as the bundled configurations, without colors with --no-color.
+ *
+ * Usage: LogToolsDecoder [--no-color] &lt;file&gt;...
+ *
+ * A file cut short, i.e. by a crash, is printed up to its last complete record.
+ */
+public final class LogToolsDecoder
+{
+   private final Layout<String> ihmcLayout;
+   private final Layout<String> externalLayout;
+
+   private final List<CallSite> callSites = new ArrayList<>();
+   private final List<String> templates = new ArrayList<>();
+   private final List<String> loggerNames = new ArrayList<>();
+   private final MutableLogEvent event = new MutableLogEvent();
+   private final ReusableSimpleMessage textMessage = new ReusableSimpleMessage();
+   private final StringBuilder line = new StringBuilder();
+   private long timeMillis;
+
+   public LogToolsDecoder(boolean color)
+   {
+      Configuration configuration = new NullConfiguration(); // unlike DefaultConfiguration, it parses no pattern before the package is added
+      configuration.getPluginPackages().add("us.ihmc.log"); // for %ihmcDate
+      ihmcLayout = IHMCLayout.newBuilder().setConfiguration(configuration).setHighlight(color).build();
+      externalLayout = PatternLayout.newBuilder().withConfiguration(configuration).withPattern(IHMCConfiguration.externalPattern(color)).build();
+   }
+
+   public static void main(String[] args) throws IOException
+   {
+      List<String> fileNames = new ArrayList<>(Arrays.asList(args));
+      boolean color = !fileNames.remove("--no-color");
+      if (fileNames.isEmpty())
+      {
+         System.err.println("Usage: LogToolsDecoder [--no-color] <file>...");
+         System.exit(1);
+      }
+
+      Writer output = new BufferedWriter(new OutputStreamWriter(System.out));
+      for (String fileName : fileNames)
+      {
+         try (InputStream input = new FileInputStream(fileName))
+         {
+            if (!new LogToolsDecoder(color).decode(input, output))
+               System.err.println(fileName + " ends with an incomplete record");
+         }
+      }
+      output.flush();
+   }
+
+   /**
+    * Prints every record in a binary log.
+    *
+    * @return false if the log ends with an incomplete record
+    */
+   public boolean decode(InputStream inputStream, Appendable output) throws IOException
+   {
+      DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+      try
+      {
+         int recordType;
+         while ((recordType = input.read()) >= 0)
+         {
+            decodeRecord(recordType, input, output);
+         }
+         return true;
+      }
+      catch (EOFException e)
+      {
+         return false;
+      }
+   }
+
+   private void decodeRecord(int recordType, DataInputStream input, Appendable output) throws IOException
+   {
+      switch (recordType)
+      {
+         case SESSION:
+            byte[] magic = new byte[MAGIC.length];
+            input.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC))
+               throw new IOException("Not a LogTools binary log");
+            int version = input.readUnsignedByte();
+            if (version != VERSION)
+               throw new IOException("Unsupported binary log version: " + version);
+            timeMillis = input.readLong();
+            callSites.clear();
+            templates.clear();
+            loggerNames.clear();
+            break;
+         case CALL_SITE:
+            define(callSites, readVarint(input), new CallSite(readString(input), readVarint(input)));
+            break;
+         case TEMPLATE:
+            define(templates, readVarint(input) - FIRST_TEMPLATE_ID, readString(input));
+            break;
+         case LOGGER:
+            define(loggerNames, readVarint(input), readString(input));
+            break;
+         case EVENT:
+            decodeEvent(input, output);
+            break;
+         case TEXT:
+            decodeText(input, output);
+            break;
+         default:
+            throw new IOException("Unknown record type: " + recordType);
+      }
+   }
+
+   private void decodeEvent(DataInputStream input, Appendable output) throws IOException
+   {
+      Level level = readLevelAndTime(input);
+      CallSite callSite = callSites.get(readVarint(input));
+      int messageKind = input.readUnsignedByte();
+      String message = readMessage(input);
+
+      LogToolsMessage logToolsMessage;
+      if (messageKind == MESSAGE_PLAIN)
+      {
+         logToolsMessage = LogToolsMessage.of(callSite, message);
+      }
+      else if (messageKind == MESSAGE_PRIMITIVES)
+      {
+         int types = readVarint(input);
+         long[] values = new long[3];
+         for (int i = 0; i < PrimitiveParameters.count(types); i++)
+         {
+            int type = PrimitiveParameters.type(types, i);
+            values[i] = type == PrimitiveParameters.FLOAT ? input.readInt() : type == PrimitiveParameters.DOUBLE ? input.readLong() : readZigzag(input);
+         }
+         logToolsMessage = LogToolsMessage.of(callSite, message, types, values[0], values[1], values[2]);
+      }
+      else if (messageKind == MESSAGE_OBJECTS)
+      {
+         int count = input.readUnsignedByte();
+         Object[] parameters = new Object[3];
+         for (int i = 0; i < count; i++)
+         {
+            parameters[i] = readObject(input);
+         }
+         logToolsMessage = LogToolsMessage.of(callSite, message, count, parameters[0], parameters[1], parameters[2]);
+      }
+      else
+      {
+         throw new IOException("Unknown message kind: " + messageKind);
+      }
+
+      event.clear();
+      event.setLevel(level);
+      event.setTimeMillis(timeMillis);
+      event.setLoggerName(callSite.getLoggerName());
+      try
+      {
+         event.setMessage(logToolsMessage); // formats it
+      }
+      finally
+      {
+         logToolsMessage.release();
+      }
+      print(ihmcLayout, input, output);
+   }
+
+   private void decodeText(DataInputStream input, Appendable output) throws IOException
+   {
+      Level level = readLevelAndTime(input);
+      String loggerName = loggerNames.get(readVarint(input));
+      textMessage.set(readString(input));
+
+      event.clear();
+      event.setLevel(level);
+      event.setTimeMillis(timeMillis);
+      event.setLoggerName(loggerName);
+      event.setMessage(textMessage);
+      boolean ihmcLogger = loggerName.equals("us.ihmc") || loggerName.startsWith("us.ihmc."); // the loggers log4j2.yml sends to IHMCAppender
+      print(ihmcLogger ? ihmcLayout : externalLayout, input, output);
+   }
+
+   /**
+    * Prints the event, followed by the throwable the way the pattern layout appends one.
+    */
+   private void print(Layout<String> layout, DataInputStream input, Appendable output) throws IOException
+   {
+      line.setLength(0);
+      line.append(layout.toSerializable(event));
+      if (input.readUnsignedByte() == 1)
+      {
+         String stackTrace = readString(input);
+         if (line.length() > 0 && !Character.isWhitespace(line.charAt(line.length() - 1)))
+            line.append(' ');
+         line.append(stackTrace);
+      }
+      output.append(line);
+   }
+
+   private Level readLevelAndTime(DataInputStream input) throws IOException
+   {
+      int intLevel = readVarint(input);
+      timeMillis += readZigzag(input);
+      for (Level level : Level.values())
+      {
+         if (level.intLevel() == intLevel)
+            return level;
+      }
+      return Level.forName("LEVEL" + intLevel, intLevel); // a custom level this JVM doesn't know about
+   }
+
+   private String readMessage(DataInputStream input) throws IOException
+   {
+      int reference = readVarint(input);
+      if (reference == NULL_REFERENCE)
+         return null;
+      else if (reference == INLINE_REFERENCE)
+         return readString(input);
+      else
+         return templates.get(reference - FIRST_TEMPLATE_ID);
+   }
+
+   private Object readObject(DataInputStream input) throws IOException
+   {
+      int tag = input.readUnsignedByte();
+      switch (tag)
+      {
+         case TAG_NULL:
+            return null;
+         case TAG_STRING:
+            return readString(input);
+         case TAG_INT:
+            return (int) readZigzag(input);
+         case TAG_LONG:
+            return readZigzag(input);
+         case TAG_FLOAT:
+            return Float.intBitsToFloat(input.readInt());
+         case TAG_DOUBLE:
+            return Double.longBitsToDouble(input.readLong());
+         case TAG_BOOLEAN:
+            return input.readUnsignedByte() != 0;
+         case TAG_CHAR:
+            return (char) readVarint(input);
+         case TAG_SHORT:
+            return (short) readZigzag(input);
+         case TAG_BYTE:
+            return (byte) readZigzag(input);
+         default:
+            throw new IOException("Unknown parameter tag: " + tag);
+      }
+   }
+
+   private static <T> void define(List<T> definitions, int id, T definition) throws IOException
+   {
+      if (id != definitions.size())
+         throw new IOException("Definition " + id + " out of order, expected " + definitions.size());
+      definitions.add(definition);
+   }
+
+   private static String readString(DataInputStream input) throws IOException
+   {
+      byte[] bytes = new byte[readVarint(input)];
+      input.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+
+   private static long readZigzag(DataInputStream input) throws IOException
+   {
+      long value = readVarlong(input);
+      return (value >>> 1) ^ -(value & 1);
+   }
+
+   private static int readVarint(DataInputStream input) throws IOException
+   {
+      return (int) readVarlong(input);
+   }
+
+   private static long readVarlong(DataInputStream input) throws IOException
+   {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7)
+      {
+         int b = input.readUnsignedByte();
+         value |= (long) (b & 0x7F) << shift;
+         if ((b & 0x80) == 0)
+            return value;
+      }
+      throw new IOException("Malformed varint");
+   }
+}
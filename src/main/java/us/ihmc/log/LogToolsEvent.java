@@ -0,0 +1,143 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+
+import static us.ihmc.log.PrimitiveParameters.*;
+
+/**
+ * A structured log message with key/value fields, started with {@link LogTools#info()} and
+ * the other level methods without arguments, and logged by {@link #log(Object)}:
+ *
+ * <pre>
+ * LogTools.info().kv("joint", jointIndex).kv("torque", torque).log("Saturated");
+ * </pre>
+ *
+ * The console prints the fields after the message, i.e. "Saturated joint=3 torque=3.2", and
+ * {@link JsonLinesLayout} writes them as JSON fields.
+ *
+ * There is one builder per thread, which is reused by the next structured message once this
+ * one is logged, so nothing is allocated. Always finish with {@link #log(Object)}, and don't
+ * keep the builder. A builder that is never logged is replaced by a new one at the next
+ * structured message, which allocates. If the level is disabled, a shared builder that
+ * ignores everything is returned, and primitive values aren't boxed.
+ */
+public final class LogToolsEvent
+{
+   static final LogToolsEvent DISABLED = new LogToolsEvent(false);
+
+   private static final ThreadLocal<LogToolsEvent> THREAD_LOCAL_EVENT = ThreadLocal.withInitial(() -> new LogToolsEvent(true));
+
+   private final boolean enabled;
+   private final KeyValues keyValues;
+   private boolean inUse = false;
+
+   private Logger logger;
+   private Level level;
+   private CallSite origin;
+
+   private LogToolsEvent(boolean enabled)
+   {
+      this.enabled = enabled;
+      keyValues = enabled ? new KeyValues() : null;
+   }
+
+   /**
+    * @return this thread's builder, or a new one that becomes this thread's if it is still in use, either because a
+    *         value of another structured message on this thread is being computed, or because it was never logged
+    */
+   static LogToolsEvent acquire(Logger logger, Level level, CallSite origin)
+   {
+      LogToolsEvent event = THREAD_LOCAL_EVENT.get();
+      if (event.inUse) // the one in use carries on, but isn't reused
+      {
+         event = new LogToolsEvent(true);
+         THREAD_LOCAL_EVENT.set(event);
+      }
+      event.inUse = true;
+
+      event.logger = logger;
+      event.level = level;
+      event.origin = origin;
+      return event;
+   }
+
+   public LogToolsEvent kv(String key, int value)
+   {
+      if (enabled)
+         keyValues.add(key, INT, bits(value), null);
+      return this;
+   }
+
+   public LogToolsEvent kv(String key, long value)
+   {
+      if (enabled)
+         keyValues.add(key, LONG, bits(value), null);
+      return this;
+   }
+
+   public LogToolsEvent kv(String key, float value)
+   {
+      if (enabled)
+         keyValues.add(key, FLOAT, bits(value), null);
+      return this;
+   }
+
+   public LogToolsEvent kv(String key, double value)
+   {
+      if (enabled)
+         keyValues.add(key, DOUBLE, bits(value), null);
+      return this;
+   }
+
+   public LogToolsEvent kv(String key, boolean value)
+   {
+      if (enabled)
+         keyValues.add(key, BOOLEAN, bits(value), null);
+      return this;
+   }
+
+   public LogToolsEvent kv(String key, char value)
+   {
+      if (enabled)
+         keyValues.add(key, CHAR, bits(value), null);
+      return this;
+   }
+
+   /**
+    * @param value printed like a "{}" parameter, i.e. with toString(), when the message is formatted
+    */
+   public LogToolsEvent kv(String key, Object value)
+   {
+      if (enabled)
+         keyValues.add(key, KeyValues.OBJECT, 0L, value);
+      return this;
+   }
+
+   /**
+    * Logs the message, printed as is, with the fields, and returns the builder to be reused.
+    */
+   public void log(Object message)
+   {
+      if (!enabled)
+         return;
+
+      try
+      {
+         LogTools.logMessage(logger, level, LogToolsMessage.of(origin, message).withKeyValues(keyValues));
+      }
+      finally
+      {
+         release();
+      }
+   }
+
+   private void release()
+   {
+      logger = null;
+      level = null;
+      origin = null;
+      keyValues.clear();
+      inUse = false;
+   }
+}
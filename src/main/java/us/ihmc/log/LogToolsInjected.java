@@ -0,0 +1,1064 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+
+import java.lang.invoke.MethodHandles;
+import java.util.function.Supplier;
+
+import static us.ihmc.log.PrimitiveParameters.*;
+
+/**
+ * Entry points for LogTools calls rewritten at build time by the log-tools Gradle plugin.
+ * Not meant to be called directly.
+ *
+ * The plugin replaces each call to a LogTools method with a call to the method here of the
+ * same name and parameters, plus one more: the call site, loaded as a dynamic constant.
+ * The JVM resolves that constant with {@link #callSite} the first time the instruction runs
+ * and keeps it, so every later call gets its class, file name and line without walking the stack.
+ *
+ * Calls with an additionalStackTraceHeight refer to another frame, so they are not rewritten.
+ */
+public final class LogToolsInjected
+{
+   private LogToolsInjected()
+   {
+   }
+
+   /**
+    * Bootstrap method for the dynamic constant holding a call site.
+    *
+    * @param lookup     lookup of the class making the call
+    * @param name       unused
+    * @param type       Object, since CallSite is not public
+    * @param lineNumber the line of the call
+    * @return the {@link CallSite} of the call
+    */
+   public static Object callSite(MethodHandles.Lookup lookup, String name, Class<?> type, int lineNumber)
+   {
+      return CallSiteCache.get(lookup.lookupClass(), lineNumber);
+   }
+
+   public static Level getLevel(Object callSite)
+   {
+      return LogTools.getLevel((CallSite) callSite);
+   }
+
+   public static boolean isEnabled(Level level, Object callSite)
+   {
+      return LogTools.isEnabled((CallSite) callSite, level);
+   }
+
+   public static boolean isFatalEnabled(Object callSite)
+   {
+      return LogTools.isEnabled((CallSite) callSite, Level.FATAL);
+   }
+
+   public static boolean isErrorEnabled(Object callSite)
+   {
+      return LogTools.isEnabled((CallSite) callSite, Level.ERROR);
+   }
+
+   public static boolean isWarnEnabled(Object callSite)
+   {
+      return LogTools.isEnabled((CallSite) callSite, Level.WARN);
+   }
+
+   public static boolean isInfoEnabled(Object callSite)
+   {
+      return LogTools.isEnabled((CallSite) callSite, Level.INFO);
+   }
+
+   public static boolean isDebugEnabled(Object callSite)
+   {
+      return LogTools.isEnabled((CallSite) callSite, Level.DEBUG);
+   }
+
+   public static boolean isTraceEnabled(Object callSite)
+   {
+      return LogTools.isEnabled((CallSite) callSite, Level.TRACE);
+   }
+
+   public static LogToolsEvent log(Level level, Object callSite)
+   {
+      return LogTools.event((CallSite) callSite, level);
+   }
+
+   public static LogToolsEvent fatal(Object callSite)
+   {
+      return LogTools.event((CallSite) callSite, Level.FATAL);
+   }
+
+   public static LogToolsEvent error(Object callSite)
+   {
+      return LogTools.event((CallSite) callSite, Level.ERROR);
+   }
+
+   public static LogToolsEvent warn(Object callSite)
+   {
+      return LogTools.event((CallSite) callSite, Level.WARN);
+   }
+
+   public static LogToolsEvent info(Object callSite)
+   {
+      return LogTools.event((CallSite) callSite, Level.INFO);
+   }
+
+   public static LogToolsEvent debug(Object callSite)
+   {
+      return LogTools.event((CallSite) callSite, Level.DEBUG);
+   }
+
+   public static LogToolsEvent trace(Object callSite)
+   {
+      return LogTools.event((CallSite) callSite, Level.TRACE);
+   }
+
+   public static void log(Level level, Object message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message);
+   }
+
+   public static void log(Level level, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, msgSupplier);
+   }
+
+   public static void log(Level level, Object message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, msgSupplier);
+   }
+
+   public static void log(Level level, Object message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, p0);
+   }
+
+   public static void log(Level level, Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, p0, p1);
+   }
+
+   public static void log(Level level, Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, p0, p1, p2);
+   }
+
+   public static void log(Level level, String message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message);
+   }
+
+   public static void log(Level level, String message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, msgSupplier);
+   }
+
+   public static void log(Level level, String message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, p0);
+   }
+
+   public static void log(Level level, String message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, p0, p1);
+   }
+
+   public static void log(Level level, String message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, p0, p1, p2);
+   }
+
+   public static void fatal(Object message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message);
+   }
+
+   public static void fatal(Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, msgSupplier);
+   }
+
+   public static void fatal(Object message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, msgSupplier);
+   }
+
+   public static void fatal(Object message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, p0);
+   }
+
+   public static void fatal(Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, p0, p1);
+   }
+
+   public static void fatal(Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, p0, p1, p2);
+   }
+
+   public static void fatal(String message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message);
+   }
+
+   public static void fatal(String message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, msgSupplier);
+   }
+
+   public static void fatal(String message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, p0);
+   }
+
+   public static void fatal(String message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, p0, p1);
+   }
+
+   public static void fatal(String message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, p0, p1, p2);
+   }
+
+   public static void error(Object message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message);
+   }
+
+   public static void error(Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, msgSupplier);
+   }
+
+   public static void error(Object message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, msgSupplier);
+   }
+
+   public static void error(Object message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, p0);
+   }
+
+   public static void error(Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, p0, p1);
+   }
+
+   public static void error(Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, p0, p1, p2);
+   }
+
+   public static void error(String message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message);
+   }
+
+   public static void error(String message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, msgSupplier);
+   }
+
+   public static void error(String message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, p0);
+   }
+
+   public static void error(String message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, p0, p1);
+   }
+
+   public static void error(String message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, p0, p1, p2);
+   }
+
+   public static void warn(Object message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message);
+   }
+
+   public static void warn(Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, msgSupplier);
+   }
+
+   public static void warn(Object message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, msgSupplier);
+   }
+
+   public static void warn(Object message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, p0);
+   }
+
+   public static void warn(Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, p0, p1);
+   }
+
+   public static void warn(Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, p0, p1, p2);
+   }
+
+   public static void warn(String message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message);
+   }
+
+   public static void warn(String message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, msgSupplier);
+   }
+
+   public static void warn(String message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, p0);
+   }
+
+   public static void warn(String message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, p0, p1);
+   }
+
+   public static void warn(String message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, p0, p1, p2);
+   }
+
+   public static void info(Object message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message);
+   }
+
+   public static void info(Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, msgSupplier);
+   }
+
+   public static void info(Object message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, msgSupplier);
+   }
+
+   public static void info(Object message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, p0);
+   }
+
+   public static void info(Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, p0, p1);
+   }
+
+   public static void info(Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, p0, p1, p2);
+   }
+
+   public static void info(String message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message);
+   }
+
+   public static void info(String message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, msgSupplier);
+   }
+
+   public static void info(String message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, p0);
+   }
+
+   public static void info(String message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, p0, p1);
+   }
+
+   public static void info(String message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, p0, p1, p2);
+   }
+
+   public static void debug(Object message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message);
+   }
+
+   public static void debug(Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, msgSupplier);
+   }
+
+   public static void debug(Object message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, msgSupplier);
+   }
+
+   public static void debug(Object message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, p0);
+   }
+
+   public static void debug(Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, p0, p1);
+   }
+
+   public static void debug(Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, p0, p1, p2);
+   }
+
+   public static void debug(String message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message);
+   }
+
+   public static void debug(String message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, msgSupplier);
+   }
+
+   public static void debug(String message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, p0);
+   }
+
+   public static void debug(String message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, p0, p1);
+   }
+
+   public static void debug(String message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, p0, p1, p2);
+   }
+
+   public static void trace(Object message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message);
+   }
+
+   public static void trace(Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, msgSupplier);
+   }
+
+   public static void trace(Object message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, msgSupplier);
+   }
+
+   public static void trace(Object message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, p0);
+   }
+
+   public static void trace(Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, p0, p1);
+   }
+
+   public static void trace(Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, p0, p1, p2);
+   }
+
+   public static void trace(String message, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message);
+   }
+
+   public static void trace(String message, Supplier<?> msgSupplier, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, msgSupplier);
+   }
+
+   public static void trace(String message, Object p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, p0);
+   }
+
+   public static void trace(String message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, p0, p1);
+   }
+
+   public static void trace(String message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, p0, p1, p2);
+   }
+
+   // BEGIN RATE LIMITED BOILERPLATE API
+
+   public static void logLimited(Level level, Object message, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, level, message, 0, null, null, null);
+   }
+
+   public static void logLimited(Level level, Object message, Object p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, level, message, 1, p0, null, null);
+   }
+
+   public static void logLimited(Level level, Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, level, message, 2, p0, p1, null);
+   }
+
+   public static void logLimited(Level level, Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, level, message, 3, p0, p1, p2);
+   }
+
+   public static void fatalLimited(Object message, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.FATAL, message, 0, null, null, null);
+   }
+
+   public static void fatalLimited(Object message, Object p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.FATAL, message, 1, p0, null, null);
+   }
+
+   public static void fatalLimited(Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.FATAL, message, 2, p0, p1, null);
+   }
+
+   public static void fatalLimited(Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.FATAL, message, 3, p0, p1, p2);
+   }
+
+   public static void errorLimited(Object message, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.ERROR, message, 0, null, null, null);
+   }
+
+   public static void errorLimited(Object message, Object p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.ERROR, message, 1, p0, null, null);
+   }
+
+   public static void errorLimited(Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.ERROR, message, 2, p0, p1, null);
+   }
+
+   public static void errorLimited(Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.ERROR, message, 3, p0, p1, p2);
+   }
+
+   public static void warnLimited(Object message, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.WARN, message, 0, null, null, null);
+   }
+
+   public static void warnLimited(Object message, Object p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.WARN, message, 1, p0, null, null);
+   }
+
+   public static void warnLimited(Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.WARN, message, 2, p0, p1, null);
+   }
+
+   public static void warnLimited(Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.WARN, message, 3, p0, p1, p2);
+   }
+
+   public static void infoLimited(Object message, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.INFO, message, 0, null, null, null);
+   }
+
+   public static void infoLimited(Object message, Object p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.INFO, message, 1, p0, null, null);
+   }
+
+   public static void infoLimited(Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.INFO, message, 2, p0, p1, null);
+   }
+
+   public static void infoLimited(Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.INFO, message, 3, p0, p1, p2);
+   }
+
+   public static void debugLimited(Object message, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.DEBUG, message, 0, null, null, null);
+   }
+
+   public static void debugLimited(Object message, Object p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.DEBUG, message, 1, p0, null, null);
+   }
+
+   public static void debugLimited(Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.DEBUG, message, 2, p0, p1, null);
+   }
+
+   public static void debugLimited(Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.DEBUG, message, 3, p0, p1, p2);
+   }
+
+   public static void traceLimited(Object message, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.TRACE, message, 0, null, null, null);
+   }
+
+   public static void traceLimited(Object message, Object p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.TRACE, message, 1, p0, null, null);
+   }
+
+   public static void traceLimited(Object message, Object p0, Object p1, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.TRACE, message, 2, p0, p1, null);
+   }
+
+   public static void traceLimited(Object message, Object p0, Object p1, Object p2, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.TRACE, message, 3, p0, p1, p2);
+   }
+
+   // BEGIN PRIMITIVE PARAMETER BOILERPLATE API
+
+   public static void log(Level level, String message, int p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void log(Level level, String message, long p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void log(Level level, String message, float p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void log(Level level, String message, double p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void log(Level level, String message, boolean p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void log(Level level, String message, char p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, level, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void fatal(String message, int p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void fatal(String message, long p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void fatal(String message, float p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void fatal(String message, double p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void fatal(String message, boolean p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void fatal(String message, char p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.FATAL, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void error(String message, int p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void error(String message, long p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void error(String message, float p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void error(String message, double p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void error(String message, boolean p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void error(String message, char p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.ERROR, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void warn(String message, int p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void warn(String message, long p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void warn(String message, float p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void warn(String message, double p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void warn(String message, boolean p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void warn(String message, char p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.WARN, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void info(String message, int p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void info(String message, long p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void info(String message, float p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void info(String message, double p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void info(String message, boolean p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void info(String message, char p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.INFO, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void debug(String message, int p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void debug(String message, long p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void debug(String message, float p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void debug(String message, double p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void debug(String message, boolean p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void debug(String message, char p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.DEBUG, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void trace(String message, int p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void trace(String message, long p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void trace(String message, float p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void trace(String message, double p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void trace(String message, boolean p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void trace(String message, char p0, Object callSite)
+   {
+      LogTools.logIfEnabled((CallSite) callSite, Level.TRACE, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void logLimited(Level level, String message, int p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, level, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void logLimited(Level level, String message, long p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, level, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void logLimited(Level level, String message, float p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, level, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void logLimited(Level level, String message, double p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, level, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void logLimited(Level level, String message, boolean p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, level, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void logLimited(Level level, String message, char p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, level, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void fatalLimited(String message, int p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.FATAL, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void fatalLimited(String message, long p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.FATAL, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void fatalLimited(String message, float p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.FATAL, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void fatalLimited(String message, double p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.FATAL, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void fatalLimited(String message, boolean p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.FATAL, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void fatalLimited(String message, char p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.FATAL, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void errorLimited(String message, int p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.ERROR, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void errorLimited(String message, long p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.ERROR, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void errorLimited(String message, float p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.ERROR, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void errorLimited(String message, double p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.ERROR, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void errorLimited(String message, boolean p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.ERROR, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void errorLimited(String message, char p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.ERROR, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void warnLimited(String message, int p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.WARN, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void warnLimited(String message, long p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.WARN, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void warnLimited(String message, float p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.WARN, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void warnLimited(String message, double p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.WARN, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void warnLimited(String message, boolean p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.WARN, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void warnLimited(String message, char p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.WARN, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void infoLimited(String message, int p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.INFO, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void infoLimited(String message, long p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.INFO, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void infoLimited(String message, float p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.INFO, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void infoLimited(String message, double p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.INFO, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void infoLimited(String message, boolean p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.INFO, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void infoLimited(String message, char p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.INFO, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void debugLimited(String message, int p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.DEBUG, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void debugLimited(String message, long p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.DEBUG, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void debugLimited(String message, float p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.DEBUG, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void debugLimited(String message, double p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.DEBUG, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void debugLimited(String message, boolean p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.DEBUG, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void debugLimited(String message, char p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.DEBUG, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   public static void traceLimited(String message, int p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.TRACE, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   public static void traceLimited(String message, long p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.TRACE, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   public static void traceLimited(String message, float p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.TRACE, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   public static void traceLimited(String message, double p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.TRACE, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   public static void traceLimited(String message, boolean p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.TRACE, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   public static void traceLimited(String message, char p0, Object callSite)
+   {
+      LogTools.logLimitedIfEnabled((CallSite) callSite, Level.TRACE, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+}
@@ -0,0 +1,679 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+
+import java.util.function.Supplier;
+
+import static us.ihmc.log.PrimitiveParameters.*;
+
+/**
+ * A LogTools logger bound to one logger name, created with {@link LogTools#forClass(Class)}
+ * or {@link LogTools#forName(String)}.
+ *
+ * The log4j logger is looked up once when this is created, so checking if a level is
+ * enabled never walks the stack, even in granular mode. The stack is only walked for
+ * enabled messages, to print the line they were logged from.
+ */
+final class LogToolsLogger implements LogToolsWriteOnly
+{
+   private final Logger logger;
+
+   LogToolsLogger(Logger logger)
+   {
+      this.logger = logger;
+   }
+
+   Logger getLogger()
+   {
+      return logger;
+   }
+
+   private static CallSite origin(int additionalStackTraceHeight)
+   {
+      return CallSiteCache.get(CallerResolver.resolve(4 + additionalStackTraceHeight));
+   }
+
+   private static CallSite origin()
+   {
+      return CallSiteCache.get(CallerResolver.resolve(4));
+   }
+
+   private void logIfEnabled(Level level, Object message)
+   {
+      if (logger.isEnabled(level))
+      {
+         LogTools.logMessage(logger, level, LogToolsMessage.of(origin(), message));
+      }
+      else if (FlightRecorder.ENABLED)
+      {
+         FlightRecorder.INSTANCE.record(level, null, message);
+      }
+   }
+
+   private void logIfEnabled(Level level, int additionalStackTraceHeight, Object message)
+   {
+      if (logger.isEnabled(level))
+      {
+         LogTools.logMessage(logger, level, LogToolsMessage.of(origin(additionalStackTraceHeight), message));
+      }
+      else if (FlightRecorder.ENABLED)
+      {
+         FlightRecorder.INSTANCE.record(level, null, message);
+      }
+   }
+
+   private void logIfEnabled(Level level, Supplier<?> msgSupplier)
+   {
+      if (logger.isEnabled(level))
+      {
+         LogTools.logMessage(logger, level, LogToolsMessage.of(origin(), msgSupplier.get()));
+      }
+   }
+
+   private void logIfEnabled(Level level, Object message, Supplier<?> msgSupplier)
+   {
+      if (logger.isEnabled(level))
+      {
+         LogTools.logMessage(logger, level, LogToolsMessage.of(origin(), message, 1, msgSupplier.get(), null, null));
+      }
+   }
+
+   private void logIfEnabled(Level level, Object message, Object p0)
+   {
+      if (logger.isEnabled(level))
+      {
+         LogTools.logMessage(logger, level, LogToolsMessage.of(origin(), message, 1, p0, null, null));
+      }
+      else if (FlightRecorder.ENABLED)
+      {
+         FlightRecorder.INSTANCE.record(level, null, message, 1, p0, null, null);
+      }
+   }
+
+   private void logIfEnabled(Level level, Object message, Object p0, Object p1)
+   {
+      if (logger.isEnabled(level))
+      {
+         LogTools.logMessage(logger, level, LogToolsMessage.of(origin(), message, 2, p0, p1, null));
+      }
+      else if (FlightRecorder.ENABLED)
+      {
+         FlightRecorder.INSTANCE.record(level, null, message, 2, p0, p1, null);
+      }
+   }
+
+   private void logIfEnabled(Level level, Object message, Object p0, Object p1, Object p2)
+   {
+      if (logger.isEnabled(level))
+      {
+         LogTools.logMessage(logger, level, LogToolsMessage.of(origin(), message, 3, p0, p1, p2));
+      }
+      else if (FlightRecorder.ENABLED)
+      {
+         FlightRecorder.INSTANCE.record(level, null, message, 3, p0, p1, p2);
+      }
+   }
+
+   private void logIfEnabled(Level level, String message, int types, long p0, long p1, long p2)
+   {
+      if (logger.isEnabled(level))
+      {
+         LogTools.logMessage(logger, level, LogToolsMessage.of(origin(), message, types, p0, p1, p2));
+      }
+      else if (FlightRecorder.ENABLED)
+      {
+         FlightRecorder.INSTANCE.record(level, null, message, types, p0, p1, p2);
+      }
+   }
+
+   // BEGIN BOILERPLATE API
+
+   @Override
+   public void log(Level level, Object message)
+   {
+      logIfEnabled(level, message);
+   }
+
+   @Override
+   public void log(Level level, int additionalStackTraceHeight, Object message)
+   {
+      logIfEnabled(level, additionalStackTraceHeight, message);
+   }
+
+   @Override
+   public void log(Level level, Supplier<?> msgSupplier)
+   {
+      logIfEnabled(level, msgSupplier);
+   }
+
+   @Override
+   public void log(Level level, Object message, Supplier<?> msgSupplier)
+   {
+      logIfEnabled(level, message, msgSupplier);
+   }
+
+   @Override
+   public void log(Level level, Object message, Object p0)
+   {
+      logIfEnabled(level, message, p0);
+   }
+
+   @Override
+   public void log(Level level, Object message, Object p0, Object p1)
+   {
+      logIfEnabled(level, message, p0, p1);
+   }
+
+   @Override
+   public void log(Level level, Object message, Object p0, Object p1, Object p2)
+   {
+      logIfEnabled(level, message, p0, p1, p2);
+   }
+
+   @Override
+   public void fatal(Object message)
+   {
+      logIfEnabled(Level.FATAL, message);
+   }
+
+   @Override
+   public void fatal(int additionalStackTraceHeight, Object message)
+   {
+      logIfEnabled(Level.FATAL, additionalStackTraceHeight, message);
+   }
+
+   @Override
+   public void fatal(Supplier<?> msgSupplier)
+   {
+      logIfEnabled(Level.FATAL, msgSupplier);
+   }
+
+   @Override
+   public void fatal(Object message, Supplier<?> msgSupplier)
+   {
+      logIfEnabled(Level.FATAL, message, msgSupplier);
+   }
+
+   @Override
+   public void fatal(Object message, Object p0)
+   {
+      logIfEnabled(Level.FATAL, message, p0);
+   }
+
+   @Override
+   public void fatal(Object message, Object p0, Object p1)
+   {
+      logIfEnabled(Level.FATAL, message, p0, p1);
+   }
+
+   @Override
+   public void fatal(Object message, Object p0, Object p1, Object p2)
+   {
+      logIfEnabled(Level.FATAL, message, p0, p1, p2);
+   }
+
+   @Override
+   public void error(Object message)
+   {
+      logIfEnabled(Level.ERROR, message);
+   }
+
+   @Override
+   public void error(int additionalStackTraceHeight, Object message)
+   {
+      logIfEnabled(Level.ERROR, additionalStackTraceHeight, message);
+   }
+
+   @Override
+   public void error(Supplier<?> msgSupplier)
+   {
+      logIfEnabled(Level.ERROR, msgSupplier);
+   }
+
+   @Override
+   public void error(Object message, Supplier<?> msgSupplier)
+   {
+      logIfEnabled(Level.ERROR, message, msgSupplier);
+   }
+
+   @Override
+   public void error(Object message, Object p0)
+   {
+      logIfEnabled(Level.ERROR, message, p0);
+   }
+
+   @Override
+   public void error(Object message, Object p0, Object p1)
+   {
+      logIfEnabled(Level.ERROR, message, p0, p1);
+   }
+
+   @Override
+   public void error(Object message, Object p0, Object p1, Object p2)
+   {
+      logIfEnabled(Level.ERROR, message, p0, p1, p2);
+   }
+
+   @Override
+   public void warn(Object message)
+   {
+      logIfEnabled(Level.WARN, message);
+   }
+
+   @Override
+   public void warn(int additionalStackTraceHeight, Object message)
+   {
+      logIfEnabled(Level.WARN, additionalStackTraceHeight, message);
+   }
+
+   @Override
+   public void warn(Supplier<?> msgSupplier)
+   {
+      logIfEnabled(Level.WARN, msgSupplier);
+   }
+
+   @Override
+   public void warn(Object message, Supplier<?> msgSupplier)
+   {
+      logIfEnabled(Level.WARN, message, msgSupplier);
+   }
+
+   @Override
+   public void warn(Object message, Object p0)
+   {
+      logIfEnabled(Level.WARN, message, p0);
+   }
+
+   @Override
+   public void warn(Object message, Object p0, Object p1)
+   {
+      logIfEnabled(Level.WARN, message, p0, p1);
+   }
+
+   @Override
+   public void warn(Object message, Object p0, Object p1, Object p2)
+   {
+      logIfEnabled(Level.WARN, message, p0, p1, p2);
+   }
+
+   @Override
+   public void info(Object message)
+   {
+      logIfEnabled(Level.INFO, message);
+   }
+
+   @Override
+   public void info(int additionalStackTraceHeight, Object message)
+   {
+      logIfEnabled(Level.INFO, additionalStackTraceHeight, message);
+   }
+
+   @Override
+   public void info(Supplier<?> msgSupplier)
+   {
+      logIfEnabled(Level.INFO, msgSupplier);
+   }
+
+   @Override
+   public void info(Object message, Supplier<?> msgSupplier)
+   {
+      logIfEnabled(Level.INFO, message, msgSupplier);
+   }
+
+   @Override
+   public void info(Object message, Object p0)
+   {
+      logIfEnabled(Level.INFO, message, p0);
+   }
+
+   @Override
+   public void info(Object message, Object p0, Object p1)
+   {
+      logIfEnabled(Level.INFO, message, p0, p1);
+   }
+
+   @Override
+   public void info(Object message, Object p0, Object p1, Object p2)
+   {
+      logIfEnabled(Level.INFO, message, p0, p1, p2);
+   }
+
+   @Override
+   public void debug(Object message)
+   {
+      logIfEnabled(Level.DEBUG, message);
+   }
+
+   @Override
+   public void debug(int additionalStackTraceHeight, Object message)
+   {
+      logIfEnabled(Level.DEBUG, additionalStackTraceHeight, message);
+   }
+
+   @Override
+   public void debug(Supplier<?> msgSupplier)
+   {
+      logIfEnabled(Level.DEBUG, msgSupplier);
+   }
+
+   @Override
+   public void debug(Object message, Supplier<?> msgSupplier)
+   {
+      logIfEnabled(Level.DEBUG, message, msgSupplier);
+   }
+
+   @Override
+   public void debug(Object message, Object p0)
+   {
+      logIfEnabled(Level.DEBUG, message, p0);
+   }
+
+   @Override
+   public void debug(Object message, Object p0, Object p1)
+   {
+      logIfEnabled(Level.DEBUG, message, p0, p1);
+   }
+
+   @Override
+   public void debug(Object message, Object p0, Object p1, Object p2)
+   {
+      logIfEnabled(Level.DEBUG, message, p0, p1, p2);
+   }
+
+   @Override
+   public void trace(Object message)
+   {
+      logIfEnabled(Level.TRACE, message);
+   }
+
+   @Override
+   public void trace(int additionalStackTraceHeight, Object message)
+   {
+      logIfEnabled(Level.TRACE, additionalStackTraceHeight, message);
+   }
+
+   @Override
+   public void trace(Supplier<?> msgSupplier)
+   {
+      logIfEnabled(Level.TRACE, msgSupplier);
+   }
+
+   @Override
+   public void trace(Object message, Supplier<?> msgSupplier)
+   {
+      logIfEnabled(Level.TRACE, message, msgSupplier);
+   }
+
+   @Override
+   public void trace(Object message, Object p0)
+   {
+      logIfEnabled(Level.TRACE, message, p0);
+   }
+
+   @Override
+   public void trace(Object message, Object p0, Object p1)
+   {
+      logIfEnabled(Level.TRACE, message, p0, p1);
+   }
+
+   @Override
+   public void trace(Object message, Object p0, Object p1, Object p2)
+   {
+      logIfEnabled(Level.TRACE, message, p0, p1, p2);
+   }
+
+   // BEGIN PRIMITIVE PARAMETER BOILERPLATE API
+
+   @Override
+   public void log(Level level, String message, int p0)
+   {
+      logIfEnabled(level, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void log(Level level, String message, long p0)
+   {
+      logIfEnabled(level, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void log(Level level, String message, float p0)
+   {
+      logIfEnabled(level, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void log(Level level, String message, double p0)
+   {
+      logIfEnabled(level, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void log(Level level, String message, boolean p0)
+   {
+      logIfEnabled(level, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void log(Level level, String message, char p0)
+   {
+      logIfEnabled(level, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void fatal(String message, int p0)
+   {
+      logIfEnabled(Level.FATAL, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void fatal(String message, long p0)
+   {
+      logIfEnabled(Level.FATAL, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void fatal(String message, float p0)
+   {
+      logIfEnabled(Level.FATAL, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void fatal(String message, double p0)
+   {
+      logIfEnabled(Level.FATAL, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void fatal(String message, boolean p0)
+   {
+      logIfEnabled(Level.FATAL, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void fatal(String message, char p0)
+   {
+      logIfEnabled(Level.FATAL, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void error(String message, int p0)
+   {
+      logIfEnabled(Level.ERROR, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void error(String message, long p0)
+   {
+      logIfEnabled(Level.ERROR, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void error(String message, float p0)
+   {
+      logIfEnabled(Level.ERROR, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void error(String message, double p0)
+   {
+      logIfEnabled(Level.ERROR, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void error(String message, boolean p0)
+   {
+      logIfEnabled(Level.ERROR, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void error(String message, char p0)
+   {
+      logIfEnabled(Level.ERROR, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void warn(String message, int p0)
+   {
+      logIfEnabled(Level.WARN, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void warn(String message, long p0)
+   {
+      logIfEnabled(Level.WARN, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void warn(String message, float p0)
+   {
+      logIfEnabled(Level.WARN, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void warn(String message, double p0)
+   {
+      logIfEnabled(Level.WARN, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void warn(String message, boolean p0)
+   {
+      logIfEnabled(Level.WARN, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void warn(String message, char p0)
+   {
+      logIfEnabled(Level.WARN, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void info(String message, int p0)
+   {
+      logIfEnabled(Level.INFO, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void info(String message, long p0)
+   {
+      logIfEnabled(Level.INFO, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void info(String message, float p0)
+   {
+      logIfEnabled(Level.INFO, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void info(String message, double p0)
+   {
+      logIfEnabled(Level.INFO, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void info(String message, boolean p0)
+   {
+      logIfEnabled(Level.INFO, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void info(String message, char p0)
+   {
+      logIfEnabled(Level.INFO, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void debug(String message, int p0)
+   {
+      logIfEnabled(Level.DEBUG, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void debug(String message, long p0)
+   {
+      logIfEnabled(Level.DEBUG, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void debug(String message, float p0)
+   {
+      logIfEnabled(Level.DEBUG, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void debug(String message, double p0)
+   {
+      logIfEnabled(Level.DEBUG, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void debug(String message, boolean p0)
+   {
+      logIfEnabled(Level.DEBUG, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void debug(String message, char p0)
+   {
+      logIfEnabled(Level.DEBUG, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void trace(String message, int p0)
+   {
+      logIfEnabled(Level.TRACE, message, types(INT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void trace(String message, long p0)
+   {
+      logIfEnabled(Level.TRACE, message, types(LONG), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void trace(String message, float p0)
+   {
+      logIfEnabled(Level.TRACE, message, types(FLOAT), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void trace(String message, double p0)
+   {
+      logIfEnabled(Level.TRACE, message, types(DOUBLE), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void trace(String message, boolean p0)
+   {
+      logIfEnabled(Level.TRACE, message, types(BOOLEAN), bits(p0), 0L, 0L);
+   }
+
+   @Override
+   public void trace(String message, char p0)
+   {
+      logIfEnabled(Level.TRACE, message, types(CHAR), bits(p0), 0L, 0L);
+   }
+}
@@ -0,0 +1,42 @@
+package us.ihmc.log;
+
+/**
+ * Changes log levels on a live JVM over JMX, i.e. from JConsole or VisualVM.
+ * Registered as "us.ihmc.log:type=LogTools" unless -Dlog.jmx=false is set.
+ *
+ * Levels are the same strings the log.level properties take, i.e. "debug".
+ */
+public interface LogToolsMXBean
+{
+   /**
+    * @return the level of all IHMC software, i.e. the "us.ihmc" logger
+    */
+   String getLevel();
+
+   /**
+    * Sets the level of everything, like -Dlog.level.
+    */
+   void setLevel(String level);
+
+   /**
+    * @return the level of a logger, i.e. "us.ihmc" or a package or class name in granular mode
+    */
+   String getLoggerLevel(String loggerName);
+
+   /**
+    * Sets the level of a logger, like -Dlog.level.&lt;loggerName&gt;.
+    */
+   void setLoggerLevel(String loggerName, String level);
+
+   boolean isGranularMode();
+
+   /**
+    * @return how many console lines were dropped with -Dlog.console.nonBlocking=true
+    */
+   long getConsoleDroppedLines();
+
+   /**
+    * Logs the disabled messages of the last few seconds with -Dlog.recorder=true, like {@link LogTools#dumpFlightRecorder()}.
+    */
+   void dumpFlightRecorder();
+}
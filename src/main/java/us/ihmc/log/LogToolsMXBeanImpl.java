@@ -0,0 +1,105 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.ConsoleAppender;
+import org.apache.logging.log4j.status.StatusLogger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+final class LogToolsMXBeanImpl implements LogToolsMXBean
+{
+   static final String OBJECT_NAME = "us.ihmc.log:type=LogTools";
+
+   /**
+    * Registers the bean with the platform MBean server, and the metrics bean if metrics are on,
+    * unless -Dlog.jmx=false is set.
+    */
+   static void register()
+   {
+      if (System.getProperty("log.jmx", "true").trim().toLowerCase().contains("false"))
+         return;
+
+      register(new LogToolsMXBeanImpl(), OBJECT_NAME);
+      if (LogToolsMetrics.ENABLED)
+         register(new LogToolsMetricsMXBeanImpl(LogToolsMetrics.INSTANCE), LogToolsMetricsMXBeanImpl.OBJECT_NAME);
+   }
+
+   private static void register(Object bean, String name)
+   {
+      try
+      {
+         ObjectName objectName = new ObjectName(name);
+         if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) // i.e. already registered by another class loader
+            ManagementFactory.getPlatformMBeanServer().registerMBean(bean, objectName);
+      }
+      catch (JMException | SecurityException e) // logging works without it
+      {
+         StatusLogger.getLogger().warn("Could not register " + name, e);
+      }
+   }
+
+   @Override
+   public String getLevel()
+   {
+      return LogTools.getLevel("us.ihmc").name();
+   }
+
+   @Override
+   public void setLevel(String level)
+   {
+      LogTools.setLevel(toLevel(level));
+   }
+
+   @Override
+   public String getLoggerLevel(String loggerName)
+   {
+      return LogTools.getLevel(loggerName).name();
+   }
+
+   @Override
+   public void setLoggerLevel(String loggerName, String level)
+   {
+      LogTools.setLevel(loggerName, toLevel(level));
+   }
+
+   @Override
+   public boolean isGranularMode()
+   {
+      return LogTools.isGranularMode();
+   }
+
+   @Override
+   public long getConsoleDroppedLines()
+   {
+      long dropped = 0;
+      Set<Object> managers = Collections.newSetFromMap(new IdentityHashMap<>()); // appenders on a target share their counts
+      for (Appender appender : ((LoggerContext) LogManager.getContext(false)).getConfiguration().getAppenders().values())
+      {
+         if (appender instanceof ConsoleAppender && managers.add(((ConsoleAppender) appender).getManager()))
+            dropped += ((ConsoleAppender) appender).getDroppedCount();
+      }
+      return dropped;
+   }
+
+   @Override
+   public void dumpFlightRecorder()
+   {
+      LogTools.dumpFlightRecorder();
+   }
+
+   private static Level toLevel(String levelString)
+   {
+      Level level = LogTools.parseLevel(levelString);
+      if (level == null)
+         throw new IllegalArgumentException("Unknown level: " + levelString);
+      return level;
+   }
+}
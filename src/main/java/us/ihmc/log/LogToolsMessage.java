@@ -0,0 +1,596 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.ReusableMessage;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.util.Constants;
+import org.apache.logging.log4j.util.StringBuilders;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * A reusable log4j message holding everything passed to a LogTools call: the call site,
+ * the message or "{}" template, and either object parameters or raw primitive parameters.
+ *
+ * Nothing is formatted until log4j asks for it. With log4j's default thread local,
+ * garbage free events, it calls {@link #formatTo(StringBuilder)} with the event's own
+ * buffer, so the prefix, message and parameters are written straight into it, and the
+ * enabled path builds no Strings.
+ *
+ * There is one instance per thread. If a message is logged while formatting another on
+ * the same thread, or log4j has thread locals disabled and may keep the message after
+ * the call, a new instance is used instead.
+ */
+final class LogToolsMessage implements ReusableMessage
+{
+   private static final long serialVersionUID = 1L;
+
+   private static final ThreadLocal<LogToolsMessage> THREAD_LOCAL_MESSAGE = ThreadLocal.withInitial(LogToolsMessage::new);
+
+   /** Stands for an object that can't be formatted later. */
+   static final Object NO_SNAPSHOT = new Object();
+
+   private static final char DELIMITER_START = '{';
+   private static final char DELIMITER_STOP = '}';
+   private static final char ESCAPE_CHAR = '\\';
+
+   private transient boolean reusable = false;
+   private transient boolean inUse = false;
+
+   private transient CallSite origin;
+   /** The message, which is only a template when parameterized is true. */
+   private transient Object message;
+   private transient boolean parameterized;
+   private transient Throwable throwable;
+
+   private transient int objectParameterCount;
+   private transient Object o0;
+   private transient Object o1;
+   private transient Object o2;
+
+   private transient int types;
+   private transient long p0;
+   private transient long p1;
+   private transient long p2;
+
+   /** The fields of a structured message, or null. Owned by the caller's {@link LogToolsEvent}, unless this is a copy. */
+   private transient KeyValues keyValues;
+   /** Where a copy keeps the fields it was given, made the first time it is given some. */
+   private transient KeyValues copiedKeyValues;
+   /** The thread that logged a copy, or null if this isn't one. */
+   private transient String threadName;
+
+   /**
+    * A message that is printed as is, without replacing "{}".
+    */
+   static LogToolsMessage of(CallSite origin, Object message)
+   {
+      return acquire().set(origin, message);
+   }
+
+   /**
+    * A template with object parameters. Like log4j, a trailing Throwable parameter that
+    * has no "{}" left for it becomes the throwable of the event.
+    */
+   static LogToolsMessage of(CallSite origin, Object template, int objectParameterCount, Object o0, Object o1, Object o2)
+   {
+      String templateString = template == null ? null : template.toString(); // before acquiring, in case toString() throws
+      return acquire().set(origin, templateString, objectParameterCount, o0, o1, o2);
+   }
+
+   /**
+    * A template with primitive parameters.
+    */
+   static LogToolsMessage of(CallSite origin, String template, int types, long p0, long p1, long p2)
+   {
+      return acquire().set(origin, template, types, p0, p1, p2);
+   }
+
+   private static LogToolsMessage acquire()
+   {
+      if (!Constants.ENABLE_THREADLOCALS) // log4j creates immutable events that keep a reference to the message
+         return new LogToolsMessage();
+
+      LogToolsMessage message = THREAD_LOCAL_MESSAGE.get();
+      if (message.inUse)
+         return new LogToolsMessage();
+
+      message.reusable = true;
+      message.inUse = true;
+      return message;
+   }
+
+   /**
+    * Adds the key/value fields of a structured message.
+    */
+   LogToolsMessage withKeyValues(KeyValues keyValues)
+   {
+      this.keyValues = keyValues;
+      return this;
+   }
+
+   /**
+    * Call after the message was logged. log4j has copied what it needs by then.
+    */
+   void release()
+   {
+      if (reusable)
+      {
+         inUse = false;
+         clear();
+      }
+   }
+
+   /**
+    * Drops the references to the caller's objects.
+    */
+   void clear()
+   {
+      origin = null;
+      message = null;
+      throwable = null;
+      o0 = null;
+      o1 = null;
+      o2 = null;
+      keyValues = null;
+      if (copiedKeyValues != null)
+         copiedKeyValues.clear();
+      threadName = null;
+   }
+
+   /**
+    * Copies a message on the thread that logs it, so it can be formatted later on another thread.
+    */
+   void copyFrom(LogToolsMessage other)
+   {
+      threadName = Thread.currentThread().getName();
+      origin = other.origin;
+      message = other.message;
+      parameterized = other.parameterized;
+      throwable = other.throwable;
+      objectParameterCount = other.objectParameterCount;
+      o0 = other.o0;
+      o1 = other.o1;
+      o2 = other.o2;
+      types = other.types;
+      p0 = other.p0;
+      p1 = other.p1;
+      p2 = other.p2;
+      keyValues = null;
+      if (other.keyValues != null) // the caller reuses its fields as soon as this returns
+      {
+         if (copiedKeyValues == null)
+            copiedKeyValues = new KeyValues();
+         copiedKeyValues.copyFrom(other.keyValues);
+         keyValues = copiedKeyValues;
+      }
+   }
+
+   /**
+    * Makes this message safe to format later, on another thread, by replacing each object that
+    * could change before then with what its {@link LogSnapshot} method returns.
+    *
+    * @return false if an object could change and has no snapshot method, so the message must be formatted now
+    */
+   boolean snapshot()
+   {
+      Object messageSnapshot = snapshot(message);
+      Object o0Snapshot = snapshot(o0);
+      Object o1Snapshot = snapshot(o1);
+      Object o2Snapshot = snapshot(o2);
+      if (messageSnapshot == NO_SNAPSHOT || o0Snapshot == NO_SNAPSHOT || o1Snapshot == NO_SNAPSHOT || o2Snapshot == NO_SNAPSHOT)
+         return false;
+      if (keyValues != null && !keyValues.snapshot())
+         return false;
+
+      message = messageSnapshot;
+      o0 = o0Snapshot;
+      o1 = o1Snapshot;
+      o2 = o2Snapshot;
+      return true;
+   }
+
+   /**
+    * Formats what {@link #snapshot()} couldn't make safe to format later, the message and any
+    * changing field values, into Strings, so it can still be written later. Allocates.
+    */
+   void formatNow()
+   {
+      StringBuilder text = new StringBuilder();
+      formatMessageTo(text);
+      message = text.toString();
+      parameterized = false;
+      objectParameterCount = 0;
+      o0 = null;
+      o1 = null;
+      o2 = null;
+      types = 0;
+      if (keyValues != null)
+         keyValues.formatNow();
+   }
+
+   /**
+    * @return the object if it is immutable, otherwise what its {@link LogSnapshot} method returns, or {@link #NO_SNAPSHOT}
+    */
+   static Object snapshot(Object object)
+   {
+      if (isImmutable(object))
+         return object;
+
+      MethodHandle snapshotMethod = LogSnapshotMethods.get(object.getClass());
+      if (snapshotMethod == null)
+         return NO_SNAPSHOT;
+      try
+      {
+         return (Object) snapshotMethod.invokeExact(object);
+      }
+      catch (Throwable throwable) // formatted now instead, where a failing toString() is printed like log4j does
+      {
+         return NO_SNAPSHOT;
+      }
+   }
+
+   /**
+    * Only the types whose printed value can't change are trusted. A throwable is
+    * printed from its stack trace and message, which are fixed once it is thrown.
+    */
+   static boolean isImmutable(Object object)
+   {
+      return object == null || object instanceof String || object instanceof Integer || object instanceof Long || object instanceof Double
+             || object instanceof Float || object instanceof Boolean || object instanceof Character || object instanceof Short
+             || object instanceof Byte || object instanceof Enum || object instanceof Throwable;
+   }
+
+   private LogToolsMessage set(CallSite origin, Object message)
+   {
+      this.origin = origin;
+      this.message = message;
+      parameterized = false;
+      throwable = null;
+      objectParameterCount = 0;
+      types = 0;
+      return this;
+   }
+
+   private LogToolsMessage set(CallSite origin, String template, int objectParameterCount, Object o0, Object o1, Object o2)
+   {
+      this.origin = origin;
+      message = template;
+      parameterized = true;
+      this.objectParameterCount = objectParameterCount;
+      this.o0 = o0;
+      this.o1 = o1;
+      this.o2 = o2;
+      types = 0;
+
+      throwable = null;
+      Object lastParameter = objectParameter(objectParameterCount - 1);
+      if (lastParameter instanceof Throwable && countPlaceholders(template) < objectParameterCount)
+         throwable = (Throwable) lastParameter;
+      return this;
+   }
+
+   private LogToolsMessage set(CallSite origin, String template, int types, long p0, long p1, long p2)
+   {
+      this.origin = origin;
+      message = template;
+      parameterized = true;
+      throwable = null;
+      objectParameterCount = 0;
+      this.types = types;
+      this.p0 = p0;
+      this.p1 = p1;
+      this.p2 = p2;
+      return this;
+   }
+
+   CallSite getOrigin()
+   {
+      return origin;
+   }
+
+   /**
+    * @return the message, which is a template if this message is parameterized
+    */
+   Object getMessage()
+   {
+      return message;
+   }
+
+   boolean isParameterized()
+   {
+      return parameterized;
+   }
+
+   int getObjectParameterCount()
+   {
+      return objectParameterCount;
+   }
+
+   Object getObjectParameter(int parameterIndex)
+   {
+      return objectParameter(parameterIndex);
+   }
+
+   /**
+    * @return the packed {@link PrimitiveParameters} types, 0 if there are no primitive parameters
+    */
+   int getPrimitiveTypes()
+   {
+      return types;
+   }
+
+   long getPrimitiveParameter(int parameterIndex)
+   {
+      return primitiveParameter(parameterIndex);
+   }
+
+   /**
+    * @return the key/value fields of a structured message, or null
+    */
+   KeyValues getKeyValues()
+   {
+      return keyValues;
+   }
+
+   /**
+    * @return the thread that logged this message, if it is a copy written by another thread, or null
+    */
+   String getThreadName()
+   {
+      return threadName;
+   }
+
+   @Override
+   public void formatTo(StringBuilder buffer)
+   {
+      int start = buffer.length();
+      if (origin != null) // i.e. a disabled call from the flight recorder, whose caller wasn't looked up
+         buffer.append(origin.getClickableCoordinatePrefix());
+      formatMessageTo(buffer);
+      if (keyValues != null)
+         keyValues.appendText(buffer);
+      if (LogToolsMetrics.ENABLED)
+         LogToolsMetrics.INSTANCE.recordFormatted(buffer.length() - start);
+   }
+
+   /**
+    * Formats only the message, without the caller prefix and the key/value fields, for
+    * layouts that print those on their own.
+    */
+   void formatMessageTo(StringBuilder buffer)
+   {
+      if (!parameterized || message == null)
+         buffer.append(message); // same as String.valueOf(), so no String is built for String messages
+      else
+         formatTemplate(buffer, (String) message);
+   }
+
+   /**
+    * Replaces each "{}" with the next parameter, following the same escaping
+    * rules as log4j's ParameterizedMessage, so output is identical to boxing the
+    * parameters and logging them through log4j.
+    */
+   private void formatTemplate(StringBuilder buffer, String template)
+   {
+      int length = template.length();
+      int escapeCount = 0;
+      int parameterIndex = 0;
+      int i = 0;
+      for (; i < length - 1; i++)
+      {
+         char character = template.charAt(i);
+         if (character == ESCAPE_CHAR)
+         {
+            escapeCount++;
+         }
+         else
+         {
+            if (character == DELIMITER_START && template.charAt(i + 1) == DELIMITER_STOP)
+            {
+               i++;
+               appendEscapeChars(buffer, escapeCount / 2); // escaped escape characters
+               if (escapeCount % 2 == 1) // the delimiter itself is escaped
+               {
+                  buffer.append(DELIMITER_START).append(DELIMITER_STOP);
+               }
+               else
+               {
+                  appendParameterOrDelimiter(buffer, parameterIndex);
+                  parameterIndex++;
+               }
+            }
+            else
+            {
+               appendEscapeChars(buffer, escapeCount);
+               buffer.append(character);
+            }
+            escapeCount = 0;
+         }
+      }
+
+      if (i == length - 1) // the last character wasn't part of a delimiter
+      {
+         char lastCharacter = template.charAt(i);
+         if (lastCharacter == ESCAPE_CHAR)
+         {
+            appendEscapeChars(buffer, escapeCount + 1);
+         }
+         else
+         {
+            appendEscapeChars(buffer, escapeCount);
+            buffer.append(lastCharacter);
+         }
+      }
+   }
+
+   private void appendParameterOrDelimiter(StringBuilder buffer, int parameterIndex)
+   {
+      if (parameterIndex < objectParameterCount)
+      {
+         appendObjectParameter(buffer, objectParameter(parameterIndex));
+      }
+      else if (parameterIndex < PrimitiveParameters.count(types))
+      {
+         PrimitiveParameters.append(buffer, PrimitiveParameters.type(types, parameterIndex), primitiveParameter(parameterIndex));
+      }
+      else
+      {
+         buffer.append(DELIMITER_START).append(DELIMITER_STOP);
+      }
+   }
+
+   /**
+    * Appends a parameter the way log4j does, without building a String where it doesn't need one.
+    */
+   static void appendObjectParameter(StringBuilder buffer, Object parameter)
+   {
+      if (parameter == null)
+      {
+         buffer.append((String) null);
+      }
+      else if (StringBuilders.appendSpecificTypes(buffer, parameter)) // Strings, boxed primitives, etc. are appended without allocating
+      {
+         return;
+      }
+      else if (parameter.getClass().isArray() || parameter instanceof Map || parameter instanceof Collection || parameter instanceof Date)
+      {
+         buffer.append(ParameterizedMessage.deepToString(parameter)); // log4j formats these specially
+      }
+      else
+      {
+         String string;
+         try
+         {
+            string = parameter.toString();
+         }
+         catch (Throwable throwable)
+         {
+            string = ParameterizedMessage.deepToString(parameter); // log4j's description of the failure
+         }
+         buffer.append(string);
+      }
+   }
+
+   private Object objectParameter(int parameterIndex)
+   {
+      switch (parameterIndex)
+      {
+         case 0:
+            return o0;
+         case 1:
+            return o1;
+         case 2:
+            return o2;
+         default:
+            return null;
+      }
+   }
+
+   private long primitiveParameter(int parameterIndex)
+   {
+      switch (parameterIndex)
+      {
+         case 0:
+            return p0;
+         case 1:
+            return p1;
+         default:
+            return p2;
+      }
+   }
+
+   /**
+    * Counts unescaped "{}" the same way log4j does.
+    */
+   private static int countPlaceholders(String template)
+   {
+      if (template == null)
+         return 0;
+
+      int count = 0;
+      boolean escaped = false;
+      for (int i = 0; i < template.length() - 1; i++)
+      {
+         char character = template.charAt(i);
+         if (character == ESCAPE_CHAR)
+         {
+            escaped = !escaped;
+         }
+         else
+         {
+            if (character == DELIMITER_START && !escaped && template.charAt(i + 1) == DELIMITER_STOP)
+            {
+               count++;
+               i++;
+            }
+            escaped = false;
+         }
+      }
+      return count;
+   }
+
+   private static void appendEscapeChars(StringBuilder buffer, int count)
+   {
+      for (int i = 0; i < count; i++)
+      {
+         buffer.append(ESCAPE_CHAR);
+      }
+   }
+
+   @Override
+   public String getFormattedMessage()
+   {
+      StringBuilder buffer = new StringBuilder();
+      formatTo(buffer);
+      return buffer.toString();
+   }
+
+   @Override
+   public String getFormat()
+   {
+      return message instanceof String ? (String) message : null;
+   }
+
+   @Override
+   public Object[] getParameters()
+   {
+      return null;
+   }
+
+   @Override
+   public Throwable getThrowable()
+   {
+      return throwable;
+   }
+
+   @Override
+   public Object[] swapParameters(Object[] emptyReplacement)
+   {
+      return emptyReplacement;
+   }
+
+   @Override
+   public short getParameterCount()
+   {
+      return 0;
+   }
+
+   @Override
+   public Message memento()
+   {
+      return new SimpleMessage(getFormattedMessage());
+   }
+
+   /**
+    * Serialized as its text, like log4j's reusable messages, since the instance is reused.
+    */
+   private Object writeReplace()
+   {
+      return memento();
+   }
+}
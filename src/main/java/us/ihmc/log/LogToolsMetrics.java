@@ -0,0 +1,185 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what LogTools logs: messages per level, characters formatted, how long enabled calls
+ * take to hand their message to log4j, and messages per call site.
+ *
+ * Every counter is a LongAdder, which stripes its count across cells when threads contend,
+ * so control threads logging at once don't fight over one cache line. Latencies go into
+ * buckets with power of two upper bounds, from 128 ns up, so recording is a couple of adds
+ * and never allocates. The only allocation is a counter for each new logging line.
+ *
+ * The latency is timed around handing the message to log4j, or to the asynchronous buffer,
+ * so it is formatting and writing, unless asynchronous. Finding the caller and checking the
+ * level, before that, aren't included.
+ *
+ * Call sites are ranked by their recent rate, an exponentially decaying average with a time
+ * constant of a minute, which is updated by each snapshot. A call site that was busy at
+ * startup drops down the list once it goes quiet.
+ *
+ * Off by default. {@link #ENABLED} is a static final, so when it's off the JIT removes the
+ * recording altogether.
+ *
+ * Options:
+ * -Dlog.metrics=true: Count, and register the "us.ihmc.log:type=LogToolsMetrics" MBean.
+ * -Dlog.metrics.topCallSites=10: How many call sites snapshots list.
+ */
+final class LogToolsMetrics
+{
+   /** A constant, so where LogTools checks it, the JIT compiles the recording away when metrics are off. */
+   static final boolean ENABLED = System.getProperty("log.metrics", "false").trim().toLowerCase().contains("true");
+   static final int TOP_CALL_SITES = Integer.getInteger("log.metrics.topCallSites", 10);
+
+   /** FATAL through TRACE, then everything else. */
+   static final Level[] LEVELS = {Level.FATAL, Level.ERROR, Level.WARN, Level.INFO, Level.DEBUG, Level.TRACE};
+   static final int LATENCY_BUCKETS = 24;
+   private static final int FIRST_BUCKET_BITS = 7; // 128 ns
+   private static final double RATE_TIME_CONSTANT_SECONDS = 60.0; // like a one minute load average
+
+   static final LogToolsMetrics INSTANCE = ENABLED ? new LogToolsMetrics(TOP_CALL_SITES) : null;
+
+   private final int topCallSites;
+   private final long startNanos = System.nanoTime();
+   private final LongAdder[] messageCounts = newAdders(LEVELS.length + 1);
+   private final LongAdder characterCount = new LongAdder();
+   private final LongAdder[] latencyCounts = newAdders(LATENCY_BUCKETS);
+   private final LongAdder totalLatencyNanos = new LongAdder();
+   /** By class and line, so call sites the call site cache didn't keep share one counter. */
+   private final ConcurrentHashMap<CallSite, CallSiteCounter> callSiteCounters = new ConcurrentHashMap<>();
+   /** Only used in {@link #snapshot(long)}, which is synchronized. */
+   private long lastSnapshotNanos = startNanos;
+
+   LogToolsMetrics(int topCallSites)
+   {
+      this.topCallSites = topCallSites;
+   }
+
+   private static LongAdder[] newAdders(int length)
+   {
+      LongAdder[] adders = new LongAdder[length];
+      for (int i = 0; i < length; i++)
+      {
+         adders[i] = new LongAdder();
+      }
+      return adders;
+   }
+
+   /**
+    * Records a message that was handed to log4j.
+    *
+    * @param latencyNanos how long handing it over took, which is formatting and writing it, unless asynchronous,
+    *                     but not finding the caller
+    */
+   void recordMessage(Level level, CallSite origin, long latencyNanos)
+   {
+      messageCounts[levelIndex(level)].increment();
+      latencyCounts[bucketIndex(latencyNanos)].increment();
+      totalLatencyNanos.add(latencyNanos);
+
+      CallSiteCounter callSiteCounter = callSiteCounters.get(origin);
+      if (callSiteCounter == null)
+         callSiteCounter = callSiteCounters.computeIfAbsent(origin, callSite -> new CallSiteCounter());
+      callSiteCounter.count.increment();
+   }
+
+   /**
+    * Records the length of a formatted message. A message written by two appenders is formatted twice.
+    */
+   void recordFormatted(int characters)
+   {
+      characterCount.add(characters);
+   }
+
+   static int levelIndex(Level level)
+   {
+      int intLevel = level.intLevel();
+      if (intLevel % 100 == 0 && intLevel >= 100 && intLevel <= 600) // the standard levels
+         return intLevel / 100 - 1;
+      return LEVELS.length;
+   }
+
+   /**
+    * @return the index of the bucket whose upper bound is the smallest power of two at least as large as the latency
+    */
+   static int bucketIndex(long latencyNanos)
+   {
+      int bits = 64 - Long.numberOfLeadingZeros(Math.max(latencyNanos - 1, 0));
+      return Math.min(Math.max(bits - FIRST_BUCKET_BITS, 0), LATENCY_BUCKETS - 1);
+   }
+
+   /**
+    * @return the largest latency in a bucket, in nanoseconds, or Long.MAX_VALUE for the last one
+    */
+   static long bucketUpperBound(int bucketIndex)
+   {
+      return bucketIndex == LATENCY_BUCKETS - 1 ? Long.MAX_VALUE : 1L << (bucketIndex + FIRST_BUCKET_BITS);
+   }
+
+   /**
+    * Reads the counters. Threads that log meanwhile may or may not be counted, so the
+    * numbers can disagree slightly with each other.
+    */
+   LogToolsMetricsSnapshot snapshot()
+   {
+      return snapshot(System.nanoTime());
+   }
+
+   synchronized LogToolsMetricsSnapshot snapshot(long nowNanos)
+   {
+      long elapsedNanos = nowNanos - startNanos;
+
+      long[] messages = new long[messageCounts.length];
+      for (int i = 0; i < messages.length; i++)
+      {
+         messages[i] = messageCounts[i].sum();
+      }
+      long[] latencies = new long[LATENCY_BUCKETS];
+      for (int i = 0; i < latencies.length; i++)
+      {
+         latencies[i] = latencyCounts[i].sum();
+      }
+
+      double intervalSeconds = Math.max(nowNanos - lastSnapshotNanos, 1) / 1e9;
+      double weight = 1.0 - Math.exp(-intervalSeconds / RATE_TIME_CONSTANT_SECONDS);
+      lastSnapshotNanos = nowNanos;
+
+      List<LogToolsMetricsSnapshot.CallSiteRate> callSites = new ArrayList<>(callSiteCounters.size());
+      for (Map.Entry<CallSite, CallSiteCounter> entry : callSiteCounters.entrySet())
+      {
+         CallSite callSite = entry.getKey();
+         CallSiteCounter counter = entry.getValue();
+         long count = counter.count.sum();
+         double intervalRate = (count - counter.countAtLastSnapshot) / intervalSeconds;
+         counter.ratePerSecond = counter.rated ? counter.ratePerSecond + weight * (intervalRate - counter.ratePerSecond) : intervalRate;
+         counter.rated = true;
+         counter.countAtLastSnapshot = count;
+         callSites.add(new LogToolsMetricsSnapshot.CallSiteRate(callSite.getClassName(), callSite.getLineNumber(), count, counter.ratePerSecond));
+      }
+      callSites.sort((a, b) -> Double.compare(b.getRatePerSecond(), a.getRatePerSecond()));
+
+      return new LogToolsMetricsSnapshot(true,
+                                         elapsedNanos,
+                                         messages,
+                                         characterCount.sum(),
+                                         latencies,
+                                         totalLatencyNanos.sum(),
+                                         callSites.subList(0, Math.min(topCallSites, callSites.size())));
+   }
+
+   private static final class CallSiteCounter
+   {
+      private final LongAdder count = new LongAdder();
+      /** The rest is only used in {@link #snapshot(long)}. */
+      private long countAtLastSnapshot = 0;
+      private double ratePerSecond = 0.0;
+      private boolean rated = false;
+   }
+}
@@ -0,0 +1,39 @@
+package us.ihmc.log;
+
+import java.util.Map;
+
+/**
+ * What LogTools logged, over JMX, i.e. from JConsole or VisualVM.
+ * Registered as "us.ihmc.log:type=LogToolsMetrics" when -Dlog.metrics=true is set,
+ * unless -Dlog.jmx=false is set.
+ */
+public interface LogToolsMetricsMXBean
+{
+   /**
+    * @return messages per level name, with custom levels under "OTHER"
+    */
+   Map<String, Long> getMessageCounts();
+
+   /**
+    * @return characters LogTools formatted, counted again for each appender that formats a message
+    */
+   long getFormattedCharacterCount();
+
+   /**
+    * @return the largest latency in each bucket of {@link #getLatencyCounts()}
+    */
+   long[] getLatencyBucketUpperBoundsNanos();
+
+   long[] getLatencyCounts();
+
+   double getMeanLatencyNanos();
+
+   long getMedianLatencyNanos();
+
+   long get99thPercentileLatencyNanos();
+
+   /**
+    * @return the call sites that logged the most recently, i.e. "us.ihmc.Robot:42 1200 messages, 20.0/s"
+    */
+   String[] getTopCallSites();
+}
@@ -0,0 +1,85 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class LogToolsMetricsMXBeanImpl implements LogToolsMetricsMXBean
+{
+   static final String OBJECT_NAME = "us.ihmc.log:type=LogToolsMetrics";
+
+   private final LogToolsMetrics metrics;
+
+   LogToolsMetricsMXBeanImpl(LogToolsMetrics metrics)
+   {
+      this.metrics = metrics;
+   }
+
+   @Override
+   public Map<String, Long> getMessageCounts()
+   {
+      LogToolsMetricsSnapshot snapshot = metrics.snapshot();
+      Map<String, Long> messageCounts = new LinkedHashMap<>();
+      for (Level level : LogToolsMetrics.LEVELS)
+      {
+         messageCounts.put(level.name(), snapshot.getMessageCount(level));
+      }
+      messageCounts.put("OTHER", snapshot.getMessageCount() - messageCounts.values().stream().mapToLong(Long::longValue).sum());
+      return messageCounts;
+   }
+
+   @Override
+   public long getFormattedCharacterCount()
+   {
+      return metrics.snapshot().getFormattedCharacterCount();
+   }
+
+   @Override
+   public long[] getLatencyBucketUpperBoundsNanos()
+   {
+      long[] upperBounds = new long[LogToolsMetrics.LATENCY_BUCKETS];
+      for (int i = 0; i < upperBounds.length; i++)
+      {
+         upperBounds[i] = LogToolsMetrics.bucketUpperBound(i);
+      }
+      return upperBounds;
+   }
+
+   @Override
+   public long[] getLatencyCounts()
+   {
+      return metrics.snapshot().getLatencyCounts();
+   }
+
+   @Override
+   public double getMeanLatencyNanos()
+   {
+      return metrics.snapshot().getMeanLatencyNanos();
+   }
+
+   @Override
+   public long getMedianLatencyNanos()
+   {
+      return metrics.snapshot().getLatencyPercentileNanos(50.0);
+   }
+
+   @Override
+   public long get99thPercentileLatencyNanos()
+   {
+      return metrics.snapshot().getLatencyPercentileNanos(99.0);
+   }
+
+   @Override
+   public String[] getTopCallSites()
+   {
+      List<LogToolsMetricsSnapshot.CallSiteRate> topCallSites = metrics.snapshot().getTopCallSites();
+      String[] strings = new String[topCallSites.size()];
+      for (int i = 0; i < strings.length; i++)
+      {
+         strings[i] = topCallSites.get(i).toString();
+      }
+      return strings;
+   }
+}
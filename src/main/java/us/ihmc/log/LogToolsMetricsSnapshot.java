@@ -0,0 +1,207 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What LogTools logged, from {@link LogTools#metricsSnapshot()}. The counts are since startup, and the call
+ * site rates are recent.
+ * Everything is 0 unless -Dlog.metrics=true is set.
+ */
+public final class LogToolsMetricsSnapshot
+{
+   static final LogToolsMetricsSnapshot DISABLED = new LogToolsMetricsSnapshot(false,
+                                                                              0,
+                                                                              new long[LogToolsMetrics.LEVELS.length + 1],
+                                                                              0,
+                                                                              new long[LogToolsMetrics.LATENCY_BUCKETS],
+                                                                              0,
+                                                                              Collections.emptyList());
+
+   private final boolean enabled;
+   private final long elapsedNanos;
+   private final long[] messageCounts;
+   private final long characterCount;
+   private final long[] latencyCounts;
+   private final long totalLatencyNanos;
+   private final List<CallSiteRate> topCallSites;
+
+   LogToolsMetricsSnapshot(boolean enabled,
+                           long elapsedNanos,
+                           long[] messageCounts,
+                           long characterCount,
+                           long[] latencyCounts,
+                           long totalLatencyNanos,
+                           List<CallSiteRate> topCallSites)
+   {
+      this.enabled = enabled;
+      this.elapsedNanos = elapsedNanos;
+      this.messageCounts = messageCounts;
+      this.characterCount = characterCount;
+      this.latencyCounts = latencyCounts;
+      this.totalLatencyNanos = totalLatencyNanos;
+      this.topCallSites = Collections.unmodifiableList(topCallSites);
+   }
+
+   /**
+    * @return if -Dlog.metrics=true is set
+    */
+   public boolean isEnabled()
+   {
+      return enabled;
+   }
+
+   /**
+    * @return how long the metrics have been counting
+    */
+   public long getElapsedNanos()
+   {
+      return elapsedNanos;
+   }
+
+   /**
+    * @return how many messages were logged at a level, or at custom levels for anything but FATAL through TRACE
+    */
+   public long getMessageCount(Level level)
+   {
+      return messageCounts[LogToolsMetrics.levelIndex(level)];
+   }
+
+   public long getMessageCount()
+   {
+      return Arrays.stream(messageCounts).sum();
+   }
+
+   /**
+    * @return how many characters LogTools formatted, prefixes included. A message written by two appenders
+    *         is counted twice, and the encoding decides how many bytes they take.
+    */
+   public long getFormattedCharacterCount()
+   {
+      return characterCount;
+   }
+
+   /**
+    * @return how many calls took at most {@link #getLatencyBucketUpperBoundNanos(int)}, and more than the bucket before
+    */
+   public long[] getLatencyCounts()
+   {
+      return latencyCounts.clone();
+   }
+
+   /**
+    * @return 128 ns for the first bucket, twice the one before for the others, and Long.MAX_VALUE for the last
+    */
+   public long getLatencyBucketUpperBoundNanos(int bucketIndex)
+   {
+      return LogToolsMetrics.bucketUpperBound(bucketIndex);
+   }
+
+   /**
+    * @param percentile i.e. 99.0
+    * @return the upper bound of the bucket the percentile falls in, or 0 if nothing was logged
+    */
+   public long getLatencyPercentileNanos(double percentile)
+   {
+      long total = Arrays.stream(latencyCounts).sum();
+      if (total == 0)
+         return 0;
+
+      long rank = (long) Math.ceil(total * percentile / 100.0);
+      long count = 0;
+      for (int i = 0; i < latencyCounts.length; i++)
+      {
+         count += latencyCounts[i];
+         if (count >= rank)
+            return getLatencyBucketUpperBoundNanos(i);
+      }
+      return getLatencyBucketUpperBoundNanos(latencyCounts.length - 1);
+   }
+
+   public double getMeanLatencyNanos()
+   {
+      long total = Arrays.stream(latencyCounts).sum();
+      return total == 0 ? 0.0 : (double) totalLatencyNanos / total;
+   }
+
+   /**
+    * @return the call sites that logged the most recently, highest rate first
+    */
+   public List<CallSiteRate> getTopCallSites()
+   {
+      return topCallSites;
+   }
+
+   @Override
+   public String toString()
+   {
+      if (!enabled)
+         return "LogTools metrics are off, set -Dlog.metrics=true";
+
+      StringBuilder builder = new StringBuilder("LogTools metrics over ").append(elapsedNanos / 1000000).append(" ms:");
+      for (Level level : LogToolsMetrics.LEVELS)
+      {
+         builder.append(' ').append(level.name()).append('=').append(getMessageCount(level));
+      }
+      builder.append(" characters=").append(characterCount);
+      builder.append(" mean=").append(Math.round(getMeanLatencyNanos())).append("ns");
+      builder.append(" p50<=").append(getLatencyPercentileNanos(50.0)).append("ns");
+      builder.append(" p99<=").append(getLatencyPercentileNanos(99.0)).append("ns");
+      for (CallSiteRate callSite : topCallSites)
+      {
+         builder.append(System.lineSeparator()).append("   ").append(callSite);
+      }
+      return builder.toString();
+   }
+
+   /**
+    * How much one call site logged.
+    */
+   public static final class CallSiteRate
+   {
+      private final String className;
+      private final int lineNumber;
+      private final long count;
+      private final double ratePerSecond;
+
+      CallSiteRate(String className, int lineNumber, long count, double ratePerSecond)
+      {
+         this.className = className;
+         this.lineNumber = lineNumber;
+         this.count = count;
+         this.ratePerSecond = ratePerSecond;
+      }
+
+      public String getClassName()
+      {
+         return className;
+      }
+
+      public int getLineNumber()
+      {
+         return lineNumber;
+      }
+
+      public long getCount()
+      {
+         return count;
+      }
+
+      /**
+       * @return the recent rate, averaged over about a minute as of the snapshot
+       */
+      public double getRatePerSecond()
+      {
+         return ratePerSecond;
+      }
+
+      @Override
+      public String toString()
+      {
+         return String.format("%s:%d %d messages, %.1f/s", className, lineNumber, count, ratePerSecond);
+      }
+   }
+}
@@ -0,0 +1,55 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.impl.Log4jContextFactory;
+import org.apache.logging.log4j.core.util.DefaultShutdownCallbackRegistry;
+import org.apache.logging.log4j.core.util.ShutdownCallbackRegistry;
+import org.apache.logging.log4j.spi.LoggerContextFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * log4j's shutdown hook, with callbacks that run before log4j stops its appenders, so the
+ * {@link AsyncLogWriter} can write the messages left in its buffer. A shutdown hook of its
+ * own would race log4j's, and lose the last messages logged before main returns.
+ *
+ * It is set as the "log4j.shutdownCallbackRegistry" in log4j2.component.properties.
+ */
+public class LogToolsShutdownCallbackRegistry extends DefaultShutdownCallbackRegistry
+{
+   private final List<Runnable> beforeLog4jStops = new CopyOnWriteArrayList<>();
+
+   /**
+    * @return false if log4j's shutdown hook is disabled or isn't this one, so the caller needs a hook of its own
+    */
+   static boolean runBeforeLog4jStops(Runnable callback)
+   {
+      LoggerContextFactory factory = LogManager.getFactory();
+      if (!(factory instanceof Log4jContextFactory) || !((Log4jContextFactory) factory).isShutdownHookEnabled())
+         return false;
+      ShutdownCallbackRegistry registry = ((Log4jContextFactory) factory).getShutdownCallbackRegistry();
+      if (!(registry instanceof LogToolsShutdownCallbackRegistry) || !((LogToolsShutdownCallbackRegistry) registry).isStarted())
+         return false;
+
+      ((LogToolsShutdownCallbackRegistry) registry).beforeLog4jStops.add(callback);
+      return true;
+   }
+
+   @Override
+   public void run()
+   {
+      for (Runnable callback : beforeLog4jStops)
+      {
+         try
+         {
+            callback.run();
+         }
+         catch (RuntimeException e) // still stop log4j
+         {
+            LOGGER.error(SHUTDOWN_HOOK_MARKER, "Caught exception executing shutdown hook {}", callback, e);
+         }
+      }
+      super.run();
+   }
+}
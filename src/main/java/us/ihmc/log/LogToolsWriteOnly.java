@@ -55,4 +55,216 @@ public interface LogToolsWriteOnly
    void trace(Object message, Object p0);
    void trace(Object message, Object p0, Object p1);
    void trace(Object message, Object p0, Object p1, Object p2);
+
+   // A single primitive parameter, which LogToolsLogger logs without boxing. More than one would make
+   // calls mixing primitives and boxed values ambiguous with the Object overloads.
+   default void log(Level level, String message, int p0)
+   {
+      log(level, message, (Object) p0);
+   }
+
+   default void log(Level level, String message, long p0)
+   {
+      log(level, message, (Object) p0);
+   }
+
+   default void log(Level level, String message, float p0)
+   {
+      log(level, message, (Object) p0);
+   }
+
+   default void log(Level level, String message, double p0)
+   {
+      log(level, message, (Object) p0);
+   }
+
+   default void log(Level level, String message, boolean p0)
+   {
+      log(level, message, (Object) p0);
+   }
+
+   default void log(Level level, String message, char p0)
+   {
+      log(level, message, (Object) p0);
+   }
+
+   default void fatal(String message, int p0)
+   {
+      fatal(message, (Object) p0);
+   }
+
+   default void fatal(String message, long p0)
+   {
+      fatal(message, (Object) p0);
+   }
+
+   default void fatal(String message, float p0)
+   {
+      fatal(message, (Object) p0);
+   }
+
+   default void fatal(String message, double p0)
+   {
+      fatal(message, (Object) p0);
+   }
+
+   default void fatal(String message, boolean p0)
+   {
+      fatal(message, (Object) p0);
+   }
+
+   default void fatal(String message, char p0)
+   {
+      fatal(message, (Object) p0);
+   }
+
+   default void error(String message, int p0)
+   {
+      error(message, (Object) p0);
+   }
+
+   default void error(String message, long p0)
+   {
+      error(message, (Object) p0);
+   }
+
+   default void error(String message, float p0)
+   {
+      error(message, (Object) p0);
+   }
+
+   default void error(String message, double p0)
+   {
+      error(message, (Object) p0);
+   }
+
+   default void error(String message, boolean p0)
+   {
+      error(message, (Object) p0);
+   }
+
+   default void error(String message, char p0)
+   {
+      error(message, (Object) p0);
+   }
+
+   default void warn(String message, int p0)
+   {
+      warn(message, (Object) p0);
+   }
+
+   default void warn(String message, long p0)
+   {
+      warn(message, (Object) p0);
+   }
+
+   default void warn(String message, float p0)
+   {
+      warn(message, (Object) p0);
+   }
+
+   default void warn(String message, double p0)
+   {
+      warn(message, (Object) p0);
+   }
+
+   default void warn(String message, boolean p0)
+   {
+      warn(message, (Object) p0);
+   }
+
+   default void warn(String message, char p0)
+   {
+      warn(message, (Object) p0);
+   }
+
+   default void info(String message, int p0)
+   {
+      info(message, (Object) p0);
+   }
+
+   default void info(String message, long p0)
+   {
+      info(message, (Object) p0);
+   }
+
+   default void info(String message, float p0)
+   {
+      info(message, (Object) p0);
+   }
+
+   default void info(String message, double p0)
+   {
+      info(message, (Object) p0);
+   }
+
+   default void info(String message, boolean p0)
+   {
+      info(message, (Object) p0);
+   }
+
+   default void info(String message, char p0)
+   {
+      info(message, (Object) p0);
+   }
+
+   default void debug(String message, int p0)
+   {
+      debug(message, (Object) p0);
+   }
+
+   default void debug(String message, long p0)
+   {
+      debug(message, (Object) p0);
+   }
+
+   default void debug(String message, float p0)
+   {
+      debug(message, (Object) p0);
+   }
+
+   default void debug(String message, double p0)
+   {
+      debug(message, (Object) p0);
+   }
+
+   default void debug(String message, boolean p0)
+   {
+      debug(message, (Object) p0);
+   }
+
+   default void debug(String message, char p0)
+   {
+      debug(message, (Object) p0);
+   }
+
+   default void trace(String message, int p0)
+   {
+      trace(message, (Object) p0);
+   }
+
+   default void trace(String message, long p0)
+   {
+      trace(message, (Object) p0);
+   }
+
+   default void trace(String message, float p0)
+   {
+      trace(message, (Object) p0);
+   }
+
+   default void trace(String message, double p0)
+   {
+      trace(message, (Object) p0);
+   }
+
+   default void trace(String message, boolean p0)
+   {
+      trace(message, (Object) p0);
+   }
+
+   default void trace(String message, char p0)
+   {
+      trace(message, (Object) p0);
+   }
 }
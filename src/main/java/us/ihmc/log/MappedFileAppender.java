@@ -0,0 +1,137 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Core;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.appender.AppenderLoggingException;
+import org.apache.logging.log4j.core.appender.rolling.FileSize;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginBuilderFactory;
+import org.apache.logging.log4j.core.config.plugins.validation.constraints.Required;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A file appender whose output survives the JVM crashing, i.e. a segfault in native code or
+ * being killed for running out of memory. Events are copied into a memory mapped segment of
+ * the file, see {@link MappedFileManager}. Run {@link MappedFileRecovery} on the last segment
+ * after a crash to cut off the unwritten rest of it.
+ *
+ * It doesn't survive the operating system crashing or the power going out, the page cache
+ * is written to disk by the operating system in its own time.
+ *
+ * <pre>
+ * MappedFile:
+ *   name: IHMCFileAppender
+ *   fileName: "${sys:user.home}/.ihmc/logs/LogTools.txt"
+ *   segmentSize: 32 MB # the file rolls over to LogTools.1.txt when full
+ *   PatternLayout:
+ *     Pattern: "%date{yyMMdd H:mm:ss:SSS} [%level] %msg%n"
+ * </pre>
+ *
+ * Every event must end with a newline, which is how recovery finds the end of the last complete line.
+ * An event of several lines that a crash cut off keeps the lines that were written.
+ * The YAML configuration has to list the "us.ihmc.log" package under "packages" for log4j to find it.
+ */
+@Plugin(name = "MappedFile", category = Core.CATEGORY_NAME, elementType = Appender.ELEMENT_TYPE, printObject = true)
+public final class MappedFileAppender extends AbstractAppender
+{
+   private final MappedFileManager manager;
+
+   private MappedFileAppender(Builder builder, Layout<? extends Serializable> layout, MappedFileManager manager)
+   {
+      super(builder.getName(), builder.getFilter(), layout, builder.isIgnoreExceptions(), builder.getPropertyArray());
+      this.manager = manager;
+   }
+
+   @Override
+   public void append(LogEvent event)
+   {
+      synchronized (manager)
+      {
+         try
+         {
+            getLayout().encode(event, manager);
+         }
+         finally
+         {
+            manager.commit(); // a partial event on failure still ends up in the file, as with log4j's own appenders
+         }
+      }
+   }
+
+   @Override
+   public boolean stop(long timeout, TimeUnit timeUnit)
+   {
+      setStopping();
+      boolean stopped = super.stop(timeout, timeUnit, false);
+      stopped &= manager.stop(timeout, timeUnit);
+      setStopped();
+      return stopped;
+   }
+
+   MappedFileManager getManager()
+   {
+      return manager;
+   }
+
+   @PluginBuilderFactory
+   public static Builder newBuilder()
+   {
+      return new Builder();
+   }
+
+   public static final class Builder extends AbstractAppender.Builder<Builder> implements org.apache.logging.log4j.core.util.Builder<MappedFileAppender>
+   {
+      private static final long DEFAULT_SEGMENT_SIZE = 32 * 1024 * 1024;
+
+      @PluginBuilderAttribute
+      @Required
+      private String fileName;
+
+      @PluginBuilderAttribute
+      private String segmentSize;
+
+      public Builder setFileName(String fileName)
+      {
+         this.fileName = fileName;
+         return this;
+      }
+
+      /**
+       * @param segmentSize i.e. "32 MB"
+       */
+      public Builder setSegmentSize(String segmentSize)
+      {
+         this.segmentSize = segmentSize;
+         return this;
+      }
+
+      @Override
+      public MappedFileAppender build()
+      {
+         long segmentSizeBytes = FileSize.parse(segmentSize, DEFAULT_SEGMENT_SIZE);
+         if (segmentSizeBytes <= 0 || segmentSizeBytes > Integer.MAX_VALUE) // the most a single mapping can hold
+         {
+            LOGGER.error("Segment size of " + getName() + " must be between 1 byte and 2 GB: " + segmentSize);
+            return null;
+         }
+
+         Layout<? extends Serializable> layout = getLayout() == null ? PatternLayout.createDefaultLayout() : getLayout();
+         try
+         {
+            return new MappedFileAppender(this, layout, MappedFileManager.getManager(fileName, segmentSizeBytes));
+         }
+         catch (AppenderLoggingException e)
+         {
+            LOGGER.error("Could not create " + getName(), e);
+            return null;
+         }
+      }
+   }
+}
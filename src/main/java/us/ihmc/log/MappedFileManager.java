@@ -0,0 +1,227 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractManager;
+import org.apache.logging.log4j.core.appender.AppenderLoggingException;
+import org.apache.logging.log4j.core.appender.ManagerFactory;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+import org.apache.logging.log4j.core.layout.ByteBufferDestinationHelper;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes bytes straight into a memory mapped segment of a log file. Once copied, the bytes
+ * belong to the operating system's page cache, so they reach the file even if the JVM
+ * crashes right after. When the next event doesn't fit in a segment, the next one is mapped:
+ * LogTools.txt is followed by LogTools.1.txt, LogTools.2.txt, and so on.
+ *
+ * Segments are mapped at their full size, so after a crash the last one ends in zeros.
+ * On a clean shutdown it is truncated to what was written. {@link MappedFileRecovery}
+ * truncates the file after a crash, which is also done here when a segment is reopened.
+ *
+ * Appenders writing to the same file share one manager, like log4j's File appenders.
+ */
+final class MappedFileManager extends AbstractManager implements ByteBufferDestination
+{
+   private static final ManagerFactory<MappedFileManager, Long> FACTORY = MappedFileManager::new;
+
+   private static final int STAGING_SIZE = 64 * 1024;
+
+   private final long segmentSize;
+   private final ByteBuffer staging = ByteBuffer.allocate(STAGING_SIZE);
+   private int segmentIndex = -1;
+   private FileChannel channel;
+   private MappedByteBuffer segment;
+
+   private MappedFileManager(String fileName, long segmentSize)
+   {
+      super(null, fileName);
+      this.segmentSize = segmentSize;
+   }
+
+   /**
+    * @return the manager for the file, created and mapping its first segment if no appender uses it yet
+    */
+   static MappedFileManager getManager(String fileName, long segmentSize)
+   {
+      MappedFileManager manager = getManager(fileName, FACTORY, segmentSize);
+      synchronized (manager)
+      {
+         if (manager.segment == null)
+            manager.mapNextSegment();
+      }
+      return manager;
+   }
+
+   /**
+    * @return the file name of a segment, i.e. LogTools.2.txt for segment 2 of LogTools.txt
+    */
+   static Path segmentPath(String fileName, int segmentIndex)
+   {
+      if (segmentIndex == 0)
+         return Paths.get(fileName);
+
+      Path path = Paths.get(fileName);
+      String name = path.getFileName().toString();
+      int extensionStart = name.lastIndexOf('.');
+      String segmentName = extensionStart > 0 ? name.substring(0, extensionStart) + "." + segmentIndex + name.substring(extensionStart)
+            : name + "." + segmentIndex;
+      return path.resolveSibling(segmentName);
+   }
+
+   long getSegmentSize()
+   {
+      return segmentSize;
+   }
+
+   /**
+    * Maps the next segment that has room, continuing after what an earlier run wrote.
+    */
+   private void mapNextSegment()
+   {
+      try
+      {
+         while (true)
+         {
+            segmentIndex++;
+            Path path = segmentPath(getName(), segmentIndex);
+            if (path.getParent() != null)
+               Files.createDirectories(path.getParent());
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long validLength = MappedFileRecovery.findValidLength(channel);
+            if (validLength >= segmentSize) // full, from an earlier run
+            {
+               channel.close();
+               continue;
+            }
+
+            this.channel = channel;
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize); // grows the file, with zeros
+            segment.position((int) validLength);
+            return;
+         }
+      }
+      catch (IOException e)
+      {
+         throw new AppenderLoggingException("Could not map segment " + segmentIndex + " of " + getName(), e);
+      }
+   }
+
+   /**
+    * The layout encodes each event here first, so an event is only ever split between
+    * segments if it doesn't fit in this buffer.
+    */
+   @Override
+   public synchronized ByteBuffer getByteBuffer()
+   {
+      return staging;
+   }
+
+   /**
+    * Called by the layout when an event doesn't fit in the staging buffer.
+    */
+   @Override
+   public synchronized ByteBuffer drain(ByteBuffer buffer)
+   {
+      buffer.flip();
+      while (buffer.hasRemaining())
+      {
+         if (!segment.hasRemaining())
+            rollOver();
+         int length = Math.min(buffer.remaining(), segment.remaining());
+         int limit = buffer.limit();
+         buffer.limit(buffer.position() + length);
+         segment.put(buffer);
+         buffer.limit(limit);
+      }
+      buffer.clear();
+      return buffer;
+   }
+
+   /**
+    * Copies the event the layout just encoded into the segment, or the next one if it doesn't fit.
+    */
+   synchronized void commit()
+   {
+      if (staging.position() > segment.remaining() && staging.position() <= segmentSize)
+         rollOver();
+      drain(staging);
+   }
+
+   @Override
+   public synchronized void writeBytes(ByteBuffer data)
+   {
+      ByteBufferDestinationHelper.writeToUnsynchronized(data, this);
+   }
+
+   @Override
+   public synchronized void writeBytes(byte[] data, int offset, int length)
+   {
+      ByteBufferDestinationHelper.writeToUnsynchronized(data, offset, length, this);
+   }
+
+   private void rollOver()
+   {
+      closeSegment();
+      mapNextSegment();
+   }
+
+   @Override
+   protected synchronized boolean releaseSub(long timeout, TimeUnit timeUnit)
+   {
+      closeSegment();
+      return true;
+   }
+
+   /**
+    * Unmaps the segment and truncates it to what was written.
+    */
+   private void closeSegment()
+   {
+      if (segment == null)
+         return;
+
+      long length = segment.position();
+      unmap(segment);
+      segment = null;
+      try
+      {
+         channel.truncate(length);
+         channel.close();
+      }
+      catch (IOException e)
+      {
+         logError("Could not close segment " + segmentIndex + " of " + getName(), e);
+      }
+      channel = null;
+   }
+
+   /**
+    * Unmaps right away, instead of when the buffer is garbage collected. Otherwise, Windows can't
+    * truncate the file, and a long run keeps every segment it ever wrote mapped.
+    */
+   private static void unmap(MappedByteBuffer buffer)
+   {
+      try
+      {
+         Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+         java.lang.reflect.Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+         theUnsafe.setAccessible(true);
+         Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+         invokeCleaner.invoke(theUnsafe.get(null), buffer);
+      }
+      catch (ReflectiveOperationException | RuntimeException e) // Java 8, or the JDK internals aren't accessible
+      {
+         buffer.force(); // the buffer is unmapped when it is garbage collected
+      }
+   }
+}
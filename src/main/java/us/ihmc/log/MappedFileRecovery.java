@@ -0,0 +1,85 @@
+package us.ihmc.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Truncates log files written by {@link MappedFileAppender} after an unclean shutdown.
+ *
+ * A segment is mapped at its full size, so when the JVM dies the file ends in zeros after the
+ * last record, and the last record may be incomplete. The valid part of the file ends with the
+ * last newline before the zeros. Files that were closed cleanly are left as they are.
+ *
+ * Only whole lines are guaranteed, not whole records. The file is plain text, with nothing that
+ * marks where a record ends, so a record of several lines that the crash cut off, i.e. in the
+ * middle of a stack trace, keeps the lines that were written, and looks complete.
+ *
+ * Usage: MappedFileRecovery &lt;file&gt;...
+ */
+public final class MappedFileRecovery
+{
+   private static final int CHUNK_SIZE = 64 * 1024;
+
+   private MappedFileRecovery()
+   {
+   }
+
+   public static void main(String[] fileNames) throws IOException
+   {
+      if (fileNames.length == 0)
+      {
+         System.err.println("Usage: MappedFileRecovery <file>...");
+         System.exit(1);
+      }
+
+      for (String fileName : fileNames)
+      {
+         try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ, StandardOpenOption.WRITE))
+         {
+            long size = channel.size();
+            long validLength = findValidLength(channel);
+            if (validLength == size)
+            {
+               System.out.println(fileName + ": OK, " + size + " bytes");
+            }
+            else
+            {
+               channel.truncate(validLength);
+               System.out.println(fileName + ": Kept " + validLength + " bytes, removed " + (size - validLength) + " bytes after the last complete line");
+            }
+         }
+      }
+   }
+
+   /**
+    * @return the length of the file up to and including the last newline that isn't followed by only zeros
+    */
+   static long findValidLength(FileChannel channel) throws IOException
+   {
+      ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+      boolean foundData = false;
+      for (long chunkEnd = channel.size(); chunkEnd > 0; chunkEnd -= CHUNK_SIZE)
+      {
+         long chunkStart = Math.max(0, chunkEnd - CHUNK_SIZE);
+         chunk.clear().limit((int) (chunkEnd - chunkStart));
+         while (chunk.hasRemaining())
+         {
+            if (channel.read(chunk, chunkStart + chunk.position()) < 0)
+               throw new IOException("The file shrank while reading it");
+         }
+
+         for (int i = chunk.limit() - 1; i >= 0; i--)
+         {
+            byte b = chunk.get(i);
+            if (b != 0)
+               foundData = true;
+            if (foundData && b == '\n')
+               return chunkStart + i + 1;
+         }
+      }
+      return 0; // empty, or the first line is incomplete
+   }
+}
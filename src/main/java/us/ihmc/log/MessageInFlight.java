@@ -0,0 +1,69 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.Message;
+
+/**
+ * Lets appenders and layouts see the LogTools message an event was made from, i.e. its call
+ * site, template, raw parameters and key/value fields, instead of only the formatted text.
+ *
+ * log4j's reusable events copy the formatted text out of a message and drop it, so the message
+ * being logged is kept in a thread local while log4j calls the appenders on the same thread.
+ * That is only done while something reads it.
+ */
+final class MessageInFlight
+{
+   private static final ThreadLocal<LogToolsMessage> MESSAGE_IN_FLIGHT = new ThreadLocal<>();
+   private static volatile int readerCount = 0;
+
+   private MessageInFlight()
+   {
+   }
+
+   /**
+    * Logs a LogTools message, letting readers see the message it was formatted from.
+    */
+   static void log(Logger logger, Level level, Message event, LogToolsMessage message)
+   {
+      if (readerCount == 0) // the usual case, so there's nothing to hand over
+      {
+         logger.log(level, event);
+         return;
+      }
+
+      LogToolsMessage previous = MESSAGE_IN_FLIGHT.get(); // a message logged while formatting another one
+      MESSAGE_IN_FLIGHT.set(message);
+      try
+      {
+         logger.log(level, event);
+      }
+      finally
+      {
+         MESSAGE_IN_FLIGHT.set(previous);
+      }
+   }
+
+   /**
+    * @return the LogTools message of the event being appended on this thread, or null if it isn't from LogTools
+    */
+   static LogToolsMessage get()
+   {
+      return MESSAGE_IN_FLIGHT.get();
+   }
+
+   static synchronized void addReader()
+   {
+      readerCount++;
+   }
+
+   static synchronized void removeReader()
+   {
+      readerCount--;
+   }
+
+   static int getReaderCount()
+   {
+      return readerCount;
+   }
+}
@@ -0,0 +1,111 @@
+package us.ihmc.log;
+
+/**
+ * Carries up to three primitive log parameters without boxing them.
+ *
+ * Each parameter is stored as the raw bits of its value in a long, and the types
+ * of all of them are packed into a single int: the parameter count in the lowest
+ * two bits, followed by three bits per parameter type.
+ */
+final class PrimitiveParameters
+{
+   static final int INT = 1;
+   static final int LONG = 2;
+   static final int FLOAT = 3;
+   static final int DOUBLE = 4;
+   static final int BOOLEAN = 5;
+   static final int CHAR = 6;
+
+   private static final int COUNT_BITS = 2;
+   private static final int TYPE_BITS = 3;
+   private static final int TYPE_MASK = (1 << TYPE_BITS) - 1;
+
+   private PrimitiveParameters()
+   {
+   }
+
+   static int types(int type0)
+   {
+      return 1 | (type0 << COUNT_BITS);
+   }
+
+   static int types(int type0, int type1)
+   {
+      return 2 | (type0 << COUNT_BITS) | (type1 << (COUNT_BITS + TYPE_BITS));
+   }
+
+   static int types(int type0, int type1, int type2)
+   {
+      return 3 | (type0 << COUNT_BITS) | (type1 << (COUNT_BITS + TYPE_BITS)) | (type2 << (COUNT_BITS + 2 * TYPE_BITS));
+   }
+
+   static int count(int types)
+   {
+      return types & ((1 << COUNT_BITS) - 1);
+   }
+
+   static int type(int types, int index)
+   {
+      return (types >>> (COUNT_BITS + index * TYPE_BITS)) & TYPE_MASK;
+   }
+
+   static long bits(int value)
+   {
+      return value;
+   }
+
+   static long bits(long value)
+   {
+      return value;
+   }
+
+   static long bits(float value)
+   {
+      return Float.floatToRawIntBits(value);
+   }
+
+   static long bits(double value)
+   {
+      return Double.doubleToRawLongBits(value);
+   }
+
+   static long bits(boolean value)
+   {
+      return value ? 1L : 0L;
+   }
+
+   static long bits(char value)
+   {
+      return value;
+   }
+
+   /**
+    * Appends a parameter the same way String.valueOf() would print its boxed value.
+    */
+   static void append(StringBuilder builder, int type, long bits)
+   {
+      switch (type)
+      {
+         case INT:
+            builder.append((int) bits);
+            break;
+         case LONG:
+            builder.append(bits);
+            break;
+         case FLOAT:
+            builder.append(Float.intBitsToFloat((int) bits));
+            break;
+         case DOUBLE:
+            builder.append(Double.longBitsToDouble(bits));
+            break;
+         case BOOLEAN:
+            builder.append(bits != 0L);
+            break;
+         case CHAR:
+            builder.append((char) bits);
+            break;
+         default:
+            throw new IllegalArgumentException("Unknown parameter type: " + type);
+      }
+   }
+}
@@ -0,0 +1,170 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Limits how often one call site may log, and counts the messages it suppresses.
+ *
+ * A call site may log a burst of messages, and after that one more message per interval.
+ * With an interval of 0, only the first burst is ever logged. This is a token bucket,
+ * tracked as the time the bucket will next be full, so each check is a single compare
+ * and set and never allocates.
+ *
+ * There is one per class and line, kept for good, so a call site keeps its limit even when
+ * the {@link CallSiteCache} is full. {@link SuppressedCountReporter} reports what they
+ * suppressed when no later call does.
+ *
+ * Options:
+ * -Dlog.limit.burst=5: How many messages a call site may log back to back.
+ * -Dlog.limit.interval=10000: Milliseconds until a call site may log one more message. 0 for never.
+ * -Dlog.limit.reportInterval=10000: Milliseconds between reports of how many messages a call site suppressed.
+ */
+final class RateLimiter
+{
+   static final int BURST = Integer.getInteger("log.limit.burst", 5);
+   static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("log.limit.interval", 10000));
+   static final long REPORT_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("log.limit.reportInterval", 10000));
+
+   private static final ConcurrentHashMap<CallSite, RateLimiter> RATE_LIMITERS = new ConcurrentHashMap<>();
+
+   private final int burst;
+   private final long intervalNanos;
+   private final long burstToleranceNanos;
+   private final long reportIntervalNanos;
+
+   /** When the bucket will be full again, if nothing else is logged. */
+   private final AtomicLong theoreticalArrivalTime = new AtomicLong(Long.MIN_VALUE);
+   /** Only used when intervalNanos is 0. */
+   private final AtomicLong allowedCount = new AtomicLong();
+   private final AtomicLong suppressedCount = new AtomicLong();
+   private final AtomicLong lastReportTime;
+   /** Where the last suppressed message would have gone, for reports no call makes. */
+   private volatile Logger logger;
+   private volatile Level level;
+
+   RateLimiter(long now)
+   {
+      this(BURST, INTERVAL_NANOS, REPORT_INTERVAL_NANOS, now);
+   }
+
+   RateLimiter(int burst, long intervalNanos, long reportIntervalNanos, long now)
+   {
+      if (burst < 1)
+         throw new IllegalArgumentException("Burst must be at least 1: " + burst);
+
+      this.burst = burst;
+      this.intervalNanos = intervalNanos;
+      this.reportIntervalNanos = reportIntervalNanos;
+      burstToleranceNanos = (burst - 1) * intervalNanos;
+      lastReportTime = new AtomicLong(now);
+   }
+
+   /**
+    * @return the rate limiter of the call site's class and line, created on first use
+    */
+   static RateLimiter forCallSite(CallSite callSite)
+   {
+      RateLimiter rateLimiter = RATE_LIMITERS.get(callSite);
+      if (rateLimiter == null)
+      {
+         rateLimiter = RATE_LIMITERS.computeIfAbsent(callSite, key -> new RateLimiter(System.nanoTime()));
+         SuppressedCountReporter.start();
+      }
+      return rateLimiter;
+   }
+
+   static void forEach(BiConsumer<CallSite, RateLimiter> action)
+   {
+      RATE_LIMITERS.forEach(action);
+   }
+
+   /**
+    * @param now the current System.nanoTime()
+    * @return true if the message may be logged, false if it is suppressed and counted
+    */
+   boolean tryAcquire(long now)
+   {
+      if (intervalNanos <= 0) // first N only
+      {
+         if (allowedCount.get() < burst && allowedCount.incrementAndGet() <= burst)
+            return true;
+      }
+      else
+      {
+         while (true)
+         {
+            long theoreticalArrivalTime = this.theoreticalArrivalTime.get();
+            long start = Math.max(theoreticalArrivalTime, now);
+            if (start - now > burstToleranceNanos) // the bucket is empty
+               break;
+            if (this.theoreticalArrivalTime.compareAndSet(theoreticalArrivalTime, start + intervalNanos))
+               return true;
+         }
+      }
+
+      suppressedCount.incrementAndGet();
+      return false;
+   }
+
+   /**
+    * Only one caller per report interval gets the count, so concurrent callers don't report twice.
+    *
+    * @param now the current System.nanoTime()
+    * @return the number of messages suppressed since the last report if it is time to report them, otherwise 0
+    */
+   long pollSuppressedCount(long now)
+   {
+      if (suppressedCount.get() == 0)
+         return 0;
+
+      long lastReportTime = this.lastReportTime.get();
+      if (now - lastReportTime < reportIntervalNanos || !this.lastReportTime.compareAndSet(lastReportTime, now))
+         return 0;
+
+      return suppressedCount.getAndSet(0);
+   }
+
+   /**
+    * @return the number of messages suppressed since the last report, which this is now
+    */
+   long takeSuppressedCount(long now)
+   {
+      lastReportTime.set(now);
+      return suppressedCount.getAndSet(0);
+   }
+
+   /**
+    * Remembers where a suppressed message would have gone.
+    */
+   void setReportTarget(Logger logger, Level level)
+   {
+      if (this.level != level)
+         this.level = level;
+      if (this.logger != logger) // last, so a reporter that sees the logger sees a level
+         this.logger = logger;
+   }
+
+   Logger getReportLogger()
+   {
+      return logger;
+   }
+
+   Level getReportLevel()
+   {
+      return level;
+   }
+
+   /**
+    * @return the number of messages suppressed and not reported yet
+    */
+   long getSuppressedCount()
+   {
+      return suppressedCount.get();
+   }
+}
@@ -0,0 +1,56 @@
+package us.ihmc.log;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs how many messages rate limited call sites suppressed when no later call from the call
+ * site does, i.e. once a flood stops. Checks every report interval on a daemon thread, which
+ * the first rate limited call starts, and reports everything left before log4j stops at exit.
+ */
+final class SuppressedCountReporter
+{
+   private static final long PERIOD_NANOS = Math.max(RateLimiter.REPORT_INTERVAL_NANOS, TimeUnit.MILLISECONDS.toNanos(100));
+
+   static
+   {
+      ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable ->
+      {
+         Thread thread = new Thread(runnable, "LogToolsSuppressedCountReporter");
+         thread.setDaemon(true);
+         return thread;
+      });
+      timer.scheduleWithFixedDelay(() -> report(System.nanoTime(), false), PERIOD_NANOS, PERIOD_NANOS, TimeUnit.NANOSECONDS);
+
+      Runnable reportAll = () -> report(System.nanoTime(), true);
+      if (!LogToolsShutdownCallbackRegistry.runBeforeLog4jStops(reportAll)) // so the appenders are still there to write to
+         Runtime.getRuntime().addShutdownHook(new Thread(reportAll, "LogToolsSuppressedCountReporterShutdown"));
+   }
+
+   private SuppressedCountReporter()
+   {
+   }
+
+   /**
+    * Starts reporting, the first time it is called.
+    */
+   static void start()
+   {
+   }
+
+   /**
+    * @param now the current System.nanoTime()
+    * @param all true to report every count now, false for only those whose report interval has passed
+    */
+   static void report(long now, boolean all)
+   {
+      RateLimiter.forEach((callSite, rateLimiter) ->
+      {
+         if (rateLimiter.getReportLogger() == null) // nothing was suppressed yet
+            return;
+         long suppressedCount = all ? rateLimiter.takeSuppressedCount(now) : rateLimiter.pollSuppressedCount(now);
+         LogTools.writeSuppressedCount(rateLimiter.getReportLogger(), rateLimiter.getReportLevel(), callSite, suppressedCount);
+      });
+   }
+}
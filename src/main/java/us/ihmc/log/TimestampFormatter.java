@@ -0,0 +1,143 @@
+package us.ihmc.log;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Formats times as "yyMMdd H:mm:ss:SSS" in the default time zone, the same as log4j's
+ * %date{yyMMdd H:mm:ss:SSS}, without allocating.
+ *
+ * The date and the time zone offset only change at midnight and at daylight saving time
+ * transitions, so they are worked out once per period between those, and the time of day
+ * is plain arithmetic. The text of the last second is kept, so most calls only write the
+ * three millisecond digits. Each thread keeps its own formatter, so nothing is shared or
+ * locked.
+ */
+final class TimestampFormatter
+{
+   /** "yyMMdd HH:mm:ss:SSS" */
+   static final int MAX_LENGTH = 19;
+
+   private static final long SECONDS_PER_DAY = 86400L;
+   private static final ThreadLocal<TimestampFormatter> THREAD_LOCAL_FORMATTER = new ThreadLocal<>();
+
+   private final ZoneId zone;
+   private final byte[] date = new byte[7]; // "yyMMdd "
+   private long periodStart = Long.MAX_VALUE;
+   private long periodEnd = Long.MIN_VALUE;
+   private long offsetSeconds;
+   private final byte[] text = new byte[MAX_LENGTH];
+   private int textLength;
+   private long textSecond = Long.MIN_VALUE;
+
+   TimestampFormatter(ZoneId zone)
+   {
+      this.zone = zone;
+   }
+
+   /**
+    * @return this thread's formatter for the current default time zone
+    */
+   static TimestampFormatter get()
+   {
+      TimestampFormatter formatter = THREAD_LOCAL_FORMATTER.get();
+      if (formatter == null)
+      {
+         formatter = new TimestampFormatter(ZoneId.systemDefault());
+         THREAD_LOCAL_FORMATTER.set(formatter);
+      }
+      return formatter;
+   }
+
+   /**
+    * @param buffer at least {@link #MAX_LENGTH} long
+    * @return the number of bytes written
+    */
+   int format(long epochMillis, byte[] buffer)
+   {
+      update(epochMillis);
+      System.arraycopy(text, 0, buffer, 0, textLength);
+      return textLength;
+   }
+
+   /**
+    * Appends the same characters as {@link #format(long, byte[])}.
+    */
+   void format(long epochMillis, StringBuilder builder)
+   {
+      update(epochMillis);
+      for (int i = 0; i < textLength; i++)
+      {
+         builder.append((char) text[i]);
+      }
+   }
+
+   /**
+    * Brings the text up to the time. Within the same second only the milliseconds change.
+    */
+   private void update(long epochMillis)
+   {
+      long second = Math.floorDiv(epochMillis, 1000L);
+      if (second != textSecond)
+      {
+         if (epochMillis < periodStart || epochMillis >= periodEnd)
+            startPeriod(epochMillis);
+
+         System.arraycopy(date, 0, text, 0, date.length);
+         int index = date.length;
+
+         int secondOfDay = (int) Math.floorMod(second + offsetSeconds, SECONDS_PER_DAY);
+         int hours = secondOfDay / 3600;
+         if (hours >= 10)
+            text[index++] = (byte) ('0' + hours / 10);
+         text[index++] = (byte) ('0' + hours % 10);
+         text[index++] = ':';
+         index = putTwoDigits(text, index, secondOfDay / 60 % 60);
+         text[index++] = ':';
+         index = putTwoDigits(text, index, secondOfDay % 60);
+         text[index++] = ':';
+         textLength = index + 3;
+         textSecond = second;
+      }
+
+      int millis = (int) Math.floorMod(epochMillis, 1000L);
+      text[textLength - 3] = (byte) ('0' + millis / 100);
+      putTwoDigits(text, textLength - 2, millis % 100);
+   }
+
+   private static int putTwoDigits(byte[] buffer, int index, int value)
+   {
+      buffer[index] = (byte) ('0' + value / 10);
+      buffer[index + 1] = (byte) ('0' + value % 10);
+      return index + 2;
+   }
+
+   /**
+    * Works out the date and offset of the period containing the time. Allocates, but only at
+    * midnight and daylight saving time transitions.
+    */
+   private void startPeriod(long epochMillis)
+   {
+      ZoneRules rules = zone.getRules();
+      Instant instant = Instant.ofEpochMilli(epochMillis);
+      offsetSeconds = rules.getOffset(instant).getTotalSeconds();
+
+      LocalDate localDate = LocalDate.ofInstant(instant, zone);
+      periodStart = localDate.atStartOfDay(zone).toInstant().toEpochMilli();
+      periodEnd = localDate.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+      ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1)); // one at this very instant counts
+      if (previous != null)
+         periodStart = Math.max(periodStart, previous.toEpochSecond() * 1000);
+      ZoneOffsetTransition next = rules.nextTransition(instant);
+      if (next != null)
+         periodEnd = Math.min(periodEnd, next.toEpochSecond() * 1000);
+
+      putTwoDigits(date, 0, localDate.getYear() % 100);
+      putTwoDigits(date, 2, localDate.getMonthValue());
+      putTwoDigits(date, 4, localDate.getDayOfMonth());
+      date[6] = ' ';
+   }
+}
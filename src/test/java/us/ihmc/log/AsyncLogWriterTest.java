@@ -0,0 +1,238 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncLogWriterTest
+{
+   private static final CallSite CALL_SITE = new CallSite("us.ihmc.log.AsyncLogWriterTest", 7);
+   private static final Logger LOGGER = LogManager.getLogger("us.ihmc");
+
+   @Test
+   public void testMessagesAreWrittenInOrder()
+   {
+      AsyncLogWriter writer = new AsyncLogWriter(16, AsyncLogWriter.OverflowPolicy.BLOCK);
+      writer.start();
+
+      long before = System.currentTimeMillis();
+      RecordingAppender appender = RecordingAppender.record(() ->
+      {
+         for (int i = 0; i < 100; i++)
+         {
+            assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, "Message {} {}", PrimitiveParameters.types(PrimitiveParameters.INT), i, 0L, 0L)));
+         }
+         writer.flush();
+      });
+      writer.stop();
+
+      List<String> messages = appender.getMessages();
+      assertEquals(100, messages.size());
+      for (int i = 0; i < 100; i++)
+      {
+         assertEquals("(AsyncLogWriterTest.java:7): Message " + i + " {}", messages.get(i));
+         assertTrue(appender.getTimestamps().get(i) >= before);
+      }
+   }
+
+   @Test
+   public void testMutableParametersAreFormattedNow()
+   {
+      AsyncLogWriter writer = new AsyncLogWriter(16, AsyncLogWriter.OverflowPolicy.DROP); // not started yet, so nothing is written
+      List<Object> list = new ArrayList<>();
+      StringBuilder text = new StringBuilder("Mutable message");
+      assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, "Immutable {} {} {}", 3, "a", 1.5, TimeUnit.SECONDS)));
+      assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, "Mutable {}", 1, list, null, null)));
+      assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, text)));
+      list.add("later");
+      text.append(" later");
+
+      RecordingAppender appender = RecordingAppender.record(() ->
+      {
+         writer.start();
+         writer.flush();
+         writer.stop();
+      });
+      assertEquals(List.of("(AsyncLogWriterTest.java:7): Immutable a 1.5 SECONDS",
+                           "(AsyncLogWriterTest.java:7): Mutable []",
+                           "(AsyncLogWriterTest.java:7): Mutable message"), appender.getMessages());
+   }
+
+   @Test
+   public void testEachThreadsMessagesStayInOrder()
+   {
+      AsyncLogWriter writer = new AsyncLogWriter(16, AsyncLogWriter.OverflowPolicy.BLOCK);
+      writer.start();
+      RecordingAppender appender = RecordingAppender.record(() ->
+      {
+         for (int i = 0; i < 500; i++) // alternating messages that are formatted later and now
+         {
+            assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, "seq {}", PrimitiveParameters.types(PrimitiveParameters.INT), 2 * i, 0L, 0L)));
+            assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, "seq {}", 1, new StringBuilder().append(2 * i + 1), null, null)));
+         }
+         writer.flush();
+      });
+      writer.stop();
+
+      List<String> messages = appender.getMessages();
+      assertEquals(1000, messages.size());
+      for (int i = 0; i < 1000; i++)
+      {
+         assertEquals("(AsyncLogWriterTest.java:7): seq " + i, messages.get(i));
+      }
+   }
+
+   @Test
+   public void testSnapshotsAreDeferred()
+   {
+      AsyncLogWriter writer = new AsyncLogWriter(16, AsyncLogWriter.OverflowPolicy.DROP); // not started yet, so nothing is formatted
+      Counter counter = new Counter();
+      assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, "Snapshot {}", 1, counter, null, null)));
+      assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, counter)));
+      counter.count++;
+      assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, "Failing snapshot {}", 1, new FailingCounter(), null, null))); // formatted now
+      assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, "Static snapshot {}", 1, new StaticSnapshotCounter(), null, null)));
+
+      RecordingAppender appender = RecordingAppender.record(() ->
+      {
+         writer.start();
+         writer.flush();
+         writer.stop();
+      });
+      List<String> messages = appender.getMessages();
+      assertEquals(4, messages.size(), messages::toString);
+      assertEquals(List.of("(AsyncLogWriterTest.java:7): Snapshot count 0", "(AsyncLogWriterTest.java:7): count 0"), messages.subList(0, 2));
+      assertTrue(messages.get(2).startsWith("(AsyncLogWriterTest.java:7): Failing snapshot "), messages::toString);
+      assertTrue(messages.get(3).startsWith("(AsyncLogWriterTest.java:7): Static snapshot " + StaticSnapshotCounter.class.getName()), messages::toString);
+   }
+
+   @Test
+   public void testKeyValuesAreCopied()
+   {
+      AsyncLogWriter writer = new AsyncLogWriter(16, AsyncLogWriter.OverflowPolicy.DROP); // not started yet, so nothing is formatted
+      KeyValues keyValues = new KeyValues();
+      keyValues.add("joint", PrimitiveParameters.INT, PrimitiveParameters.bits(3), null);
+      keyValues.add("mode", KeyValues.OBJECT, 0L, "position");
+      assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, "Limit").withKeyValues(keyValues)));
+      keyValues.clear(); // like the caller's builder, once logged
+      List<Object> list = new ArrayList<>();
+      keyValues.add("joint", KeyValues.OBJECT, 0L, list);
+      assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, "Mutable").withKeyValues(keyValues)));
+      list.add(4); // formatted before this
+
+      RecordingAppender appender = RecordingAppender.record(() ->
+      {
+         writer.start();
+         writer.flush();
+         writer.stop();
+      });
+      assertEquals(List.of("(AsyncLogWriterTest.java:7): Limit joint=3 mode=position", "(AsyncLogWriterTest.java:7): Mutable joint=[]"), appender.getMessages());
+   }
+
+   @Test
+   public void testDropWhenFull()
+   {
+      AsyncLogWriter writer = new AsyncLogWriter(4, AsyncLogWriter.OverflowPolicy.DROP); // not started yet, so nothing drains
+      for (int i = 0; i < 6; i++)
+      {
+         assertTrue(offer(writer, LogToolsMessage.of(CALL_SITE, "Message")));
+      }
+      assertEquals(2, writer.getDroppedCount());
+
+      RecordingAppender appender = RecordingAppender.record(() ->
+      {
+         writer.start();
+         writer.flush();
+         writer.stop();
+      });
+      assertEquals(4, appender.getMessages().stream().filter(message -> message.endsWith("Message")).count());
+      assertTrue(appender.getMessages().stream().anyMatch(message -> message.endsWith("dropped 2 messages")), appender.getMessages()::toString);
+   }
+
+   @Test
+   public void testLastMessageIsWrittenAtExit() throws Exception
+   {
+      String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+      Process process = new ProcessBuilder(java,
+                                           "-Dlog.async=true",
+                                           "-cp",
+                                           System.getProperty("java.class.path"),
+                                           AsyncLogWriterTest.class.getName()).redirectErrorStream(true).start();
+      String output;
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)))
+      {
+         output = reader.lines().collect(Collectors.joining("\n"));
+      }
+      assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+      assertTrue(output.contains("Last message"), output);
+   }
+
+   private static class Counter
+   {
+      int count = 0;
+
+      @LogSnapshot
+      private Object snapshot()
+      {
+         return "count " + count;
+      }
+
+      @Override
+      public String toString()
+      {
+         return "live count " + count;
+      }
+   }
+
+   private static class FailingCounter extends Counter
+   {
+      @Override
+      @LogSnapshot
+      public String toString()
+      {
+         throw new IllegalStateException();
+      }
+   }
+
+   private static class StaticSnapshotCounter
+   {
+      @LogSnapshot
+      static Object snapshot()
+      {
+         return "static";
+      }
+   }
+
+   public static void main(String[] args)
+   {
+      for (int i = 0; i < 2000; i++)
+      {
+         LogTools.info("Message {}", i);
+      }
+      LogTools.info("Last message"); // then main returns, with the messages still in the buffer
+   }
+
+   private static boolean offer(AsyncLogWriter writer, LogToolsMessage message)
+   {
+      try
+      {
+         return writer.offer(LOGGER, Level.INFO, message);
+      }
+      finally
+      {
+         message.release();
+      }
+   }
+}
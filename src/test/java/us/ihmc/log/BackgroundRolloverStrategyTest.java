@@ -0,0 +1,106 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.core.appender.RollingFileAppender;
+import org.apache.logging.log4j.core.appender.rolling.SizeBasedTriggeringPolicy;
+import org.apache.logging.log4j.core.appender.rolling.action.AbstractAction;
+import org.apache.logging.log4j.core.appender.rolling.action.Action;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BackgroundRolloverStrategyTest
+{
+   @TempDir
+   Path temporaryDirectory;
+
+   @Test
+   public void testLoggingDoesNotWaitForActions() throws IOException, InterruptedException
+   {
+      CountDownLatch release = new CountDownLatch(1);
+      BlockingAction blockingAction = new BlockingAction(release);
+      RollingFileAppender appender = createAppender(blockingAction);
+
+      for (int i = 0; i < 300; i++) // rolls over many times while the first action is still blocked
+      {
+         appender.append(MappedFileAppenderTest.event("Line " + i));
+      }
+      assertTrue(blockingAction.runCount < 2);
+
+      release.countDown();
+      appender.stop();
+      assertTrue(blockingAction.finished.await(10, TimeUnit.SECONDS));
+      assertEquals(Thread.MIN_PRIORITY, blockingAction.priority);
+
+      Path firstArchive = temporaryDirectory.resolve("Rolling-1.txt.gz");
+      for (int i = 0; i < 100 && !Files.exists(firstArchive); i++)
+      {
+         Thread.sleep(100);
+      }
+      try (InputStream input = new GZIPInputStream(Files.newInputStream(firstArchive)))
+      {
+         assertTrue(new String(input.readAllBytes(), StandardCharsets.UTF_8).startsWith("Line 0\n"));
+      }
+   }
+
+   private RollingFileAppender createAppender(Action action)
+   {
+      DefaultConfiguration configuration = new DefaultConfiguration();
+      BackgroundRolloverStrategy strategy = BackgroundRolloverStrategy.createStrategy(null, null, "nomax", null, new Action[] {action}, true, configuration);
+      RollingFileAppender appender = RollingFileAppender.newBuilder()
+                                                        .setName("Rolling")
+                                                        .setConfiguration(configuration)
+                                                        .withFileName(temporaryDirectory.resolve("Rolling.txt").toString())
+                                                        .withFilePattern(temporaryDirectory.resolve("Rolling-%i.txt.gz").toString())
+                                                        .withPolicy(SizeBasedTriggeringPolicy.createPolicy("1 KB"))
+                                                        .withStrategy(strategy)
+                                                        .setLayout(PatternLayout.newBuilder().withPattern("%msg%n").build())
+                                                        .build();
+      appender.start();
+      return appender;
+   }
+
+   /**
+    * Blocks the first time it runs, like compressing a large file.
+    */
+   private static class BlockingAction extends AbstractAction
+   {
+      private final CountDownLatch release;
+      private final CountDownLatch finished = new CountDownLatch(1);
+      private volatile int runCount;
+      private volatile int priority;
+
+      BlockingAction(CountDownLatch release)
+      {
+         this.release = release;
+      }
+
+      @Override
+      public boolean execute() throws IOException
+      {
+         runCount++;
+         priority = Thread.currentThread().getPriority();
+         try
+         {
+            release.await();
+         }
+         catch (InterruptedException e)
+         {
+            throw new IOException(e);
+         }
+         finished.countDown();
+         return true;
+      }
+   }
+}
@@ -0,0 +1,189 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.WriterAppender;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.impl.MutableLogEvent;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryLogTest
+{
+   @TempDir
+   Path temporaryDirectory;
+
+   @Test
+   public void testDecodedTextMatchesConsole() throws IOException
+   {
+      assertDecodedTextMatches(true);
+   }
+
+   @Test
+   public void testDecodedTextMatchesConsoleWithoutColor() throws IOException
+   {
+      assertDecodedTextMatches(false);
+   }
+
+   @Test
+   public void testEnabledCallsDoNotAllocate() throws IOException
+   {
+      Path file = temporaryDirectory.resolve("garbage.ihmclog");
+      Runnable logCalls = () ->
+      {
+         LogTools.info("x: {}", 1.5);
+         LogTools.info("y: {}", true);
+         LogTools.warn("Hello {}", "there");
+         LogTools.error("Plain");
+      };
+      attach(file, () ->
+      {
+         logCalls.run(); // defines the call sites and templates
+
+         List<AllocationRecord> allocations = LogToolsGarbageFreeTest.createProfiler().recordAllocations(logCalls);
+         assertTrue(allocations.isEmpty(), allocations::toString);
+      });
+   }
+
+   @Test
+   public void testCallSitesAreDefinedOncePerLine()
+   {
+      BinaryLogEncoder encoder = new BinaryLogEncoder(64);
+      encoder.encodeSession(0);
+      MutableLogEvent event = new MutableLogEvent();
+      event.setLevel(Level.INFO);
+
+      CallSite callSite = new CallSite("us.ihmc.Example", 42);
+      encode(encoder, event, callSite);
+      int definedSize = encoder.size();
+      encode(encoder, event, callSite);
+      int eventSize = encoder.size() - definedSize;
+      encode(encoder, event, new CallSite("us.ihmc.Example", 42)); // i.e. past the call site cache bound
+      assertEquals(eventSize, encoder.size() - definedSize - eventSize);
+   }
+
+   @Test
+   public void testTruncatedFile() throws IOException
+   {
+      Path file = temporaryDirectory.resolve("truncated.ihmclog");
+      attach(file, () ->
+      {
+         LogTools.info("First");
+         LogTools.info("Second {}", 2);
+      });
+
+      byte[] bytes = Files.readAllBytes(file);
+      StringBuilder output = new StringBuilder();
+      assertFalse(new LogToolsDecoder(false).decode(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 2)), output));
+      assertTrue(output.toString().endsWith("First" + System.lineSeparator()), output::toString);
+   }
+
+   private void assertDecodedTextMatches(boolean color) throws IOException
+   {
+      Path file = temporaryDirectory.resolve("decoded" + color + ".ihmclog");
+      StringWriter ihmcText = new StringWriter();
+      StringWriter externalText = new StringWriter();
+      Configuration configuration = ((LoggerContext) LogManager.getContext(false)).getConfiguration();
+      Layout<String> ihmcLayout = IHMCLayout.newBuilder().setConfiguration(configuration).setHighlight(color).build(); // as the console
+      Layout<String> externalLayout = PatternLayout.newBuilder().withConfiguration(configuration).withPattern(IHMCConfiguration.externalPattern(color)).build();
+      Appender ihmcTextAppender = textAppender("IHMCText", ihmcLayout, ihmcText);
+      Appender externalTextAppender = textAppender("ExternalText", externalLayout, externalText);
+
+      LoggerConfig rootConfig = configuration.getRootLogger();
+      attach(file, () ->
+      {
+         LoggerConfig ihmcConfig = ((LoggerContext) LogManager.getContext(false)).getConfiguration().getLoggerConfig("us.ihmc");
+         ihmcConfig.addAppender(ihmcTextAppender, null, null);
+         rootConfig.addAppender(externalTextAppender, null, null);
+         try
+         {
+            LogTools.info("Plain message");
+            LogTools.info(new StringBuilder("Not a string"));
+            LogTools.info((Object) null);
+            LogTools.warn("Primitives {} {} {}", 7, -3L, 1.5f);
+            LogTools.error("More {} {}", 2.25, false);
+            LogTools.warn("Primitive {}", 'c');
+            LogTools.info("Objects {} {} {}", "string", 'c', new int[] {1, 2});
+            LogTools.debug("Disabled {}", 1);
+            LogTools.info("Escaped \\{} {} {}", (short) 4, null);
+            LogTools.info("Unicode: {} \uD83E\uDD16", "\u00E9\u4E2D");
+            LogTools.info("Plain message");
+            LogTools.error("Failed", new IllegalStateException("Oops"));
+            LogManager.getLogger("org.example.External").error("External {}", 42);
+         }
+         finally
+         {
+            ihmcConfig.removeAppender(ihmcTextAppender.getName());
+            rootConfig.removeAppender(externalTextAppender.getName());
+         }
+      });
+
+      StringBuilder decoded = new StringBuilder();
+      try (InputStream input = new FileInputStream(file.toFile()))
+      {
+         assertTrue(new LogToolsDecoder(color).decode(input, decoded));
+      }
+      assertEquals(ihmcText.toString() + externalText, decoded.toString());
+   }
+
+   /**
+    * Logs to a binary file from the IHMC and root loggers while running the log calls.
+    */
+   private static void attach(Path file, ThrowingRunnable logCalls) throws IOException
+   {
+      BinaryLogAppender appender = BinaryLogAppender.newBuilder().setName("Binary").setFileName(file.toString()).setAppend(false).build();
+      appender.start();
+      LoggerContext context = (LoggerContext) LogManager.getContext(false);
+      LoggerConfig ihmcConfig = context.getConfiguration().getLoggerConfig("us.ihmc");
+      LoggerConfig rootConfig = context.getConfiguration().getRootLogger();
+      ihmcConfig.addAppender(appender, null, null);
+      rootConfig.addAppender(appender, null, null);
+      try
+      {
+         logCalls.run();
+      }
+      finally
+      {
+         ihmcConfig.removeAppender(appender.getName());
+         rootConfig.removeAppender(appender.getName());
+         appender.stop();
+      }
+   }
+
+   private static void encode(BinaryLogEncoder encoder, MutableLogEvent event, CallSite callSite)
+   {
+      LogToolsMessage message = LogToolsMessage.of(callSite, "Hello");
+      encoder.encode(event, message);
+      message.release();
+   }
+
+   private static Appender textAppender(String name, Layout<String> layout, StringWriter writer)
+   {
+      Appender appender = WriterAppender.newBuilder().setName(name).setTarget(writer).setLayout(layout).build();
+      appender.start();
+      return appender;
+   }
+
+   private interface ThrowingRunnable
+   {
+      void run() throws IOException;
+   }
+}
@@ -0,0 +1,48 @@
+package us.ihmc.log;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CallSiteCacheTest
+{
+   @Test
+   public void testRepeatedCallSiteHits()
+   {
+      CallSite first = null;
+      for (int i = 0; i < 10; i++)
+      {
+         long hits = CallSiteCache.getHitCount();
+         long misses = CallSiteCache.getMissCount();
+
+         CallSite callSite = CallSiteCache.get(CallerResolver.resolve(1));
+
+         if (first == null)
+         {
+            first = callSite;
+            assertEquals(misses + 1, CallSiteCache.getMissCount());
+         }
+         else
+         {
+            assertSame(first, callSite);
+            assertEquals(hits + 1, CallSiteCache.getHitCount());
+            assertEquals(misses, CallSiteCache.getMissCount());
+         }
+      }
+   }
+
+   @Test
+   public void testNestedClassCallSite()
+   {
+      CallSite callSite = new Nested().callSite;
+      assertEquals(CallSiteCacheTest.Nested.class.getName(), callSite.getClassName());
+      assertEquals("us.ihmc.log.CallSiteCacheTest.Nested", callSite.getLoggerName());
+      assertEquals("CallSiteCacheTest", callSite.getSimpleName());
+      assertEquals("(CallSiteCacheTest.java:" + callSite.getLineNumber() + "): ", callSite.getClickableCoordinatePrefix());
+   }
+
+   private static class Nested
+   {
+      private final CallSite callSite = CallSiteCache.get(CallerResolver.resolve(1));
+   }
+}
@@ -0,0 +1,40 @@
+package us.ihmc.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.StackWalker.StackFrame;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CallerResolverTest
+{
+   @Test
+   public void testFramesMatchThreadStackTrace()
+   {
+      recurse(30);
+   }
+
+   private void recurse(int depth)
+   {
+      if (depth > 0)
+      {
+         recurse(depth - 1);
+         return;
+      }
+
+      StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
+      for (int i = 1; i < stackTrace.length; i++) // frame 0 is getStackTrace() in one and resolve() in the other
+      {
+         StackFrame frame = CallerResolver.resolve(i);
+         assertEquals(stackTrace[i].getClassName(), frame.getClassName());
+         assertEquals(stackTrace[i].getMethodName(), frame.getMethodName());
+      }
+   }
+
+   @Test
+   public void testOutOfBounds()
+   {
+      assertThrows(IndexOutOfBoundsException.class, () -> CallerResolver.resolve(-1));
+      assertThrows(IndexOutOfBoundsException.class, () -> CallerResolver.resolve(100000));
+   }
+}
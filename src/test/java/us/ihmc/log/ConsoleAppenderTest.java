@@ -0,0 +1,245 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.appender.ConsoleAppender;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The patched ConsoleAppender's coalesce mode writes to the process's standard output, so
+ * each case runs in a JVM of its own, started from {@link #main(String[])}.
+ */
+public class ConsoleAppenderTest
+{
+   private static final int THREADS = 4;
+   private static final int LINES_PER_THREAD = 5000;
+   private static final int SLOW_LINES = 200000;
+   private static final int ERROR_EVERY = 4000;
+
+   @Test
+   public void testCoalescedLinesAreCompleteAndInOrder() throws Exception
+   {
+      Process process = start("burst", 10);
+      List<String> lines = readLines(process, THREADS * LINES_PER_THREAD);
+      assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+
+      int[] nextLine = new int[THREADS];
+      for (String line : lines)
+      {
+         String[] parts = line.split(" ");
+         assertEquals(2, parts.length, line);
+         int thread = Integer.parseInt(parts[0]);
+         assertEquals(nextLine[thread]++, Integer.parseInt(parts[1]), line);
+      }
+      for (int thread = 0; thread < THREADS; thread++)
+         assertEquals(LINES_PER_THREAD, nextLine[thread]);
+   }
+
+   @Test
+   public void testErrorsAreNotHeldBack() throws Exception
+   {
+      Process process = start("error", 600000);
+      try
+      {
+         assertEquals(List.of("before", "error"), readLines(process, 2)); // the timer is ten minutes away and the buffer is far from full
+         assertTrue(process.isAlive());
+      }
+      finally
+      {
+         process.destroyForcibly();
+      }
+   }
+
+   @Test
+   public void testQuietLinesGoOutOnTheTimer() throws Exception
+   {
+      Process process = start("quiet", 20);
+      try
+      {
+         assertEquals(List.of("quiet"), readLines(process, 1));
+         assertTrue(process.isAlive());
+      }
+      finally
+      {
+         process.destroyForcibly();
+      }
+   }
+
+   @Test
+   public void testNonBlockingDropsByLevelWhenNobodyReads() throws Exception
+   {
+      Process process = start("slow", 10, ProcessBuilder.Redirect.PIPE);
+      try
+      {
+         // stdout isn't read until the child is done logging, so the pipe fills and the console writer is stuck
+         BufferedReader stderr = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8));
+         String appended = CompletableFuture.supplyAsync(() -> readLine(stderr)).get(60, TimeUnit.SECONDS);
+         assertTrue(Long.parseLong(appended) < TimeUnit.SECONDS.toNanos(1), "An append blocked for " + appended + " ns");
+
+         List<String> lines = readLines(process, Integer.MAX_VALUE);
+         assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+         String[] lastLine = lines.remove(lines.size() - 1).split(" ");
+         assertEquals("dropped", lastLine[0]);
+         long dropped = Long.parseLong(lastLine[1]);
+         long droppedDebug = Long.parseLong(lastLine[2]);
+         long droppedInfo = Long.parseLong(lastLine[3]);
+         assertTrue(droppedDebug > 0, "Nothing was dropped");
+         assertTrue(droppedDebug >= droppedInfo, "More INFO than DEBUG lines were dropped");
+
+         long summarized = 0;
+         int nextError = 0;
+         for (String line : lines)
+         {
+            if (line.startsWith("[WARN] Console output fell behind, dropped "))
+            {
+               String[] words = line.split(" ");
+               summarized += Long.parseLong(words[6]) + Long.parseLong(words[8]) + Long.parseLong(words[11]);
+            }
+            else if (line.startsWith("error "))
+            {
+               assertEquals(nextError, Integer.parseInt(line.substring(6)));
+               nextError += ERROR_EVERY;
+            }
+            else
+            {
+               assertTrue(line.matches("(debug|info) \\d+"), line);
+            }
+         }
+         assertEquals(SLOW_LINES / ERROR_EVERY * ERROR_EVERY, nextError, "An error was dropped");
+         assertEquals(dropped, summarized);
+         assertEquals(SLOW_LINES - dropped, lines.size() - lines.stream().filter(line -> line.startsWith("[WARN]")).count());
+      }
+      finally
+      {
+         process.destroyForcibly();
+      }
+   }
+
+   private static Process start(String scenario, int flushIntervalMillis) throws IOException
+   {
+      return start(scenario, flushIntervalMillis, ProcessBuilder.Redirect.INHERIT);
+   }
+
+   private static Process start(String scenario, int flushIntervalMillis, ProcessBuilder.Redirect stderr) throws IOException
+   {
+      String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+      return new ProcessBuilder(java,
+                                "-cp",
+                                System.getProperty("java.class.path"),
+                                ConsoleAppenderTest.class.getName(),
+                                scenario,
+                                Integer.toString(flushIntervalMillis)).redirectError(stderr).start();
+   }
+
+   private static String readLine(BufferedReader reader)
+   {
+      try
+      {
+         return reader.readLine();
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
+   private static List<String> readLines(Process process, int count) throws Exception
+   {
+      return CompletableFuture.supplyAsync(() ->
+      {
+         List<String> lines = new ArrayList<>();
+         try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)))
+         {
+            while (lines.size() < count)
+            {
+               String line = reader.readLine();
+               if (line == null)
+                  break;
+               lines.add(line);
+            }
+         }
+         catch (IOException e)
+         {
+            throw new RuntimeException(e);
+         }
+         return lines;
+      }).get(30, TimeUnit.SECONDS);
+   }
+
+   public static void main(String[] args) throws Exception
+   {
+      String scenario = args[0];
+      ConsoleAppender appender = ConsoleAppender.newBuilder()
+                                                .setName("Coalescing")
+                                                .setCoalesce(true)
+                                                .setNonBlocking(scenario.equals("slow"))
+                                                .setFlushIntervalMillis(Integer.parseInt(args[1]))
+                                                .setLayout(PatternLayout.newBuilder().withPattern("%msg%n").build())
+                                                .build();
+      appender.start();
+
+      switch (scenario)
+      {
+         case "burst":
+            Thread[] threads = new Thread[THREADS];
+            for (int i = 0; i < THREADS; i++)
+            {
+               int thread = i;
+               threads[i] = new Thread(() ->
+               {
+                  for (int line = 0; line < LINES_PER_THREAD; line++)
+                     appender.append(event(Level.INFO, thread + " " + line));
+               });
+               threads[i].start();
+            }
+            for (Thread thread : threads)
+               thread.join();
+            appender.stop();
+            break;
+         case "error":
+            appender.append(event(Level.INFO, "before"));
+            appender.append(event(Level.ERROR, "error"));
+            Thread.sleep(60000);
+            break;
+         case "quiet":
+            appender.append(event(Level.INFO, "quiet"));
+            Thread.sleep(60000);
+            break;
+         case "slow":
+            long slowestAppend = 0;
+            for (int line = 0; line < SLOW_LINES; line++)
+            {
+               Level level = line % ERROR_EVERY == 0 ? Level.ERROR : line % 2 == 0 ? Level.DEBUG : Level.INFO;
+               long start = System.nanoTime();
+               appender.append(event(level, level.name().toLowerCase() + " " + line));
+               if (level != Level.ERROR)
+                  slowestAppend = Math.max(slowestAppend, System.nanoTime() - start);
+            }
+            System.err.println(slowestAppend);
+            appender.stop(); // waits for the parent to read
+            System.out.println("dropped " + appender.getDroppedCount() + " " + appender.getDroppedCount(Level.DEBUG) + " " + appender.getDroppedCount(Level.INFO));
+            break;
+         default:
+            throw new IllegalArgumentException(scenario);
+      }
+   }
+
+   private static Log4jLogEvent event(Level level, String message)
+   {
+      return Log4jLogEvent.newBuilder().setLevel(level).setMessage(new SimpleMessage(message)).build();
+   }
+}
@@ -0,0 +1,194 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.junit.jupiter.api.Test;
+import us.ihmc.commons.allocations.AllocationProfiler;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static us.ihmc.log.PrimitiveParameters.*;
+
+public class FlightRecorderTest
+{
+   private static final CallSite ORIGIN = new CallSite("us.ihmc.Robot", 42);
+
+   @Test
+   public void testRecordsPrintLikeTheCall()
+   {
+      FlightRecorder recorder = new FlightRecorder(16, 60000);
+      recorder.record(Level.DEBUG, ORIGIN, "plain {}");
+      recorder.record(Level.TRACE, null, "x: {} y: {} z: {}", 3, 1.5, "two", Boolean.TRUE);
+      recorder.record(Level.DEBUG, null, "limited {}", 0, null, null, null);
+      recorder.record(Level.DEBUG, ORIGIN, "x: {} n: {}", types(DOUBLE, INT), bits(0.25), bits(-7), 0L);
+      StringBuilder mutable = new StringBuilder("changes");
+      recorder.record(Level.DEBUG, null, "state: {}", 1, mutable, null, null);
+      mutable.append(" later");
+
+      List<LogEvent> events = recorder.drain("us.ihmc");
+      assertEquals(List.of("(Robot.java:42): plain {}", "x: 1.5 y: two z: true", "limited {}", "(Robot.java:42): x: 0.25 n: -7", "state: <StringBuilder>"),
+                   messages(events));
+      assertEquals(List.of(Level.DEBUG, Level.TRACE, Level.DEBUG, Level.DEBUG, Level.DEBUG), events.stream().map(LogEvent::getLevel).collect(Collectors.toList()));
+      assertEquals(Thread.currentThread().getName(), events.get(0).getThreadName());
+   }
+
+   @Test
+   public void testEachRecordIsDumpedOnce()
+   {
+      FlightRecorder recorder = new FlightRecorder(16, 60000);
+      recorder.record(Level.DEBUG, null, "first");
+      assertEquals(List.of("first"), messages(recorder.drain("us.ihmc")));
+      assertEquals(List.of(), messages(recorder.drain("us.ihmc")));
+      recorder.record(Level.DEBUG, null, "second");
+      assertEquals(List.of("second"), messages(recorder.drain("us.ihmc")));
+   }
+
+   @Test
+   public void testOnlyTheNewestRecordsAreKept()
+   {
+      FlightRecorder recorder = new FlightRecorder(3, 60000); // rounded up to 4, of which the slot being written next isn't dumped
+      for (int i = 0; i < 10; i++)
+         recorder.record(Level.DEBUG, null, "{}", types(INT), bits(i), 0L, 0L);
+      assertEquals(List.of("7", "8", "9"), messages(recorder.drain("us.ihmc")));
+   }
+
+   @Test
+   public void testOldRecordsAreNotDumped() throws InterruptedException
+   {
+      FlightRecorder recorder = new FlightRecorder(16, 50);
+      recorder.record(Level.DEBUG, null, "old");
+      Thread.sleep(200);
+      recorder.record(Level.DEBUG, null, "new");
+      assertEquals(List.of("new"), messages(recorder.drain("us.ihmc")));
+   }
+
+   @Test
+   public void testThreadsAreMergedInTimeOrder() throws InterruptedException
+   {
+      FlightRecorder recorder = new FlightRecorder(16, 60000);
+      recorder.record(Level.DEBUG, null, "main first");
+      Thread.sleep(20);
+      Thread thread = new Thread(() -> recorder.record(Level.DEBUG, null, "other"), "Other");
+      thread.start();
+      thread.join(); // its records outlive it until they are dumped
+      Thread.sleep(20);
+      recorder.record(Level.DEBUG, null, "main last");
+
+      List<LogEvent> events = recorder.drain("us.ihmc");
+      assertEquals(List.of("main first", "other", "main last"), messages(events));
+      assertEquals("Other", events.get(1).getThreadName());
+   }
+
+   @Test
+   public void testDumpBypassesTheLevel()
+   {
+      FlightRecorder recorder = new FlightRecorder(16, 60000);
+      recorder.record(Level.DEBUG, null, "context");
+      Level level = LogTools.getLevel("us.ihmc");
+      LogTools.setLevel(Level.INFO);
+      RecordingAppender appender;
+      try
+      {
+         appender = RecordingAppender.record(() -> recorder.dump(LogManager.getLogger("us.ihmc"), Level.ERROR, null));
+      }
+      finally
+      {
+         LogTools.setLevel(level);
+      }
+      assertEquals(List.of("Flight recorder: 1 disabled messages from the last 60000 ms", "context", "End of flight recorder"), appender.getMessages());
+   }
+
+   @Test
+   public void testRecordingDoesNotAllocate()
+   {
+      FlightRecorder recorder = new FlightRecorder(64, 60000);
+      Object o0 = 1.5;
+      Object mutable = new StringBuilder();
+      Runnable record = () ->
+      {
+         for (int i = 0; i < 200; i++)
+         {
+            recorder.record(Level.DEBUG, ORIGIN, "message");
+            recorder.record(Level.TRACE, ORIGIN, "x: {} y: {}", 2, o0, mutable, null);
+            recorder.record(Level.DEBUG, null, "x: {}", types(LONG), bits((long) i), 0L, 0L);
+         }
+      };
+      record.run();
+
+      List<AllocationRecord> allocations = new AllocationProfiler().recordAllocations(record);
+      assertTrue(allocations.isEmpty(), allocations::toString);
+   }
+
+   @Test
+   public void testErrorsDumpDisabledMessages() throws Exception
+   {
+      assertErrorsDumpDisabledMessages("-Dlog.async=false");
+   }
+
+   @Test
+   public void testErrorsDumpDisabledMessagesAfterAsynchronousErrors() throws Exception
+   {
+      assertErrorsDumpDisabledMessages("-Dlog.async=true");
+   }
+
+   private static void assertErrorsDumpDisabledMessages(String asyncOption) throws Exception
+   {
+      String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+      Process process = new ProcessBuilder(java,
+                                           "-Dlog.recorder=true",
+                                           asyncOption,
+                                           "-Dlog.level=info",
+                                           "-Dlog4j2.configurationFile=log4j2NoColor.yml",
+                                           "-cp",
+                                           System.getProperty("java.class.path"),
+                                           FlightRecorderTest.class.getName()).redirectErrorStream(true).start();
+      List<String> lines;
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)))
+      {
+         lines = reader.lines().collect(Collectors.toList());
+      }
+      assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+
+      String output = String.join("\n", lines);
+      int error = indexOf(lines, "[ERROR]", "Something failed");
+      int header = indexOf(lines, "[ERROR]", "Flight recorder: 2 disabled messages");
+      int debug = indexOf(lines, "[DEBUG]", "x: 42 y: 0.5");
+      int trace = indexOf(lines, "[TRACE]", "state: IDLE");
+      int footer = indexOf(lines, "[ERROR]", "End of flight recorder");
+      assertTrue(error >= 0 && error < header && header < debug && debug < trace && trace < footer, output);
+      assertEquals(-1, indexOf(lines, "[INFO]", "Flight recorder"), output); // nothing was left for the dump on demand
+   }
+
+   private static int indexOf(List<String> lines, String level, String text)
+   {
+      for (int i = 0; i < lines.size(); i++)
+      {
+         if (lines.get(i).contains(level) && lines.get(i).contains(text))
+            return i;
+      }
+      return -1;
+   }
+
+   private static List<String> messages(List<LogEvent> events)
+   {
+      return events.stream().map(event -> event.getMessage().getFormattedMessage()).collect(Collectors.toList());
+   }
+
+   public static void main(String[] args)
+   {
+      LogTools.info("Started");
+      LogTools.debug("x: {} y: {}", 42, 0.5);
+      LogTools.trace("state: {}", "IDLE");
+      LogTools.error("Something failed");
+      LogTools.dumpFlightRecorder();
+   }
+}
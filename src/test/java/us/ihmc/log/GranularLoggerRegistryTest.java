@@ -0,0 +1,73 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GranularLoggerRegistryTest
+{
+   @Test
+   public void testConcurrentLookups() throws Exception
+   {
+      int numberOfThreads = 32;
+      int numberOfNames = 500;
+      int lookupsPerThread = 20000;
+
+      GranularLoggerRegistry registry = new GranularLoggerRegistry();
+      ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+      CyclicBarrier startBarrier = new CyclicBarrier(numberOfThreads);
+      List<Future<Logger[]>> futures = new ArrayList<>();
+
+      for (int thread = 0; thread < numberOfThreads; thread++)
+      {
+         int offset = thread * 7;
+         futures.add(executor.submit(() ->
+         {
+            Logger[] seen = new Logger[numberOfNames];
+            startBarrier.await(); // maximize contention on first insertion
+            for (int i = 0; i < lookupsPerThread; i++)
+            {
+               int nameIndex = (i + offset) % numberOfNames;
+               Logger logger = registry.getLogger("us.ihmc.stress.Class" + nameIndex);
+               if (seen[nameIndex] == null)
+                  seen[nameIndex] = logger;
+               else if (seen[nameIndex] != logger)
+                  throw new AssertionError("Registry returned two loggers for the same name");
+            }
+            return seen;
+         }));
+      }
+
+      Logger[] first = futures.get(0).get(60, TimeUnit.SECONDS);
+      for (Future<Logger[]> future : futures)
+      {
+         Logger[] seen = future.get(60, TimeUnit.SECONDS);
+         for (int i = 0; i < numberOfNames; i++)
+         {
+            assertSame(first[i], seen[i]);
+            assertEquals("us.ihmc.stress.Class" + i, seen[i].getName());
+         }
+      }
+      executor.shutdown();
+
+      assertEquals(numberOfNames, registry.size());
+   }
+
+   @Test
+   public void testCallSiteRemembersLogger()
+   {
+      GranularLoggerRegistry registry = new GranularLoggerRegistry();
+      CallSite callSite = new CallSite("us.ihmc.stress.Outer$Inner", 42);
+
+      Logger logger = registry.getLogger(callSite);
+      assertEquals("us.ihmc.stress.Outer.Inner", logger.getName());
+      assertSame(logger, callSite.getLogger());
+      assertSame(logger, registry.getLogger(callSite));
+      assertSame(logger, registry.getLogger("us.ihmc.stress.Outer.Inner"));
+   }
+}
@@ -0,0 +1,67 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.pattern.HighlightConverter;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HighlightConverterTest
+{
+   private static final String IHMC_STYLES = "INFO=normal, TRACE=green";
+
+   @Test
+   public void testLevelStyles()
+   {
+      HighlightConverter converter = HighlightConverter.newInstance(new DefaultConfiguration(), new String[] {"%msg", IHMC_STYLES});
+      assertEquals("\u001B[1;31mx\u001B[m", format(converter, Level.FATAL));
+      assertEquals("\u001B[1;31mx\u001B[m", format(converter, Level.ERROR));
+      assertEquals("\u001B[33mx\u001B[m", format(converter, Level.WARN));
+      assertEquals("x\u001B[m", format(converter, Level.INFO)); // INFO is never colored
+      assertEquals("\u001B[36mx\u001B[m", format(converter, Level.DEBUG));
+      assertEquals("\u001B[32mx\u001B[m", format(converter, Level.TRACE));
+
+      for (Level level : new Level[] {Level.FATAL, Level.ERROR, Level.WARN, Level.DEBUG, Level.TRACE})
+      {
+         String prefix = format(converter, level).substring(0, format(converter, level).indexOf('x'));
+         assertArrayEquals(prefix.getBytes(StandardCharsets.US_ASCII), converter.getLevelPrefixBytes(level));
+      }
+      assertNull(converter.getLevelPrefixBytes(Level.INFO));
+      assertArrayEquals("\u001B[m".getBytes(StandardCharsets.US_ASCII), converter.getSuffixBytes());
+   }
+
+   @Test
+   public void testCustomLevel()
+   {
+      Level notice = Level.forName("NOTICE", 350);
+      HighlightConverter converter = HighlightConverter.newInstance(new DefaultConfiguration(), new String[] {"%msg", "NOTICE=blue"});
+      assertEquals("\u001B[34mx\u001B[m", format(converter, notice));
+      assertArrayEquals("\u001B[34m".getBytes(StandardCharsets.US_ASCII), converter.getLevelPrefixBytes(notice));
+   }
+
+   @Test
+   public void testDisableAnsi()
+   {
+      HighlightConverter converter = HighlightConverter.newInstance(new DefaultConfiguration(), new String[] {"%msg", IHMC_STYLES + ", disableAnsi=true"});
+      for (Level level : Level.values())
+      {
+         assertEquals("x", format(converter, level));
+         assertNull(converter.getLevelPrefixBytes(level));
+      }
+      assertNull(converter.getSuffixBytes());
+   }
+
+   private static String format(HighlightConverter converter, Level level)
+   {
+      LogEvent event = Log4jLogEvent.newBuilder().setLevel(level).setMessage(new SimpleMessage("x")).build();
+      StringBuilder builder = new StringBuilder();
+      converter.format(event, builder);
+      return builder.toString();
+   }
+}
@@ -0,0 +1,147 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.AbstractConfiguration;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.yaml.YamlConfiguration;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IHMCConfigurationFactoryTest
+{
+   @TempDir
+   Path temporaryDirectory;
+
+   @Test
+   public void testDefaultIsBuiltInCode()
+   {
+      assertTrue(((LoggerContext) LogManager.getContext(false)).getConfiguration() instanceof IHMCConfiguration);
+   }
+
+   @Test
+   public void testOnlyBundledFilesAreBuiltInCode() throws IOException
+   {
+      IHMCConfigurationFactory factory = new IHMCConfigurationFactory();
+      LoggerContext loggerContext = new LoggerContext("IHMCConfigurationFactoryTest");
+      for (IHMCConfiguration.Bundled bundled : IHMCConfiguration.Bundled.values())
+         assertTrue(factory.getConfiguration(loggerContext, resource(bundled.getFileName())) instanceof IHMCConfiguration, bundled::getFileName);
+      assertNull(factory.getConfiguration(loggerContext, resource("log4j2TeeToBinaryFile.yml")));
+   }
+
+   @Test
+   public void testConsoleConfigurationsMatchTheYaml() throws IOException
+   {
+      assertMatchesYaml(IHMCConfiguration.Bundled.DEFAULT);
+      assertMatchesYaml(IHMCConfiguration.Bundled.NO_COLOR);
+   }
+
+   @Test
+   public void testTeeToFile() throws Exception
+   {
+      String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+      Process process = new ProcessBuilder(java,
+                                           "-Duser.home=" + temporaryDirectory,
+                                           "-Dlog4j2.configurationFile=log4j2TeeToFile.yml",
+                                           "-cp",
+                                           System.getProperty("java.class.path"),
+                                           IHMCConfigurationFactoryTest.class.getName()).redirectErrorStream(true).start();
+      String output;
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)))
+      {
+         output = reader.lines().collect(Collectors.joining("\n"));
+      }
+      assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+      assertTrue(output.contains("Configuration: " + IHMCConfiguration.class.getName()), output);
+
+      List<Path> files;
+      try (Stream<Path> list = Files.list(temporaryDirectory.resolve(".ihmc").resolve("logs")))
+      {
+         files = list.collect(Collectors.toList());
+      }
+      assertEquals(1, files.size(), files::toString);
+      assertTrue(files.get(0).getFileName().toString().endsWith("_LogTools.txt"));
+      String text = Files.readString(files.get(0));
+      assertTrue(text.contains("[INFO] (IHMCConfigurationFactoryTest.java:"), text);
+      assertTrue(text.contains("[ERROR] (org.example.External): External"), text);
+      assertFalse(text.contains("\u001B["), text); // no colors in the file
+   }
+
+   private static void assertMatchesYaml(IHMCConfiguration.Bundled bundled) throws IOException
+   {
+      LoggerContext loggerContext = new LoggerContext("IHMCConfigurationFactoryTest");
+      AbstractConfiguration builtInCode = new IHMCConfiguration(loggerContext, resource(bundled.getFileName()), bundled);
+      AbstractConfiguration yaml = new YamlConfiguration(loggerContext, resource(bundled.getFileName()));
+      builtInCode.initialize();
+      yaml.initialize();
+      try
+      {
+         assertEquals(describe(yaml), describe(builtInCode), bundled::getFileName);
+      }
+      finally
+      {
+         builtInCode.stop();
+         yaml.stop();
+      }
+   }
+
+   /**
+    * @return the loggers with their settings, and the appenders with what their layouts print
+    */
+   private static Map<String, String> describe(AbstractConfiguration configuration)
+   {
+      LogEvent event = Log4jLogEvent.newBuilder()
+                                    .setLoggerName("org.example.External")
+                                    .setLevel(Level.WARN)
+                                    .setMessage(new SimpleMessage("Message"))
+                                    .setTimeMillis(1700000000123L)
+                                    .build();
+      Map<String, String> description = new TreeMap<>();
+      for (LoggerConfig loggerConfig : configuration.getLoggers().values())
+      {
+         description.put("Logger " + loggerConfig.getName(),
+                         loggerConfig.getLevel() + " additive " + loggerConfig.isAdditive() + " " + new TreeMap<>(loggerConfig.getAppenders()).keySet());
+      }
+      for (Appender appender : configuration.getAppenders().values())
+      {
+         Layout<?> layout = appender.getLayout();
+         description.put("Appender " + appender.getName(), appender.getClass().getName() + " " + layout.getClass().getName() + " " + layout.toSerializable(event));
+      }
+      return description;
+   }
+
+   private static ConfigurationSource resource(String fileName) throws IOException
+   {
+      return ConfigurationSource.fromResource(fileName, IHMCConfigurationFactoryTest.class.getClassLoader());
+   }
+
+   public static void main(String[] args)
+   {
+      System.out.println("Configuration: " + ((LoggerContext) LogManager.getContext(false)).getConfiguration().getClass().getName());
+      LogTools.info("Teed");
+      LogManager.getLogger("org.example.External").error("External");
+   }
+}
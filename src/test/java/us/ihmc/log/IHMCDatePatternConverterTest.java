@@ -0,0 +1,73 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.impl.MutableLogEvent;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.core.pattern.DatePatternConverter;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+import us.ihmc.commons.allocations.AllocationProfiler;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IHMCDatePatternConverterTest
+{
+   @Test
+   public void testSameTextAsDatePatternConverter()
+   {
+      LogTools.isGranularMode(); // loads the bundled configuration, which finds the plugin
+      Configuration configuration = ((LoggerContext) LogManager.getContext(false)).getConfiguration();
+      PatternLayout log4jLayout = PatternLayout.newBuilder().withConfiguration(configuration).withPattern("%date{yyMMdd H:mm:ss:SSS} %msg").build();
+      PatternLayout ihmcLayout = PatternLayout.newBuilder().withConfiguration(configuration).withPattern("%ihmcDate{yyMMdd H:mm:ss:SSS} %msg").build();
+
+      MutableLogEvent event = new MutableLogEvent();
+      event.setLevel(Level.INFO);
+      event.setMessage(new SimpleMessage("x"));
+      Random random = new Random(1);
+      long time = System.currentTimeMillis();
+      for (int i = 0; i < 20000; i++)
+      {
+         time += random.nextInt(10) == 0 ? random.nextInt(100000000) - 50000000 : random.nextInt(3); // mostly within the same second
+         event.setTimeMillis(time);
+         assertEquals(log4jLayout.toSerializable(event), ihmcLayout.toSerializable(event), Long.toString(time));
+      }
+   }
+
+   @Test
+   public void testOtherPatternsGoToLog4j()
+   {
+      assertTrue(IHMCDatePatternConverter.newInstance(null) instanceof IHMCDatePatternConverter);
+      assertTrue(IHMCDatePatternConverter.newInstance(new String[] {IHMCDatePatternConverter.PATTERN}) instanceof IHMCDatePatternConverter);
+      assertTrue(IHMCDatePatternConverter.newInstance(new String[] {"HH:mm"}) instanceof DatePatternConverter);
+      assertTrue(IHMCDatePatternConverter.newInstance(new String[] {IHMCDatePatternConverter.PATTERN, "UTC"}) instanceof DatePatternConverter);
+   }
+
+   @Test
+   public void testFormattingDoesNotAllocate()
+   {
+      IHMCDatePatternConverter converter = (IHMCDatePatternConverter) IHMCDatePatternConverter.newInstance(null);
+      MutableLogEvent event = new MutableLogEvent();
+      StringBuilder output = new StringBuilder(64);
+      Runnable format = () ->
+      {
+         for (int i = 0; i < 3000; i++) // crosses seconds
+         {
+            event.setTimeMillis(1700000000000L + i);
+            output.setLength(0);
+            converter.format((LogEvent) event, output);
+         }
+      };
+      format.run();
+
+      List<AllocationRecord> allocations = new AllocationProfiler().recordAllocations(format);
+      assertTrue(allocations.isEmpty(), allocations::toString);
+   }
+}
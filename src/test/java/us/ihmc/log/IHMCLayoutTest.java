@@ -0,0 +1,195 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.DefaultConfiguration;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.impl.MutableLogEvent;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.core.util.datetime.FastDateFormat;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+import us.ihmc.commons.allocations.AllocationProfiler;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IHMCLayoutTest
+{
+   private static final Level NOTICE = Level.forName("NOTICE", 350);
+
+   @Test
+   public void testSameBytesAsPatternLayout()
+   {
+      for (Charset charset : new Charset[] {StandardCharsets.US_ASCII, StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16})
+      {
+         for (boolean highlight : new boolean[] {true, false})
+         {
+            String pattern = highlight ? "%highlight{" + IHMCLayout.PATTERN + "}{" + IHMCLayout.DEFAULT_STYLES + "}" : IHMCLayout.PATTERN;
+            PatternLayout patternLayout = PatternLayout.newBuilder().withCharset(charset).withPattern(pattern).build();
+            IHMCLayout ihmcLayout = IHMCLayout.newBuilder().setCharset(charset).setHighlight(highlight).build();
+
+            for (Level level : new Level[] {Level.FATAL, Level.ERROR, Level.WARN, Level.INFO, Level.DEBUG, Level.TRACE, NOTICE})
+            {
+               for (String message : new String[] {"(IHMCLayoutTest.java:42): x: 1.5", "", "caf\u00e9 \u00fcber \u2713 \ud83d\ude00 done"})
+               {
+                  for (long time : new long[] {1L, 1700000000123L, System.currentTimeMillis()})
+                  {
+                     assertSameBytes(patternLayout, ihmcLayout, event(level, message, time, null));
+                  }
+               }
+            }
+            assertSameBytes(patternLayout, ihmcLayout, event(Level.ERROR, "Failed", 1700000000123L, new Exception("Expected")));
+            assertSameBytes(patternLayout, ihmcLayout, reusableEvent(Level.WARN, "Reusable {}", 1700000000123L));
+            LogEvent event = event(Level.WARN, "x", 1700000000123L, null);
+            assertEquals(patternLayout.toSerializable(event), ihmcLayout.toSerializable(event));
+         }
+      }
+   }
+
+   @Test
+   public void testTimestampsMatchLog4j()
+   {
+      Random random = new Random(1);
+      for (String zoneName : new String[] {"UTC", "America/Chicago", "Europe/London", "Australia/Lord_Howe", "Asia/Kolkata"})
+      {
+         TimeZone timeZone = TimeZone.getTimeZone(zoneName);
+         FastDateFormat log4jFormat = FastDateFormat.getInstance("yyMMdd H:mm:ss:SSS", timeZone);
+         TimestampFormatter formatter = new TimestampFormatter(ZoneId.of(zoneName));
+         byte[] buffer = new byte[TimestampFormatter.MAX_LENGTH];
+
+         long time = 1699999999000L;
+         for (int i = 0; i < 20000; i++)
+         {
+            time += random.nextInt(4) == 0 ? random.nextInt(86400000) : random.nextInt(2000); // mostly close together, sometimes a day apart
+            if (random.nextInt(100) == 0)
+               time -= random.nextInt(100000000); // sometimes back in time
+            int length = formatter.format(time, buffer);
+            assertEquals(log4jFormat.format(time), new String(buffer, 0, length, StandardCharsets.US_ASCII), zoneName + " " + time);
+         }
+
+         // both sides of the daylight saving time transitions of a year
+         for (long hour = 1672531200000L; hour < 1704067200000L; hour += 3600000L)
+         {
+            for (long offset : new long[] {-1, 0, 1})
+            {
+               int length = formatter.format(hour + offset, buffer);
+               assertEquals(log4jFormat.format(hour + offset), new String(buffer, 0, length, StandardCharsets.US_ASCII), zoneName + " " + (hour + offset));
+            }
+         }
+      }
+   }
+
+   @Test
+   public void testEncodingDoesNotAllocate()
+   {
+      IHMCLayout layout = IHMCLayout.newBuilder().setCharset(StandardCharsets.UTF_8).build();
+      CollectingDestination destination = new CollectingDestination(64);
+      LogEvent[] events = {reusableEvent(Level.WARN, "Reusable {}", System.currentTimeMillis()), reusableEvent(Level.INFO, "Reusable {}", System.currentTimeMillis())};
+      Runnable encode = () ->
+      {
+         for (LogEvent event : events)
+         {
+            layout.encode(event, destination);
+         }
+         destination.reset();
+      };
+      encode.run();
+
+      List<AllocationRecord> allocations = new AllocationProfiler().recordAllocations(encode);
+      assertTrue(allocations.isEmpty(), allocations::toString);
+   }
+
+   private static void assertSameBytes(PatternLayout patternLayout, IHMCLayout ihmcLayout, LogEvent event)
+   {
+      CollectingDestination expected = new CollectingDestination(16); // small, so writes wrap around
+      patternLayout.encode(event, expected);
+      CollectingDestination actual = new CollectingDestination(16);
+      ihmcLayout.encode(event, actual);
+      assertArrayEquals(expected.toByteArray(), actual.toByteArray(), () -> new String(expected.toByteArray(), StandardCharsets.ISO_8859_1) + " != "
+                                                                           + new String(actual.toByteArray(), StandardCharsets.ISO_8859_1));
+   }
+
+   private static LogEvent event(Level level, String message, long time, Throwable thrown)
+   {
+      return Log4jLogEvent.newBuilder().setLevel(level).setMessage(new SimpleMessage(message)).setTimeMillis(time).setThrown(thrown).build();
+   }
+
+   /**
+    * The kind of event log4j hands appenders, with the message already formatted into it.
+    */
+   private static LogEvent reusableEvent(Level level, String template, long time)
+   {
+      MutableLogEvent event = new MutableLogEvent();
+      event.setLevel(level);
+      Message message = LogToolsMessage.of(new CallSite("us.ihmc.log.IHMCLayoutTest", 42), template, 1, 1.5, null, null);
+      event.setMessage(message);
+      ((LogToolsMessage) message).release();
+      event.setTimeMillis(time);
+      return event;
+   }
+
+   private static class CollectingDestination implements ByteBufferDestination
+   {
+      private final ByteBuffer buffer;
+      private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+      CollectingDestination(int capacity)
+      {
+         buffer = ByteBuffer.allocate(capacity);
+      }
+
+      @Override
+      public ByteBuffer getByteBuffer()
+      {
+         return buffer;
+      }
+
+      @Override
+      public ByteBuffer drain(ByteBuffer buf)
+      {
+         buf.flip();
+         bytes.write(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+         buf.clear();
+         return buf;
+      }
+
+      @Override
+      public void writeBytes(ByteBuffer data)
+      {
+         while (data.hasRemaining())
+         {
+            bytes.write(data.get());
+         }
+      }
+
+      @Override
+      public void writeBytes(byte[] data, int offset, int length)
+      {
+         bytes.write(data, offset, length);
+      }
+
+      byte[] toByteArray()
+      {
+         drain(buffer);
+         return bytes.toByteArray();
+      }
+
+      void reset()
+      {
+         buffer.clear();
+         bytes.reset();
+      }
+   }
+}
@@ -0,0 +1,231 @@
+package us.ihmc.log;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.WriterAppender;
+import org.apache.logging.log4j.core.config.AbstractConfiguration;
+import org.apache.logging.log4j.core.config.Configuration;
+import org.apache.logging.log4j.core.config.ConfigurationSource;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static us.ihmc.log.PrimitiveParameters.*;
+
+public class JsonLinesLayoutTest
+{
+   private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+   @Test
+   public void testLinesHaveCallSitesAndFields() throws IOException
+   {
+      List<JsonNode> lines = logToJson(() ->
+      {
+         LogTools.warn().kv("joint", 3).kv("torque", 3.2).kv("saturated", true).kv("mode", "position").kv("gain", Double.NaN).kv("axis", 'z').log("Limit");
+         LogTools.info("x: {} y: {}", 1.5, 7);
+      });
+      assertEquals(2, lines.size(), lines::toString);
+
+      JsonNode structured = lines.get(0);
+      assertEquals("WARN", structured.get("level").asText());
+      assertEquals(Thread.currentThread().getName(), structured.get("thread").asText());
+      assertEquals("us.ihmc", structured.get("logger").asText());
+      assertEquals(JsonLinesLayoutTest.class.getName(), structured.get("class").asText());
+      assertTrue(structured.get("line").asInt() > 0);
+      assertTrue(Math.abs(System.currentTimeMillis() - structured.get("timeMillis").asLong()) < 60000);
+      assertEquals("Limit", structured.get("message").asText());
+      JsonNode fields = structured.get("fields");
+      assertEquals(3, fields.get("joint").intValue());
+      assertEquals(3.2, fields.get("torque").doubleValue());
+      assertTrue(fields.get("saturated").booleanValue());
+      assertEquals("position", fields.get("mode").textValue());
+      assertEquals("NaN", fields.get("gain").textValue());
+      assertEquals("z", fields.get("axis").textValue());
+
+      JsonNode parameterized = lines.get(1);
+      assertEquals("x: 1.5 y: 7", parameterized.get("message").asText()); // without the caller prefix
+      assertFalse(parameterized.has("fields"));
+   }
+
+   @Test
+   public void testStringsAreEscaped() throws IOException
+   {
+      String text = "Quote \" backslash \\ newline \n tab \t bell \u0007 unicode \u00E9";
+      List<JsonNode> lines = logToJson(() -> LogTools.info().kv("key \"quoted\"", text).log(text));
+      assertEquals(text, lines.get(0).get("message").asText());
+      assertEquals(text, lines.get(0).get("fields").get("key \"quoted\"").asText());
+   }
+
+   @Test
+   public void testOtherEventsAndThrowables() throws IOException
+   {
+      List<JsonNode> lines = logToJson(() ->
+      {
+         LogManager.getLogger("org.example.External").error("External {}", 42);
+         LogTools.error("Failed", new IllegalStateException("Oops"));
+      });
+      assertEquals(2, lines.size(), lines::toString);
+
+      JsonNode external = lines.get(0);
+      assertEquals("org.example.External", external.get("logger").asText());
+      assertEquals("External 42", external.get("message").asText());
+      assertFalse(external.has("class"));
+
+      JsonNode failure = lines.get(1);
+      assertEquals("Failed", failure.get("message").asText());
+      assertTrue(failure.get("thrown").asText().startsWith(IllegalStateException.class.getName() + ": Oops"), failure::toString);
+   }
+
+   @Test
+   public void testAsynchronousLinesHaveTheCallersThread() throws IOException
+   {
+      AsyncLogWriter writer = new AsyncLogWriter(16, AsyncLogWriter.OverflowPolicy.BLOCK);
+      List<JsonNode> lines = logToJson(() ->
+      {
+         writer.start();
+         Thread controller = new Thread(() ->
+         {
+            LogToolsMessage message = LogToolsMessage.of(new CallSite("us.ihmc.Robot", 42), "Joint {}", types(INT), bits(3), 0L, 0L);
+            try
+            {
+               assertTrue(writer.offer(LogManager.getLogger("us.ihmc"), Level.INFO, message));
+            }
+            finally
+            {
+               message.release();
+            }
+         }, "Controller");
+         controller.start();
+         try
+         {
+            controller.join();
+         }
+         catch (InterruptedException e)
+         {
+            throw new RuntimeException(e);
+         }
+         writer.flush();
+         writer.stop();
+      });
+      assertEquals(1, lines.size(), lines::toString);
+      assertEquals("Controller", lines.get(0).get("thread").asText());
+      assertEquals("us.ihmc.Robot", lines.get(0).get("class").asText());
+      assertEquals("Joint 3", lines.get(0).get("message").asText());
+   }
+
+   @Test
+   public void testLayoutsStopWithTheirConfiguration()
+   {
+      int readerCount = MessageInFlight.getReaderCount();
+      LoggerContext context = new LoggerContext("JsonLinesLayoutTest");
+      Configuration first = new AbstractConfiguration(context, ConfigurationSource.NULL_SOURCE) {};
+      context.start(first);
+      try
+      {
+         JsonLinesLayout layout = JsonLinesLayout.newBuilder().setConfiguration(first).build();
+         assertTrue(layout.isStarted());
+         assertEquals(readerCount + 1, MessageInFlight.getReaderCount());
+
+         context.setConfiguration(new AbstractConfiguration(context, ConfigurationSource.NULL_SOURCE) {}); // i.e. the file was reloaded
+         assertFalse(layout.isStarted());
+         assertEquals(readerCount, MessageInFlight.getReaderCount());
+
+         JsonLinesLayout reloaded = JsonLinesLayout.newBuilder().setConfiguration(context.getConfiguration()).build();
+         assertEquals(readerCount + 1, MessageInFlight.getReaderCount());
+         context.stop();
+         assertFalse(reloaded.isStarted());
+         layout.stop();
+         assertEquals(readerCount, MessageInFlight.getReaderCount());
+      }
+      finally
+      {
+         context.stop();
+      }
+   }
+
+   @Test
+   public void testWritingDoesNotAllocate()
+   {
+      JsonLinesLayout layout = JsonLinesLayout.newBuilder().build();
+      KeyValues keyValues = new KeyValues();
+      keyValues.add("joint", INT, bits(3), null);
+      keyValues.add("torque", DOUBLE, bits(3.2), null);
+      keyValues.add("mode", KeyValues.OBJECT, 0L, "position");
+      keyValues.add("force", FLOAT, bits(3.2f), null);
+      keyValues.add("scale", KeyValues.OBJECT, 0L, 0.1f);
+      LogToolsMessage message = LogToolsMessage.of(new CallSite("us.ihmc.Robot", 42), "x: {} y: {}", types(FLOAT, INT), bits(1.5f), bits(7), 0L)
+                                               .withKeyValues(keyValues);
+      LogEvent event = Log4jLogEvent.newBuilder()
+                                    .setLoggerName("us.ihmc")
+                                    .setLevel(Level.INFO)
+                                    .setMessage(new SimpleMessage("unused"))
+                                    .setThreadName("main")
+                                    .setTimeMillis(1234L)
+                                    .build();
+      StringBuilder json = new StringBuilder(1024);
+      Runnable write = () ->
+      {
+         json.setLength(0);
+         layout.toJson(event, message, json);
+      };
+      List<AllocationRecord> allocations;
+      try
+      {
+         write.run();
+         allocations = LogToolsGarbageFreeTest.createProfiler().recordAllocations(write);
+      }
+      finally
+      {
+         message.release(); // the thread's message, for the next test
+         layout.stop();
+      }
+      assertTrue(allocations.isEmpty(), allocations::toString);
+      assertEquals("{\"timeMillis\":1234,\"level\":\"INFO\",\"thread\":\"main\",\"logger\":\"us.ihmc\",\"class\":\"us.ihmc.Robot\",\"line\":42,"
+                   + "\"message\":\"x: 1.5 y: 7\",\"fields\":{\"joint\":3,\"torque\":3.2,\"mode\":\"position\",\"force\":3.2,\"scale\":0.1}}" + System.lineSeparator(), json.toString());
+   }
+
+   /**
+    * Logs to a JSON Lines writer from the IHMC and root loggers while running the log calls.
+    */
+   private static List<JsonNode> logToJson(Runnable logCalls) throws IOException
+   {
+      StringWriter writer = new StringWriter();
+      JsonLinesLayout layout = JsonLinesLayout.newBuilder().build();
+      Appender appender = WriterAppender.newBuilder().setName("Json").setTarget(writer).setLayout(layout).build();
+      appender.start();
+      LoggerContext context = (LoggerContext) LogManager.getContext(false);
+      LoggerConfig ihmcConfig = context.getConfiguration().getLoggerConfig("us.ihmc");
+      LoggerConfig rootConfig = context.getConfiguration().getRootLogger();
+      ihmcConfig.addAppender(appender, null, null);
+      rootConfig.addAppender(appender, null, null);
+      try
+      {
+         logCalls.run();
+      }
+      finally
+      {
+         ihmcConfig.removeAppender(appender.getName());
+         rootConfig.removeAppender(appender.getName());
+         appender.stop();
+         layout.stop();
+      }
+
+      List<JsonNode> lines = new ArrayList<>();
+      for (String line : writer.toString().split(System.lineSeparator()))
+         lines.add(OBJECT_MAPPER.readTree(line));
+      return lines;
+   }
+}
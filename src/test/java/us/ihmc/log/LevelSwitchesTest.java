@@ -0,0 +1,82 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevelSwitchesTest
+{
+   @Test
+   public void testSetLevelAtRuntime()
+   {
+      assertEquals(Level.INFO, LogTools.getLevel("us.ihmc"));
+      assertFalse(LogTools.isTraceEnabled());
+      try
+      {
+         List<String> messages = RecordingAppender.record(() ->
+         {
+            LogTools.trace("Before");
+            LogTools.setLevel("us.ihmc", Level.TRACE);
+            LogTools.trace("After");
+         }).getMessages();
+
+         assertTrue(LogTools.isTraceEnabled());
+         assertEquals(Level.TRACE, LogTools.getLevel("us.ihmc"));
+         assertEquals(1, messages.size(), messages::toString);
+         assertTrue(messages.get(0).endsWith("After"), messages.get(0));
+      }
+      finally
+      {
+         LogTools.setLevel("us.ihmc", Level.INFO);
+      }
+      assertFalse(LogTools.isTraceEnabled());
+   }
+
+   @Test
+   public void testSwitchesFollowConfigurator()
+   {
+      try
+      {
+         Configurator.setLevel("us.ihmc", Level.WARN);
+         assertFalse(LevelSwitches.isEnabled(Level.INFO));
+         assertTrue(LevelSwitches.isEnabled(Level.WARN));
+      }
+      finally
+      {
+         Configurator.setLevel("us.ihmc", Level.INFO);
+      }
+      for (Level level : Arrays.asList(Level.FATAL, Level.ERROR, Level.WARN, Level.INFO, Level.DEBUG, Level.TRACE, Level.OFF, Level.ALL))
+      {
+         assertEquals(level.isMoreSpecificThan(Level.INFO), LevelSwitches.isEnabled(level), level::toString);
+      }
+   }
+
+   @Test
+   public void testMXBean() throws Exception
+   {
+      LogTools.info("Loads LogTools, which registers the bean");
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(LogToolsMXBeanImpl.OBJECT_NAME);
+      assertTrue(server.isRegistered(name));
+      assertEquals("INFO", server.getAttribute(name, "Level"));
+      try
+      {
+         server.invoke(name, "setLoggerLevel", new Object[] {"us.ihmc", "debug"}, new String[] {String.class.getName(), String.class.getName()});
+         assertTrue(LogTools.isDebugEnabled());
+         assertEquals("DEBUG", server.invoke(name, "getLoggerLevel", new Object[] {"us.ihmc"}, new String[] {String.class.getName()}));
+      }
+      finally
+      {
+         LogTools.setLevel("us.ihmc", Level.INFO);
+      }
+      assertFalse(LogTools.isDebugEnabled());
+   }
+}
@@ -0,0 +1,116 @@
+package us.ihmc.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogRingBufferTest
+{
+   private static class Slot
+   {
+      int producer;
+      int value;
+   }
+
+   @Test
+   public void testCapacityRoundsUpToPowerOfTwo()
+   {
+      assertEquals(1, new LogRingBuffer<>(1, Slot::new).getCapacity());
+      assertEquals(8, new LogRingBuffer<>(5, Slot::new).getCapacity());
+      assertEquals(8, new LogRingBuffer<>(8, Slot::new).getCapacity());
+      assertThrows(IllegalArgumentException.class, () -> new LogRingBuffer<>(0, Slot::new));
+   }
+
+   @Test
+   public void testFullAndWrapAround()
+   {
+      LogRingBuffer<Slot> ringBuffer = new LogRingBuffer<>(4, Slot::new);
+      for (int lap = 0; lap < 3; lap++)
+      {
+         assertNull(ringBuffer.peek());
+         for (int i = 0; i < 4; i++)
+         {
+            long position = ringBuffer.claim();
+            assertEquals(lap * 4 + i, position);
+            ringBuffer.get(position).value = i;
+            ringBuffer.publish(position);
+         }
+         assertEquals(-1, ringBuffer.claim());
+
+         for (int i = 0; i < 4; i++)
+         {
+            assertEquals(i, ringBuffer.peek().value);
+            ringBuffer.release();
+         }
+      }
+   }
+
+   @Test
+   public void testUnpublishedSlotBlocksConsumer()
+   {
+      LogRingBuffer<Slot> ringBuffer = new LogRingBuffer<>(4, Slot::new);
+      long first = ringBuffer.claim();
+      long second = ringBuffer.claim();
+      ringBuffer.publish(second);
+      assertNull(ringBuffer.peek()); // messages are consumed in claim order
+      ringBuffer.publish(first);
+      assertNotNull(ringBuffer.peek());
+   }
+
+   @Test
+   public void testManyProducersOneConsumer() throws InterruptedException
+   {
+      int numberOfProducers = 8;
+      int valuesPerProducer = 100000;
+      LogRingBuffer<Slot> ringBuffer = new LogRingBuffer<>(64, Slot::new);
+
+      CountDownLatch start = new CountDownLatch(1);
+      Thread[] producers = new Thread[numberOfProducers];
+      for (int i = 0; i < numberOfProducers; i++)
+      {
+         int producer = i;
+         producers[i] = new Thread(() ->
+         {
+            try
+            {
+               start.await();
+            }
+            catch (InterruptedException e)
+            {
+               return;
+            }
+            for (int value = 0; value < valuesPerProducer; value++)
+            {
+               long position;
+               while ((position = ringBuffer.claim()) < 0)
+                  Thread.yield();
+               Slot slot = ringBuffer.get(position);
+               slot.producer = producer;
+               slot.value = value;
+               ringBuffer.publish(position);
+            }
+         });
+         producers[i].start();
+      }
+      start.countDown();
+
+      int[] nextValue = new int[numberOfProducers];
+      for (int i = 0; i < numberOfProducers * valuesPerProducer; i++)
+      {
+         Slot slot;
+         while ((slot = ringBuffer.peek()) == null)
+            Thread.yield();
+         assertEquals(nextValue[slot.producer], slot.value); // each producer's values arrive once, in order
+         nextValue[slot.producer]++;
+         ringBuffer.release();
+      }
+
+      for (Thread producer : producers)
+         producer.join();
+      assertNull(ringBuffer.peek());
+      for (int i = 0; i < numberOfProducers; i++)
+         assertEquals(valuesPerProducer, nextValue[i]);
+   }
+}
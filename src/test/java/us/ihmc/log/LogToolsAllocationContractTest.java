@@ -0,0 +1,289 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.layout.ByteBufferDestination;
+import org.junit.jupiter.api.Test;
+import us.ihmc.commons.allocations.AllocationProfiler;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the realtime safe contract in the README on every public logging method of LogTools
+ * and LogToolsWriteOnly, found by reflection, so new overloads are covered without listing them.
+ *
+ * Each method is called with parameters created up front, like realtime code would: strings,
+ * boxed primitives and a Supplier held in a field. Disabled calls must not allocate at all.
+ * Enabled calls must not allocate outside the parts {@link LogToolsGarbageFreeTest#createProfiler()}
+ * excludes, which will shrink as those parts become garbage free.
+ */
+public class LogToolsAllocationContractTest
+{
+   /** Set up calls, which aren't meant for realtime code. */
+   private static final Set<String> CONFIGURATION_METHOD_NAMES = Set.of("forClass", "forName", "setLevel", "isGranularMode", "metricsSnapshot",
+                                                                     "dumpFlightRecorder");
+   private static final Set<String> QUERY_METHOD_NAMES = Set.of("getLevel", "isEnabled", "isFatalEnabled", "isErrorEnabled", "isWarnEnabled",
+                                                                "isInfoEnabled", "isDebugEnabled", "isTraceEnabled");
+   private static final Set<String> DISABLED_METHOD_NAMES = Set.of("debug", "trace", "debugLimited", "traceLimited");
+   private static final Set<String> ENABLED_METHOD_NAMES = Set.of("fatal", "error", "warn", "info", "fatalLimited", "errorLimited", "warnLimited",
+                                                                  "infoLimited");
+   private static final Set<String> LEVEL_PARAMETER_METHOD_NAMES = Set.of("log", "logLimited");
+
+   private static final Map<Class<?>, Object> PARAMETERS = Map.of(Object.class, "object",
+                                                                  String.class, "string",
+                                                                  Supplier.class, (Supplier<String>) () -> "supplied",
+                                                                  boolean.class, true,
+                                                                  int.class, 42, // boxed once, here
+                                                                  long.class, 42L,
+                                                                  float.class, 1.5f,
+                                                                  double.class, 1.5,
+                                                                  char.class, 'x');
+   private static final String TEMPLATE = "Values {} {} {}";
+   private static final MethodHandle FINISH_EVENT;
+   static
+   {
+      try
+      {
+         FINISH_EVENT = MethodHandles.lookup().findStatic(LogToolsAllocationContractTest.class,
+                                                          "finishEvent",
+                                                          MethodType.methodType(void.class, LogToolsEvent.class));
+      }
+      catch (ReflectiveOperationException e)
+      {
+         throw new ExceptionInInitializerError(e);
+      }
+   }
+
+   @Test
+   public void testDisabledCallsDoNotAllocate() throws IllegalAccessException
+   {
+      List<String> failures = new ArrayList<>();
+      int checkedMethods = 0;
+      for (Invocation invocation : invocations(false))
+      {
+         checkedMethods++;
+         List<AllocationRecord> allocations = invocation.recordAllocations(new AllocationProfiler());
+         if (!allocations.isEmpty())
+            failures.add(invocation + ": " + allocations.get(0));
+      }
+      assertTrue(checkedMethods > 100, "Only found " + checkedMethods + " methods");
+      assertTrue(failures.isEmpty(), () -> failures.size() + " disabled calls allocate:\n" + String.join("\n", failures));
+   }
+
+   @Test
+   public void testEnabledCallsDoNotAllocate() throws IllegalAccessException
+   {
+      List<Invocation> invocations = invocations(true);
+      List<String> failures = new ArrayList<>();
+      withDiscardingAppender(() ->
+      {
+         for (Invocation invocation : invocations)
+         {
+            List<AllocationRecord> allocations = invocation.recordAllocations(LogToolsGarbageFreeTest.createProfiler());
+            if (!allocations.isEmpty())
+               failures.add(invocation + ": " + allocations.get(0));
+         }
+      });
+      assertTrue(invocations.size() > 100, "Only found " + invocations.size() + " methods");
+      assertTrue(failures.isEmpty(), () -> failures.size() + " enabled calls allocate:\n" + String.join("\n", failures));
+   }
+
+   /**
+    * @param enabled to get the calls at enabled levels, otherwise the calls at disabled levels and the level queries
+    */
+   private static List<Invocation> invocations(boolean enabled) throws IllegalAccessException
+   {
+      List<Invocation> invocations = new ArrayList<>();
+      for (Method method : LogTools.class.getMethods())
+      {
+         if (Modifier.isStatic(method.getModifiers()) && method.getDeclaringClass() == LogTools.class)
+            addInvocation(invocations, method, MethodHandles.publicLookup().unreflect(method), enabled);
+      }
+      LogToolsWriteOnly logger = LogTools.forClass(LogToolsAllocationContractTest.class);
+      for (Method method : LogToolsWriteOnly.class.getMethods())
+      {
+         addInvocation(invocations, method, MethodHandles.publicLookup().unreflect(method).bindTo(logger), enabled);
+      }
+      return invocations;
+   }
+
+   private static void addInvocation(List<Invocation> invocations, Method method, MethodHandle methodHandle, boolean enabled)
+   {
+      String name = method.getName();
+      Class<?>[] parameterTypes = method.getParameterTypes();
+      if (CONFIGURATION_METHOD_NAMES.contains(name) || name.equals("getLevel") && parameterTypes.length > 0)
+         return;
+
+      boolean included;
+      if (QUERY_METHOD_NAMES.contains(name) || DISABLED_METHOD_NAMES.contains(name))
+         included = !enabled;
+      else if (ENABLED_METHOD_NAMES.contains(name))
+         included = enabled;
+      else if (LEVEL_PARAMETER_METHOD_NAMES.contains(name))
+         included = true; // with a level to match
+      else
+         throw new AssertionError("Unknown kind of method, add it to one of the lists: " + method);
+      if (!included)
+         return;
+
+      Object[] arguments = new Object[parameterTypes.length];
+      boolean templateSet = false;
+      for (int i = 0; i < parameterTypes.length; i++)
+      {
+         Class<?> type = parameterTypes[i];
+         if (type == Level.class)
+            arguments[i] = enabled ? Level.INFO : Level.TRACE;
+         else if (type == int.class && (i == 0 || i == 1 && parameterTypes[0] == Level.class)) // additionalStackTraceHeight
+            arguments[i] = 0;
+         else if (type == String.class && !templateSet)
+            arguments[i] = TEMPLATE;
+         else
+            arguments[i] = PARAMETERS.get(type);
+         templateSet |= type == String.class;
+         assertNotNull(arguments[i], () -> "No parameter for " + type + " in " + method);
+      }
+
+      if (method.getReturnType() == LogToolsEvent.class) // finish the structured message, so the thread's builder is reused
+         methodHandle = MethodHandles.filterReturnValue(methodHandle, FINISH_EVENT);
+      MethodHandle spreader = methodHandle.asSpreader(Object[].class, arguments.length)
+                                          .asType(MethodType.methodType(void.class, Object[].class));
+      invocations.add(new Invocation(method.toGenericString(), spreader, arguments));
+   }
+
+   private static void finishEvent(LogToolsEvent event)
+   {
+      event.kv("key", 42).kv("value", 1.5).kv("object", "object").log(TEMPLATE);
+   }
+
+   /**
+    * Sends everything logged to the IHMC loggers through the console layout into a buffer
+    * that is thrown away, so thousands of calls don't end up on the console.
+    */
+   private static void withDiscardingAppender(Runnable runnable)
+   {
+      LoggerConfig loggerConfig = ((LoggerContext) LogManager.getContext(false)).getConfiguration().getLoggerConfig("us.ihmc");
+      Map<String, Appender> appenders = loggerConfig.getAppenders();
+      Appender consoleAppender = appenders.get("IHMCAppender");
+      assertNotNull(consoleAppender, appenders::toString);
+
+      DiscardingAppender discardingAppender = new DiscardingAppender(consoleAppender.getLayout());
+      discardingAppender.start();
+      loggerConfig.removeAppender(consoleAppender.getName());
+      loggerConfig.addAppender(discardingAppender, null, null);
+      try
+      {
+         runnable.run();
+         SuppressedCountReporter.report(System.nanoTime(), true); // the rate limited calls' counts, not into a later test
+      }
+      finally
+      {
+         loggerConfig.removeAppender(discardingAppender.getName());
+         loggerConfig.addAppender(consoleAppender, null, null);
+         discardingAppender.stop();
+      }
+   }
+
+   private static class Invocation
+   {
+      private final String description;
+      private final MethodHandle methodHandle;
+      private final Object[] arguments;
+
+      Invocation(String description, MethodHandle methodHandle, Object[] arguments)
+      {
+         this.description = description;
+         this.methodHandle = methodHandle;
+         this.arguments = arguments;
+      }
+
+      List<AllocationRecord> recordAllocations(AllocationProfiler profiler)
+      {
+         Runnable call = this::invoke;
+         call.run(); // warm up class loading, thread locals and the method handle
+         call.run();
+         List<AllocationRecord> allocations = profiler.recordAllocations(call);
+         if (!allocations.isEmpty()) // the JDK sometimes spins method handle classes late, and only once
+            allocations = profiler.recordAllocations(call);
+         return allocations;
+      }
+
+      private void invoke()
+      {
+         try
+         {
+            methodHandle.invokeExact(arguments);
+         }
+         catch (Throwable e)
+         {
+            throw new AssertionError(description, e);
+         }
+      }
+
+      @Override
+      public String toString()
+      {
+         return description;
+      }
+   }
+
+   private static class DiscardingAppender extends AbstractAppender implements ByteBufferDestination
+   {
+      private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+      DiscardingAppender(Layout<?> layout)
+      {
+         super("DiscardingAppender", null, layout, true, Property.EMPTY_ARRAY);
+      }
+
+      @Override
+      public void append(LogEvent event)
+      {
+         getLayout().encode(event, this);
+         buffer.clear();
+      }
+
+      @Override
+      public ByteBuffer getByteBuffer()
+      {
+         return buffer;
+      }
+
+      @Override
+      public ByteBuffer drain(ByteBuffer buf)
+      {
+         buf.clear();
+         return buf;
+      }
+
+      @Override
+      public void writeBytes(ByteBuffer data)
+      {
+         data.position(data.limit());
+      }
+
+      @Override
+      public void writeBytes(byte[] data, int offset, int length)
+      {
+      }
+   }
+}
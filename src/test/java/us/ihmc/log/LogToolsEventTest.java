@@ -0,0 +1,117 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.junit.jupiter.api.Test;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogToolsEventTest
+{
+   @Test
+   public void testFieldsArePrintedAfterTheMessage()
+   {
+      RecordingAppender appender = RecordingAppender.record(() ->
+      {
+         LogTools.info().kv("joint", 3).kv("torque", 3.2).kv("saturated", true).kv("mode", "position").kv("axis", 'z').log("Limit");
+         LogTools.warn().log("No fields");
+      });
+      List<String> messages = appender.getMessages();
+      assertEquals(2, messages.size(), messages::toString);
+      assertTrue(messages.get(0).matches("\\(LogToolsEventTest\\.java:\\d+\\): Limit joint=3 torque=3\\.2 saturated=true mode=position axis=z"), messages::toString);
+      assertTrue(messages.get(1).matches("\\(LogToolsEventTest\\.java:\\d+\\): No fields"), messages::toString);
+   }
+
+   @Test
+   public void testDisabledLevelsIgnoreFields()
+   {
+      Level level = LogTools.getLevel("us.ihmc");
+      LogTools.setLevel(Level.INFO);
+      RecordingAppender appender;
+      try
+      {
+         assertSame(LogToolsEvent.DISABLED, LogTools.debug());
+         assertSame(LogToolsEvent.DISABLED, LogTools.log(Level.TRACE));
+         appender = RecordingAppender.record(() -> LogTools.debug().kv("joint", 3).log("Hidden"));
+      }
+      finally
+      {
+         LogTools.setLevel(level);
+      }
+      assertEquals(List.of(), appender.getMessages());
+   }
+
+   @Test
+   public void testValuesMayLogStructuredMessages()
+   {
+      Object value = new Object()
+      {
+         @Override
+         public String toString()
+         {
+            LogTools.info().kv("inner", 1).log("Inner");
+            return "outer value";
+         }
+      };
+      RecordingAppender appender = RecordingAppender.record(() -> LogTools.info().kv("value", value).kv("after", 2).log("Outer"));
+      List<String> messages = appender.getMessages();
+      assertEquals(2, messages.size(), messages::toString);
+      assertTrue(messages.get(0).endsWith("Inner inner=1"), messages::toString);
+      assertTrue(messages.get(1).endsWith("Outer value=outer value after=2"), messages::toString);
+   }
+
+   @Test
+   public void testBuildersAreReused()
+   {
+      LogToolsEvent first = LogTools.info();
+      first.log("First");
+      LogToolsEvent second = LogTools.info();
+      second.log("Second");
+      assertSame(first, second);
+   }
+
+   @Test
+   public void testUnloggedBuildersAreReplaced()
+   {
+      LogToolsEvent unlogged = LogTools.info().kv("joint", 3); // never logged
+      RecordingAppender appender = RecordingAppender.record(() -> LogTools.info().kv("torque", 3.2).log("Next"));
+      List<String> messages = appender.getMessages();
+      assertEquals(1, messages.size(), messages::toString);
+      assertTrue(messages.get(0).endsWith("Next torque=3.2"), messages::toString);
+
+      LogToolsEvent first = LogTools.info();
+      first.log("First");
+      LogToolsEvent second = LogTools.info();
+      second.log("Second");
+      assertSame(first, second); // the replacement is reused
+      assertNotSame(unlogged, first);
+   }
+
+   @Test
+   public void testStructuredMessagesDoNotAllocate()
+   {
+      int joint = 3;
+      double torque = 3.2;
+      Object mode = "position";
+      Runnable logCalls = () ->
+      {
+         LogTools.info().kv("joint", joint).kv("torque", torque).kv("mode", mode).log("Limit");
+         LogTools.debug().kv("joint", joint).kv("torque", torque).log("Disabled");
+         LogTools.warn().kv("a", 1).kv("b", 2L).kv("c", 3.0f).kv("d", 4.0).kv("e", false).kv("f", 6).kv("g", 7).kv("h", 8).kv("i", 9).log("Many");
+      };
+      Level level = LogTools.getLevel("us.ihmc");
+      LogTools.setLevel(Level.INFO);
+      try
+      {
+         logCalls.run(); // grows the builder's arrays
+         List<AllocationRecord> allocations = LogToolsGarbageFreeTest.createProfiler().recordAllocations(logCalls);
+         assertTrue(allocations.isEmpty(), allocations::toString);
+      }
+      finally
+      {
+         LogTools.setLevel(level);
+      }
+   }
+}
@@ -0,0 +1,139 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.junit.jupiter.api.Test;
+import us.ihmc.commons.allocations.AllocationProfiler;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogToolsGarbageFreeTest
+{
+   private static final CallSite CALL_SITE = new CallSite("us.ihmc.log.LogToolsGarbageFreeTest", 7);
+
+   @Test
+   public void testEnabledCallsDoNotAllocate()
+   {
+      String string = "a string";
+      Integer cachedInteger = 42;
+      Supplier<String> supplier = () -> "supplied";
+      Object object = Level.INFO; // toString() returns a field
+
+      Runnable logCalls = () ->
+      {
+         LogTools.info("A plain message");
+         LogTools.info((Object) "An object message");
+         LogTools.info(object);
+         LogTools.info(supplier);
+         LogTools.info("With a supplier: {}", supplier);
+         LogTools.warn("One {}", string);
+         LogTools.warn("One {} two {}", string, cachedInteger);
+         LogTools.error("One {} two {} three {}", string, cachedInteger, object);
+         LogTools.log(Level.ERROR, "At a level {}", string);
+      };
+      for (int i = 0; i < 10; i++) // warm up class loading and thread locals
+         logCalls.run();
+
+      List<AllocationRecord> allocations = createProfiler().recordAllocations(logCalls);
+      assertTrue(allocations.isEmpty(), allocations::toString);
+   }
+
+   /**
+    * Profiles everything on the enabled path except the parts that
+    * can't be garbage free yet.
+    */
+   static AllocationProfiler createProfiler()
+   {
+      AllocationProfiler profiler = new AllocationProfiler();
+      // StackWalker always allocates to find the caller
+      profiler.excludeAllocationsInsideClass(CallerResolver.class.getName());
+      profiler.excludeAllocationsInsideClass("java.lang.StackFrameInfo");
+      return profiler;
+   }
+
+   @Test
+   public void testFormattingMatchesParameterizedMessage()
+   {
+      Object[][] parameterSets = {{"a"},
+                                  {null},
+                                  {1, 2.5, 'c'},
+                                  {new int[] {1, 2}, Arrays.asList("x", "y"), new Object[] {null, "z"}},
+                                  {"too", "many", "parameters"}};
+      String[] templates = {"{}", "{} {} {}", "\\{} {}", "none", "", null};
+      for (String template : templates)
+      {
+         for (Object[] parameters : parameterSets)
+         {
+            String prefix = CALL_SITE.getClickableCoordinatePrefix();
+            String expected = new ParameterizedMessage(prefix + template, parameters).getFormattedMessage();
+            Object p0 = parameters[0];
+            Object p1 = parameters.length > 1 ? parameters[1] : null;
+            Object p2 = parameters.length > 2 ? parameters[2] : null;
+            LogToolsMessage message = LogToolsMessage.of(CALL_SITE, template, parameters.length, p0, p1, p2);
+            try
+            {
+               assertEquals(expected, message.getFormattedMessage());
+               assertNull(message.getThrowable());
+            }
+            finally
+            {
+               message.release();
+            }
+         }
+
+         LogToolsMessage message = LogToolsMessage.of(CALL_SITE, template);
+         try
+         {
+            assertEquals(CALL_SITE.getClickableCoordinatePrefix() + template, message.getFormattedMessage());
+         }
+         finally
+         {
+            message.release();
+         }
+      }
+   }
+
+   @Test
+   public void testTrailingThrowable()
+   {
+      Exception exception = new Exception("Expected");
+
+      LogToolsMessage message = LogToolsMessage.of(CALL_SITE, "No placeholder", 1, exception, null, null);
+      assertSame(exception, message.getThrowable());
+      assertEquals(new ParameterizedMessage("No placeholder", exception).getThrowable(), message.getThrowable());
+      message.release();
+
+      message = LogToolsMessage.of(CALL_SITE, "One placeholder {}", 1, exception, null, null);
+      assertNull(message.getThrowable());
+      message.release();
+
+      message = LogToolsMessage.of(CALL_SITE, "One placeholder {}", 2, "value", exception, null);
+      assertSame(exception, message.getThrowable());
+      message.release();
+   }
+
+   @Test
+   public void testThrowingToStringDoesNotLeakMessage()
+   {
+      Object throwing = new Object()
+      {
+         @Override
+         public String toString()
+         {
+            throw new IllegalStateException("Expected");
+         }
+      };
+      assertThrows(IllegalStateException.class, () -> LogToolsMessage.of(CALL_SITE, throwing, 1, "a", null, null));
+
+      LogToolsMessage first = LogToolsMessage.of(CALL_SITE, "first");
+      first.release();
+      LogToolsMessage second = LogToolsMessage.of(CALL_SITE, "second");
+      second.release();
+      assertSame(first, second); // the thread local message is still reused
+   }
+}
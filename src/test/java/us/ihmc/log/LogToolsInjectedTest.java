@@ -0,0 +1,115 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.junit.jupiter.api.Test;
+import us.ihmc.commons.allocations.AllocationProfiler;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class LogToolsInjectedTest
+{
+   /** The same as the Gradle plugin's list of methods to rewrite. */
+   private static final Set<String> CALLER_DEPENDENT_METHOD_NAMES = Set.of("log", "fatal", "error", "warn", "info", "debug", "trace",
+                                                                          "logLimited", "fatalLimited", "errorLimited", "warnLimited", "infoLimited",
+                                                                          "debugLimited", "traceLimited", "getLevel", "isEnabled", "isFatalEnabled",
+                                                                          "isErrorEnabled", "isWarnEnabled", "isInfoEnabled", "isDebugEnabled",
+                                                                          "isTraceEnabled");
+
+   @Test
+   public void testEveryLogToolsMethodHasAnEntryPoint()
+   {
+      for (Method method : LogTools.class.getMethods())
+      {
+         if (!Modifier.isStatic(method.getModifiers()) || method.getDeclaringClass() != LogTools.class)
+            continue;
+         Class<?>[] parameterTypes = method.getParameterTypes();
+         if (!CALLER_DEPENDENT_METHOD_NAMES.contains(method.getName()) || method.getName().equals("getLevel") && parameterTypes.length > 0)
+            continue;
+         boolean hasStackTraceHeight = parameterTypes.length > 0 && parameterTypes[0] == int.class
+                                       || parameterTypes.length > 1 && parameterTypes[0] == Level.class && parameterTypes[1] == int.class;
+         if (hasStackTraceHeight)
+            continue;
+
+         Class<?>[] injectedParameterTypes = Arrays.copyOf(parameterTypes, parameterTypes.length + 1);
+         injectedParameterTypes[parameterTypes.length] = Object.class;
+         Method injected = assertDoesNotThrow(() -> LogToolsInjected.class.getMethod(method.getName(), injectedParameterTypes), method::toString);
+         assertEquals(method.getReturnType(), injected.getReturnType());
+      }
+   }
+
+   @Test
+   public void testEntryPointsUseTheGivenCallSite() throws Throwable
+   {
+      Object callSite = LogToolsInjected.callSite(MethodHandles.lookup(), "callSite", Object.class, 4242);
+      assertSame(callSite, LogToolsInjected.callSite(MethodHandles.lookup(), "callSite", Object.class, 4242));
+
+      List<String> messages = RecordingAppender.record(() ->
+      {
+         LogToolsInjected.info("Hello {}", "there", callSite);
+         LogToolsInjected.warn("x: {} y: {}", 1.5, true, callSite);
+         LogToolsInjected.log(Level.ERROR, () -> "Supplied", callSite);
+         LogToolsInjected.errorLimited("Limited", callSite);
+         LogToolsInjected.trace("Disabled", callSite);
+      }).getMessages();
+
+      assertEquals(Arrays.asList("(LogToolsInjectedTest.java:4242): Hello there",
+                                 "(LogToolsInjectedTest.java:4242): x: 1.5 y: true",
+                                 "(LogToolsInjectedTest.java:4242): Supplied",
+                                 "(LogToolsInjectedTest.java:4242): Limited"), messages);
+      assertTrue(LogToolsInjected.isInfoEnabled(callSite));
+      assertFalse(LogToolsInjected.isTraceEnabled(callSite));
+   }
+
+   /**
+    * Only meaningful when this class was rewritten by the Gradle plugin, in which case
+    * nothing walks the stack, so not even the caller lookup allocates.
+    */
+   @Test
+   public void testInjectedCallsDoNotWalkTheStack() throws IOException
+   {
+      assumeTrue(isInjected(), "This class was compiled without call site injection");
+
+      Runnable logCalls = () ->
+      {
+         LogTools.info("Injected {}", 1.5);
+         LogTools.trace("Disabled");
+      };
+      logCalls.run();
+
+      AllocationProfiler profiler = new AllocationProfiler();
+      List<AllocationRecord> allocations = profiler.recordAllocations(logCalls);
+      assertTrue(allocations.isEmpty(), allocations::toString);
+   }
+
+   /**
+    * @return if the Gradle plugin rewrote the LogTools calls in this file, checked on a class that has nothing else in it
+    */
+   private static boolean isInjected() throws IOException
+   {
+      try (InputStream classFile = Probe.class.getResourceAsStream("LogToolsInjectedTest$Probe.class"))
+      {
+         String constants = new String(classFile.readAllBytes(), StandardCharsets.ISO_8859_1);
+         return constants.contains("(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;"); // the bootstrap method's descriptor
+      }
+   }
+
+   private static class Probe
+   {
+      static void log()
+      {
+         LogTools.trace("Probe");
+      }
+   }
+}
@@ -0,0 +1,61 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.junit.jupiter.api.Test;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogToolsLoggerTest
+{
+   private static final LogToolsWriteOnly LOG = LogTools.forClass(LogToolsLoggerTest.class);
+
+   @Test
+   public void testMessagesMatchStaticApi()
+   {
+      List<String> messages = RecordingAppender.record(() ->
+      {
+         LogTools.info("Hello {} {}", "there", 5); LOG.info("Hello {} {}", "there", 5);
+         LogTools.warn("x: {}", 1.5); LOG.warn("x: {}", 1.5);
+         LogTools.error(0, "Height"); LOG.error(0, "Height");
+         LogTools.log(Level.INFO, () -> "Supplied"); LOG.log(Level.INFO, () -> "Supplied");
+         LogTools.trace("Disabled"); LOG.trace("Disabled");
+      }).getMessages();
+
+      assertEquals(8, messages.size(), messages::toString);
+      for (int i = 0; i < messages.size(); i += 2)
+      {
+         assertTrue(messages.get(i).startsWith("(LogToolsLoggerTest.java:"), messages.get(i));
+         assertEquals(messages.get(i), messages.get(i + 1)); // both calls are on the same line
+      }
+   }
+
+   @Test
+   public void testNestedClassName()
+   {
+      LogToolsLogger logger = (LogToolsLogger) LogTools.forClass(Nested.class);
+      assertNotNull(logger.getLogger());
+      assertSame(logger.getLogger(), ((LogToolsLogger) LogTools.forName("us.ihmc.log.LogToolsLoggerTest.Nested")).getLogger());
+   }
+
+   @Test
+   public void testDisabledCallsDoNotAllocate()
+   {
+      Runnable logCalls = () ->
+      {
+         LOG.trace("Disabled");
+         LOG.debug("Disabled {}", 1.5);
+         LOG.trace("Disabled {} {}", "x", "y");
+      };
+      logCalls.run();
+
+      List<AllocationRecord> allocations = LogToolsGarbageFreeTest.createProfiler().recordAllocations(logCalls);
+      assertTrue(allocations.isEmpty(), allocations::toString);
+   }
+
+   private static class Nested
+   {
+   }
+}
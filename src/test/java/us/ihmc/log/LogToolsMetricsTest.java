@@ -0,0 +1,131 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.junit.jupiter.api.Test;
+import us.ihmc.commons.allocations.AllocationProfiler;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogToolsMetricsTest
+{
+   private static final CallSite BUSY = new CallSite("us.ihmc.Busy", 10);
+   private static final CallSite QUIET = new CallSite("us.ihmc.Quiet", 20);
+   private static final CallSite SILENT = new CallSite("us.ihmc.Silent", 30);
+
+   @Test
+   public void testCounts()
+   {
+      LogToolsMetrics metrics = new LogToolsMetrics(2);
+      for (int i = 0; i < 10; i++)
+         metrics.recordMessage(Level.INFO, BUSY, 100);
+      metrics.recordMessage(Level.WARN, QUIET, 1000);
+      metrics.recordMessage(Level.WARN, QUIET, 1000);
+      metrics.recordMessage(Level.forName("NOTICE", 350), SILENT, 1000000);
+      metrics.recordFormatted(40);
+      metrics.recordFormatted(2);
+
+      LogToolsMetricsSnapshot snapshot = metrics.snapshot();
+      assertTrue(snapshot.isEnabled());
+      assertEquals(10, snapshot.getMessageCount(Level.INFO));
+      assertEquals(2, snapshot.getMessageCount(Level.WARN));
+      assertEquals(0, snapshot.getMessageCount(Level.ERROR));
+      assertEquals(1, snapshot.getMessageCount(Level.forName("NOTICE", 350)));
+      assertEquals(13, snapshot.getMessageCount());
+      assertEquals(42, snapshot.getFormattedCharacterCount());
+      assertEquals((10 * 100 + 2 * 1000 + 1000000) / 13.0, snapshot.getMeanLatencyNanos(), 1e-9);
+
+      List<LogToolsMetricsSnapshot.CallSiteRate> topCallSites = snapshot.getTopCallSites();
+      assertEquals(2, topCallSites.size());
+      assertEquals("us.ihmc.Busy", topCallSites.get(0).getClassName());
+      assertEquals(10, topCallSites.get(0).getLineNumber());
+      assertEquals(10, topCallSites.get(0).getCount());
+      assertTrue(topCallSites.get(0).getRatePerSecond() > 0.0);
+      assertEquals("us.ihmc.Quiet", topCallSites.get(1).getClassName());
+   }
+
+   @Test
+   public void testTopCallSitesAreRecent()
+   {
+      LogToolsMetrics metrics = new LogToolsMetrics(2);
+      long start = System.nanoTime();
+      for (int i = 0; i < 100; i++)
+         metrics.recordMessage(Level.INFO, BUSY, 100);
+      assertEquals("us.ihmc.Busy", metrics.snapshot(start + 10_000_000_000L).getTopCallSites().get(0).getClassName());
+
+      for (int i = 0; i < 20; i++) // Busy goes quiet for ten minutes while this logs a little
+         metrics.recordMessage(Level.INFO, QUIET, 100);
+      List<LogToolsMetricsSnapshot.CallSiteRate> topCallSites = metrics.snapshot(start + 600_000_000_000L).getTopCallSites();
+      assertEquals("us.ihmc.Quiet", topCallSites.get(0).getClassName());
+      assertEquals("us.ihmc.Busy", topCallSites.get(1).getClassName());
+      assertEquals(100, topCallSites.get(1).getCount());
+      assertTrue(topCallSites.get(1).getRatePerSecond() < topCallSites.get(0).getRatePerSecond());
+   }
+
+   @Test
+   public void testCallSitesTheCacheDidNotKeepShareACount()
+   {
+      LogToolsMetrics metrics = new LogToolsMetrics(2);
+      for (int i = 0; i < 10; i++)
+         metrics.recordMessage(Level.INFO, new CallSite("us.ihmc.Busy", 10), 100); // a new one each time, as past the cache bound
+      metrics.recordMessage(Level.INFO, QUIET, 100);
+
+      List<LogToolsMetricsSnapshot.CallSiteRate> topCallSites = metrics.snapshot().getTopCallSites();
+      assertEquals(2, topCallSites.size());
+      assertEquals("us.ihmc.Busy", topCallSites.get(0).getClassName());
+      assertEquals(10, topCallSites.get(0).getCount());
+      assertEquals("us.ihmc.Quiet", topCallSites.get(1).getClassName());
+   }
+
+   @Test
+   public void testLatencyHistogram()
+   {
+      assertEquals(0, LogToolsMetrics.bucketIndex(0));
+      assertEquals(0, LogToolsMetrics.bucketIndex(128));
+      assertEquals(1, LogToolsMetrics.bucketIndex(129));
+      assertEquals(1, LogToolsMetrics.bucketIndex(256));
+      assertEquals(LogToolsMetrics.LATENCY_BUCKETS - 1, LogToolsMetrics.bucketIndex(Long.MAX_VALUE));
+      for (int i = 0; i < LogToolsMetrics.LATENCY_BUCKETS; i++)
+      {
+         assertEquals(i, LogToolsMetrics.bucketIndex(LogToolsMetrics.bucketUpperBound(i)));
+      }
+
+      LogToolsMetrics metrics = new LogToolsMetrics(10);
+      assertEquals(0, metrics.snapshot().getLatencyPercentileNanos(50.0));
+      for (int i = 0; i < 98; i++)
+         metrics.recordMessage(Level.INFO, BUSY, 100);
+      metrics.recordMessage(Level.INFO, BUSY, 200);
+      metrics.recordMessage(Level.INFO, BUSY, 5000);
+
+      LogToolsMetricsSnapshot snapshot = metrics.snapshot();
+      assertEquals(128, snapshot.getLatencyPercentileNanos(50.0));
+      assertEquals(256, snapshot.getLatencyPercentileNanos(99.0));
+      assertEquals(8192, snapshot.getLatencyPercentileNanos(100.0));
+      assertEquals(98, snapshot.getLatencyCounts()[0]);
+   }
+
+   @Test
+   public void testRecordingDoesNotAllocate()
+   {
+      LogToolsMetrics metrics = new LogToolsMetrics(10);
+      Runnable record = () ->
+      {
+         metrics.recordMessage(Level.INFO, BUSY, 150);
+         metrics.recordFormatted(20);
+      };
+      record.run(); // the call site's counter
+
+      List<AllocationRecord> allocations = new AllocationProfiler().recordAllocations(record);
+      assertTrue(allocations.isEmpty(), allocations::toString);
+   }
+
+   @Test
+   public void testOffByDefault()
+   {
+      assertFalse(LogToolsMetrics.ENABLED);
+      assertFalse(LogTools.metricsSnapshot().isEnabled());
+      assertEquals(0, LogTools.metricsSnapshot().getMessageCount());
+   }
+}
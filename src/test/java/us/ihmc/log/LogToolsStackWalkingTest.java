@@ -0,0 +1,126 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the line printed by the default, stack walking LogTools, which the tests would otherwise
+ * never see, because the build rewrites their calls with the call site injection.
+ *
+ * Every enabled logging method of LogTools and LogToolsWriteOnly is called through a method handle,
+ * which the injection leaves alone and the stack walk skips, so the line printed must be the one
+ * the method handle is invoked from.
+ */
+public class LogToolsStackWalkingTest
+{
+   private static final Set<String> ENABLED_METHOD_NAMES = Set.of("fatal", "error", "warn", "info", "log");
+   private static final Set<String> LIMITED_METHOD_NAMES = Set.of("fatalLimited", "errorLimited", "warnLimited", "infoLimited", "logLimited");
+
+   private static final Map<Class<?>, Object> PARAMETERS = Map.of(Object.class, "object",
+                                                                  String.class, "string",
+                                                                  Supplier.class, (Supplier<String>) () -> "supplied",
+                                                                  boolean.class, true,
+                                                                  int.class, 42,
+                                                                  long.class, 42L,
+                                                                  float.class, 1.5f,
+                                                                  double.class, 1.5,
+                                                                  char.class, 'x',
+                                                                  Level.class, Level.INFO);
+
+   @Test
+   public void testEveryOverloadPrintsTheLineItWasCalledFrom() throws Throwable
+   {
+      List<String> failures = new ArrayList<>();
+      int checkedMethods = 0;
+      int checkedLimitedMethods = 0;
+      for (Method method : LogTools.class.getMethods())
+      {
+         if (Modifier.isStatic(method.getModifiers()) && method.getDeclaringClass() == LogTools.class && isChecked(method))
+         {
+            checkedMethods++;
+            checkedLimitedMethods += check(method, MethodHandles.publicLookup().unreflect(method), failures);
+         }
+      }
+      LogToolsWriteOnly logger = LogTools.forClass(LogToolsStackWalkingTest.class);
+      for (Method method : LogToolsWriteOnly.class.getMethods())
+      {
+         if (isChecked(method))
+         {
+            checkedMethods++;
+            checkedLimitedMethods += check(method, MethodHandles.publicLookup().unreflect(method).bindTo(logger), failures);
+         }
+      }
+
+      assertTrue(checkedMethods > 100, "Only found " + checkedMethods + " methods");
+      assertTrue(checkedLimitedMethods > 0, "No rate limited call was printed");
+      assertTrue(failures.isEmpty(), () -> failures.size() + " calls print the wrong line:\n" + String.join("\n", failures));
+   }
+
+   private static boolean isChecked(Method method)
+   {
+      return ENABLED_METHOD_NAMES.contains(method.getName()) || LIMITED_METHOD_NAMES.contains(method.getName());
+   }
+
+   /**
+    * @return 1 if the method is rate limited and printed, as the limit is shared by every call from {@link #invoke}
+    */
+   private static int check(Method method, MethodHandle methodHandle, List<String> failures) throws Throwable
+   {
+      Class<?>[] parameterTypes = method.getParameterTypes();
+      Object[] arguments = new Object[parameterTypes.length];
+      for (int i = 0; i < parameterTypes.length; i++)
+      {
+         if (parameterTypes[i] == int.class && (i == 0 || i == 1 && parameterTypes[0] == Level.class)) // additionalStackTraceHeight
+            arguments[i] = 0;
+         else
+            arguments[i] = PARAMETERS.get(parameterTypes[i]);
+         assertNotNull(arguments[i], "No parameter for " + parameterTypes[i] + " in " + method);
+      }
+
+      int[] line = new int[1];
+      List<String> messages = RecordingAppender.record(() -> line[0] = invoke(method, methodHandle, arguments)).getMessages();
+
+      boolean limited = LIMITED_METHOD_NAMES.contains(method.getName());
+      if (messages.size() != 1 && !(limited && messages.isEmpty()))
+         failures.add(method.toGenericString() + ": " + messages);
+      else if (!messages.isEmpty() && !messages.get(0).startsWith("(LogToolsStackWalkingTest.java:" + line[0] + "): "))
+         failures.add(method.toGenericString() + ": " + messages.get(0) + ", expected line " + line[0]);
+
+      if (limited) // report the repeats the limit suppressed now, not in a later test
+         RecordingAppender.record(() -> SuppressedCountReporter.report(System.nanoTime(), true));
+      return limited ? messages.size() : 0;
+   }
+
+   /**
+    * @return the line the method was called from
+    */
+   private static int invoke(Method method, MethodHandle methodHandle, Object[] arguments)
+   {
+      MethodHandle spreader = methodHandle.asSpreader(Object[].class, arguments.length).asType(MethodType.methodType(Object.class, Object[].class));
+      try
+      {
+         int line = StackWalker.getInstance().walk(frames -> frames.findFirst().get().getLineNumber()) + 1; // the next one
+         Object result = (Object) spreader.invokeExact(arguments);
+         if (result instanceof LogToolsEvent) // the structured message keeps the line of the call that created it
+            ((LogToolsEvent) result).kv("key", 42).log("Event");
+         return line;
+      }
+      catch (Throwable e)
+      {
+         throw new AssertionError(method.toGenericString(), e);
+      }
+   }
+}
@@ -0,0 +1,151 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedFileAppenderTest
+{
+   @TempDir
+   Path temporaryDirectory;
+
+   @Test
+   public void testRollsOverBetweenEvents() throws IOException
+   {
+      String fileName = temporaryDirectory.resolve("Rolling.txt").toString();
+      MappedFileAppender appender = createAppender(fileName, "1 KB");
+      for (int i = 0; i < 300; i++)
+      {
+         appender.append(event("Line " + i));
+      }
+      appender.stop();
+
+      List<String> lines = new ArrayList<>();
+      for (int segmentIndex = 0; Files.exists(MappedFileManager.segmentPath(fileName, segmentIndex)); segmentIndex++)
+      {
+         byte[] segment = Files.readAllBytes(MappedFileManager.segmentPath(fileName, segmentIndex));
+         assertTrue(segment.length <= 1024);
+         assertEquals('\n', segment[segment.length - 1]); // no event is split between segments
+         lines.addAll(Files.readAllLines(MappedFileManager.segmentPath(fileName, segmentIndex)));
+      }
+      assertTrue(Files.exists(temporaryDirectory.resolve("Rolling.2.txt")));
+      assertEquals(300, lines.size());
+      for (int i = 0; i < lines.size(); i++)
+      {
+         assertEquals("Line " + i, lines.get(i));
+      }
+   }
+
+   @Test
+   public void testSurvivesCrash() throws IOException, InterruptedException
+   {
+      String fileName = temporaryDirectory.resolve("Crash.txt").toString();
+      String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+      String classPath = String.join(File.pathSeparator, location(Crash.class), location(MappedFileAppender.class), location(LogEvent.class), location(Level.class));
+      Process process = new ProcessBuilder(java, "-cp", classPath, Crash.class.getName(), fileName).inheritIO().start();
+      assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+      assertEquals(Crash.EXIT_CODE, process.exitValue());
+
+      Path path = Path.of(fileName);
+      assertEquals(64 * 1024, Files.size(path)); // mapped at full size, the rest is zeros
+
+      MappedFileRecovery.main(new String[] {fileName});
+      List<String> lines = Files.readAllLines(path);
+      assertEquals(Crash.LINES, lines.size());
+      assertEquals("Line " + (Crash.LINES - 1), lines.get(lines.size() - 1));
+
+      // a new run continues after the last complete event
+      MappedFileAppender appender = createAppender(fileName, "64 KB");
+      appender.append(event("After"));
+      appender.stop();
+      lines = Files.readAllLines(path);
+      assertEquals(Crash.LINES + 1, lines.size());
+      assertEquals("After", lines.get(lines.size() - 1));
+   }
+
+   @Test
+   public void testFindValidLength() throws IOException
+   {
+      assertEquals(0, validLength(""));
+      assertEquals(0, validLength("Incomplete"));
+      assertEquals(6, validLength("Line1\n"));
+      assertEquals(6, validLength("Line1\nLine2"));
+      assertEquals(6, validLength("Line1\nLi\0\0\0"));
+      assertEquals(12, validLength("Line1\nLine2\n\0\0"));
+      assertEquals(23, validLength("Line1\nFailed\n\tat First\n\tat Sec\0\0")); // whole lines, not whole events
+   }
+
+   private long validLength(String content) throws IOException
+   {
+      Path path = Files.createTempFile(temporaryDirectory, "valid", ".txt");
+      Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+      try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(path))
+      {
+         return MappedFileRecovery.findValidLength(channel);
+      }
+   }
+
+   private static String location(Class<?> clazz)
+   {
+      try
+      {
+         return Path.of(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+      }
+      catch (URISyntaxException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
+   static MappedFileAppender createAppender(String fileName, String segmentSize)
+   {
+      MappedFileAppender appender = MappedFileAppender.newBuilder()
+                                                      .setName("Mapped")
+                                                      .setFileName(fileName)
+                                                      .setSegmentSize(segmentSize)
+                                                      .setLayout(PatternLayout.newBuilder().withPattern("%msg%n").build())
+                                                      .build();
+      appender.start();
+      return appender;
+   }
+
+   static LogEvent event(String message)
+   {
+      return Log4jLogEvent.newBuilder().setLevel(Level.INFO).setLoggerName("us.ihmc").setMessage(new SimpleMessage(message)).build();
+   }
+
+   /**
+    * Logs some lines, then dies without running shutdown hooks or closing anything.
+    */
+   public static class Crash
+   {
+      static final int LINES = 50;
+      static final int EXIT_CODE = 42;
+
+      public static void main(String[] args)
+      {
+         MappedFileAppender appender = createAppender(args[0], "64 KB");
+         for (int i = 0; i < LINES; i++)
+         {
+            appender.append(event("Line " + i));
+         }
+         Runtime.getRuntime().halt(EXIT_CODE);
+      }
+   }
+}
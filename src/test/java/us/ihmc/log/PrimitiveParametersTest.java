@@ -0,0 +1,121 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.junit.jupiter.api.Test;
+import us.ihmc.commons.allocations.AllocationProfiler;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static us.ihmc.log.PrimitiveParameters.*;
+
+public class PrimitiveParametersTest
+{
+   private static final CallSite CALL_SITE = new CallSite("us.ihmc.log.PrimitiveParametersTest", 42);
+
+   @Test
+   public void testFormattingMatchesParameterizedMessage()
+   {
+      String[] templates = {"", "no parameters", "one {}", "{} {} {}", "{}{}{}{}", "tail {", "{", "}", "{}}{", "\\{}", "\\\\{}",
+                            "a \\\\\\{} b {}", "ends with escape \\", "\\\\", "too few {}", null};
+      for (String template : templates)
+      {
+         assertFormat(template, types(INT), bits(-7), 0L, 0L, -7);
+         assertFormat(template, types(LONG), bits(Long.MIN_VALUE), 0L, 0L, Long.MIN_VALUE);
+         assertFormat(template, types(FLOAT), bits(1.1f), 0L, 0L, 1.1f);
+         assertFormat(template, types(DOUBLE), bits(Math.PI), 0L, 0L, Math.PI);
+         assertFormat(template, types(BOOLEAN), bits(true), 0L, 0L, true);
+         assertFormat(template, types(CHAR), bits('x'), 0L, 0L, 'x');
+         assertFormat(template, types(DOUBLE, BOOLEAN), bits(Double.NaN), bits(false), 0L, Double.NaN, false);
+         assertFormat(template, types(INT, FLOAT, LONG), bits(9), bits(-0.0f), bits(3L), 9, -0.0f, 3L);
+      }
+   }
+
+   private static void assertFormat(String template, int types, long p0, long p1, long p2, Object... boxed)
+   {
+      String prefix = CALL_SITE.getClickableCoordinatePrefix();
+      String expected = new ParameterizedMessage(prefix + template, boxed).getFormattedMessage();
+      LogToolsMessage message = LogToolsMessage.of(CALL_SITE, template, types, p0, p1, p2);
+      try
+      {
+         assertEquals(expected, message.getFormattedMessage());
+      }
+      finally
+      {
+         message.release();
+      }
+   }
+
+   @Test
+   public void testSerializedAsFormattedText() throws IOException, ClassNotFoundException
+   {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      LogToolsMessage message = LogToolsMessage.of(CALL_SITE, "x: {}", types(DOUBLE), bits(1.5), 0L, 0L);
+      try (ObjectOutputStream output = new ObjectOutputStream(bytes))
+      {
+         output.writeObject(message);
+      }
+      finally
+      {
+         message.release();
+      }
+
+      try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+      {
+         Message deserialized = (Message) input.readObject();
+         assertEquals(CALL_SITE.getClickableCoordinatePrefix() + "x: 1.5", deserialized.getFormattedMessage());
+      }
+   }
+
+   @Test
+   public void testEnabledCallDoesNotAllocate()
+   {
+      AllocationProfiler profiler = new AllocationProfiler();
+      // StackWalker always allocates to find the caller, the parameters must not add to it
+      profiler.excludeAllocationsInsideClass(CallerResolver.class.getName());
+      profiler.excludeAllocationsInsideClass("java.lang.StackFrameInfo");
+
+      Runnable logCalls = () ->
+      {
+         LogTools.info("int {}", 1);
+         LogTools.info("long {}", 2L);
+         LogTools.info("float {}", 3.0f);
+         LogTools.warn("double {}", 4.0);
+         LogTools.warn("boolean {}", true);
+         LogTools.error("char {}", 'x');
+      };
+      for (int i = 0; i < 10; i++) // warm up class loading and thread locals
+         logCalls.run();
+
+      List<AllocationRecord> allocations = profiler.recordAllocations(logCalls);
+      assertTrue(allocations.isEmpty(), allocations::toString);
+   }
+
+   @Test
+   public void testOverloadsResolveLikeObjects()
+   {
+      LogToolsWriteOnly logger = LogTools.forClass(PrimitiveParametersTest.class);
+      List<String> messages = RecordingAppender.record(() ->
+      {
+         LogTools.info("char={}", 'x');
+         logger.info("char={}", 'x');
+         LogTools.info("{} {}", 1, Integer.valueOf(2)); // primitive and boxed, which must compile
+         logger.info("{} {} {}", 1.5, Double.valueOf(2.5), 'y');
+         LogTools.info("{}", Integer.valueOf(3));
+      }).getMessages();
+
+      assertEquals(5, messages.size(), messages::toString);
+      assertTrue(messages.get(0).endsWith("char=x"), messages.get(0));
+      assertTrue(messages.get(1).endsWith("char=x"), messages.get(1));
+      assertTrue(messages.get(2).endsWith("1 2"), messages.get(2));
+      assertTrue(messages.get(3).endsWith("1.5 2.5 y"), messages.get(3));
+      assertTrue(messages.get(4).endsWith("3"), messages.get(4));
+   }
+}
@@ -0,0 +1,118 @@
+package us.ihmc.log;
+
+import org.junit.jupiter.api.Test;
+import us.ihmc.commons.allocations.AllocationRecord;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest
+{
+   private static final long SECOND = 1000000000L;
+
+   @Test
+   public void testBurstThenOnePerInterval()
+   {
+      long now = 123456789L;
+      RateLimiter rateLimiter = new RateLimiter(3, SECOND, 10 * SECOND, now);
+      for (int i = 0; i < 3; i++)
+         assertTrue(rateLimiter.tryAcquire(now));
+      assertFalse(rateLimiter.tryAcquire(now));
+      assertFalse(rateLimiter.tryAcquire(now + SECOND / 2));
+
+      now += SECOND;
+      assertTrue(rateLimiter.tryAcquire(now));
+      assertFalse(rateLimiter.tryAcquire(now));
+      assertEquals(3, rateLimiter.getSuppressedCount());
+
+      now += 100 * SECOND; // the bucket refills up to the burst
+      for (int i = 0; i < 3; i++)
+         assertTrue(rateLimiter.tryAcquire(now));
+      assertFalse(rateLimiter.tryAcquire(now));
+   }
+
+   @Test
+   public void testFirstNOnly()
+   {
+      long now = -5L; // nanoTime can be negative
+      RateLimiter rateLimiter = new RateLimiter(2, 0, SECOND, now);
+      assertTrue(rateLimiter.tryAcquire(now));
+      assertTrue(rateLimiter.tryAcquire(now));
+      for (int i = 0; i < 10; i++)
+         assertFalse(rateLimiter.tryAcquire(now + i * 1000 * SECOND));
+      assertEquals(10, rateLimiter.getSuppressedCount());
+   }
+
+   @Test
+   public void testSuppressedCountIsReportedPeriodically()
+   {
+      long now = 0;
+      RateLimiter rateLimiter = new RateLimiter(1, SECOND, 10 * SECOND, now);
+      assertTrue(rateLimiter.tryAcquire(now));
+      assertEquals(0, rateLimiter.pollSuppressedCount(now));
+
+      for (int i = 0; i < 5; i++)
+         assertFalse(rateLimiter.tryAcquire(now));
+      assertEquals(0, rateLimiter.pollSuppressedCount(now + 9 * SECOND)); // not time yet
+      assertEquals(5, rateLimiter.pollSuppressedCount(now + 10 * SECOND));
+      assertEquals(0, rateLimiter.pollSuppressedCount(now + 30 * SECOND)); // nothing new to report
+   }
+
+   @Test
+   public void testLimitedCallSite()
+   {
+      List<String> messages = RecordingAppender.record(() ->
+      {
+         for (int i = 0; i < 20; i++)
+            LogTools.warnLimited("Flood {}", i);
+         LogTools.warnLimited("Another call site");
+      }).getMessages();
+
+      assertEquals(RateLimiter.BURST + 1, messages.size(), messages::toString);
+      for (int i = 0; i < RateLimiter.BURST; i++)
+         assertTrue(messages.get(i).endsWith("Flood " + i), messages.get(i));
+      assertTrue(messages.get(RateLimiter.BURST).endsWith("Another call site"));
+   }
+
+   @Test
+   public void testCallSitesTheCacheDidNotKeepShareALimit()
+   {
+      RateLimiter rateLimiter = new CallSite("us.ihmc.Robot", 42).getRateLimiter();
+      assertSame(rateLimiter, new CallSite("us.ihmc.Robot", 42).getRateLimiter());
+      assertNotSame(rateLimiter, new CallSite("us.ihmc.Robot", 43).getRateLimiter());
+   }
+
+   @Test
+   public void testSuppressedCountIsReportedAfterTheFloodEnds()
+   {
+      List<String> messages = RecordingAppender.record(() ->
+      {
+         for (int i = 0; i < 30; i++)
+            LogTools.infoLimited("Ending flood {}", i);
+         SuppressedCountReporter.report(System.nanoTime() + RateLimiter.REPORT_INTERVAL_NANOS, false); // no later call reports it
+      }).getMessages();
+
+      assertEquals(RateLimiter.BURST, messages.stream().filter(message -> message.contains("Ending flood")).count(), messages::toString);
+      assertTrue(messages.stream().anyMatch(message -> message.endsWith("Suppressed " + (30 - RateLimiter.BURST) + " repeats")), messages::toString);
+   }
+
+   @Test
+   public void testLimitedCallsDoNotAllocate()
+   {
+      double torque = 3.2;
+      long tick = 123456789012L;
+      Runnable logCalls = () ->
+      {
+         for (int i = 0; i < 10; i++) // enabled, then suppressed
+         {
+            LogTools.errorLimited("Limited {}", torque);
+            LogTools.warnLimited("Limited {}", tick);
+         }
+      };
+      logCalls.run();
+
+      List<AllocationRecord> allocations = LogToolsGarbageFreeTest.createProfiler().recordAllocations(logCalls);
+      assertTrue(allocations.isEmpty(), allocations::toString);
+   }
+}
@@ -0,0 +1,65 @@
+package us.ihmc.log;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.LoggerConfig;
+import org.apache.logging.log4j.core.config.Property;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the formatted messages logged to the IHMC root logger while it is attached.
+ */
+class RecordingAppender extends AbstractAppender
+{
+   private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+   private final List<Long> timestamps = Collections.synchronizedList(new ArrayList<>());
+
+   RecordingAppender()
+   {
+      super("RecordingAppender", null, null, true, Property.EMPTY_ARRAY);
+   }
+
+   @Override
+   public void append(LogEvent event)
+   {
+      messages.add(event.getMessage().getFormattedMessage());
+      timestamps.add(event.getTimeMillis());
+   }
+
+   List<String> getMessages()
+   {
+      return messages;
+   }
+
+   List<Long> getTimestamps()
+   {
+      return timestamps;
+   }
+
+   /**
+    * Runs the log calls with a recording appender attached.
+    */
+   static RecordingAppender record(Runnable logCalls)
+   {
+      RecordingAppender appender = new RecordingAppender();
+      appender.start();
+
+      LoggerConfig loggerConfig = ((LoggerContext) LogManager.getContext(false)).getConfiguration().getLoggerConfig("us.ihmc");
+      loggerConfig.addAppender(appender, null, null);
+      try
+      {
+         logCalls.run();
+      }
+      finally
+      {
+         loggerConfig.removeAppender(appender.getName());
+         appender.stop();
+      }
+      return appender;
+   }
+}